@@ -0,0 +1,75 @@
+package com.ucapital24.advertisement.benchmark;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.ucapital24.advertisement.dao.AdvertisementDocument;
+import com.ucapital24.advertisement.model.Advertisement;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.PageRequest;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Cost of the JSON encoding and decoding done by the controllers, with an ObjectMapper configured like Spring Boot's.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class AdvertisementJsonBenchmark {
+
+    @Param({"10", "100"})
+    public int pageSize;
+
+    private ObjectWriter advertisementWriter;
+    private ObjectReader advertisementReader;
+    private ObjectWriter pageWriter;
+    private Advertisement advertisement;
+    private byte[] advertisementJson;
+    private Page<Advertisement> page;
+
+    @Setup
+    public void setUp() throws Exception {
+        ObjectMapper objectMapper = BenchmarkFixtures.objectMapper();
+        advertisementWriter = objectMapper.writerFor(Advertisement.class);
+        advertisementReader = objectMapper.readerFor(Advertisement.class);
+        pageWriter = objectMapper.writer();
+        advertisement = BenchmarkFixtures.advertisement(1);
+        advertisementJson = advertisementWriter.writeValueAsBytes(advertisement);
+        List<Advertisement> content = BenchmarkFixtures.documents(pageSize).stream()
+                .map(AdvertisementDocument::toAdvertisement)
+                .toList();
+        page = new PageImpl<>(content, PageRequest.of(0, pageSize), 10_000);
+    }
+
+    @Benchmark
+    public byte[] encodeAdvertisement() throws Exception {
+        return advertisementWriter.writeValueAsBytes(advertisement);
+    }
+
+    @Benchmark
+    public Advertisement decodeAdvertisement() throws Exception {
+        return advertisementReader.readValue(advertisementJson);
+    }
+
+    @Benchmark
+    public byte[] encodePage() throws Exception {
+        return pageWriter.writeValueAsBytes(page);
+    }
+}
@@ -0,0 +1,78 @@
+package com.ucapital24.advertisement.benchmark;
+
+import com.ucapital24.advertisement.catalog.OffHeapAdvertisementCatalog;
+import com.ucapital24.advertisement.dao.AdvertisementDocument;
+import com.ucapital24.advertisement.model.Advertisement;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Cost of building an {@link Advertisement}, of mapping between {@link AdvertisementDocument} and
+ * {@link Advertisement}, and of reading one back from an {@link OffHeapAdvertisementCatalog}.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class AdvertisementMappingBenchmark {
+
+    private AdvertisementDocument document;
+    private Advertisement advertisement;
+    private OffHeapAdvertisementCatalog catalog;
+
+    @Setup
+    public void setUp() {
+        document = BenchmarkFixtures.document(1);
+        advertisement = document.toAdvertisement();
+        catalog = new OffHeapAdvertisementCatalog(1 << 20);
+        catalog.put(document);
+    }
+
+    @Benchmark
+    public Advertisement constructAdvertisement() {
+        return new Advertisement(
+                advertisement.id(),
+                advertisement.title(),
+                advertisement.content(),
+                advertisement.mediaUrl(),
+                advertisement.mediaType(),
+                advertisement.startDate(),
+                advertisement.endDate()
+        );
+    }
+
+    @Benchmark
+    public Advertisement documentToAdvertisement() {
+        return document.toAdvertisement();
+    }
+
+    @Benchmark
+    public AdvertisementDocument advertisementToDocument() {
+        return new AdvertisementDocument(
+                advertisement.id(),
+                advertisement.title(),
+                advertisement.content(),
+                advertisement.mediaUrl(),
+                advertisement.mediaType(),
+                advertisement.startDate(),
+                advertisement.endDate()
+        );
+    }
+
+    @Benchmark
+    public Advertisement offHeapToAdvertisement() {
+        return catalog.get(advertisement.id()).toAdvertisement();
+    }
+}
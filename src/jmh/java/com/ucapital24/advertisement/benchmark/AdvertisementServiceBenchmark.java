@@ -0,0 +1,118 @@
+package com.ucapital24.advertisement.benchmark;
+
+import com.ucapital24.advertisement.cache.AdvertisementCache;
+import com.ucapital24.advertisement.cache.HotPageCache;
+import com.ucapital24.advertisement.cache.SingleFlight;
+import com.ucapital24.advertisement.dao.AdvertisementDocument;
+import com.ucapital24.advertisement.index.ActiveAdvertisementIndex;
+import com.ucapital24.advertisement.lifecycle.AdvertisementLifecycleScheduler;
+import com.ucapital24.advertisement.model.Advertisement;
+import com.ucapital24.advertisement.model.AdvertisementMediaType;
+import com.ucapital24.advertisement.selection.AdvertisementSelector;
+import com.ucapital24.advertisement.service.AdvertisementService;
+import com.ucapital24.advertisement.service.AdvertisementValidator;
+import com.ucapital24.advertisement.store.AdvertisementStore;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Cost of the {@link AdvertisementService} hot paths on top of an in-memory store, i.e. everything but the persistence.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class AdvertisementServiceBenchmark {
+
+    private static final int CATALOG_SIZE = 10_000;
+
+    private AdvertisementService advertisementService;
+    private AdvertisementService uncachedAdvertisementService;
+    private List<String> ids;
+    private Advertisement advertisement;
+    private Pageable firstPage;
+
+    @Setup
+    public void setUp() {
+        List<AdvertisementDocument> documents = BenchmarkFixtures.documents(CATALOG_SIZE);
+        ids = documents.stream().map(AdvertisementDocument::getId).toList();
+        advertisement = BenchmarkFixtures.advertisement(CATALOG_SIZE + 1);
+        firstPage = PageRequest.of(0, 10);
+        advertisementService = service(documents, new AdvertisementCache(CATALOG_SIZE, Duration.ofHours(1), Duration.ofHours(1)));
+        uncachedAdvertisementService = service(documents, new AdvertisementCache(0, Duration.ZERO, Duration.ZERO));
+    }
+
+    private static AdvertisementService service(List<AdvertisementDocument> documents, AdvertisementCache cache) {
+        AdvertisementService service = new AdvertisementService();
+        AdvertisementStore store = InMemoryAdvertisementStore.create(documents);
+        ActiveAdvertisementIndex index = new ActiveAdvertisementIndex();
+        AdvertisementSelector selector = new AdvertisementSelector(Clock.systemUTC());
+        ReflectionTestUtils.setField(service, "advertisementStore", store);
+        ReflectionTestUtils.setField(service, "activeAdvertisementIndex", index);
+        ReflectionTestUtils.setField(service, "advertisementLifecycleScheduler", new AdvertisementLifecycleScheduler(store,
+                List.of(index, selector), cache, event -> { }, Clock.systemUTC(), false, Duration.ZERO, 1, new SimpleMeterRegistry()));
+        ReflectionTestUtils.setField(service, "advertisementSelector", selector);
+        ReflectionTestUtils.setField(service, "advertisementCache", cache);
+        ReflectionTestUtils.setField(service, "hotPageCache", new HotPageCache(false, 0, 0, Duration.ZERO, 0));
+        ReflectionTestUtils.setField(service, "advertisementPageQueries", new SingleFlight<>("advertisement.page"));
+        ReflectionTestUtils.setField(service, "objectMapper", BenchmarkFixtures.objectMapper());
+        ReflectionTestUtils.setField(service, "advertisementValidator", new AdvertisementValidator(Clock.systemUTC()));
+        service.loadActiveAdvertisementIndex();
+        return service;
+    }
+
+    @Benchmark
+    public Advertisement getAdvertisementCached() {
+        return advertisementService.getAdvertisement(randomId());
+    }
+
+    @Benchmark
+    public Advertisement getAdvertisementUncached() {
+        return uncachedAdvertisementService.getAdvertisement(randomId());
+    }
+
+    @Benchmark
+    public Page<Advertisement> getAdvertisementsFirstPage() {
+        return advertisementService.getAdvertisements(firstPage);
+    }
+
+    @Benchmark
+    public List<Advertisement> getActiveAdvertisementsNow() {
+        return advertisementService.getActiveAdvertisements(BenchmarkFixtures.START_DATE.plusSeconds(1));
+    }
+
+    @Benchmark
+    public Advertisement selectAdvertisement() {
+        return advertisementService.selectAdvertisement(AdvertisementMediaType.IMAGE);
+    }
+
+    @Benchmark
+    public Advertisement updateAdvertisement() {
+        return advertisementService.updateAdvertisement(randomId(), advertisement);
+    }
+
+    private String randomId() {
+        return ids.get(ThreadLocalRandom.current().nextInt(ids.size()));
+    }
+}
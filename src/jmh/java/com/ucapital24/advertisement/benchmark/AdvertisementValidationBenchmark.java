@@ -0,0 +1,78 @@
+package com.ucapital24.advertisement.benchmark;
+
+import com.ucapital24.advertisement.Exception.ValidationException;
+import com.ucapital24.advertisement.model.Advertisement;
+import com.ucapital24.advertisement.service.AdvertisementValidator;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import java.net.MalformedURLException;
+import java.net.URL;
+import java.time.Clock;
+import java.time.Instant;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Per-record validation cost: the {@link AdvertisementValidator} against the validation the {@link Advertisement}
+ * compact constructor used to run on every construction (java.net.URL parsing and Instant.now()), kept here as the
+ * baseline.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Thread)
+public class AdvertisementValidationBenchmark {
+
+    private AdvertisementValidator validator;
+    private Advertisement advertisement;
+
+    @Setup
+    public void setUp() {
+        validator = new AdvertisementValidator(Clock.systemUTC());
+        advertisement = BenchmarkFixtures.advertisement(1);
+    }
+
+    @Benchmark
+    public void validator(Blackhole blackhole) {
+        validator.validate(advertisement);
+        blackhole.consume(advertisement);
+    }
+
+    @Benchmark
+    @SuppressWarnings("deprecation")
+    public void legacyConstructorValidation(Blackhole blackhole) {
+        if (advertisement.startDate().isAfter(advertisement.endDate())) {
+            throw new ValidationException("start_date should be before end_date");
+        }
+        if (advertisement.endDate().isBefore(Instant.now())) {
+            throw new ValidationException("end_date cannot be in the past");
+        }
+        if (advertisement.title().isEmpty() || advertisement.title().length() < 2) {
+            throw new ValidationException("Title length too short");
+        }
+        if (advertisement.content().isEmpty() || advertisement.content().length() < 2) {
+            throw new ValidationException("Content length too short");
+        }
+        try {
+            URL url = new URL(advertisement.mediaUrl());
+            String protocol = url.getProtocol();
+            if (!(protocol.equals("http") || protocol.equals("https"))) {
+                throw new ValidationException("URL must use http or https");
+            }
+            blackhole.consume(url);
+        } catch (MalformedURLException e) {
+            throw new ValidationException(String.format("URL is not valid: %s", e.getMessage()));
+        }
+    }
+}
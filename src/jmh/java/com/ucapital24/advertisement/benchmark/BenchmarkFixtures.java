@@ -0,0 +1,56 @@
+package com.ucapital24.advertisement.benchmark;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.ucapital24.advertisement.dao.AdvertisementDocument;
+import com.ucapital24.advertisement.model.Advertisement;
+import com.ucapital24.advertisement.model.AdvertisementMediaType;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Sample data shared by the benchmarks.
+ */
+final class BenchmarkFixtures {
+
+    static final Instant START_DATE = Instant.now().truncatedTo(ChronoUnit.MILLIS);
+    static final Instant END_DATE = START_DATE.plus(3650, ChronoUnit.DAYS);
+
+    private BenchmarkFixtures() {
+    }
+
+    static AdvertisementDocument document(int i) {
+        return new AdvertisementDocument(
+                UUID.nameUUIDFromBytes(Integer.toString(i).getBytes()).toString(),
+                "Advertisement title " + i,
+                "Come and visit our site for the offer number " + i + ", valid while stocks last.",
+                "https://cdn.example.com/creatives/" + i + "/banner.jpg",
+                i % 2 == 0 ? AdvertisementMediaType.IMAGE : AdvertisementMediaType.VIDEO,
+                START_DATE,
+                END_DATE
+        );
+    }
+
+    static List<AdvertisementDocument> documents(int count) {
+        List<AdvertisementDocument> documents = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            documents.add(document(i));
+        }
+        return documents;
+    }
+
+    static Advertisement advertisement(int i) {
+        return document(i).toAdvertisement();
+    }
+
+    /**
+     * An ObjectMapper configured like the one Spring Boot builds for the controllers.
+     */
+    static ObjectMapper objectMapper() {
+        return Jackson2ObjectMapperBuilder.json().build();
+    }
+}
@@ -0,0 +1,98 @@
+package com.ucapital24.advertisement.benchmark;
+
+import com.ucapital24.advertisement.dao.AdvertisementDocument;
+import com.ucapital24.advertisement.model.AdvertisementPatch;
+import com.ucapital24.advertisement.store.AdvertisementStore;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.Pageable;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+/**
+ * Stand-in for {@link AdvertisementStore} backed by a map, so that the service can be measured without
+ * MongoDB. Only the operations used by the benchmarks are supported.
+ */
+final class InMemoryAdvertisementStore implements InvocationHandler {
+
+    private final Map<String, AdvertisementDocument> documents = new LinkedHashMap<>();
+
+    private InMemoryAdvertisementStore(List<AdvertisementDocument> initialDocuments) {
+        initialDocuments.forEach(document -> documents.put(document.getId(), document));
+    }
+
+    static AdvertisementStore create(List<AdvertisementDocument> initialDocuments) {
+        return (AdvertisementStore) Proxy.newProxyInstance(
+                AdvertisementStore.class.getClassLoader(),
+                new Class<?>[]{AdvertisementStore.class},
+                new InMemoryAdvertisementStore(initialDocuments));
+    }
+
+    @Override
+    public Object invoke(Object proxy, Method method, Object[] args) {
+        return switch (method.getName()) {
+            case "findById" -> Optional.ofNullable(documents.get((String) args[0]));
+            case "findAll" -> args == null ? new ArrayList<>(documents.values()) : findAll((Pageable) args[0]);
+            case "save" -> {
+                AdvertisementDocument document = (AdvertisementDocument) args[0];
+                documents.put(document.getId(), document);
+                yield document;
+            }
+            case "delete" -> {
+                documents.remove(((AdvertisementDocument) args[0]).getId());
+                yield null;
+            }
+            case "patch" -> patch((String) args[0], (AdvertisementPatch) args[2], (Instant) args[3]);
+            case "deleteIfMatch" -> documents.remove((String) args[0]);
+            case "count" -> (long) documents.size();
+            case "hashCode" -> System.identityHashCode(proxy);
+            case "equals" -> proxy == args[0];
+            case "toString" -> "InMemoryAdvertisementStore";
+            default -> throw new UnsupportedOperationException(method.getName());
+        };
+    }
+
+    private AdvertisementDocument patch(String id, AdvertisementPatch patch, Instant modifiedAt) {
+        AdvertisementDocument document = documents.get(id);
+        if (document == null) {
+            return null;
+        }
+        if (patch.title() != null) {
+            document.setTitle(patch.title());
+        }
+        if (patch.content() != null) {
+            document.setContent(patch.content());
+        }
+        if (patch.mediaUrl() != null) {
+            document.setMediaUrl(patch.mediaUrl());
+        }
+        if (patch.mediaType() != null) {
+            document.setMediaType(patch.mediaType());
+        }
+        if (patch.startDate() != null) {
+            document.setStartDate(patch.startDate());
+        }
+        if (patch.endDate() != null) {
+            document.setEndDate(patch.endDate());
+        }
+        if (patch.weight() != null) {
+            document.setWeight(patch.weight());
+        }
+        document.markModified(modifiedAt);
+        return document;
+    }
+
+    private PageImpl<AdvertisementDocument> findAll(Pageable pageable) {
+        List<AdvertisementDocument> all = new ArrayList<>(documents.values());
+        int from = (int) Math.min(pageable.getOffset(), all.size());
+        int to = Math.min(from + pageable.getPageSize(), all.size());
+        return new PageImpl<>(all.subList(from, to), pageable, all.size());
+    }
+}
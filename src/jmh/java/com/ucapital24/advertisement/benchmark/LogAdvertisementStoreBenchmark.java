@@ -0,0 +1,78 @@
+package com.ucapital24.advertisement.benchmark;
+
+import com.ucapital24.advertisement.dao.AdvertisementDocument;
+import com.ucapital24.advertisement.store.LogAdvertisementStore;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.util.FileSystemUtils;
+import org.springframework.util.unit.DataSize;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Cost of reading from the memory-mapped {@link LogAdvertisementStore}: a lookup by ID decodes one record, a page
+ * walks the whole index to count the advertisements.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class LogAdvertisementStoreBenchmark {
+
+    private static final int CATALOG_SIZE = 10_000;
+    private static final DataSize SEGMENT_SIZE = DataSize.ofMegabytes(16);
+    private static final Pageable FIRST_PAGE = PageRequest.of(0, 10);
+
+    private Path directory;
+    private LogAdvertisementStore store;
+    private List<String> ids;
+
+    @Setup
+    public void setUp() throws IOException {
+        directory = Files.createTempDirectory("advertisement-log");
+        store = new LogAdvertisementStore(directory, SEGMENT_SIZE, false);
+        List<AdvertisementDocument> documents = BenchmarkFixtures.documents(CATALOG_SIZE);
+        documents.forEach(store::save);
+        ids = documents.stream().map(AdvertisementDocument::getId).toList();
+    }
+
+    @TearDown
+    public void tearDown() throws IOException {
+        store.close();
+        FileSystemUtils.deleteRecursively(directory);
+    }
+
+    @Benchmark
+    public Optional<AdvertisementDocument> findById() {
+        return store.findById(randomId());
+    }
+
+    @Benchmark
+    public Page<AdvertisementDocument> findAllFirstPage() {
+        return store.findAll(FIRST_PAGE);
+    }
+
+    private String randomId() {
+        return ids.get(ThreadLocalRandom.current().nextInt(ids.size()));
+    }
+}
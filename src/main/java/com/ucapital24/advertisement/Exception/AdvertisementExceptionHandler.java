@@ -1,37 +1,94 @@
 package com.ucapital24.advertisement.Exception;
 
 import com.ucapital24.advertisement.model.ErrorResponseBody;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.servlet.http.HttpServletRequest;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.ControllerAdvice;
 import org.springframework.web.bind.annotation.ExceptionHandler;
+import org.springframework.web.filter.ServerHttpObservationFilter;
 
 @ControllerAdvice
 public class AdvertisementExceptionHandler {
 
+    @Autowired
+    private MeterRegistry meterRegistry;
 
     @ExceptionHandler(AdvertisementNotFoundException.class)
-    public ResponseEntity handleAdvertisementNotFoundException(AdvertisementNotFoundException ex) {
+    public ResponseEntity handleAdvertisementNotFoundException(AdvertisementNotFoundException ex, HttpServletRequest request) {
+        recordError(ErrorCode.ADVERTISEMENT_NOT_FOUND, ex, request);
         ErrorResponseBody  errorResponseBody = new ErrorResponseBody(ErrorCode.ADVERTISEMENT_NOT_FOUND, ex.getMessage());
         return new ResponseEntity<>(errorResponseBody, HttpStatus.NOT_FOUND);
     }
 
     @ExceptionHandler(ValidationException.class)
-    public ResponseEntity handleValidationException(ValidationException ex) {
+    public ResponseEntity handleValidationException(ValidationException ex, HttpServletRequest request) {
+        recordError(ErrorCode.VALIDATION_ERROR, ex, request);
         ErrorResponseBody  errorResponseBody = new ErrorResponseBody(ErrorCode.VALIDATION_ERROR, ex.getMessage());
         return new ResponseEntity<>(errorResponseBody, HttpStatus.BAD_REQUEST);
     }
 
+    @ExceptionHandler(PreconditionFailedException.class)
+    public ResponseEntity handlePreconditionFailedException(PreconditionFailedException ex, HttpServletRequest request) {
+        recordError(ErrorCode.PRECONDITION_FAILED, ex, request);
+        ErrorResponseBody  errorResponseBody = new ErrorResponseBody(ErrorCode.PRECONDITION_FAILED, ex.getMessage());
+        return new ResponseEntity<>(errorResponseBody, HttpStatus.PRECONDITION_FAILED);
+    }
+
+    @ExceptionHandler(ConflictException.class)
+    public ResponseEntity handleConflictException(ConflictException ex, HttpServletRequest request) {
+        recordError(ErrorCode.CONFLICT, ex, request);
+        ErrorResponseBody  errorResponseBody = new ErrorResponseBody(ErrorCode.CONFLICT, ex.getMessage());
+        return new ResponseEntity<>(errorResponseBody, HttpStatus.CONFLICT);
+    }
+
+    @ExceptionHandler(TooManyRequestsException.class)
+    public ResponseEntity handleTooManyRequestsException(TooManyRequestsException ex, HttpServletRequest request) {
+        recordError(ErrorCode.RATE_LIMITED, ex, request);
+        ErrorResponseBody  errorResponseBody = new ErrorResponseBody(ErrorCode.RATE_LIMITED, ex.getMessage());
+        return ResponseEntity.status(HttpStatus.TOO_MANY_REQUESTS)
+                .header(HttpHeaders.RETRY_AFTER, String.valueOf(ex.getRetryAfterSeconds()))
+                .body(errorResponseBody);
+    }
+
+    @ExceptionHandler(ServiceOverloadedException.class)
+    public ResponseEntity handleServiceOverloadedException(ServiceOverloadedException ex, HttpServletRequest request) {
+        recordError(ErrorCode.OVERLOADED, ex, request);
+        ErrorResponseBody  errorResponseBody = new ErrorResponseBody(ErrorCode.OVERLOADED, ex.getMessage());
+        return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+                .header(HttpHeaders.RETRY_AFTER, "1")
+                .body(errorResponseBody);
+    }
+
     @ExceptionHandler(GenericException.class)
-    public ResponseEntity handleGenericException(GenericException ex) {
+    public ResponseEntity handleGenericException(GenericException ex, HttpServletRequest request) {
+        recordError(ErrorCode.GENERIC_ERROR, ex, request);
         ErrorResponseBody  errorResponseBody = new ErrorResponseBody(ErrorCode.GENERIC_ERROR, ex.getMessage());
         return new ResponseEntity<>(errorResponseBody, HttpStatus.INTERNAL_SERVER_ERROR);
     }
 
+    /**
+     * Counts the error per error code and exception type, and attaches the exception to the
+     * {@code http.server.requests} observation so that the endpoint timer is tagged with it as well.
+     */
+    private void recordError(ErrorCode errorCode, Exception ex, HttpServletRequest request) {
+        meterRegistry.counter("advertisement.errors",
+                "error_code", errorCode.name(),
+                "exception", ex.getClass().getSimpleName()).increment();
+        ServerHttpObservationFilter.findObservationContext(request).ifPresent(context -> context.setError(ex));
+    }
+
 
     public enum ErrorCode {
         ADVERTISEMENT_NOT_FOUND,
         VALIDATION_ERROR,
+        PRECONDITION_FAILED,
+        CONFLICT,
+        RATE_LIMITED,
+        OVERLOADED,
         GENERIC_ERROR
     }
 }
@@ -0,0 +1,8 @@
+package com.ucapital24.advertisement.Exception;
+
+public class ConflictException extends RuntimeException{
+
+    public ConflictException(String message) {
+        super(message);
+    }
+}
@@ -0,0 +1,8 @@
+package com.ucapital24.advertisement.Exception;
+
+public class PreconditionFailedException extends RuntimeException{
+
+    public PreconditionFailedException(String message) {
+        super(message);
+    }
+}
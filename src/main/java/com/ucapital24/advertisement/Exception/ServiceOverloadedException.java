@@ -0,0 +1,8 @@
+package com.ucapital24.advertisement.Exception;
+
+public class ServiceOverloadedException extends RuntimeException{
+
+    public ServiceOverloadedException(String message) {
+        super(message);
+    }
+}
@@ -0,0 +1,14 @@
+package com.ucapital24.advertisement.Exception;
+
+import lombok.Getter;
+
+@Getter
+public class TooManyRequestsException extends RuntimeException{
+
+    private final long retryAfterSeconds;
+
+    public TooManyRequestsException(String message, long retryAfterSeconds) {
+        super(message);
+        this.retryAfterSeconds = retryAfterSeconds;
+    }
+}
@@ -0,0 +1,96 @@
+package com.ucapital24.advertisement.admission;
+
+import com.ucapital24.advertisement.Exception.ServiceOverloadedException;
+import com.ucapital24.advertisement.Exception.TooManyRequestsException;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.servlet.DispatcherType;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.web.servlet.HandlerInterceptor;
+
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Admission control in front of the advertisement endpoints: a request is first charged to the rate limit of its
+ * client, then has to get one of the global concurrency slots. A client is identified by its remote address; the
+ * {@code X-Client-Id} header is only trusted on requests coming from one of the
+ * {@code advertisement.admission.trusted-proxies}, since any other caller could pick a new ID to reset its limit. Rejected requests fail fast with 429 or 503, which {@code AdvertisementExceptionHandler}
+ * turns into error responses with a Retry-After header.
+ * <p>
+ * A request processed asynchronously, such as one returning a {@code Mono} in the reactive execution mode, keeps its
+ * concurrency slot until the asynchronous dispatch that writes its response completes.
+ */
+@Component
+public class AdmissionInterceptor implements HandlerInterceptor {
+
+    public static final String CLIENT_ID_HEADER = "X-Client-Id";
+    private static final String ADMITTED = AdmissionInterceptor.class.getName() + ".ADMITTED";
+
+    private final ClientRateLimiter clientRateLimiter;
+    private final ConcurrencyLimiter concurrencyLimiter;
+    private final Set<String> trustedProxies;
+    private final Counter rateLimited;
+    private final Counter overloaded;
+
+    public AdmissionInterceptor(ClientRateLimiter clientRateLimiter,
+                                ConcurrencyLimiter concurrencyLimiter,
+                                @Value("${advertisement.admission.trusted-proxies:}") Set<String> trustedProxies,
+                                MeterRegistry meterRegistry) {
+        this.clientRateLimiter = clientRateLimiter;
+        this.concurrencyLimiter = concurrencyLimiter;
+        this.trustedProxies = Set.copyOf(trustedProxies);
+        this.rateLimited = meterRegistry.counter("advertisement.admission.rejected", "reason", "rate_limited");
+        this.overloaded = meterRegistry.counter("advertisement.admission.rejected", "reason", "overloaded");
+        Gauge.builder("advertisement.admission.in_flight", concurrencyLimiter, ConcurrencyLimiter::inFlight)
+                .description("Number of admitted advertisement requests being processed")
+                .register(meterRegistry);
+        Gauge.builder("advertisement.admission.clients", clientRateLimiter, ClientRateLimiter::clientCount)
+                .description("Number of clients with a rate limit bucket in use")
+                .register(meterRegistry);
+    }
+
+    @Override
+    public boolean preHandle(HttpServletRequest request, HttpServletResponse response, Object handler) {
+        if (request.getDispatcherType() == DispatcherType.ASYNC) {
+            // the result of an asynchronous handler: admitted on the first dispatch, released after this one
+            return true;
+        }
+        String clientId = clientId(request);
+        long waitNanos = clientRateLimiter.tryAcquire(clientId);
+        if (waitNanos > 0) {
+            rateLimited.increment();
+            throw new TooManyRequestsException(String.format("Rate limit exceeded for client: %s", clientId),
+                    Math.max(1, TimeUnit.NANOSECONDS.toSeconds(waitNanos + TimeUnit.SECONDS.toNanos(1) - 1)));
+        }
+        if (!concurrencyLimiter.tryAcquire()) {
+            overloaded.increment();
+            throw new ServiceOverloadedException("Too many requests in progress, retry later");
+        }
+        request.setAttribute(ADMITTED, Boolean.TRUE);
+        return true;
+    }
+
+    @Override
+    public void afterCompletion(HttpServletRequest request, HttpServletResponse response, Object handler, Exception ex) {
+        if (request.getAttribute(ADMITTED) != null) {
+            request.removeAttribute(ADMITTED);
+            concurrencyLimiter.release();
+        }
+    }
+
+    private String clientId(HttpServletRequest request) {
+        String remoteAddress = request.getRemoteAddr();
+        if (trustedProxies.contains(remoteAddress)) {
+            String clientId = request.getHeader(CLIENT_ID_HEADER);
+            if (clientId != null && !clientId.isBlank()) {
+                return clientId;
+            }
+        }
+        return remoteAddress;
+    }
+}
@@ -0,0 +1,76 @@
+package com.ucapital24.advertisement.admission;
+
+import jakarta.validation.constraints.NotNull;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Per-client rate limiter: every client gets a token bucket of {@code advertisement.admission.burst} requests,
+ * refilled at {@code advertisement.admission.requests-per-second}.
+ * <p>
+ * The bucket is implemented with the generic cell rate algorithm: the only state of a client is its theoretical
+ * arrival time, a single {@code long} updated by compare-and-set, so admitting a request takes no lock. The clients
+ * are spread over the segments of a concurrent map, and the clients whose bucket is full again are dropped every
+ * minute.
+ */
+@Component
+public class ClientRateLimiter {
+
+    private static final long NANOS_PER_SECOND = 1_000_000_000L;
+
+    private final Map<String, AtomicLong> arrivalTimes = new ConcurrentHashMap<>();
+    private final long emissionIntervalNanos;
+    private final long burstToleranceNanos;
+
+    public ClientRateLimiter(@Value("${advertisement.admission.requests-per-second:100}") double requestsPerSecond,
+                             @Value("${advertisement.admission.burst:200}") int burst) {
+        this.emissionIntervalNanos = (long) (NANOS_PER_SECOND / requestsPerSecond);
+        this.burstToleranceNanos = emissionIntervalNanos * burst;
+    }
+
+    /**
+     * Takes a token from the bucket of a client.
+     *
+     * @param clientId the client making the request
+     * @return 0 if the request is admitted, otherwise the nanoseconds to wait before the next token is available
+     */
+    public long tryAcquire(@NotNull String clientId) {
+        return tryAcquire(clientId, System.nanoTime());
+    }
+
+    long tryAcquire(String clientId, long nowNanos) {
+        AtomicLong arrivalTime = arrivalTimes.computeIfAbsent(clientId, id -> new AtomicLong(nowNanos));
+        while (true) {
+            long current = arrivalTime.get();
+            long next = Math.max(current, nowNanos) + emissionIntervalNanos;
+            long wait = next - nowNanos - burstToleranceNanos;
+            if (wait > 0) {
+                return wait;
+            }
+            if (arrivalTime.compareAndSet(current, next)) {
+                return 0;
+            }
+        }
+    }
+
+    /**
+     * Drops the clients whose bucket is full again, which behave exactly like unknown clients.
+     */
+    @Scheduled(fixedDelay = 60_000)
+    public void evictIdleClients() {
+        evictIdleClients(System.nanoTime());
+    }
+
+    void evictIdleClients(long nowNanos) {
+        arrivalTimes.values().removeIf(arrivalTime -> arrivalTime.get() - nowNanos <= 0);
+    }
+
+    public int clientCount() {
+        return arrivalTimes.size();
+    }
+}
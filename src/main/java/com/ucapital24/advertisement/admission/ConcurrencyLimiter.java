@@ -0,0 +1,45 @@
+package com.ucapital24.advertisement.admission;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Global limit on the number of requests processed at the same time. A request over the limit is rejected right
+ * away instead of queueing for a thread, so that an overloaded instance sheds load at the cost of one
+ * compare-and-set.
+ */
+@Component
+public class ConcurrencyLimiter {
+
+    private final AtomicInteger inFlight = new AtomicInteger();
+    private final int maxConcurrentRequests;
+
+    public ConcurrencyLimiter(@Value("${advertisement.admission.max-concurrent-requests:150}") int maxConcurrentRequests) {
+        this.maxConcurrentRequests = maxConcurrentRequests;
+    }
+
+    /**
+     * @return whether the request is admitted, in which case {@link #release()} must be called once it completes
+     */
+    public boolean tryAcquire() {
+        while (true) {
+            int current = inFlight.get();
+            if (current >= maxConcurrentRequests) {
+                return false;
+            }
+            if (inFlight.compareAndSet(current, current + 1)) {
+                return true;
+            }
+        }
+    }
+
+    public void release() {
+        inFlight.decrementAndGet();
+    }
+
+    public int inFlight() {
+        return inFlight.get();
+    }
+}
@@ -0,0 +1,26 @@
+package com.ucapital24.advertisement.api;
+
+import com.ucapital24.advertisement.cache.AdvertisementCache;
+import com.ucapital24.advertisement.model.CacheStatistics;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+@RestController
+@RequestMapping("/api/v1/admin")
+public class AdminController {
+
+    @Autowired
+    private AdvertisementCache advertisementCache;
+
+    /**
+     * Get the counters of the advertisement read-through cache.
+     *
+     * @return the size, hit, miss and eviction counters of the cache
+     */
+    @GetMapping(value = "/cache", produces = "application/json")
+    public CacheStatistics getCacheStatistics() {
+        return advertisementCache.statistics();
+    }
+}
@@ -1,22 +1,63 @@
 package com.ucapital24.advertisement.api;
 
+import com.ucapital24.advertisement.Exception.ValidationException;
+import com.ucapital24.advertisement.cache.HotPageCache;
+import com.ucapital24.advertisement.dao.AdvertisementSearchCriteria;
 import com.ucapital24.advertisement.model.Advertisement;
+import com.ucapital24.advertisement.model.AdvertisementBatch;
+import com.ucapital24.advertisement.model.AdvertisementMediaType;
+import com.ucapital24.advertisement.model.AdvertisementPage;
+import com.ucapital24.advertisement.model.AdvertisementPersistence;
+import com.ucapital24.advertisement.model.AdvertisementSearchPage;
+import com.ucapital24.advertisement.model.AdvertisementSlice;
+import com.ucapital24.advertisement.model.BulkItemResult;
+import com.ucapital24.advertisement.model.BulkOperation;
+import com.ucapital24.advertisement.model.ScrollOrder;
+import com.ucapital24.advertisement.model.VersionedAdvertisement;
 import com.ucapital24.advertisement.service.AdvertisementService;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SequenceWriter;
 import jakarta.annotation.Nonnull;
+import jakarta.servlet.http.HttpServletResponse;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.web.PageableDefault;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
-import org.springframework.web.bind.annotation.DeleteMapping;
+import org.springframework.util.DigestUtils;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.PostMapping;
-import org.springframework.web.bind.annotation.PutMapping;
 import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestHeader;
 import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.context.request.ServletWebRequest;
 
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+
+import static com.ucapital24.advertisement.api.AdvertisementRepresentations.APPLICATION_PROTOBUF_VALUE;
+import static com.ucapital24.advertisement.api.AdvertisementRepresentations.APPLICATION_SMILE_VALUE;
+import static com.ucapital24.advertisement.api.AdvertisementRepresentations.formatEtag;
+import static com.ucapital24.advertisement.api.AdvertisementRepresentations.preferredCompactType;
+import static com.ucapital24.advertisement.api.AdvertisementRepresentations.variantEtag;
+
+/**
+ * The endpoints of {@code /api/v1/advertisements} that are blocking in every execution mode. The single-advertisement
+ * endpoints are in {@link BlockingAdvertisementController} or {@link ReactiveAdvertisementController}, depending on
+ * {@code advertisement.execution-mode}.
+ */
 @RestController
 @RequestMapping("/api/v1/advertisements")
 public class AdvertisementController {
@@ -25,67 +66,309 @@ public class AdvertisementController {
     @Autowired
     private AdvertisementService advertisementService;
 
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private HotPageCache hotPageCache;
+
     private final int DEFAULT_PAGE = 0;
     private final int DEFAULT_PAGE_SIZE = 10;
+    private final int MAX_SCROLL_SIZE = 1000;
+    private final int MAX_BATCH_SIZE = 100;
+
+
+    /**
+     * Get several advertisements by ID in one call. The advertisements that are not cached are read with a single
+     * query, and duplicate IDs are looked up once. Unknown IDs are listed in missing_ids instead of failing the call.
+     *
+     * @param ids the IDs of the advertisements, comma-separated or repeated
+     * @return the found advertisements in request order, and the IDs that were not found
+     */
+    @GetMapping(value = "/batch", produces = "application/json")
+    public AdvertisementBatch getAddsByIds(@RequestParam(name = "ids") List<String> ids) {
+        if (ids.isEmpty() || ids.size() > MAX_BATCH_SIZE) {
+            throw new ValidationException(String.format("ids must contain between 1 and %d IDs", MAX_BATCH_SIZE));
+        }
+        return advertisementService.getAdvertisements(ids);
+    }
+
+    /**
+     * Get a paginated list of advertisements. The response carries a strong ETag computed from the IDs and versions
+     * of the page, and the format when it is not JSON; a matching If-None-Match is answered with 304 and no body. No Last-Modified is sent, since
+     * removing an advertisement from the page would not move it forward.
+     * <p>
+     * JSON keeps the {@code Page} envelope. When the client prefers CBOR, Smile or protobuf, the page is sent in the
+     * lean {@link AdvertisementPage} envelope instead.
+     * <p>
+     * The first pages of the unfiltered JSON list are served from the {@link HotPageCache}, gzip-encoded when the
+     * client accepts it.
+     *
+     * @param pageable       the pagination and sorting information
+     * @param mediaType      only return advertisements of this media type, optional
+     * @param activeAt       only return advertisements live at this instant, optional
+     * @param accept         the Accept header of the request, optional
+     * @param acceptEncoding the Accept-Encoding header of the request, optional
+     * @param webRequest     the request, to which hot pages are written directly
+     * @return a paginated list of Advertisement objects, or null when a hot page was written to the response
+     */
+    @GetMapping(produces = {MediaType.APPLICATION_JSON_VALUE, MediaType.APPLICATION_CBOR_VALUE, APPLICATION_SMILE_VALUE, APPLICATION_PROTOBUF_VALUE})
+    public ResponseEntity<?> getAdds(@PageableDefault(page = DEFAULT_PAGE, size = DEFAULT_PAGE_SIZE) Pageable pageable,
+                                     @RequestParam(name = "media_type", required = false) AdvertisementMediaType mediaType,
+                                     @RequestParam(name = "active_at", required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) Instant activeAt,
+                                     @RequestHeader(name = HttpHeaders.ACCEPT, required = false) String accept,
+                                     @RequestHeader(name = HttpHeaders.ACCEPT_ENCODING, required = false) String acceptEncoding,
+                                     ServletWebRequest webRequest) throws IOException {
+        MediaType compactType = preferredCompactType(accept);
+        boolean compact = compactType != null;
+        if (mediaType == null && activeAt == null && !compact && hotPageCache.isCacheable(pageable)) {
+            writeHotPage(hotPageCache.get(pageable, this::serializePage), acceptsGzip(acceptEncoding), webRequest);
+            return null;
+        }
+        Page<VersionedAdvertisement> page = advertisementService.getVersionedAdvertisements(pageable, mediaType, activeAt);
+        Page<Advertisement> advertisements = page.map(VersionedAdvertisement::advertisement);
+        Object body = compact ? AdvertisementPage.of(advertisements) : advertisements;
+        var response = ResponseEntity.ok().eTag(formatEtag(pageEtag(page), compactType)).varyBy(HttpHeaders.ACCEPT);
+        if (compact) {
+            response.contentType(compactType);
+        }
+        return response.body(body);
+    }
 
+    private HotPageCache.SerializedPage serializePage(Pageable pageable) {
+        Page<VersionedAdvertisement> page = advertisementService.getVersionedAdvertisements(pageable, null, null);
+        try {
+            return new HotPageCache.SerializedPage(pageEtag(page), objectMapper.writeValueAsBytes(page.map(VersionedAdvertisement::advertisement)));
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * Writes a cached page straight from its bytes, or answers 304 when If-None-Match matches its ETag. The gzip
+     * encoding is tagged apart from the identity one, but a client holding the tag of either encoding of the page
+     * gets the 304.
+     */
+    private static void writeHotPage(HotPageCache.HotPage hotPage, boolean acceptsGzip, ServletWebRequest webRequest) throws IOException {
+        HttpServletResponse response = webRequest.getResponse();
+        response.setHeader(HttpHeaders.VARY, HttpHeaders.ACCEPT + ", " + HttpHeaders.ACCEPT_ENCODING);
+        boolean gzipped = hotPage.gzipped(acceptsGzip);
+        String identityEtag = hotPage.etag();
+        String gzipEtag = variantEtag(identityEtag, "gzip");
+        // the first check sets the ETag header, of the encoding sent
+        if (webRequest.checkNotModified(gzipped ? gzipEtag : identityEtag)
+                || webRequest.checkNotModified(gzipped ? identityEtag : gzipEtag)) {
+            return;
+        }
+        byte[] body = hotPage.body(acceptsGzip);
+        response.setContentType(MediaType.APPLICATION_JSON_VALUE);
+        response.setContentLength(body.length);
+        if (gzipped) {
+            response.setHeader(HttpHeaders.CONTENT_ENCODING, "gzip");
+        }
+        response.getOutputStream().write(body);
+    }
+
+    /**
+     * @param acceptEncoding the Accept-Encoding header of the request, may be null
+     * @return whether gzip is an acceptable content encoding
+     */
+    private static boolean acceptsGzip(String acceptEncoding) {
+        if (acceptEncoding == null) {
+            return false;
+        }
+        for (String coding : acceptEncoding.split(",")) {
+            String[] parameters = coding.split(";");
+            String name = parameters[0].trim();
+            if (name.equalsIgnoreCase("gzip") || name.equals("*")) {
+                return parameters.length < 2 || !parameters[1].replace(" ", "").matches("q=0(\\.0*)?");
+            }
+        }
+        return false;
+    }
+
+    private static String pageEtag(Page<VersionedAdvertisement> page) {
+        StringBuilder validator = new StringBuilder()
+                .append(page.getNumber()).append(':')
+                .append(page.getSize()).append(':')
+                .append(page.getTotalElements()).append(':')
+                .append(page.getSort());
+        for (VersionedAdvertisement versioned : page) {
+            validator.append('|').append(versioned.advertisement().id()).append('=').append(versioned.etag());
+        }
+        return "\"" + DigestUtils.md5DigestAsHex(validator.toString().getBytes(StandardCharsets.UTF_8)) + "\"";
+    }
+
+    /**
+     * Export the whole catalog as a stream, either as NDJSON (one advertisement per line, the default) or as a
+     * JSON array. Advertisements are written as they are read from the database cursor, so memory use does not
+     * grow with the catalog and a slow client slows down the cursor instead of filling the heap.
+     *
+     * @param format   {@code ndjson} or {@code json}
+     * @param response the response to stream the advertisements to
+     */
+    @GetMapping(value = "/export")
+    public void exportAdds(@RequestParam(name = "format", defaultValue = "ndjson") String format,
+                           HttpServletResponse response) throws IOException {
+        boolean jsonArray;
+        switch (format) {
+            case "ndjson" -> jsonArray = false;
+            case "json" -> jsonArray = true;
+            default -> throw new ValidationException("format must be ndjson or json");
+        }
+        response.setContentType(jsonArray ? "application/json" : "application/x-ndjson");
+        response.setCharacterEncoding("UTF-8");
+        ObjectWriter writer = objectMapper.writerFor(Advertisement.class);
+        try (SequenceWriter sequenceWriter = jsonArray
+                ? writer.writeValuesAsArray(response.getOutputStream())
+                : writer.withRootValueSeparator("\n").writeValues(response.getOutputStream())) {
+            advertisementService.exportAdvertisements(advertisement -> {
+                try {
+                    sequenceWriter.write(advertisement);
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            });
+        }
+    }
+
+    /**
+     * Scroll through all advertisements with keyset pagination. Unlike the paginated list, no total count is
+     * computed and deep positions are as cheap as the first one.
+     *
+     * @param cursor the next_cursor returned by the previous call, absent for the first call
+     * @param order  the key to scroll on, {@code ID} or {@code START_DATE}; ignored when a cursor is given
+     * @param size   the maximum number of advertisements to return
+     * @return a slice of Advertisement objects with the cursor of the next slice
+     */
+    @GetMapping(value = "/scroll", produces = "application/json")
+    public AdvertisementSlice scrollAdds(@RequestParam(name = "cursor", required = false) String cursor,
+                                         @RequestParam(name = "order", defaultValue = "ID") ScrollOrder order,
+                                         @RequestParam(name = "size", defaultValue = "" + DEFAULT_PAGE_SIZE) int size) {
+        if (size < 1 || size > MAX_SCROLL_SIZE) {
+            throw new ValidationException(String.format("size must be between 1 and %d", MAX_SCROLL_SIZE));
+        }
+        return advertisementService.scrollAdvertisements(cursor, order, size);
+    }
+
+    /**
+     * Search advertisements, returning only the requested fields. Results are ordered by ID.
+     *
+     * @param mediaType   only return advertisements of this media type, optional
+     * @param at          only return advertisements live at this instant, optional
+     * @param from        the inclusive start of an active window, to be used together with {@code to}
+     * @param to          the exclusive end of an active window, to be used together with {@code from}
+     * @param titlePrefix only return advertisements whose title starts with this text, optional
+     * @param keyword     only return advertisements whose title contains this text, case-insensitive, optional
+     * @param fields      comma-separated fields to return, e.g. {@code _id,title,media_url}; all fields if absent
+     * @param page        the zero-based page number
+     * @param size        the page size
+     * @return a page of projected advertisements
+     */
+    @GetMapping(value = "/search", produces = "application/json")
+    public AdvertisementSearchPage searchAdds(@RequestParam(name = "media_type", required = false) AdvertisementMediaType mediaType,
+                                              @RequestParam(name = "at", required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) Instant at,
+                                              @RequestParam(name = "from", required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) Instant from,
+                                              @RequestParam(name = "to", required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) Instant to,
+                                              @RequestParam(name = "title_prefix", required = false) String titlePrefix,
+                                              @RequestParam(name = "q", required = false) String keyword,
+                                              @RequestParam(name = "fields", required = false) List<String> fields,
+                                              @RequestParam(name = "page", defaultValue = "" + DEFAULT_PAGE) int page,
+                                              @RequestParam(name = "size", defaultValue = "" + DEFAULT_PAGE_SIZE) int size) {
+        if (page < 0) {
+            throw new ValidationException("page cannot be negative");
+        }
+        if (size < 1 || size > MAX_SCROLL_SIZE) {
+            throw new ValidationException(String.format("size must be between 1 and %d", MAX_SCROLL_SIZE));
+        }
+        if (from != null || to != null) {
+            if (from == null || to == null || at != null) {
+                throw new ValidationException("from and to must be given together and cannot be combined with at");
+            }
+        } else if (at != null) {
+            from = at;
+            to = at.plusMillis(1);
+        }
+        var criteria = new AdvertisementSearchCriteria(mediaType, from, to, titlePrefix, keyword);
+        return advertisementService.searchAdvertisements(criteria, fields, page, size);
+    }
 
     /**
-     * Get an advertisement by its ID.
+     * Pick one live advertisement to show, at random in proportion to the advertisement weights.
      *
-     * @param adId the ID of the advertisement to retrieve
-     * @return the Advertisement object if found
+     * @param mediaType only pick among advertisements of this media type, optional
+     * @return the picked Advertisement object, 404 if no advertisement is live
      */
-    @GetMapping(value = "/{ad_id}", produces = "application/json")
-    public Advertisement getAdd(@PathVariable(name = "ad_id", required = true) @Nonnull String adId) {
-        return advertisementService.getAdvertisement(adId);
+    @GetMapping(value = "/select", produces = {MediaType.APPLICATION_JSON_VALUE, MediaType.APPLICATION_CBOR_VALUE,
+            APPLICATION_SMILE_VALUE, APPLICATION_PROTOBUF_VALUE})
+    public Advertisement selectAdd(@RequestParam(name = "media_type", required = false) AdvertisementMediaType mediaType) {
+        return advertisementService.selectAdvertisement(mediaType);
     }
 
     /**
-     * Get a paginated list of advertisements.
+     * Get the advertisements live at an instant, or during a window, from the in-memory serving index.
+     * Without parameters the advertisements live right now are returned.
      *
-     * @param pageable the pagination and sorting information
-     * @return a paginated list of Advertisement objects
+     * @param at   the instant to look at, defaults to now
+     * @param from the inclusive start of the window, to be used together with {@code to}
+     * @param to   the exclusive end of the window, to be used together with {@code from}
+     * @return the live Advertisement objects ordered by start date
      */
-    @GetMapping(produces = "application/json")
-    public Page<Advertisement> getAdds(@PageableDefault(page = DEFAULT_PAGE, size = DEFAULT_PAGE_SIZE) Pageable pageable) {
-        return advertisementService.getAdvertisements(pageable);
+    @GetMapping(value = "/active", produces = "application/json")
+    public List<Advertisement> getActiveAdds(@RequestParam(name = "at", required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) Instant at,
+                                             @RequestParam(name = "from", required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) Instant from,
+                                             @RequestParam(name = "to", required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) Instant to) {
+        if (from != null || to != null) {
+            if (from == null || to == null || at != null) {
+                throw new ValidationException("from and to must be given together and cannot be combined with at");
+            }
+            return advertisementService.getActiveAdvertisements(from, to);
+        }
+        return advertisementService.getActiveAdvertisements(at != null ? at : Instant.now());
     }
 
     /**
-     * Create a new advertisement.
+     * Get the persistence status of an advertisement: PENDING while it waits in the write-behind queue, then PERSISTED,
+     * or FAILED with the error of the store.
      *
-     * @param advertisement the Advertisement data to create
-     * @return the created Advertisement object in the response
+     * @param adId the ID of the advertisement
+     * @return the persistence status of the advertisement
      */
-    @PostMapping(produces = "application/json")
-    protected ResponseEntity<Advertisement> createAd(@RequestBody @Nonnull Advertisement advertisement) {
-        var response = advertisementService.createAdvertisement(advertisement);
-        return ResponseEntity.ok().body(response);
+    @GetMapping(value = "/{ad_id}/persistence", produces = "application/json")
+    public AdvertisementPersistence getAdPersistence(@PathVariable(name = "ad_id", required = true) @Nonnull String adId) {
+        return advertisementService.getAdvertisementPersistence(adId);
     }
 
     /**
-     * Delete an advertisement by ID.
+     * Apply a list of create, update and delete operations in bulk, at most advertisement.bulk.max-operations.
      *
-     * @param adId the ID of the advertisement to delete
-     * @return confirmation message after deletion
+     * @param operations the operations to apply
+     * @return the outcome of every operation, in request order
      */
-    @DeleteMapping("/{ad_id}")
-    public ResponseEntity<String> deleteAd(@PathVariable(name = "ad_id", required = true) @Nonnull String adId) {
-        advertisementService.deleteAdvertisement(adId);
-        return ResponseEntity.ok().body("deleted!");
+    @PostMapping(value = "/bulk", consumes = "application/json", produces = "application/json")
+    public List<BulkItemResult> bulkAds(@RequestBody @Nonnull List<BulkOperation> operations) {
+        return advertisementService.bulkWrite(operations);
     }
 
     /**
-     * Update an existing advertisement by ID.
+     * Apply a stream of create, update and delete operations in bulk, one JSON operation per line. The body is read
+     * one operation at a time, and rejected as soon as it holds more than advertisement.bulk.max-operations.
      *
-     * @param adId the ID of the advertisement to update
-     * @param advertisement the new Advertisement data
-     * @return the updated Advertisement object in the response
+     * @param body the NDJSON operations to apply
+     * @return the outcome of every operation, in request order
      */
-    @PutMapping(value = "/{ad_id}", produces = "application/json")
-    public ResponseEntity<Advertisement> updateAd(@PathVariable(name = "ad_id", required = true) @Nonnull String adId,
-                                           @RequestBody @Nonnull Advertisement advertisement) {
-        var response = advertisementService.updateAdvertisement(adId, advertisement);
-        return ResponseEntity.ok().body(response);
+    @PostMapping(value = "/bulk", consumes = "application/x-ndjson", produces = "application/json")
+    public List<BulkItemResult> bulkAdsNdjson(InputStream body) {
+        int maxOperations = advertisementService.getBulkMaxOperations();
+        List<BulkOperation> operations = new ArrayList<>();
+        try (var iterator = objectMapper.readerFor(BulkOperation.class).<BulkOperation>readValues(body)) {
+            // one operation over the limit is enough for the service to reject the request
+            while (operations.size() <= maxOperations && iterator.hasNextValue()) {
+                operations.add(iterator.nextValue());
+            }
+        } catch (IOException e) {
+            throw new ValidationException(String.format("NDJSON body is not valid: %s", e.getMessage()));
+        }
+        return advertisementService.bulkWrite(operations);
     }
 }
@@ -0,0 +1,145 @@
+package com.ucapital24.advertisement.api;
+
+import com.google.protobuf.CodedOutputStream;
+import com.google.protobuf.WireFormat;
+import com.ucapital24.advertisement.model.Advertisement;
+import com.ucapital24.advertisement.model.AdvertisementPage;
+import jakarta.validation.constraints.NotNull;
+import org.springframework.http.HttpInputMessage;
+import org.springframework.http.HttpOutputMessage;
+import org.springframework.http.MediaType;
+import org.springframework.http.converter.AbstractHttpMessageConverter;
+import org.springframework.http.converter.HttpMessageNotReadableException;
+
+import java.io.IOException;
+import java.time.Instant;
+
+/**
+ * Writes {@link Advertisement} and {@link AdvertisementPage} as {@code application/x-protobuf}, following
+ * {@code proto/advertisement.proto}. The messages are encoded field by field with {@link CodedOutputStream}, so no
+ * generated message classes are needed and nothing is copied before being written. Only responses are supported.
+ */
+public class AdvertisementProtobufHttpMessageConverter extends AbstractHttpMessageConverter<Object> {
+
+    public static final String APPLICATION_PROTOBUF_VALUE = "application/x-protobuf";
+    public static final MediaType APPLICATION_PROTOBUF = MediaType.parseMediaType(APPLICATION_PROTOBUF_VALUE);
+
+    // Advertisement
+    private static final int ID = 1;
+    private static final int TITLE = 2;
+    private static final int CONTENT = 3;
+    private static final int MEDIA_URL = 4;
+    private static final int MEDIA_TYPE = 5;
+    private static final int START_DATE = 6;
+    private static final int END_DATE = 7;
+    private static final int WEIGHT = 8;
+    // AdvertisementPage
+    private static final int PAGE_CONTENT = 1;
+    private static final int PAGE_NUMBER = 2;
+    private static final int PAGE_SIZE = 3;
+    private static final int TOTAL_ELEMENTS = 4;
+
+    public AdvertisementProtobufHttpMessageConverter() {
+        super(APPLICATION_PROTOBUF);
+    }
+
+    @Override
+    protected boolean supports(@NotNull Class<?> clazz) {
+        return Advertisement.class == clazz || AdvertisementPage.class == clazz;
+    }
+
+    @Override
+    public boolean canRead(@NotNull Class<?> clazz, MediaType mediaType) {
+        return false;
+    }
+
+    @Override
+    protected Object readInternal(@NotNull Class<?> clazz, @NotNull HttpInputMessage inputMessage) {
+        throw new HttpMessageNotReadableException("Protobuf request bodies are not supported", inputMessage);
+    }
+
+    @Override
+    protected void writeInternal(@NotNull Object object, @NotNull HttpOutputMessage outputMessage) throws IOException {
+        CodedOutputStream output = CodedOutputStream.newInstance(outputMessage.getBody());
+        if (object instanceof AdvertisementPage page) {
+            writePage(output, page);
+        } else {
+            writeAdvertisement(output, (Advertisement) object);
+        }
+        output.flush();
+    }
+
+    private static void writePage(CodedOutputStream output, AdvertisementPage page) throws IOException {
+        for (Advertisement advertisement : page.content()) {
+            output.writeTag(PAGE_CONTENT, WireFormat.WIRETYPE_LENGTH_DELIMITED);
+            output.writeUInt32NoTag(advertisementSize(advertisement));
+            writeAdvertisement(output, advertisement);
+        }
+        if (page.page() != 0) {
+            output.writeInt32(PAGE_NUMBER, page.page());
+        }
+        if (page.size() != 0) {
+            output.writeInt32(PAGE_SIZE, page.size());
+        }
+        if (page.totalElements() != 0) {
+            output.writeInt64(TOTAL_ELEMENTS, page.totalElements());
+        }
+    }
+
+    private static void writeAdvertisement(CodedOutputStream output, Advertisement advertisement) throws IOException {
+        if (advertisement.id() != null) {
+            output.writeString(ID, advertisement.id());
+        }
+        if (advertisement.title() != null) {
+            output.writeString(TITLE, advertisement.title());
+        }
+        if (advertisement.content() != null) {
+            output.writeString(CONTENT, advertisement.content());
+        }
+        if (advertisement.mediaUrl() != null) {
+            output.writeString(MEDIA_URL, advertisement.mediaUrl());
+        }
+        if (advertisement.mediaType() != null) {
+            // the values of the MediaType enum are the AdvertisementMediaType ordinals + 1, 0 being unspecified
+            output.writeEnum(MEDIA_TYPE, advertisement.mediaType().ordinal() + 1);
+        }
+        if (advertisement.startDate() != null) {
+            output.writeInt64(START_DATE, advertisement.startDate().toEpochMilli());
+        }
+        if (advertisement.endDate() != null) {
+            output.writeInt64(END_DATE, advertisement.endDate().toEpochMilli());
+        }
+        if (advertisement.weight() != null) {
+            output.writeInt32(WEIGHT, advertisement.weight());
+        }
+    }
+
+    private static int advertisementSize(Advertisement advertisement) {
+        int size = 0;
+        if (advertisement.id() != null) {
+            size += CodedOutputStream.computeStringSize(ID, advertisement.id());
+        }
+        if (advertisement.title() != null) {
+            size += CodedOutputStream.computeStringSize(TITLE, advertisement.title());
+        }
+        if (advertisement.content() != null) {
+            size += CodedOutputStream.computeStringSize(CONTENT, advertisement.content());
+        }
+        if (advertisement.mediaUrl() != null) {
+            size += CodedOutputStream.computeStringSize(MEDIA_URL, advertisement.mediaUrl());
+        }
+        if (advertisement.mediaType() != null) {
+            size += CodedOutputStream.computeEnumSize(MEDIA_TYPE, advertisement.mediaType().ordinal() + 1);
+        }
+        size += dateSize(START_DATE, advertisement.startDate());
+        size += dateSize(END_DATE, advertisement.endDate());
+        if (advertisement.weight() != null) {
+            size += CodedOutputStream.computeInt32Size(WEIGHT, advertisement.weight());
+        }
+        return size;
+    }
+
+    private static int dateSize(int field, Instant date) {
+        return date == null ? 0 : CodedOutputStream.computeInt64Size(field, date.toEpochMilli());
+    }
+}
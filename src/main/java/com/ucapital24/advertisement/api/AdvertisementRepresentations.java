@@ -0,0 +1,87 @@
+package com.ucapital24.advertisement.api;
+
+import com.ucapital24.advertisement.Exception.ValidationException;
+import com.ucapital24.advertisement.model.VersionedAdvertisement;
+import org.springframework.http.MediaType;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * The content negotiation and ETag handling shared by the advertisement controllers, blocking and reactive.
+ */
+final class AdvertisementRepresentations {
+
+    static final String APPLICATION_SMILE_VALUE = "application/x-jackson-smile";
+    static final String APPLICATION_PROTOBUF_VALUE = AdvertisementProtobufHttpMessageConverter.APPLICATION_PROTOBUF_VALUE;
+    // the binary formats, with the suffix that tells their ETags apart from the JSON ones
+    static final Map<MediaType, String> COMPACT_TYPES = Map.of(MediaType.APPLICATION_CBOR, "cbor",
+            MediaType.parseMediaType(APPLICATION_SMILE_VALUE), "smile", MediaType.parseMediaType(APPLICATION_PROTOBUF_VALUE), "protobuf");
+
+    private AdvertisementRepresentations() {
+    }
+
+    /**
+     * @param accept the Accept header of the request, may be null
+     * @return the most preferred acceptable type if it is one of the binary formats, null if it is JSON; a wildcard
+     * counts as JSON
+     */
+    static MediaType preferredCompactType(String accept) {
+        if (accept == null || accept.isBlank()) {
+            return null;
+        }
+        List<MediaType> accepted = new ArrayList<>(MediaType.parseMediaTypes(accept));
+        accepted.sort(Comparator.comparingDouble(MediaType::getQualityValue).reversed());
+        for (MediaType acceptedType : accepted) {
+            if (acceptedType.getQualityValue() == 0) {
+                break;
+            }
+            if (acceptedType.includes(MediaType.APPLICATION_JSON)) {
+                return null;
+            }
+            for (MediaType compactType : COMPACT_TYPES.keySet()) {
+                if (acceptedType.includes(compactType)) {
+                    return compactType;
+                }
+            }
+        }
+        return null;
+    }
+
+    /**
+     * @param etag        the strong ETag of the JSON representation
+     * @param compactType the binary format sent instead, or null for JSON
+     * @return the strong ETag of the representation sent
+     */
+    static String formatEtag(String etag, MediaType compactType) {
+        return compactType == null ? etag : variantEtag(etag, COMPACT_TYPES.get(compactType));
+    }
+
+    static String variantEtag(String etag, String variant) {
+        return etag.substring(0, etag.length() - 1) + "-" + variant + "\"";
+    }
+
+    /**
+     * Reads the version out of an If-Match header holding an ETag of {@link VersionedAdvertisement}.
+     *
+     * @return the expected version, or null if there is no header or it is {@code *}
+     */
+    static Long expectedVersion(String ifMatch) {
+        if (ifMatch == null || ifMatch.trim().equals("*")) {
+            return null;
+        }
+        String tag = ifMatch.trim();
+        if (tag.length() < 2 || tag.charAt(0) != '"' || tag.charAt(tag.length() - 1) != '"') {
+            throw new ValidationException("If-Match must be a single strong ETag");
+        }
+        tag = tag.substring(1, tag.length() - 1);
+        int separator = tag.indexOf('-');
+        try {
+            return Long.parseLong(separator < 0 ? tag : tag.substring(0, separator));
+        } catch (NumberFormatException e) {
+            throw new ValidationException("If-Match must be a single strong ETag");
+        }
+    }
+}
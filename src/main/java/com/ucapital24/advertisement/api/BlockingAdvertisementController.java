@@ -0,0 +1,133 @@
+package com.ucapital24.advertisement.api;
+
+import com.ucapital24.advertisement.model.Advertisement;
+import com.ucapital24.advertisement.model.AdvertisementPatch;
+import com.ucapital24.advertisement.service.AdvertisementService;
+import jakarta.annotation.Nonnull;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.DeleteMapping;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PatchMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.PutMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestHeader;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.servlet.support.ServletUriComponentsBuilder;
+
+import static com.ucapital24.advertisement.api.AdvertisementRepresentations.APPLICATION_PROTOBUF_VALUE;
+import static com.ucapital24.advertisement.api.AdvertisementRepresentations.APPLICATION_SMILE_VALUE;
+import static com.ucapital24.advertisement.api.AdvertisementRepresentations.expectedVersion;
+import static com.ucapital24.advertisement.api.AdvertisementRepresentations.formatEtag;
+import static com.ucapital24.advertisement.api.AdvertisementRepresentations.preferredCompactType;
+
+/**
+ * The single-advertisement endpoints of {@code /api/v1/advertisements} in the default, blocking execution mode
+ * ({@code advertisement.execution-mode=blocking}): the request thread waits for MongoDB. They are served by
+ * {@link ReactiveAdvertisementController} in the reactive mode instead. The other endpoints are in
+ * {@link AdvertisementController}.
+ */
+@RestController
+@RequestMapping("/api/v1/advertisements")
+@ConditionalOnProperty(name = "advertisement.execution-mode", havingValue = "blocking", matchIfMissing = true)
+public class BlockingAdvertisementController {
+
+    @Autowired
+    private AdvertisementService advertisementService;
+
+    /**
+     * Get an advertisement by its ID, as JSON (the default), CBOR, Smile or protobuf depending on the Accept header.
+     * The response carries a strong ETag and Last-Modified; a matching If-None-Match (or If-Modified-Since) is
+     * answered with 304 and no body. The ETag of a binary format ends with the name of the format, so that it is not
+     * taken for the JSON representation; any of them is accepted in If-Match.
+     *
+     * @param adId   the ID of the advertisement to retrieve
+     * @param accept the Accept header of the request, optional
+     * @return the Advertisement object if found
+     */
+    @GetMapping(value = "/{ad_id}", produces = {MediaType.APPLICATION_JSON_VALUE, MediaType.APPLICATION_CBOR_VALUE,
+            APPLICATION_SMILE_VALUE, APPLICATION_PROTOBUF_VALUE})
+    public ResponseEntity<Advertisement> getAdd(@PathVariable(name = "ad_id", required = true) @Nonnull String adId,
+                                                @RequestHeader(name = HttpHeaders.ACCEPT, required = false) String accept) {
+        var versioned = advertisementService.getVersionedAdvertisement(adId);
+        MediaType compactType = preferredCompactType(accept);
+        var response = ResponseEntity.ok().eTag(formatEtag(versioned.etag(), compactType)).varyBy(HttpHeaders.ACCEPT);
+        if (compactType != null) {
+            response.contentType(compactType);
+        }
+        if (versioned.lastModified() != null) {
+            response.lastModified(versioned.lastModified());
+        }
+        return response.body(versioned.advertisement());
+    }
+
+    /**
+     * Create a new advertisement. In write-behind mode, the advertisement is queued and acknowledged with 202, its ID
+     * and the location of its persistence status, before it is written to the store.
+     *
+     * @param advertisement the Advertisement data to create
+     * @return the created Advertisement object in the response, or its persistence in write-behind mode
+     */
+    @PostMapping(produces = "application/json")
+    protected ResponseEntity<?> createAd(@RequestBody @Nonnull Advertisement advertisement) {
+        if (advertisementService.isWriteBehindEnabled()) {
+            var accepted = advertisementService.acceptAdvertisement(advertisement);
+            var location = ServletUriComponentsBuilder.fromCurrentRequest().path("/{ad_id}/persistence").buildAndExpand(accepted.id()).toUri();
+            return ResponseEntity.accepted().location(location).body(accepted);
+        }
+        var response = advertisementService.createAdvertisement(advertisement);
+        return ResponseEntity.ok().body(response);
+    }
+
+    /**
+     * Delete an advertisement by ID.
+     *
+     * @param adId    the ID of the advertisement to delete
+     * @param ifMatch the ETag the advertisement must have, optional
+     * @return confirmation message after deletion
+     */
+    @DeleteMapping("/{ad_id}")
+    public ResponseEntity<String> deleteAd(@PathVariable(name = "ad_id", required = true) @Nonnull String adId,
+                                           @RequestHeader(name = HttpHeaders.IF_MATCH, required = false) String ifMatch) {
+        advertisementService.deleteAdvertisement(adId, expectedVersion(ifMatch));
+        return ResponseEntity.ok().body("deleted!");
+    }
+
+    /**
+     * Update an existing advertisement by ID.
+     *
+     * @param adId          the ID of the advertisement to update
+     * @param advertisement the new Advertisement data
+     * @param ifMatch       the ETag the advertisement must have, optional
+     * @return the updated Advertisement object in the response, with its new ETag
+     */
+    @PutMapping(value = "/{ad_id}", produces = "application/json")
+    public ResponseEntity<Advertisement> updateAd(@PathVariable(name = "ad_id", required = true) @Nonnull String adId,
+                                                  @RequestBody @Nonnull Advertisement advertisement,
+                                                  @RequestHeader(name = HttpHeaders.IF_MATCH, required = false) String ifMatch) {
+        var response = advertisementService.updateAdvertisement(adId, advertisement, expectedVersion(ifMatch));
+        return ResponseEntity.ok().eTag(response.etag()).body(response.advertisement());
+    }
+
+    /**
+     * Change some fields of an existing advertisement by ID; the fields absent from the body are left unchanged.
+     *
+     * @param adId    the ID of the advertisement to update
+     * @param patch   the fields to change
+     * @param ifMatch the ETag the advertisement must have, optional
+     * @return the updated Advertisement object in the response, with its new ETag
+     */
+    @PatchMapping(value = "/{ad_id}", consumes = "application/json", produces = "application/json")
+    public ResponseEntity<Advertisement> patchAd(@PathVariable(name = "ad_id", required = true) @Nonnull String adId,
+                                                 @RequestBody @Nonnull AdvertisementPatch patch,
+                                                 @RequestHeader(name = HttpHeaders.IF_MATCH, required = false) String ifMatch) {
+        var response = advertisementService.patchAdvertisement(adId, patch, expectedVersion(ifMatch));
+        return ResponseEntity.ok().eTag(response.etag()).body(response.advertisement());
+    }
+}
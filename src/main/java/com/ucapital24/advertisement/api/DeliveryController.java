@@ -0,0 +1,123 @@
+package com.ucapital24.advertisement.api;
+
+import com.ucapital24.advertisement.Exception.AdvertisementNotFoundException;
+import com.ucapital24.advertisement.Exception.ValidationException;
+import com.ucapital24.advertisement.model.DeliveryBatchResult;
+import com.ucapital24.advertisement.model.DeliveryEvent;
+import com.ucapital24.advertisement.model.DeliveryEventType;
+import com.ucapital24.advertisement.model.DeliveryStats;
+import com.ucapital24.advertisement.service.AdvertisementService;
+import com.ucapital24.advertisement.tracking.DeliveryTracker;
+import jakarta.annotation.Nonnull;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+@RestController
+@ConditionalOnProperty(name = "advertisement.store.type", havingValue = "mongo", matchIfMissing = true)
+@RequestMapping("/api/v1/advertisements")
+public class DeliveryController {
+
+    private final int MAX_EVENT_COUNT = 10_000;
+
+    @Autowired
+    private AdvertisementService advertisementService;
+
+    @Autowired
+    private DeliveryTracker deliveryTracker;
+
+    /**
+     * Record impressions of an advertisement. The count is aggregated in memory and persisted in the background.
+     *
+     * @param adId  the ID of the advertisement
+     * @param count the number of impressions
+     * @return 202 Accepted
+     */
+    @PostMapping("/{ad_id}/impressions")
+    public ResponseEntity<Void> recordImpressions(@PathVariable(name = "ad_id", required = true) @Nonnull String adId,
+                                                  @RequestParam(name = "count", defaultValue = "1") int count) {
+        return record(adId, DeliveryEventType.IMPRESSION, count);
+    }
+
+    /**
+     * Record clicks of an advertisement. The count is aggregated in memory and persisted in the background.
+     *
+     * @param adId  the ID of the advertisement
+     * @param count the number of clicks
+     * @return 202 Accepted
+     */
+    @PostMapping("/{ad_id}/clicks")
+    public ResponseEntity<Void> recordClicks(@PathVariable(name = "ad_id", required = true) @Nonnull String adId,
+                                             @RequestParam(name = "count", defaultValue = "1") int count) {
+        return record(adId, DeliveryEventType.CLICK, count);
+    }
+
+    /**
+     * Record a batch of impressions and clicks, for clients buffering events. Events of unknown advertisements or
+     * with an invalid count are rejected, the others are accepted.
+     *
+     * @param events the events to record
+     * @return 202 Accepted with the number of accepted and rejected events
+     */
+    @PostMapping(value = "/events", consumes = "application/json", produces = "application/json")
+    public ResponseEntity<DeliveryBatchResult> recordEvents(@RequestBody @Nonnull List<DeliveryEvent> events) {
+        Map<String, Boolean> exists = new HashMap<>();
+        int accepted = 0;
+        for (DeliveryEvent event : events) {
+            int count = event.count() == null ? 1 : event.count();
+            if (event.adId() == null || event.type() == null || count < 1 || count > MAX_EVENT_COUNT
+                    || !exists.computeIfAbsent(event.adId(), advertisementService::advertisementExists)) {
+                continue;
+            }
+            deliveryTracker.record(event.adId(), event.type(), count);
+            accepted++;
+        }
+        return ResponseEntity.accepted().body(new DeliveryBatchResult(accepted, events.size() - accepted));
+    }
+
+    /**
+     * Get the impressions and clicks of an advertisement per minute. Counts are persisted every
+     * {@code advertisement.tracking.flush-interval}, the latest ones may not be included yet.
+     *
+     * @param adId the ID of the advertisement
+     * @param from the inclusive start of the period, defaults to one hour ago
+     * @param to   the exclusive end of the period, defaults to now
+     * @return the counts per minute, ordered by minute
+     */
+    @GetMapping(value = "/{ad_id}/delivery", produces = "application/json")
+    public List<DeliveryStats> getDeliveryStats(@PathVariable(name = "ad_id", required = true) @Nonnull String adId,
+                                                @RequestParam(name = "from", required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) Instant from,
+                                                @RequestParam(name = "to", required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) Instant to) {
+        Instant end = to != null ? to : Instant.now();
+        Instant start = from != null ? from : end.minus(Duration.ofHours(1));
+        if (!start.isBefore(end)) {
+            throw new ValidationException("from should be before to");
+        }
+        return deliveryTracker.deliveryStats(adId, start, end);
+    }
+
+    private ResponseEntity<Void> record(String adId, DeliveryEventType type, int count) {
+        if (count < 1 || count > MAX_EVENT_COUNT) {
+            throw new ValidationException(String.format("count must be between 1 and %d", MAX_EVENT_COUNT));
+        }
+        if (!advertisementService.advertisementExists(adId)) {
+            throw new AdvertisementNotFoundException(String.format("Advertisement with id: %s not found", adId));
+        }
+        deliveryTracker.record(adId, type, count);
+        return ResponseEntity.accepted().build();
+    }
+}
@@ -0,0 +1,44 @@
+package com.ucapital24.advertisement.api;
+
+import com.ucapital24.advertisement.dao.AdvertisementIndexManager;
+import com.ucapital24.advertisement.model.IndexStatus;
+import com.ucapital24.advertisement.model.QueryPlan;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.util.List;
+
+/**
+ * Admin endpoints on the MongoDB indexes, only available with the MongoDB store.
+ */
+@RestController
+@ConditionalOnProperty(name = "advertisement.store.type", havingValue = "mongo", matchIfMissing = true)
+@RequestMapping("/api/v1/admin")
+public class IndexAdminController {
+
+    @Autowired
+    private AdvertisementIndexManager advertisementIndexManager;
+
+    /**
+     * Get the indexes declared on the advertisement collection and whether they exist.
+     *
+     * @return the status of every declared index
+     */
+    @GetMapping(value = "/indexes", produces = "application/json")
+    public List<IndexStatus> getIndexes() {
+        return advertisementIndexManager.indexStatuses();
+    }
+
+    /**
+     * Get the winning plan of every query shape issued on the advertisement collection.
+     *
+     * @return the query plans, with collection_scan set for the queries not served by an index
+     */
+    @GetMapping(value = "/query-plans", produces = "application/json")
+    public List<QueryPlan> getQueryPlans() {
+        return advertisementIndexManager.explainQueryShapes();
+    }
+}
@@ -0,0 +1,184 @@
+package com.ucapital24.advertisement.cache;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
+import com.ucapital24.advertisement.dao.AdvertisementDocument;
+import com.ucapital24.advertisement.model.Advertisement;
+import com.ucapital24.advertisement.model.CacheStatistics;
+import com.ucapital24.advertisement.model.VersionedAdvertisement;
+import com.ucapital24.advertisement.replication.AdvertisementReadModel;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import jakarta.validation.constraints.NotNull;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Function;
+
+/**
+ * Bounded read-through cache of {@link Advertisement} records keyed by ID. Every record is cached with its version,
+ * so that conditional requests can be answered from the cache.
+ * <p>
+ * Entries are evicted by size and by TTL. Lookups of unknown IDs are cached as well (negative caching),
+ * with their own, usually shorter, TTL so that hammering a missing ID does not reach MongoDB every time.
+ */
+@Component
+public class AdvertisementCache implements MeterBinder, AdvertisementReadModel {
+
+    private final Cache<String, Optional<VersionedAdvertisement>> cache;
+    // bumped before every invalidation, so that a load that started before it is not cached
+    private final AtomicLong invalidations = new AtomicLong();
+
+    public AdvertisementCache(@Value("${advertisement.cache.maximum-size:10000}") long maximumSize,
+                              @Value("${advertisement.cache.ttl:PT5M}") Duration ttl,
+                              @Value("${advertisement.cache.negative-ttl:PT30S}") Duration negativeTtl) {
+        this.cache = Caffeine.newBuilder()
+                .maximumSize(maximumSize)
+                .expireAfter(new PresenceAwareExpiry(ttl.toNanos(), negativeTtl.toNanos()))
+                .recordStats()
+                .build();
+    }
+
+    /**
+     * Returns the cached advertisement, loading it on a miss.
+     *
+     * @param adId   the ID of the advertisement
+     * @param loader loads the advertisement when it is not cached, returns an empty optional if it does not exist
+     * @return the advertisement, or an empty optional if it does not exist
+     */
+    @NotNull
+    public Optional<VersionedAdvertisement> get(@NotNull String adId, @NotNull Function<String, Optional<VersionedAdvertisement>> loader) {
+        return cache.get(adId, loader);
+    }
+
+    /**
+     * Returns the cached advertisement without loading it, for callers that load it themselves without blocking and
+     * then cache it with {@link #putIfUnchanged}.
+     *
+     * @param adId the ID of the advertisement
+     * @return the advertisement, an empty optional if it is cached as missing, or null if it is not cached
+     */
+    public Optional<VersionedAdvertisement> getIfPresent(@NotNull String adId) {
+        return cache.getIfPresent(adId);
+    }
+
+    /**
+     * @return the stamp to pass to {@link #putIfUnchanged} for a load starting now
+     */
+    public long stamp() {
+        return invalidations.get();
+    }
+
+    /**
+     * Caches a loaded advertisement, unless an entry was invalidated since the load started: the loaded version might
+     * then predate the write that invalidated it.
+     *
+     * @param adId   the ID of the advertisement
+     * @param loaded the advertisement, or an empty optional if it does not exist
+     * @param stamp  the {@link #stamp()} taken before the load
+     */
+    public void putIfUnchanged(@NotNull String adId, @NotNull Optional<VersionedAdvertisement> loaded, long stamp) {
+        // an invalidation bumps the stamp before removing the entry, so it either is seen here or removes this one
+        cache.asMap().compute(adId, (id, cached) -> invalidations.get() == stamp ? loaded : cached);
+    }
+
+    /**
+     * Returns the cached advertisements, loading all the missing ones with a single call of the loader.
+     *
+     * @param adIds  the IDs of the advertisements, without duplicates
+     * @param loader loads the advertisements that are not cached; the IDs it returns no entry for are cached as
+     *               missing
+     * @return the advertisement, or an empty optional if it does not exist, of every ID
+     */
+    @NotNull
+    public Map<String, Optional<VersionedAdvertisement>> getAll(@NotNull Collection<String> adIds,
+                                                                @NotNull Function<Set<String>, Map<String, VersionedAdvertisement>> loader) {
+        return cache.getAll(adIds, missingIds -> {
+            Set<String> ids = Set.copyOf(missingIds);
+            Map<String, VersionedAdvertisement> loaded = loader.apply(ids);
+            Map<String, Optional<VersionedAdvertisement>> result = new HashMap<>();
+            for (String adId : ids) {
+                result.put(adId, Optional.ofNullable(loaded.get(adId)));
+            }
+            return result;
+        });
+    }
+
+    /**
+     * Drops the cached entry of an advertisement, if any.
+     *
+     * @param adId the ID of the advertisement
+     */
+    public void invalidate(@NotNull String adId) {
+        invalidations.incrementAndGet();
+        cache.invalidate(adId);
+    }
+
+    public void invalidateAll() {
+        invalidations.incrementAndGet();
+        cache.invalidateAll();
+    }
+
+    @Override
+    public void reload(@NotNull Iterable<AdvertisementDocument> advertisementDocuments) {
+        invalidateAll();
+    }
+
+    /**
+     * Refreshes the cached entry of a changed advertisement, if it is cached and older. Advertisements that are not
+     * cached are not added, so replication does not fill the cache with cold entries.
+     */
+    @Override
+    public void put(@NotNull AdvertisementDocument advertisementDocument) {
+        VersionedAdvertisement changed = advertisementDocument.toVersionedAdvertisement();
+        invalidations.incrementAndGet();
+        cache.asMap().computeIfPresent(advertisementDocument.getId(), (adId, cached) ->
+                cached.isPresent() && cached.get().version() > changed.version() ? cached : Optional.of(changed));
+    }
+
+    @Override
+    public void remove(@NotNull String adId) {
+        invalidate(adId);
+    }
+
+    /**
+     * @return the hit, miss and eviction counters of the cache
+     */
+    @NotNull
+    public CacheStatistics statistics() {
+        var stats = cache.stats();
+        return new CacheStatistics(cache.estimatedSize(), stats.hitCount(), stats.missCount(), stats.evictionCount(), stats.hitRate());
+    }
+
+    @Override
+    public void bindTo(@NotNull MeterRegistry registry) {
+        CaffeineCacheMetrics.monitor(registry, cache, "advertisement");
+    }
+
+    private record PresenceAwareExpiry(long ttlNanos, long negativeTtlNanos) implements Expiry<String, Optional<VersionedAdvertisement>> {
+
+        @Override
+        public long expireAfterCreate(String key, Optional<VersionedAdvertisement> value, long currentTime) {
+            return value.isPresent() ? ttlNanos : negativeTtlNanos;
+        }
+
+        @Override
+        public long expireAfterUpdate(String key, Optional<VersionedAdvertisement> value, long currentTime, long currentDuration) {
+            return expireAfterCreate(key, value, currentTime);
+        }
+
+        @Override
+        public long expireAfterRead(String key, Optional<VersionedAdvertisement> value, long currentTime, long currentDuration) {
+            return currentDuration;
+        }
+    }
+}
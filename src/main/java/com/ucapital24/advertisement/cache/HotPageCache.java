@@ -0,0 +1,216 @@
+package com.ucapital24.advertisement.cache;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.ucapital24.advertisement.dao.AdvertisementDocument;
+import com.ucapital24.advertisement.lifecycle.AdvertisementLifecycleEvent;
+import com.ucapital24.advertisement.replication.AdvertisementReadModel;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import jakarta.validation.constraints.NotNull;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.Pageable;
+import org.springframework.stereotype.Component;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Function;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Cache of the first pages of the unfiltered advertisement list, kept as fully serialized JSON (and gzip when it is
+ * worth it), so that a hot page is answered without querying MongoDB, mapping documents or running Jackson. The
+ * bytes stay on the heap: the servlet output stream copies whatever it is given into its own buffer, so a direct
+ * buffer would only add a copy to the heap on every response.
+ * <p>
+ * Entries are keyed by the normalized page number, size and sort, and stamped with the generation they were loaded
+ * at. Every write bumps the generation, which makes all entries stale at once without walking them; a stale entry
+ * is reloaded on its next request. An entry loaded while a write was in flight carries the older generation, so it
+ * is never served after the write. Writes of the other instances reach the cache through replication; without
+ * replication, {@code advertisement.hot-pages.ttl} bounds how long they stay invisible.
+ */
+@Component
+public class HotPageCache implements MeterBinder, AdvertisementReadModel {
+
+    private final Cache<PageKey, HotPage> cache;
+    private final AtomicLong generation = new AtomicLong();
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final SingleFlight<PageLoad, HotPage> loads = new SingleFlight<>("advertisement.hot-page");
+    private final boolean enabled;
+    private final int maxPage;
+    private final int compressionMinSize;
+
+    public HotPageCache(@Value("${advertisement.hot-pages.enabled:true}") boolean enabled,
+                        @Value("${advertisement.hot-pages.max-page:2}") int maxPage,
+                        @Value("${advertisement.hot-pages.maximum-entries:64}") long maximumEntries,
+                        @Value("${advertisement.hot-pages.ttl:PT1M}") Duration ttl,
+                        @Value("${advertisement.hot-pages.compression-min-size:1024}") int compressionMinSize) {
+        this.enabled = enabled;
+        this.maxPage = maxPage;
+        this.compressionMinSize = compressionMinSize;
+        this.cache = Caffeine.newBuilder()
+                .maximumSize(maximumEntries)
+                .expireAfterWrite(ttl)
+                .build();
+    }
+
+    /**
+     * @param pageable the requested page
+     * @return whether the page is one of the first {@code advertisement.hot-pages.max-page} pages and may be cached
+     */
+    public boolean isCacheable(@NotNull Pageable pageable) {
+        return enabled && pageable.isPaged() && pageable.getPageNumber() < maxPage;
+    }
+
+    /**
+     * Returns the cached page, loading and serializing it on a miss or when a write made it stale. Concurrent
+     * misses on the same page of the same generation share one load.
+     *
+     * @param pageable the requested page, which must be {@link #isCacheable(Pageable) cacheable}
+     * @param loader   queries and serializes the page
+     * @return the serialized page
+     */
+    @NotNull
+    public HotPage get(@NotNull Pageable pageable, @NotNull Function<Pageable, SerializedPage> loader) {
+        PageKey key = PageKey.of(pageable);
+        long loadedAt = generation.get();
+        HotPage cached = cache.getIfPresent(key);
+        if (cached != null && cached.generation() == loadedAt) {
+            hits.increment();
+            return cached;
+        }
+        misses.increment();
+        return loads.execute(new PageLoad(key, loadedAt), () -> {
+            HotPage loaded = HotPage.of(loadedAt, loader.apply(pageable), compressionMinSize);
+            cache.put(key, loaded);
+            return loaded;
+        });
+    }
+
+    /**
+     * @return the write generation, bumped by every write through the service, every replicated write and every
+     * archiving
+     */
+    public long generation() {
+        return generation.get();
+    }
+
+    /**
+     * Makes every cached page stale.
+     */
+    public void invalidateAll() {
+        generation.incrementAndGet();
+    }
+
+    @Override
+    public void reload(@NotNull Iterable<AdvertisementDocument> advertisementDocuments) {
+        invalidateAll();
+    }
+
+    @Override
+    public void put(@NotNull AdvertisementDocument advertisementDocument) {
+        invalidateAll();
+    }
+
+    @Override
+    public void remove(@NotNull String adId) {
+        invalidateAll();
+    }
+
+    /**
+     * Archived advertisements leave the list without going through the service.
+     */
+    @EventListener
+    public void onLifecycleEvent(AdvertisementLifecycleEvent event) {
+        if (event.type() == AdvertisementLifecycleEvent.Type.ARCHIVED) {
+            invalidateAll();
+        }
+    }
+
+    @Override
+    public void bindTo(@NotNull MeterRegistry registry) {
+        FunctionCounter.builder("advertisement.hot-pages.requests", hits, LongAdder::sum)
+                .tag("result", "hit")
+                .description("Number of list requests answered from the hot page cache")
+                .register(registry);
+        FunctionCounter.builder("advertisement.hot-pages.requests", misses, LongAdder::sum)
+                .tag("result", "miss")
+                .description("Number of cacheable list requests that had to query and serialize the page")
+                .register(registry);
+        Gauge.builder("advertisement.hot-pages.size", cache, Cache::estimatedSize)
+                .description("Number of serialized pages held by the hot page cache, stale ones included")
+                .register(registry);
+        loads.bindTo(registry);
+    }
+
+    /**
+     * A page as produced by the loader.
+     *
+     * @param etag the strong ETag of the page
+     * @param json the page serialized as JSON
+     */
+    public record SerializedPage(String etag, byte[] json) {
+    }
+
+    /**
+     * A cached page. The arrays are shared between requests and must not be modified.
+     */
+    public record HotPage(long generation, String etag, byte[] json, byte[] gzip) {
+
+        static HotPage of(long generation, SerializedPage page, int compressionMinSize) {
+            byte[] gzip = null;
+            if (page.json().length >= compressionMinSize) {
+                byte[] compressed = gzip(page.json());
+                if (compressed.length < page.json().length) {
+                    gzip = compressed;
+                }
+            }
+            return new HotPage(generation, page.etag(), page.json(), gzip);
+        }
+
+        /**
+         * @param acceptsGzip whether the client accepts a gzip content encoding
+         * @return whether {@link #body(boolean)} returns the gzip encoding of the page
+         */
+        public boolean gzipped(boolean acceptsGzip) {
+            return acceptsGzip && gzip != null;
+        }
+
+        /**
+         * @param acceptsGzip whether the client accepts a gzip content encoding
+         * @return the gzip encoding of the page if it is accepted and was worth it, the JSON otherwise
+         */
+        @NotNull
+        public byte[] body(boolean acceptsGzip) {
+            return gzipped(acceptsGzip) ? gzip : json;
+        }
+
+        private static byte[] gzip(byte[] bytes) {
+            ByteArrayOutputStream compressed = new ByteArrayOutputStream(bytes.length / 4);
+            try (GZIPOutputStream gzipStream = new GZIPOutputStream(compressed)) {
+                gzipStream.write(bytes);
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+            return compressed.toByteArray();
+        }
+    }
+
+    private record PageKey(int page, int size, String sort) {
+
+        static PageKey of(Pageable pageable) {
+            return new PageKey(pageable.getPageNumber(), pageable.getPageSize(), pageable.getSort().toString());
+        }
+    }
+
+    private record PageLoad(PageKey key, long generation) {
+    }
+}
@@ -0,0 +1,110 @@
+package com.ucapital24.advertisement.cache;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import jakarta.validation.constraints.NotNull;
+
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Supplier;
+
+/**
+ * Coalesces concurrent identical calls: while a call for a key is in flight, the other callers with the same key
+ * wait for it and share its result (or its exception) instead of running their own. Nothing is kept once the call
+ * completes, so a caller arriving afterwards runs a new call.
+ *
+ * @param <K> the type of the keys identifying identical calls, which must implement equals and hashCode
+ * @param <V> the type of the results
+ */
+public class SingleFlight<K, V> implements MeterBinder {
+
+    private final String name;
+    private final Map<K, CompletableFuture<V>> inFlight = new ConcurrentHashMap<>();
+    private final LongAdder executed = new LongAdder();
+    private final LongAdder deduplicated = new LongAdder();
+
+    /**
+     * @param name the value of the {@code name} tag of the metrics
+     */
+    public SingleFlight(@NotNull String name) {
+        this.name = name;
+    }
+
+    /**
+     * Runs the call, or waits for the identical call in flight.
+     *
+     * @param key  identifies identical calls
+     * @param call the call to run if none is in flight for the key
+     * @return the result of the call
+     */
+    public V execute(@NotNull K key, @NotNull Supplier<V> call) {
+        CompletableFuture<V> flight = new CompletableFuture<>();
+        CompletableFuture<V> leader = inFlight.putIfAbsent(key, flight);
+        if (leader != null) {
+            deduplicated.increment();
+            return await(leader);
+        }
+        executed.increment();
+        try {
+            V result = call.get();
+            flight.complete(result);
+            return result;
+        } catch (RuntimeException | Error e) {
+            flight.completeExceptionally(e);
+            throw e;
+        } finally {
+            inFlight.remove(key, flight);
+        }
+    }
+
+    /**
+     * @return the number of calls that were run
+     */
+    public long executedCount() {
+        return executed.sum();
+    }
+
+    /**
+     * @return the number of calls that shared the result of an identical call in flight
+     */
+    public long deduplicatedCount() {
+        return deduplicated.sum();
+    }
+
+    @Override
+    public void bindTo(@NotNull MeterRegistry registry) {
+        FunctionCounter.builder("advertisement.single-flight.calls", executed, LongAdder::sum)
+                .tag("name", name)
+                .tag("result", "executed")
+                .description("Number of calls that were run")
+                .register(registry);
+        FunctionCounter.builder("advertisement.single-flight.calls", deduplicated, LongAdder::sum)
+                .tag("name", name)
+                .tag("result", "deduplicated")
+                .description("Number of calls that shared the result of an identical call in flight")
+                .register(registry);
+        Gauge.builder("advertisement.single-flight.in-flight", inFlight, Map::size)
+                .tag("name", name)
+                .description("Number of calls in flight")
+                .register(registry);
+    }
+
+    private static <V> V await(CompletableFuture<V> leader) {
+        try {
+            return leader.join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            if (e.getCause() instanceof Error cause) {
+                throw cause;
+            }
+            throw e;
+        }
+    }
+}
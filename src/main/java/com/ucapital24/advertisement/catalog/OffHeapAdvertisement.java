@@ -0,0 +1,206 @@
+package com.ucapital24.advertisement.catalog;
+
+import com.ucapital24.advertisement.dao.AdvertisementDocument;
+import com.ucapital24.advertisement.model.Advertisement;
+import com.ucapital24.advertisement.model.AdvertisementMediaType;
+import com.ucapital24.advertisement.model.VersionedAdvertisement;
+import jakarta.validation.constraints.NotNull;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+
+/**
+ * Flyweight over an advertisement record of an {@link OffHeapArena}: the accessors read the fields straight from
+ * the buffer, and {@link #toAdvertisement()} is meant to be called only for the advertisements that are returned.
+ * A flyweight may be moved from record to record, and must then not be shared between threads.
+ * <p>
+ * A record is the ID (an int length then the UTF-8 bytes, first so that the hash table can compare keys), the start
+ * and end dates, the version and the last modification time as epoch milliseconds, the address of the interned
+ * media URL, the weight, the media type ordinal, then the title and the content as length-prefixed UTF-8.
+ * {@code MIN_VALUE}, -1 or address 0 stand for null.
+ */
+public final class OffHeapAdvertisement {
+
+    private static final int START_DATE = 0;
+    private static final int END_DATE = 8;
+    private static final int VERSION = 16;
+    private static final int LAST_MODIFIED = 24;
+    private static final int MEDIA_URL = 32;
+    private static final int WEIGHT = 40;
+    private static final int MEDIA_TYPE = 44;
+    private static final int TITLE = 45;
+    private static final AdvertisementMediaType[] MEDIA_TYPES = AdvertisementMediaType.values();
+
+    private final OffHeapArena arena;
+    private ByteBuffer buffer;
+    private int offset;
+    private int fields;
+    private long address;
+
+    OffHeapAdvertisement(OffHeapArena arena) {
+        this.arena = arena;
+    }
+
+    void moveTo(long address) {
+        this.address = address;
+        this.buffer = arena.chunk(address);
+        this.offset = OffHeapArena.offset(address);
+        this.fields = offset + 4 + buffer.getInt(offset);
+    }
+
+    /**
+     * @return the address of the record in its arena
+     */
+    public long address() {
+        return address;
+    }
+
+    public String id() {
+        return readString(buffer, offset);
+    }
+
+    public long startMillis() {
+        return buffer.getLong(fields + START_DATE);
+    }
+
+    public long endMillis() {
+        return buffer.getLong(fields + END_DATE);
+    }
+
+    public Instant startDate() {
+        return toInstant(startMillis());
+    }
+
+    public Instant endDate() {
+        return toInstant(endMillis());
+    }
+
+    public Long version() {
+        long version = buffer.getLong(fields + VERSION);
+        return version == Long.MIN_VALUE ? null : version;
+    }
+
+    public Instant lastModified() {
+        return toInstant(buffer.getLong(fields + LAST_MODIFIED));
+    }
+
+    public String mediaUrl() {
+        long url = buffer.getLong(fields + MEDIA_URL);
+        return url == 0 ? null : readString(arena.chunk(url), OffHeapArena.offset(url));
+    }
+
+    public Integer weight() {
+        int weight = buffer.getInt(fields + WEIGHT);
+        return weight == Integer.MIN_VALUE ? null : weight;
+    }
+
+    public AdvertisementMediaType mediaType() {
+        byte mediaType = buffer.get(fields + MEDIA_TYPE);
+        return mediaType < 0 ? null : MEDIA_TYPES[mediaType];
+    }
+
+    public String title() {
+        return readString(buffer, fields + TITLE);
+    }
+
+    public String content() {
+        int title = fields + TITLE;
+        return readString(buffer, title + 4 + Math.max(0, buffer.getInt(title)));
+    }
+
+    @NotNull
+    public Advertisement toAdvertisement() {
+        return new Advertisement(id(), title(), content(), mediaUrl(), mediaType(), startDate(), endDate(), weight());
+    }
+
+    @NotNull
+    public VersionedAdvertisement toVersionedAdvertisement() {
+        Long version = version();
+        return new VersionedAdvertisement(toAdvertisement(), version == null ? 0 : version, lastModified());
+    }
+
+    /**
+     * @return the size of the record
+     */
+    int size() {
+        int content = fields + TITLE + 4 + Math.max(0, buffer.getInt(fields + TITLE));
+        return content + 4 + Math.max(0, buffer.getInt(content)) - offset;
+    }
+
+    ByteBuffer buffer() {
+        return buffer;
+    }
+
+    /**
+     * @return the offset of the media URL address from the start of the record
+     */
+    int mediaUrlOffset() {
+        return fields - offset + MEDIA_URL;
+    }
+
+    /**
+     * @return the size of the record of the document
+     */
+    static int size(byte[] id, byte[] title, byte[] content) {
+        return 4 + id.length + TITLE + 4 + length(title) + 4 + length(content);
+    }
+
+    /**
+     * Writes the record of a document.
+     *
+     * @param mediaUrl the address of the interned media URL, 0 if none
+     */
+    static void write(ByteBuffer buffer, int offset, byte[] id, byte[] title, byte[] content, AdvertisementDocument document, long mediaUrl) {
+        int position = writeBytes(buffer, offset, id);
+        buffer.putLong(position + START_DATE, toMillis(document.getStartDate()));
+        buffer.putLong(position + END_DATE, toMillis(document.getEndDate()));
+        buffer.putLong(position + VERSION, document.getVersion() == null ? Long.MIN_VALUE : document.getVersion());
+        buffer.putLong(position + LAST_MODIFIED, toMillis(document.getLastModified()));
+        buffer.putLong(position + MEDIA_URL, mediaUrl);
+        buffer.putInt(position + WEIGHT, document.getWeight() == null ? Integer.MIN_VALUE : document.getWeight());
+        buffer.put(position + MEDIA_TYPE, document.getMediaType() == null ? -1 : (byte) document.getMediaType().ordinal());
+        writeBytes(buffer, writeBytes(buffer, position + TITLE, title), content);
+    }
+
+    /**
+     * Writes an int length, -1 for null, then the bytes.
+     *
+     * @return the offset after the bytes
+     */
+    static int writeBytes(ByteBuffer buffer, int offset, byte[] bytes) {
+        if (bytes == null) {
+            buffer.putInt(offset, -1);
+            return offset + 4;
+        }
+        buffer.putInt(offset, bytes.length);
+        buffer.put(offset + 4, bytes);
+        return offset + 4 + bytes.length;
+    }
+
+    static byte[] utf8(String value) {
+        return value == null ? null : value.getBytes(StandardCharsets.UTF_8);
+    }
+
+    static String readString(ByteBuffer buffer, int offset) {
+        int length = buffer.getInt(offset);
+        if (length < 0) {
+            return null;
+        }
+        byte[] bytes = new byte[length];
+        buffer.get(offset + 4, bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    private static int length(byte[] bytes) {
+        return bytes == null ? 0 : bytes.length;
+    }
+
+    private static long toMillis(Instant instant) {
+        return instant == null ? Long.MIN_VALUE : instant.toEpochMilli();
+    }
+
+    private static Instant toInstant(long millis) {
+        return millis == Long.MIN_VALUE ? null : Instant.ofEpochMilli(millis);
+    }
+}
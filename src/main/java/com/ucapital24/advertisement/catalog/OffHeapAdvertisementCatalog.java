@@ -0,0 +1,208 @@
+package com.ucapital24.advertisement.catalog;
+
+import com.ucapital24.advertisement.dao.AdvertisementDocument;
+import jakarta.validation.constraints.NotNull;
+
+import java.nio.ByteBuffer;
+import java.util.function.Consumer;
+
+/**
+ * Catalog of advertisements kept outside the heap, for read models that hold every advertisement: each one is a
+ * compact record in an {@link OffHeapArena}, found by ID through an {@link OffHeapHashTable}, and read through an
+ * {@link OffHeapAdvertisement} flyweight. Media URLs are interned, so advertisements sharing one store it once.
+ * <p>
+ * Writes are serialized and append a new record; reads never lock. An update or a removal leaves the previous record
+ * in the arena until garbage outweighs the live records, then the live records are copied to a new arena and the
+ * catalog switches to it at once. Readers that started on the previous arena keep reading it safely.
+ */
+public final class OffHeapAdvertisementCatalog {
+
+    private record State(OffHeapArena arena, OffHeapHashTable ids, OffHeapHashTable mediaUrls) {
+    }
+
+    private final int chunkSize;
+    private volatile State state;
+    private long liveBytes;
+    private long garbageBytes;
+
+    /**
+     * @param chunkSize the size of the direct buffers the records are allocated in, which bounds the size of a record
+     */
+    public OffHeapAdvertisementCatalog(int chunkSize) {
+        this.chunkSize = chunkSize;
+        this.state = new State(new OffHeapArena(chunkSize), new OffHeapHashTable(0), new OffHeapHashTable(0));
+    }
+
+    /**
+     * Replaces the whole content of the catalog. Readers see the previous content until the new one is complete.
+     *
+     * @param advertisementDocuments the advertisements of the catalog
+     */
+    public synchronized void reload(@NotNull Iterable<AdvertisementDocument> advertisementDocuments) {
+        State loaded = new State(new OffHeapArena(chunkSize), new OffHeapHashTable(0), new OffHeapHashTable(0));
+        liveBytes = 0;
+        garbageBytes = 0;
+        for (AdvertisementDocument advertisementDocument : advertisementDocuments) {
+            loaded = write(loaded, advertisementDocument);
+        }
+        state = loaded;
+    }
+
+    /**
+     * Adds an advertisement to the catalog or replaces its previous version.
+     *
+     * @param advertisementDocument the advertisement
+     */
+    public synchronized void put(@NotNull AdvertisementDocument advertisementDocument) {
+        state = compactIfWasteful(write(state, advertisementDocument));
+    }
+
+    /**
+     * Removes an advertisement from the catalog.
+     *
+     * @param adId the ID of the advertisement
+     * @return whether the advertisement was in the catalog
+     */
+    public synchronized boolean remove(@NotNull String adId) {
+        State current = state;
+        long previous = current.ids().remove(current.arena(), OffHeapAdvertisement.utf8(adId));
+        if (previous == 0) {
+            return false;
+        }
+        int size = current.arena().advertisement(previous).size();
+        liveBytes -= size;
+        garbageBytes += size;
+        state = compactIfWasteful(current);
+        return true;
+    }
+
+    /**
+     * @param adId the ID of an advertisement
+     * @return a flyweight reading the advertisement, or null if it is not in the catalog
+     */
+    public OffHeapAdvertisement get(@NotNull String adId) {
+        State current = state;
+        long address = current.ids().get(current.arena(), OffHeapAdvertisement.utf8(adId));
+        return address == 0 ? null : current.arena().advertisement(address);
+    }
+
+    public boolean contains(@NotNull String adId) {
+        State current = state;
+        return current.ids().get(current.arena(), OffHeapAdvertisement.utf8(adId)) != 0;
+    }
+
+    public int size() {
+        return state.ids().size();
+    }
+
+    /**
+     * @return the number of bytes allocated outside the heap
+     */
+    public long allocatedBytes() {
+        return state.arena().allocatedBytes();
+    }
+
+    /**
+     * Visits every advertisement with one flyweight moved from record to record. The advertisements written
+     * meanwhile may or may not be visited.
+     *
+     * @param action receives the flyweight, which must not be kept
+     * @return the arena of the visited addresses, to read them again later
+     */
+    @NotNull
+    public OffHeapArena forEach(@NotNull Consumer<OffHeapAdvertisement> action) {
+        State current = state;
+        OffHeapAdvertisement advertisement = new OffHeapAdvertisement(current.arena());
+        current.ids().forEach(address -> {
+            advertisement.moveTo(address);
+            action.accept(advertisement);
+        });
+        return current.arena();
+    }
+
+    /**
+     * Appends the record of the document and maps its ID to it.
+     *
+     * @return the state to use from now on, with rebuilt tables if they were full
+     */
+    private State write(State current, AdvertisementDocument document) {
+        OffHeapArena arena = current.arena();
+        byte[] id = OffHeapAdvertisement.utf8(document.getId());
+        byte[] title = OffHeapAdvertisement.utf8(document.getTitle());
+        byte[] content = OffHeapAdvertisement.utf8(document.getContent());
+        long mediaUrl = intern(current, OffHeapAdvertisement.utf8(document.getMediaUrl()));
+        int size = OffHeapAdvertisement.size(id, title, content);
+        long address = arena.allocate(size);
+        OffHeapAdvertisement.write(arena.chunk(address), OffHeapArena.offset(address), id, title, content, document, mediaUrl);
+        long previous = current.ids().put(arena, id, address);
+        liveBytes += size;
+        if (previous != 0) {
+            int previousSize = arena.advertisement(previous).size();
+            liveBytes -= previousSize;
+            garbageBytes += previousSize;
+        }
+        if (current.ids().isFull() || current.mediaUrls().isFull()) {
+            return rebuild(current, current.arena());
+        }
+        return current;
+    }
+
+    private static long intern(State current, byte[] mediaUrl) {
+        if (mediaUrl == null) {
+            return 0;
+        }
+        long address = current.mediaUrls().get(current.arena(), mediaUrl);
+        if (address == 0) {
+            address = current.arena().allocate(4 + mediaUrl.length);
+            OffHeapAdvertisement.writeBytes(current.arena().chunk(address), OffHeapArena.offset(address), mediaUrl);
+            current.mediaUrls().put(current.arena(), mediaUrl, address);
+        }
+        return address;
+    }
+
+    /**
+     * Copies the live records to a new arena, with the media URLs they still use, once the records superseded or
+     * removed take more space than the live ones.
+     */
+    private State compactIfWasteful(State current) {
+        if (garbageBytes <= liveBytes || garbageBytes < chunkSize) {
+            return current;
+        }
+        State compacted = rebuild(current, new OffHeapArena(chunkSize));
+        garbageBytes = 0;
+        return compacted;
+    }
+
+    /**
+     * Rebuilds the tables, sized for the live entries, over the same arena or over a new one the records are copied
+     * to.
+     */
+    private State rebuild(State current, OffHeapArena arena) {
+        boolean copy = arena != current.arena();
+        State rebuilt = new State(arena, new OffHeapHashTable(current.ids().size()),
+                new OffHeapHashTable(copy ? current.ids().size() : current.mediaUrls().size()));
+        OffHeapAdvertisement record = new OffHeapAdvertisement(current.arena());
+        current.ids().forEach(address -> {
+            record.moveTo(address);
+            long target = copy ? copy(rebuilt, record) : address;
+            rebuilt.ids().put(arena, OffHeapAdvertisement.utf8(record.id()), target);
+        });
+        if (!copy) {
+            current.mediaUrls().forEach(address -> rebuilt.mediaUrls().put(arena,
+                    OffHeapAdvertisement.utf8(OffHeapAdvertisement.readString(arena.chunk(address), OffHeapArena.offset(address))), address));
+        }
+        return rebuilt;
+    }
+
+    private static long copy(State target, OffHeapAdvertisement record) {
+        int size = record.size();
+        long mediaUrl = intern(target, OffHeapAdvertisement.utf8(record.mediaUrl()));
+        long address = target.arena().allocate(size);
+        ByteBuffer buffer = target.arena().chunk(address);
+        int offset = OffHeapArena.offset(address);
+        ByteBuffer source = record.buffer();
+        buffer.put(offset, source, OffHeapArena.offset(record.address()), size);
+        buffer.putLong(offset + record.mediaUrlOffset(), mediaUrl);
+        return address;
+    }
+}
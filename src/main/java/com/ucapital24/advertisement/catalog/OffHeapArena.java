@@ -0,0 +1,75 @@
+package com.ucapital24.advertisement.catalog;
+
+import java.nio.ByteBuffer;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * Append-only memory outside the heap, made of direct buffers of {@code chunkSize} bytes allocated on demand. Bytes
+ * are never overwritten once published, so a reader holding an address can decode it without locking for as long as
+ * it holds the arena, even after the catalog moved on to another arena.
+ * <p>
+ * An address is the chunk number (from 1, so that 0 never is an address) in bits 32 to 47 and the offset in the
+ * chunk in the low 32 bits.
+ */
+public final class OffHeapArena {
+
+    static final int MAX_CHUNKS = 0xFFFF;
+
+    private final AtomicReferenceArray<ByteBuffer> chunks = new AtomicReferenceArray<>(MAX_CHUNKS + 1);
+    private final int chunkSize;
+    private int chunkCount;
+    private int writeOffset;
+
+    OffHeapArena(int chunkSize) {
+        this.chunkSize = chunkSize;
+    }
+
+    /**
+     * @param address the address of an advertisement record of this arena
+     * @return a flyweight reading the advertisement
+     */
+    public OffHeapAdvertisement advertisement(long address) {
+        OffHeapAdvertisement advertisement = new OffHeapAdvertisement(this);
+        advertisement.moveTo(address);
+        return advertisement;
+    }
+
+    /**
+     * @return the number of bytes allocated outside the heap
+     */
+    public long allocatedBytes() {
+        return (long) chunkCount * chunkSize;
+    }
+
+    /**
+     * Reserves bytes for a record, in a new chunk when the current one is full. The chunk is published before the
+     * address is returned, so that a reader given the address always finds its chunk.
+     *
+     * @param size the size of the record
+     * @return the address of the record
+     * @throws IllegalArgumentException if the record does not fit in a chunk
+     */
+    long allocate(int size) {
+        if (size > chunkSize) {
+            throw new IllegalArgumentException(String.format("record of %d bytes does not fit in a chunk of %d bytes", size, chunkSize));
+        }
+        if (chunkCount == 0 || writeOffset + size > chunkSize) {
+            if (chunkCount == MAX_CHUNKS) {
+                throw new IllegalStateException("off-heap arena full: " + MAX_CHUNKS + " chunks of " + chunkSize + " bytes");
+            }
+            chunks.set(++chunkCount, ByteBuffer.allocateDirect(chunkSize));
+            writeOffset = 0;
+        }
+        long address = ((long) chunkCount << 32) | writeOffset;
+        writeOffset += size;
+        return address;
+    }
+
+    ByteBuffer chunk(long address) {
+        return chunks.get((int) (address >>> 32));
+    }
+
+    static int offset(long address) {
+        return (int) address;
+    }
+}
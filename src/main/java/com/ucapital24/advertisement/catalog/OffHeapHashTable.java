@@ -0,0 +1,159 @@
+package com.ucapital24.advertisement.catalog;
+
+import java.nio.ByteBuffer;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.function.LongConsumer;
+
+/**
+ * Open-addressing hash table from a key to the address of the record that starts with it, with linear probing over
+ * a primitive array: the keys are not kept in the heap, they are compared against the length-prefixed bytes at the
+ * start of the records.
+ * <p>
+ * Every slot is one long holding the address and 15 bits of the hash of the key, so that most mismatches are ruled
+ * out without reading the record; 0 is a free slot and -1 a removed one. There is a single writer, and readers do not
+ * lock: slots are read and written with volatile semantics, so a reader that finds an address sees the record
+ * written before it. Removed slots are reclaimed when the table is rebuilt.
+ */
+final class OffHeapHashTable {
+
+    private static final long FREE = 0;
+    private static final long REMOVED = -1;
+    private static final long ADDRESS_MASK = (1L << 48) - 1;
+    private static final int MIN_CAPACITY = 16;
+
+    private final AtomicLongArray slots;
+    private final int mask;
+    private int size;
+    private int used;
+
+    OffHeapHashTable(int expectedSize) {
+        int capacity = Math.max(MIN_CAPACITY, Integer.highestOneBit(Math.max(1, expectedSize) * 4 - 1) << 1);
+        this.slots = new AtomicLongArray(capacity);
+        this.mask = capacity - 1;
+    }
+
+    /**
+     * @return the address of the record of the key, or 0 if there is none
+     */
+    long get(OffHeapArena arena, byte[] key) {
+        long hash = hash(key);
+        long tag = tag(hash);
+        for (int i = (int) hash & mask; ; i = (i + 1) & mask) {
+            long slot = slots.get(i);
+            if (slot == FREE) {
+                return 0;
+            }
+            if (slot != REMOVED && (slot & ~ADDRESS_MASK) == tag && keyEquals(arena, slot & ADDRESS_MASK, key)) {
+                return slot & ADDRESS_MASK;
+            }
+        }
+    }
+
+    /**
+     * Maps the key to an address, in place of the previous one.
+     *
+     * @return the previous address of the key, or 0 if there was none
+     */
+    long put(OffHeapArena arena, byte[] key, long address) {
+        long hash = hash(key);
+        long tag = tag(hash);
+        int removed = -1;
+        for (int i = (int) hash & mask; ; i = (i + 1) & mask) {
+            long slot = slots.get(i);
+            if (slot == FREE) {
+                if (removed >= 0) {
+                    slots.set(removed, tag | address);
+                } else {
+                    slots.set(i, tag | address);
+                    used++;
+                }
+                size++;
+                return 0;
+            }
+            if (slot == REMOVED) {
+                if (removed < 0) {
+                    removed = i;
+                }
+            } else if ((slot & ~ADDRESS_MASK) == tag && keyEquals(arena, slot & ADDRESS_MASK, key)) {
+                slots.set(i, tag | address);
+                return slot & ADDRESS_MASK;
+            }
+        }
+    }
+
+    /**
+     * @return the address the key was mapped to, or 0 if there was none
+     */
+    long remove(OffHeapArena arena, byte[] key) {
+        long hash = hash(key);
+        long tag = tag(hash);
+        for (int i = (int) hash & mask; ; i = (i + 1) & mask) {
+            long slot = slots.get(i);
+            if (slot == FREE) {
+                return 0;
+            }
+            if (slot != REMOVED && (slot & ~ADDRESS_MASK) == tag && keyEquals(arena, slot & ADDRESS_MASK, key)) {
+                slots.set(i, REMOVED);
+                size--;
+                return slot & ADDRESS_MASK;
+            }
+        }
+    }
+
+    /**
+     * Visits the addresses of the table; the entries written meanwhile may or may not be visited.
+     */
+    void forEach(LongConsumer action) {
+        for (int i = 0; i < slots.length(); i++) {
+            long slot = slots.get(i);
+            if (slot != FREE && slot != REMOVED) {
+                action.accept(slot & ADDRESS_MASK);
+            }
+        }
+    }
+
+    int size() {
+        return size;
+    }
+
+    /**
+     * @return whether the table is half full, removed slots included, and must be rebuilt
+     */
+    boolean isFull() {
+        return used * 2L > slots.length();
+    }
+
+    private static boolean keyEquals(OffHeapArena arena, long address, byte[] key) {
+        ByteBuffer buffer = arena.chunk(address);
+        int offset = OffHeapArena.offset(address);
+        if (buffer.getInt(offset) != key.length) {
+            return false;
+        }
+        for (int i = 0; i < key.length; i++) {
+            if (buffer.get(offset + 4 + i) != key[i]) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static long tag(long hash) {
+        return (hash >>> 49) << 48;
+    }
+
+    /**
+     * FNV-1a over the key, then the MurmurHash3 finalizer so that the low bits (the slot) and the high bits (the
+     * tag) are both well mixed.
+     */
+    private static long hash(byte[] key) {
+        long hash = 0xcbf29ce484222325L;
+        for (byte b : key) {
+            hash = (hash ^ b) * 0x100000001b3L;
+        }
+        hash ^= hash >>> 33;
+        hash *= 0xff51afd7ed558ccdL;
+        hash ^= hash >>> 33;
+        hash *= 0xc4ceb9fe1a85ec53L;
+        return hash ^ (hash >>> 33);
+    }
+}
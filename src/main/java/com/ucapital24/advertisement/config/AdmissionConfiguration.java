@@ -0,0 +1,34 @@
+package com.ucapital24.advertisement.config;
+
+import com.ucapital24.advertisement.admission.AdmissionInterceptor;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.web.servlet.config.annotation.InterceptorRegistry;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+
+/**
+ * Puts the {@link AdmissionInterceptor} in front of the advertisement endpoints, unless
+ * {@code advertisement.admission.enabled=false}. The admin and actuator endpoints are not limited, nor are the
+ * impression, click and event ingestion endpoints: they only add to in-memory counters, and ad servers report
+ * delivery events at a much higher rate than the per-client limit meant for the read and write API.
+ */
+@Configuration
+public class AdmissionConfiguration implements WebMvcConfigurer {
+
+    @Autowired
+    private AdmissionInterceptor admissionInterceptor;
+
+    @Value("${advertisement.admission.enabled:true}")
+    private boolean enabled;
+
+    @Override
+    public void addInterceptors(InterceptorRegistry registry) {
+        if (enabled) {
+            registry.addInterceptor(admissionInterceptor)
+                    .addPathPatterns("/api/v1/advertisements/**")
+                    .excludePathPatterns("/api/v1/advertisements/*/impressions", "/api/v1/advertisements/*/clicks",
+                            "/api/v1/advertisements/events");
+        }
+    }
+}
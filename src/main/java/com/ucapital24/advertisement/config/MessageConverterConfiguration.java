@@ -0,0 +1,19 @@
+package com.ucapital24.advertisement.config;
+
+import com.ucapital24.advertisement.api.AdvertisementProtobufHttpMessageConverter;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * Response formats besides JSON. CBOR ({@code application/cbor}) and Smile ({@code application/x-jackson-smile})
+ * are registered by Spring MVC as soon as their Jackson data formats are on the classpath; the protobuf converter
+ * for advertisements is added here.
+ */
+@Configuration
+public class MessageConverterConfiguration {
+
+    @Bean
+    public AdvertisementProtobufHttpMessageConverter advertisementProtobufHttpMessageConverter() {
+        return new AdvertisementProtobufHttpMessageConverter();
+    }
+}
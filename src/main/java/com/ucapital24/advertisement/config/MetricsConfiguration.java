@@ -0,0 +1,19 @@
+package com.ucapital24.advertisement.config;
+
+import io.micrometer.core.aop.TimedAspect;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * Metrics beyond the ones Spring Boot records on its own ({@code http.server.requests} per endpoint and
+ * {@code spring.data.repository.invocations} per repository method): {@code @Timed} support for the service layer.
+ */
+@Configuration
+public class MetricsConfiguration {
+
+    @Bean
+    public TimedAspect timedAspect(MeterRegistry meterRegistry) {
+        return new TimedAspect(meterRegistry);
+    }
+}
@@ -0,0 +1,17 @@
+package com.ucapital24.advertisement.config;
+
+import com.ucapital24.advertisement.dao.AdvertisementRepository;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.data.mongodb.repository.config.EnableMongoRepositories;
+
+/**
+ * Creates the MongoDB repositories when the advertisements are stored in MongoDB
+ * ({@code advertisement.store.type=mongo}). The repositories are not created by auto-configuration
+ * ({@code spring.data.mongodb.repositories.type=none}), so that the log store runs without a MongoDB server.
+ */
+@Configuration
+@ConditionalOnProperty(name = "advertisement.store.type", havingValue = "mongo", matchIfMissing = true)
+@EnableMongoRepositories(basePackageClasses = AdvertisementRepository.class)
+public class MongoConfiguration {
+}
@@ -0,0 +1,45 @@
+package com.ucapital24.advertisement.config;
+
+import com.mongodb.ConnectionString;
+import com.mongodb.reactivestreams.client.MongoClient;
+import com.mongodb.reactivestreams.client.MongoClients;
+import com.ucapital24.advertisement.dao.ReactiveAdvertisementRepository;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.mongo.MongoProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.data.mongodb.core.ReactiveMongoTemplate;
+import org.springframework.data.mongodb.core.SimpleReactiveMongoDatabaseFactory;
+import org.springframework.data.mongodb.core.convert.MappingMongoConverter;
+import org.springframework.data.mongodb.repository.config.EnableReactiveMongoRepositories;
+
+/**
+ * Creates the reactive MongoDB client, template and repository in the reactive execution mode
+ * ({@code advertisement.execution-mode=reactive}). Their auto-configuration is excluded
+ * ({@code spring.autoconfigure.exclude}), so that the blocking mode does not open a second connection pool; the
+ * client connects to the same {@code spring.data.mongodb.uri} and the template shares the blocking mapping.
+ */
+@Configuration
+@ConditionalOnProperty(name = "advertisement.execution-mode", havingValue = "reactive")
+@EnableReactiveMongoRepositories(basePackageClasses = ReactiveAdvertisementRepository.class)
+public class ReactiveMongoConfiguration {
+
+    public ReactiveMongoConfiguration(@Value("${advertisement.store.type:mongo}") String storeType) {
+        if (!storeType.equals("mongo")) {
+            throw new IllegalStateException("advertisement.execution-mode=reactive needs advertisement.store.type=mongo");
+        }
+    }
+
+    @Bean
+    public MongoClient reactiveMongoClient(MongoProperties mongoProperties) {
+        return MongoClients.create(new ConnectionString(mongoProperties.determineUri()));
+    }
+
+    @Bean
+    public ReactiveMongoTemplate reactiveMongoTemplate(MongoClient reactiveMongoClient, MongoProperties mongoProperties,
+                                                       MappingMongoConverter mappingMongoConverter) {
+        return new ReactiveMongoTemplate(new SimpleReactiveMongoDatabaseFactory(reactiveMongoClient,
+                mongoProperties.getMongoClientDatabase()), mappingMongoConverter);
+    }
+}
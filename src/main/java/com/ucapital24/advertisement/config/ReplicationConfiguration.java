@@ -0,0 +1,49 @@
+package com.ucapital24.advertisement.config;
+
+import com.ucapital24.advertisement.replication.AdvertisementChangeSource;
+import com.ucapital24.advertisement.replication.AdvertisementReadModel;
+import com.ucapital24.advertisement.replication.AdvertisementReplicator;
+import com.ucapital24.advertisement.replication.MongoAdvertisementChangeSource;
+import com.ucapital24.advertisement.replication.ReplayAdvertisementChangeSource;
+import com.ucapital24.advertisement.store.AdvertisementStore;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.data.mongodb.core.MongoTemplate;
+
+import java.time.Duration;
+import java.util.List;
+
+/**
+ * Replication of the writes made by the other instances of the service into the in-process read models, enabled
+ * with {@code advertisement.replication.enabled}. The changes come from a MongoDB change stream
+ * ({@code advertisement.replication.source=mongo}, needs a replica set) or from the in-process replay source
+ * ({@code replay}).
+ */
+@Configuration
+@ConditionalOnProperty(name = "advertisement.replication.enabled", havingValue = "true")
+public class ReplicationConfiguration {
+
+    @Bean
+    @ConditionalOnProperty(name = "advertisement.replication.source", havingValue = "mongo", matchIfMissing = true)
+    public AdvertisementChangeSource mongoAdvertisementChangeSource(MongoTemplate mongoTemplate) {
+        return new MongoAdvertisementChangeSource(mongoTemplate);
+    }
+
+    @Bean
+    @ConditionalOnProperty(name = "advertisement.replication.source", havingValue = "replay")
+    public ReplayAdvertisementChangeSource replayAdvertisementChangeSource(@Value("${advertisement.replication.replay-history-size:10000}") int historySize) {
+        return new ReplayAdvertisementChangeSource(historySize);
+    }
+
+    @Bean
+    public AdvertisementReplicator advertisementReplicator(AdvertisementChangeSource changeSource,
+                                                           AdvertisementStore advertisementStore,
+                                                           List<AdvertisementReadModel> readModels,
+                                                           @Value("${advertisement.replication.retry-delay:PT1S}") Duration retryDelay,
+                                                           MeterRegistry meterRegistry) {
+        return new AdvertisementReplicator(changeSource, advertisementStore, readModels, retryDelay, meterRegistry);
+    }
+}
@@ -0,0 +1,12 @@
+package com.ucapital24.advertisement.config;
+
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.annotation.EnableScheduling;
+
+/**
+ * Runs the {@code @Scheduled} background jobs, such as the flush of the delivery counts.
+ */
+@Configuration
+@EnableScheduling
+public class SchedulingConfiguration {
+}
@@ -0,0 +1,22 @@
+package com.ucapital24.advertisement.config;
+
+import com.ucapital24.advertisement.cache.SingleFlight;
+import com.ucapital24.advertisement.dao.AdvertisementPageQuery;
+import com.ucapital24.advertisement.model.VersionedAdvertisement;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.data.domain.Page;
+
+/**
+ * Coalescing of concurrent identical paginated queries, so that a burst of requests for the same page makes a
+ * single MongoDB round trip. Single lookups by ID need no such layer: the cache loads a missing ID once, however
+ * many callers ask for it at the same time.
+ */
+@Configuration
+public class SingleFlightConfiguration {
+
+    @Bean
+    public SingleFlight<AdvertisementPageQuery, Page<VersionedAdvertisement>> advertisementPageQueries() {
+        return new SingleFlight<>("advertisement.page");
+    }
+}
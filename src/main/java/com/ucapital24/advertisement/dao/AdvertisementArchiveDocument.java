@@ -0,0 +1,62 @@
+package com.ucapital24.advertisement.dao;
+
+import com.ucapital24.advertisement.model.AdvertisementMediaType;
+import jakarta.validation.constraints.NotNull;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.mapping.Document;
+import org.springframework.data.mongodb.core.mapping.Field;
+
+import java.time.Instant;
+
+/**
+ * An expired advertisement moved out of the advertisement collection, with the time it was archived.
+ */
+@Document(collection = "advertisement_archive")
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class AdvertisementArchiveDocument {
+
+    @Id
+    private String id;
+
+    @Field("title")
+    private String title;
+
+    @Field("content")
+    private String content;
+
+    @Field("media_url")
+    private String mediaUrl;
+
+    @Field("media_type")
+    private AdvertisementMediaType mediaType;
+
+    @Field("start_date")
+    private Instant startDate;
+
+    @Field("end_date")
+    private Instant endDate;
+
+    @Field("weight")
+    private Integer weight;
+
+    @Field("version")
+    private Long version;
+
+    @Field("last_modified")
+    private Instant lastModified;
+
+    @Field("archived_at")
+    private Instant archivedAt;
+
+    @NotNull
+    public static AdvertisementArchiveDocument of(@NotNull AdvertisementDocument document, @NotNull Instant archivedAt) {
+        return new AdvertisementArchiveDocument(document.getId(), document.getTitle(), document.getContent(),
+                document.getMediaUrl(), document.getMediaType(), document.getStartDate(), document.getEndDate(),
+                document.getWeight(), document.getVersion(), document.getLastModified(), archivedAt);
+    }
+}
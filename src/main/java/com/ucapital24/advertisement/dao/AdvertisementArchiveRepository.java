@@ -0,0 +1,8 @@
+package com.ucapital24.advertisement.dao;
+
+import org.springframework.data.mongodb.repository.MongoRepository;
+import org.springframework.stereotype.Repository;
+
+@Repository
+public interface AdvertisementArchiveRepository extends MongoRepository<AdvertisementArchiveDocument, String> {
+}
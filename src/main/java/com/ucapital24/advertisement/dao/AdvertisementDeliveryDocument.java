@@ -0,0 +1,45 @@
+package com.ucapital24.advertisement.dao;
+
+import com.ucapital24.advertisement.model.DeliveryStats;
+import jakarta.validation.constraints.NotNull;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.index.CompoundIndex;
+import org.springframework.data.mongodb.core.mapping.Document;
+import org.springframework.data.mongodb.core.mapping.Field;
+
+import java.time.Instant;
+
+/**
+ * Impressions and clicks of an advertisement during one minute.
+ */
+@Document(collection = "advertisement_delivery")
+// one document per advertisement and minute, target of the flush upserts
+@CompoundIndex(name = "ad_id_minute", def = "{'ad_id': 1, 'minute': 1}", unique = true)
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class AdvertisementDeliveryDocument {
+
+    @Id
+    private String id;
+
+    @Field("ad_id")
+    private String adId;
+
+    @Field("minute")
+    private Instant minute;
+
+    @Field("impressions")
+    private long impressions;
+
+    @Field("clicks")
+    private long clicks;
+
+    @NotNull
+    public DeliveryStats toDeliveryStats() {
+        return new DeliveryStats(adId, minute, impressions, clicks);
+    }
+}
@@ -0,0 +1,13 @@
+package com.ucapital24.advertisement.dao;
+
+import org.springframework.data.mongodb.repository.MongoRepository;
+import org.springframework.data.mongodb.repository.Query;
+
+import java.time.Instant;
+import java.util.List;
+
+public interface AdvertisementDeliveryRepository extends MongoRepository<AdvertisementDeliveryDocument, String>, AdvertisementDeliveryRepositoryCustom {
+
+    @Query(value = "{'ad_id': ?0, 'minute': {'$gte': ?1, '$lt': ?2}}", sort = "{'minute': 1}")
+    List<AdvertisementDeliveryDocument> findByAdIdAndMinuteInRange(String adId, Instant from, Instant to);
+}
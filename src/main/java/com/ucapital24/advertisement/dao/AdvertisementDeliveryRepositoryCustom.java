@@ -0,0 +1,13 @@
+package com.ucapital24.advertisement.dao;
+
+import java.util.List;
+
+public interface AdvertisementDeliveryRepositoryCustom {
+
+    /**
+     * Adds the counts to the delivery documents, creating the missing ones, as one unordered bulk write of upserts.
+     *
+     * @param increments the counts to add
+     */
+    void increment(List<DeliveryIncrement> increments);
+}
@@ -0,0 +1,30 @@
+package com.ucapital24.advertisement.dao;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.mongodb.core.BulkOperations;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+
+import java.util.List;
+
+public class AdvertisementDeliveryRepositoryCustomImpl implements AdvertisementDeliveryRepositoryCustom {
+
+    @Autowired
+    private MongoTemplate mongoTemplate;
+
+    @Override
+    public void increment(List<DeliveryIncrement> increments) {
+        if (increments.isEmpty()) {
+            return;
+        }
+        BulkOperations bulkOperations = mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, AdvertisementDeliveryDocument.class);
+        for (DeliveryIncrement increment : increments) {
+            bulkOperations.upsert(
+                    Query.query(Criteria.where("adId").is(increment.adId()).and("minute").is(increment.minute())),
+                    new Update().inc("impressions", increment.impressions()).inc("clicks", increment.clicks()));
+        }
+        bulkOperations.execute();
+    }
+}
@@ -2,24 +2,46 @@ package com.ucapital24.advertisement.dao;
 
 import com.ucapital24.advertisement.model.Advertisement;
 import com.ucapital24.advertisement.model.AdvertisementMediaType;
+import com.ucapital24.advertisement.model.VersionedAdvertisement;
 import jakarta.validation.constraints.NotNull;
 import lombok.AllArgsConstructor;
 import lombok.Data;
+import lombok.NoArgsConstructor;
 import org.springframework.data.annotation.Id;
+import org.springframework.data.mongodb.core.index.CompoundIndex;
+import org.springframework.data.mongodb.core.index.CompoundIndexes;
+import org.springframework.data.mongodb.core.index.Indexed;
 import org.springframework.data.mongodb.core.mapping.Document;
 import org.springframework.data.mongodb.core.mapping.Field;
 
 import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+import java.util.List;
 
 @Document(collection = "advertisement")
+@CompoundIndexes({
+        // live advertisements: end_date > now and start_date <= now
+        @CompoundIndex(name = "end_date_start_date", def = "{'end_date': 1, 'start_date': 1}"),
+        // live advertisements of a media type
+        @CompoundIndex(name = "media_type_end_date", def = "{'media_type': 1, 'end_date': 1}"),
+        // keyset scroll on start_date
+        @CompoundIndex(name = "start_date_id", def = "{'start_date': 1, '_id': 1}")
+})
 @Data
+@NoArgsConstructor
 @AllArgsConstructor
 public class AdvertisementDocument {
 
+    /**
+     * The stored field names, which are also the API field names of {@link Advertisement}.
+     */
+    public static final List<String> FIELDS = List.of("_id", "title", "content", "media_url", "media_type", "start_date", "end_date", "weight");
+
     @Id
     private String id;
 
     @NotNull
+    @Indexed(name = "title") // title prefix search
     @Field("title")
     private String title;
 
@@ -43,8 +65,44 @@ public class AdvertisementDocument {
     @Field("end_date")
     private Instant endDate;
 
+    @Field("weight") // null means 1
+    private Integer weight;
+
+    @Field("version") // null for documents written before versioning
+    private Long version;
+
+    @Field("last_modified")
+    private Instant lastModified;
+
+    public AdvertisementDocument(String id, String title, String content, String mediaUrl,
+                                 AdvertisementMediaType mediaType, Instant startDate, Instant endDate) {
+        this(id, title, content, mediaUrl, mediaType, startDate, endDate, null, null, null);
+    }
+
+    /**
+     * @return the selection weight of the advertisement, 1 when not set
+     */
+    public int effectiveWeight() {
+        return weight == null ? 1 : weight;
+    }
+
+    /**
+     * Records a write of the document: bumps its version and sets its last modification time.
+     *
+     * @param now the time of the write
+     */
+    public void markModified(@NotNull Instant now) {
+        version = version == null ? 1 : version + 1;
+        lastModified = now.truncatedTo(ChronoUnit.MILLIS);
+    }
+
     @NotNull
     public Advertisement toAdvertisement() {
-        return new Advertisement(id, title, content, mediaUrl, mediaType, startDate, endDate);
+        return new Advertisement(id, title, content, mediaUrl, mediaType, startDate, endDate, weight);
+    }
+
+    @NotNull
+    public VersionedAdvertisement toVersionedAdvertisement() {
+        return new VersionedAdvertisement(toAdvertisement(), version == null ? 0 : version, lastModified);
     }
 }
@@ -0,0 +1,204 @@
+package com.ucapital24.advertisement.dao;
+
+import com.ucapital24.advertisement.model.AdvertisementMediaType;
+import com.ucapital24.advertisement.model.IndexStatus;
+import com.ucapital24.advertisement.model.QueryPlan;
+import lombok.extern.slf4j.Slf4j;
+import org.bson.Document;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.event.ContextRefreshedEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.index.IndexDefinition;
+import org.springframework.data.mongodb.core.index.IndexInfo;
+import org.springframework.data.mongodb.core.index.IndexOperations;
+import org.springframework.data.mongodb.core.index.IndexResolver;
+import org.springframework.data.mongodb.repository.Query;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Date;
+import java.util.List;
+import java.util.Objects;
+import java.util.Set;
+import java.util.regex.Pattern;
+import java.util.stream.Collectors;
+
+/**
+ * Creates and checks the indexes declared on {@link AdvertisementDocument} and {@link AdvertisementDeliveryDocument},
+ * and explains the query shapes issued by
+ * {@link AdvertisementRepository} so that a query falling back to a collection scan is spotted before production.
+ * Only created with the MongoDB store ({@code advertisement.store.type=mongo}).
+ */
+@Component
+@Slf4j
+@ConditionalOnProperty(name = "advertisement.store.type", havingValue = "mongo", matchIfMissing = true)
+public class AdvertisementIndexManager {
+
+    private static final String COLLECTION_SCAN = "COLLSCAN";
+    private static final Pattern PLACEHOLDER = Pattern.compile("\\?(\\d+)");
+    private static final String PARAMETER = "parameter_index";
+    private static final List<Class<?>> INDEXED_DOCUMENTS = List.of(AdvertisementDocument.class, AdvertisementDeliveryDocument.class);
+
+    @Autowired
+    private MongoTemplate mongoTemplate;
+
+    @Value("${advertisement.mongo.ensure-indexes:true}")
+    private boolean ensureIndexes;
+
+    /**
+     * Creates the missing indexes on startup, then checks that every declared index exists.
+     */
+    @EventListener(ContextRefreshedEvent.class)
+    public void ensureIndexes() {
+        if (!ensureIndexes) {
+            return;
+        }
+        try {
+            for (Class<?> documentClass : INDEXED_DOCUMENTS) {
+                IndexOperations indexOperations = mongoTemplate.indexOps(documentClass);
+                declaredIndexes(documentClass).forEach(indexOperations::ensureIndex);
+            }
+            List<String> missing = indexStatuses().stream().filter(status -> !status.present()).map(IndexStatus::name).toList();
+            if (missing.isEmpty()) {
+                log.info("Advertisement indexes checked");
+            } else {
+                log.error("Advertisement indexes missing after creation: {}", missing);
+            }
+        } catch (Exception e) {
+            log.error("Error ensuring advertisement indexes: {}", e);
+        }
+    }
+
+    /**
+     * @return every index declared on {@link AdvertisementDocument} and {@link AdvertisementDeliveryDocument}, and
+     * whether it exists in its collection
+     */
+    public List<IndexStatus> indexStatuses() {
+        List<IndexStatus> statuses = new ArrayList<>();
+        for (Class<?> documentClass : INDEXED_DOCUMENTS) {
+            Set<String> existing = mongoTemplate.indexOps(documentClass).getIndexInfo().stream()
+                    .map(IndexInfo::getName)
+                    .collect(Collectors.toSet());
+            for (IndexDefinition index : declaredIndexes(documentClass)) {
+                String name = index.getIndexOptions().getString("name");
+                statuses.add(new IndexStatus(name, index.getIndexKeys().toJson(), existing.contains(name)));
+            }
+        }
+        return statuses;
+    }
+
+    /**
+     * Explains every query shape issued by the repository, with the planner only (the queries are not executed).
+     *
+     * @return the winning plan of every query shape
+     */
+    public List<QueryPlan> explainQueryShapes() {
+        Date now = new Date();
+        List<QueryShape> shapes = List.of(
+                new QueryShape("findActiveAt", annotatedFilter("findActiveAt", now), null),
+                new QueryShape("findActiveAtByMediaType",
+                        annotatedFilter("findActiveAtByMediaType", AdvertisementMediaType.IMAGE.name(), now),
+                        null),
+                new QueryShape("findByMediaType",
+                        new Document("media_type", AdvertisementMediaType.IMAGE.name()),
+                        null),
+                new QueryShape("searchByTitlePrefix",
+                        new Document("title", new Document("$regex", "^\\Qprefix\\E")),
+                        new Document("_id", 1)),
+                new QueryShape("findByIdGreaterThan",
+                        new Document("_id", new Document("$gt", "")),
+                        new Document("_id", 1)),
+                new QueryShape("findAfterStartDate",
+                        annotatedFilter("findAfterStartDate", now, ""),
+                        new Document("start_date", 1).append("_id", 1)));
+        return shapes.stream().map(this::explain).toList();
+    }
+
+    /**
+     * Reads the filter of a query method from its {@link Query} annotation, so that the explained shape cannot drift
+     * from the query the repository issues.
+     *
+     * @param method    the name of the query method of {@link AdvertisementRepository}
+     * @param arguments the values bound to the {@code ?0}, {@code ?1}... placeholders
+     * @return the filter with its placeholders bound
+     */
+    static Document annotatedFilter(String method, Object... arguments) {
+        Query query = Arrays.stream(AdvertisementRepository.class.getMethods())
+                .filter(candidate -> candidate.getName().equals(method))
+                .map(candidate -> candidate.getAnnotation(Query.class))
+                .filter(Objects::nonNull)
+                .findFirst()
+                .orElseThrow(() -> new IllegalArgumentException("no @Query method " + method + " in AdvertisementRepository"));
+        String json = PLACEHOLDER.matcher(query.value()).replaceAll("{ '" + PARAMETER + "': $1 }");
+        return (Document) bind(Document.parse(json), arguments);
+    }
+
+    private static Object bind(Object value, Object[] arguments) {
+        if (value instanceof Document document) {
+            if (document.size() == 1 && document.containsKey(PARAMETER)) {
+                return arguments[document.getInteger(PARAMETER)];
+            }
+            Document bound = new Document();
+            document.forEach((key, field) -> bound.append(key, bind(field, arguments)));
+            return bound;
+        }
+        if (value instanceof List<?> list) {
+            return list.stream().map(element -> bind(element, arguments)).toList();
+        }
+        return value;
+    }
+
+    private QueryPlan explain(QueryShape shape) {
+        String name = shape.name();
+        Document filter = shape.filter();
+        Document sort = shape.sort();
+        String sortJson = sort == null ? null : sort.toJson();
+        try {
+            Document find = new Document("find", mongoTemplate.getCollectionName(AdvertisementDocument.class))
+                    .append("filter", filter);
+            if (sort != null) {
+                find.append("sort", sort);
+            }
+            Document result = mongoTemplate.getDb().runCommand(
+                    new Document("explain", find).append("verbosity", "queryPlanner"));
+            Document winningPlan = result.get("queryPlanner", Document.class).get("winningPlan", Document.class);
+            if (winningPlan.containsKey("queryPlan")) {
+                winningPlan = winningPlan.get("queryPlan", Document.class);
+            }
+            List<String> stages = new ArrayList<>();
+            List<String> indexNames = new ArrayList<>();
+            collectStages(winningPlan, stages, indexNames);
+            return new QueryPlan(name, filter.toJson(), sortJson, String.join(" > ", stages),
+                    indexNames.isEmpty() ? null : String.join(",", indexNames), stages.contains(COLLECTION_SCAN), null);
+        } catch (Exception e) {
+            log.error("Error explaining query {}: {}", name, e);
+            return new QueryPlan(name, filter.toJson(), sortJson, null, null, false, e.getMessage());
+        }
+    }
+
+    private static void collectStages(Document stage, List<String> stages, List<String> indexNames) {
+        stages.add(stage.getString("stage"));
+        if (stage.containsKey("indexName")) {
+            indexNames.add(stage.getString("indexName"));
+        }
+        if (stage.containsKey("inputStage")) {
+            collectStages(stage.get("inputStage", Document.class), stages, indexNames);
+        }
+        if (stage.containsKey("inputStages")) {
+            for (Document inputStage : stage.getList("inputStages", Document.class)) {
+                collectStages(inputStage, stages, indexNames);
+            }
+        }
+    }
+
+    private record QueryShape(String name, Document filter, Document sort) {
+    }
+
+    private Iterable<? extends IndexDefinition> declaredIndexes(Class<?> documentClass) {
+        return IndexResolver.create(mongoTemplate.getConverter().getMappingContext()).resolveIndexFor(documentClass);
+    }
+}
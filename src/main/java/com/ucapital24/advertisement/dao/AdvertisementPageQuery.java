@@ -0,0 +1,21 @@
+package com.ucapital24.advertisement.dao;
+
+import com.ucapital24.advertisement.model.AdvertisementMediaType;
+import org.springframework.data.domain.Pageable;
+
+import java.time.Instant;
+
+/**
+ * A paginated advertisement query, used as the key of identical queries. The write generation keeps a query issued
+ * after a write from joining one started before it, which could miss the write.
+ *
+ * @param pageable   the page number, size and sort
+ * @param mediaType  only match advertisements of this media type, or null for all
+ * @param activeAt   only match advertisements live at this instant, or null for all
+ * @param generation the write generation when the query was issued
+ */
+public record AdvertisementPageQuery(Pageable pageable,
+                                     AdvertisementMediaType mediaType,
+                                     Instant activeAt,
+                                     long generation) {
+}
@@ -1,8 +1,48 @@
 package com.ucapital24.advertisement.dao;
 
+import com.ucapital24.advertisement.model.AdvertisementMediaType;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.mongodb.repository.Meta;
 import org.springframework.data.mongodb.repository.MongoRepository;
+import org.springframework.data.mongodb.repository.Query;
 import org.springframework.stereotype.Repository;
 
+import java.time.Instant;
+import java.util.stream.Stream;
+
 @Repository
-public interface AdvertisementRepository extends MongoRepository<AdvertisementDocument, String>{
+public interface AdvertisementRepository extends MongoRepository<AdvertisementDocument, String>, AdvertisementRepositoryCustom {
+
+    Slice<AdvertisementDocument> findAllBy(Pageable pageable);
+
+    /**
+     * Streams every advertisement from a MongoDB cursor, fetching {@code cursorBatchSize} documents per round trip.
+     * The stream must be closed to release the cursor.
+     */
+    @Meta(cursorBatchSize = 500)
+    Stream<AdvertisementDocument> streamAllBy();
+
+    Slice<AdvertisementDocument> findByIdGreaterThan(String id, Pageable pageable);
+
+    @Query("{ '$or': [ { 'start_date': { '$gt': ?0 } }, { 'start_date': ?0, '_id': { '$gt': ?1 } } ] }")
+    Slice<AdvertisementDocument> findAfterStartDate(Instant startDate, String id, Pageable pageable);
+
+    /**
+     * Advertisements live at {@code at}, served by the {@code end_date_start_date} index.
+     */
+    @Query("{ 'end_date': { '$gt': ?0 }, 'start_date': { '$lte': ?0 } }")
+    Page<AdvertisementDocument> findActiveAt(Instant at, Pageable pageable);
+
+    /**
+     * Advertisements of a media type live at {@code at}, served by the {@code media_type_end_date} index.
+     */
+    @Query("{ 'media_type': ?0, 'end_date': { '$gt': ?1 }, 'start_date': { '$lte': ?1 } }")
+    Page<AdvertisementDocument> findActiveAtByMediaType(AdvertisementMediaType mediaType, Instant at, Pageable pageable);
+
+    /**
+     * Advertisements of a media type, served by the {@code media_type_end_date} index.
+     */
+    Page<AdvertisementDocument> findByMediaType(AdvertisementMediaType mediaType, Pageable pageable);
 }
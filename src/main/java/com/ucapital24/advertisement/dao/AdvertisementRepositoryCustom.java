@@ -0,0 +1,80 @@
+package com.ucapital24.advertisement.dao;
+
+import com.ucapital24.advertisement.model.Advertisement;
+import com.ucapital24.advertisement.model.AdvertisementPatch;
+import org.bson.Document;
+
+import java.time.Instant;
+import java.util.List;
+
+public interface AdvertisementRepositoryCustom {
+
+    /**
+     * Executes the inserts as one unordered bulk write, then every replace and delete as its own write filtered on
+     * the ID and the expected version, whose matched or deleted count tells whether it applied: a bulk write only
+     * reports the counts of the whole batch.
+     *
+     * @param writes the writes to execute
+     * @return the result of every write, in the order of {@code writes}
+     */
+    List<AdvertisementWriteResult> bulkWrite(List<AdvertisementWrite> writes);
+
+    /**
+     * Searches the advertisements ordered by ID, reading only the requested fields. The documents are returned
+     * as stored and are not mapped to {@link AdvertisementDocument}.
+     *
+     * @param criteria the filters to apply
+     * @param fields   the stored field names to read, {@code _id} is only returned if listed
+     * @param skip     the number of matching documents to skip
+     * @param limit    the maximum number of documents to return
+     * @return the projected documents
+     */
+    List<Document> search(AdvertisementSearchCriteria criteria, List<String> fields, long skip, int limit);
+
+    /**
+     * Applies the set fields of the patch in one atomic findAndModify, bumping the version and setting the last
+     * modification time. The update only happens if the document exists, has the expected version, and keeps
+     * start_date before end_date when only one of the two is patched.
+     *
+     * @param id              the ID of the advertisement
+     * @param expectedVersion the version the document must have, or null for any version
+     * @param patch           the fields to set
+     * @param modifiedAt      the time of the write
+     * @return the updated document, or null if no document matched
+     */
+    AdvertisementDocument patch(String id, Long expectedVersion, AdvertisementPatch patch, Instant modifiedAt);
+
+    /**
+     * Sets every field of the advertisement in one atomic findAndModify, unsetting the optional fields left null,
+     * bumping the version and setting the last modification time. The update only happens if the document exists and
+     * has the expected version.
+     *
+     * @param id              the ID of the advertisement
+     * @param expectedVersion the version the document must have, or null for any version
+     * @param advertisement   the new fields, its ID is ignored
+     * @param modifiedAt      the time of the write
+     * @return the updated document, or null if no document matched
+     */
+    AdvertisementDocument replace(String id, Long expectedVersion, Advertisement advertisement, Instant modifiedAt);
+
+    /**
+     * Deletes the advertisement in one atomic findAndRemove, if it has the expected version.
+     *
+     * @param id              the ID of the advertisement
+     * @param expectedVersion the version the document must have, or null for any version
+     * @return the deleted document, or null if no document matched
+     */
+    AdvertisementDocument deleteIfMatch(String id, Long expectedVersion);
+
+    /**
+     * Moves the advertisements that ended before {@code endedBefore} to the archive collection, oldest first.
+     * The archived copies are upserted before the advertisements are deleted, so a sweep interrupted in between is
+     * completed by the next one. An advertisement updated to end later while being archived is kept.
+     *
+     * @param endedBefore the inclusive bound on end_date
+     * @param limit       the maximum number of advertisements to archive
+     * @param archivedAt  the time of the archiving
+     * @return the archived advertisements
+     */
+    List<AdvertisementDocument> archiveEndedBefore(Instant endedBefore, int limit, Instant archivedAt);
+}
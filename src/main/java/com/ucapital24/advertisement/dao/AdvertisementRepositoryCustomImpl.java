@@ -0,0 +1,150 @@
+package com.ucapital24.advertisement.dao;
+
+import com.mongodb.ErrorCategory;
+import com.mongodb.bulk.BulkWriteError;
+import com.ucapital24.advertisement.model.Advertisement;
+import com.ucapital24.advertisement.model.AdvertisementPatch;
+import com.ucapital24.advertisement.model.BulkOperationType;
+import org.bson.Document;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.BulkOperationException;
+import org.springframework.data.mongodb.core.BulkOperations;
+import org.springframework.data.mongodb.core.FindAndModifyOptions;
+import org.springframework.data.mongodb.core.FindAndReplaceOptions;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.regex.Pattern;
+
+public class AdvertisementRepositoryCustomImpl implements AdvertisementRepositoryCustom {
+
+    @Autowired
+    private MongoTemplate mongoTemplate;
+
+    @Override
+    public List<AdvertisementWriteResult> bulkWrite(List<AdvertisementWrite> writes) {
+        AdvertisementWriteResult[] results = new AdvertisementWriteResult[writes.size()];
+        List<Integer> inserts = new ArrayList<>();
+        for (int i = 0; i < writes.size(); i++) {
+            if (writes.get(i).type() == BulkOperationType.CREATE) {
+                inserts.add(i);
+            }
+        }
+        if (!inserts.isEmpty()) {
+            BulkOperations bulkOperations = mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, AdvertisementDocument.class);
+            inserts.forEach(i -> bulkOperations.insert(writes.get(i).document()));
+            try {
+                bulkOperations.execute();
+            } catch (BulkOperationException e) {
+                for (BulkWriteError error : e.getErrors()) {
+                    results[inserts.get(error.getIndex())] = error.getCategory() == ErrorCategory.DUPLICATE_KEY
+                            ? AdvertisementWriteResult.duplicateKey(error.getMessage())
+                            : AdvertisementWriteResult.failed(error.getMessage());
+                }
+            }
+            inserts.stream().filter(i -> results[i] == null).forEach(i -> results[i] = AdvertisementWriteResult.applied());
+        }
+        for (int i = 0; i < writes.size(); i++) {
+            AdvertisementWrite write = writes.get(i);
+            if (write.type() == BulkOperationType.CREATE) {
+                continue;
+            }
+            try {
+                Query query = Query.query(AdvertisementUpdates.byIdAndVersion(write.id(), write.expectedVersion()));
+                long matched = write.type() == BulkOperationType.UPDATE
+                        ? mongoTemplate.replace(query, write.document()).getMatchedCount()
+                        : mongoTemplate.remove(query, AdvertisementDocument.class).getDeletedCount();
+                results[i] = matched == 0 ? AdvertisementWriteResult.notMatched() : AdvertisementWriteResult.applied();
+            } catch (RuntimeException e) {
+                results[i] = AdvertisementWriteResult.failed(e.getMessage());
+            }
+        }
+        return List.of(results);
+    }
+
+    @Override
+    public List<Document> search(AdvertisementSearchCriteria criteria, List<String> fields, long skip, int limit) {
+        List<Criteria> filters = new ArrayList<>();
+        if (criteria.mediaType() != null) {
+            filters.add(Criteria.where("media_type").is(criteria.mediaType().name()));
+        }
+        if (criteria.activeFrom() != null) {
+            filters.add(Criteria.where("end_date").gt(Date.from(criteria.activeFrom())));
+            filters.add(Criteria.where("start_date").lt(Date.from(criteria.activeTo())));
+        }
+        if (criteria.titlePrefix() != null) {
+            filters.add(Criteria.where("title").regex("^" + Pattern.quote(criteria.titlePrefix())));
+        }
+        if (criteria.keyword() != null) {
+            filters.add(Criteria.where("title").regex(Pattern.quote(criteria.keyword()), "i"));
+        }
+        Query query = filters.isEmpty() ? new Query() : Query.query(new Criteria().andOperator(filters));
+        fields.forEach(field -> query.fields().include(field));
+        if (!fields.contains("_id")) {
+            query.fields().exclude("_id");
+        }
+        query.with(Sort.by("_id")).skip(skip).limit(limit);
+        return mongoTemplate.find(query, Document.class, mongoTemplate.getCollectionName(AdvertisementDocument.class));
+    }
+
+    @Override
+    public AdvertisementDocument patch(String id, Long expectedVersion, AdvertisementPatch patch, Instant modifiedAt) {
+        return mongoTemplate.findAndModify(AdvertisementUpdates.patchQuery(id, expectedVersion, patch),
+                AdvertisementUpdates.patchUpdate(patch, modifiedAt), FindAndModifyOptions.options().returnNew(true),
+                AdvertisementDocument.class);
+    }
+
+    @Override
+    public AdvertisementDocument replace(String id, Long expectedVersion, Advertisement advertisement, Instant modifiedAt) {
+        return mongoTemplate.findAndModify(Query.query(AdvertisementUpdates.byIdAndVersion(id, expectedVersion)),
+                AdvertisementUpdates.replaceUpdate(advertisement, modifiedAt),
+                FindAndModifyOptions.options().returnNew(true), AdvertisementDocument.class);
+    }
+
+    @Override
+    public AdvertisementDocument deleteIfMatch(String id, Long expectedVersion) {
+        return mongoTemplate.findAndRemove(Query.query(AdvertisementUpdates.byIdAndVersion(id, expectedVersion)), AdvertisementDocument.class);
+    }
+
+    @Override
+    public List<AdvertisementDocument> archiveEndedBefore(Instant endedBefore, int limit, Instant archivedAt) {
+        // served by the end_date_start_date index
+        Query expired = Query.query(Criteria.where("endDate").lte(endedBefore)).with(Sort.by("endDate")).limit(limit);
+        List<AdvertisementDocument> documents = mongoTemplate.find(expired, AdvertisementDocument.class);
+        if (documents.isEmpty()) {
+            return documents;
+        }
+        BulkOperations archive = mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, AdvertisementArchiveDocument.class);
+        for (AdvertisementDocument document : documents) {
+            archive.replaceOne(byId(document.getId()), AdvertisementArchiveDocument.of(document, archivedAt),
+                    FindAndReplaceOptions.options().upsert());
+        }
+        archive.execute();
+
+        List<String> ids = documents.stream().map(AdvertisementDocument::getId).toList();
+        long deleted = mongoTemplate.remove(Query.query(Criteria.where("_id").in(ids).and("endDate").lte(endedBefore)),
+                AdvertisementDocument.class).getDeletedCount();
+        if (deleted == documents.size()) {
+            return documents;
+        }
+        // some advertisements were extended in the meantime: they stay live and leave the archive
+        Query stillStored = Query.query(Criteria.where("_id").in(ids));
+        stillStored.fields().include("_id");
+        Set<String> kept = new HashSet<>();
+        mongoTemplate.find(stillStored, AdvertisementDocument.class).forEach(document -> kept.add(document.getId()));
+        mongoTemplate.remove(Query.query(Criteria.where("_id").in(kept)), AdvertisementArchiveDocument.class);
+        return documents.stream().filter(document -> !kept.contains(document.getId())).toList();
+    }
+
+    private static Query byId(String id) {
+        return Query.query(Criteria.where("_id").is(id));
+    }
+}
@@ -0,0 +1,21 @@
+package com.ucapital24.advertisement.dao;
+
+import com.ucapital24.advertisement.model.AdvertisementMediaType;
+
+import java.time.Instant;
+
+/**
+ * Filters of an advertisement search, every filter is optional.
+ *
+ * @param mediaType   only match advertisements of this media type
+ * @param activeFrom  only match advertisements live at some point of {@code [activeFrom, activeTo)}
+ * @param activeTo    the exclusive end of the active window, set together with {@code activeFrom}
+ * @param titlePrefix only match titles starting with this text (case-sensitive, can use an index)
+ * @param keyword     only match titles containing this text (case-insensitive)
+ */
+public record AdvertisementSearchCriteria(AdvertisementMediaType mediaType,
+                                          Instant activeFrom,
+                                          Instant activeTo,
+                                          String titlePrefix,
+                                          String keyword) {
+}
@@ -0,0 +1,82 @@
+package com.ucapital24.advertisement.dao;
+
+import com.ucapital24.advertisement.model.Advertisement;
+import com.ucapital24.advertisement.model.AdvertisementPatch;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+
+import java.time.Instant;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * The conditional writes of a single advertisement, shared by the blocking and the reactive repositories so that
+ * both send MongoDB the same findAndModify.
+ */
+final class AdvertisementUpdates {
+
+    private AdvertisementUpdates() {
+    }
+
+    static Criteria byIdAndVersion(String id, Long expectedVersion) {
+        Criteria criteria = Criteria.where("_id").is(id);
+        if (expectedVersion != null) {
+            // documents written before versioning have no version field and are at version 0
+            criteria.and("version").in(expectedVersion == 0 ? Arrays.asList(0L, null) : List.of(expectedVersion));
+        }
+        return criteria;
+    }
+
+    /**
+     * Matches the advertisement only if the date the patch sets stays on the right side of the stored one.
+     */
+    static Query patchQuery(String id, Long expectedVersion, AdvertisementPatch patch) {
+        Criteria criteria = byIdAndVersion(id, expectedVersion);
+        if (patch.startDate() != null && patch.endDate() == null) {
+            criteria.and("endDate").gte(patch.startDate());
+        }
+        if (patch.endDate() != null && patch.startDate() == null) {
+            criteria.and("startDate").lte(patch.endDate());
+        }
+        return Query.query(criteria);
+    }
+
+    static Update patchUpdate(AdvertisementPatch patch, Instant modifiedAt) {
+        Update update = new Update()
+                .inc("version", 1)
+                .set("lastModified", modifiedAt);
+        setIfPresent(update, "title", patch.title());
+        setIfPresent(update, "content", patch.content());
+        setIfPresent(update, "mediaUrl", patch.mediaUrl());
+        setIfPresent(update, "mediaType", patch.mediaType());
+        setIfPresent(update, "startDate", patch.startDate());
+        setIfPresent(update, "endDate", patch.endDate());
+        setIfPresent(update, "weight", patch.weight());
+        return update;
+    }
+
+    static Update replaceUpdate(Advertisement advertisement, Instant modifiedAt) {
+        Update update = new Update()
+                .inc("version", 1)
+                .set("lastModified", modifiedAt)
+                .set("title", advertisement.title())
+                .set("content", advertisement.content())
+                .set("mediaUrl", advertisement.mediaUrl())
+                .set("mediaType", advertisement.mediaType())
+                .set("startDate", advertisement.startDate())
+                .set("endDate", advertisement.endDate());
+        if (advertisement.weight() != null) {
+            update.set("weight", advertisement.weight());
+        } else {
+            update.unset("weight");
+        }
+        return update;
+    }
+
+    private static void setIfPresent(Update update, String property, Object value) {
+        if (value != null) {
+            update.set(property, value);
+        }
+    }
+}
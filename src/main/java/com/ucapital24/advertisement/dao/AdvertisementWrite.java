@@ -0,0 +1,22 @@
+package com.ucapital24.advertisement.dao;
+
+import com.ucapital24.advertisement.model.BulkOperationType;
+
+/**
+ * A single write of a bulk write: the document to insert or replace, or the ID to delete. Replaces and deletes only
+ * apply to the advertisement at {@code expectedVersion}, when set.
+ */
+public record AdvertisementWrite(BulkOperationType type, String id, AdvertisementDocument document, Long expectedVersion) {
+
+    public static AdvertisementWrite insert(AdvertisementDocument document) {
+        return new AdvertisementWrite(BulkOperationType.CREATE, document.getId(), document, null);
+    }
+
+    public static AdvertisementWrite replace(AdvertisementDocument document, Long expectedVersion) {
+        return new AdvertisementWrite(BulkOperationType.UPDATE, document.getId(), document, expectedVersion);
+    }
+
+    public static AdvertisementWrite delete(String id, Long expectedVersion) {
+        return new AdvertisementWrite(BulkOperationType.DELETE, id, null, expectedVersion);
+    }
+}
@@ -0,0 +1,30 @@
+package com.ucapital24.advertisement.dao;
+
+/**
+ * Result of one {@link AdvertisementWrite}, with the error message of the store unless it was applied.
+ */
+public record AdvertisementWriteResult(AdvertisementWriteStatus status, String errorMessage) {
+
+    private static final AdvertisementWriteResult APPLIED = new AdvertisementWriteResult(AdvertisementWriteStatus.APPLIED, null);
+    private static final AdvertisementWriteResult NOT_MATCHED = new AdvertisementWriteResult(AdvertisementWriteStatus.NOT_MATCHED, null);
+
+    public static AdvertisementWriteResult applied() {
+        return APPLIED;
+    }
+
+    public static AdvertisementWriteResult notMatched() {
+        return NOT_MATCHED;
+    }
+
+    public static AdvertisementWriteResult duplicateKey(String errorMessage) {
+        return new AdvertisementWriteResult(AdvertisementWriteStatus.DUPLICATE_KEY, errorMessage);
+    }
+
+    public static AdvertisementWriteResult failed(String errorMessage) {
+        return new AdvertisementWriteResult(AdvertisementWriteStatus.FAILED, errorMessage);
+    }
+
+    public boolean isApplied() {
+        return status == AdvertisementWriteStatus.APPLIED;
+    }
+}
@@ -0,0 +1,23 @@
+package com.ucapital24.advertisement.dao;
+
+/**
+ * Outcome of one {@link AdvertisementWrite}.
+ */
+public enum AdvertisementWriteStatus {
+    /**
+     * The document was inserted, replaced or deleted.
+     */
+    APPLIED,
+    /**
+     * No document had the ID and the expected version, nothing was written.
+     */
+    NOT_MATCHED,
+    /**
+     * A document with the ID of the inserted one already exists.
+     */
+    DUPLICATE_KEY,
+    /**
+     * The store rejected the write.
+     */
+    FAILED
+}
@@ -0,0 +1,9 @@
+package com.ucapital24.advertisement.dao;
+
+import java.time.Instant;
+
+/**
+ * Counts to add to the delivery document of an advertisement and minute.
+ */
+public record DeliveryIncrement(String adId, Instant minute, long impressions, long clicks) {
+}
@@ -0,0 +1,12 @@
+package com.ucapital24.advertisement.dao;
+
+import org.springframework.data.mongodb.repository.ReactiveMongoRepository;
+import org.springframework.stereotype.Repository;
+
+/**
+ * Non-blocking access to the advertisement collection, for the reactive execution mode
+ * ({@code advertisement.execution-mode=reactive}).
+ */
+@Repository
+public interface ReactiveAdvertisementRepository extends ReactiveMongoRepository<AdvertisementDocument, String>, ReactiveAdvertisementRepositoryCustom {
+}
@@ -0,0 +1,29 @@
+package com.ucapital24.advertisement.dao;
+
+import com.ucapital24.advertisement.model.Advertisement;
+import com.ucapital24.advertisement.model.AdvertisementPatch;
+import reactor.core.publisher.Mono;
+
+import java.time.Instant;
+
+/**
+ * The conditional writes of {@link AdvertisementRepositoryCustom}, without blocking: every method completes empty
+ * where the blocking one returns null.
+ */
+public interface ReactiveAdvertisementRepositoryCustom {
+
+    /**
+     * @see AdvertisementRepositoryCustom#patch(String, Long, AdvertisementPatch, Instant)
+     */
+    Mono<AdvertisementDocument> patch(String id, Long expectedVersion, AdvertisementPatch patch, Instant modifiedAt);
+
+    /**
+     * @see AdvertisementRepositoryCustom#replace(String, Long, Advertisement, Instant)
+     */
+    Mono<AdvertisementDocument> replace(String id, Long expectedVersion, Advertisement advertisement, Instant modifiedAt);
+
+    /**
+     * @see AdvertisementRepositoryCustom#deleteIfMatch(String, Long)
+     */
+    Mono<AdvertisementDocument> deleteIfMatch(String id, Long expectedVersion);
+}
@@ -0,0 +1,37 @@
+package com.ucapital24.advertisement.dao;
+
+import com.ucapital24.advertisement.model.Advertisement;
+import com.ucapital24.advertisement.model.AdvertisementPatch;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.mongodb.core.FindAndModifyOptions;
+import org.springframework.data.mongodb.core.ReactiveMongoTemplate;
+import org.springframework.data.mongodb.core.query.Query;
+import reactor.core.publisher.Mono;
+
+import java.time.Instant;
+
+public class ReactiveAdvertisementRepositoryCustomImpl implements ReactiveAdvertisementRepositoryCustom {
+
+    @Autowired
+    private ReactiveMongoTemplate reactiveMongoTemplate;
+
+    @Override
+    public Mono<AdvertisementDocument> patch(String id, Long expectedVersion, AdvertisementPatch patch, Instant modifiedAt) {
+        return reactiveMongoTemplate.findAndModify(AdvertisementUpdates.patchQuery(id, expectedVersion, patch),
+                AdvertisementUpdates.patchUpdate(patch, modifiedAt), FindAndModifyOptions.options().returnNew(true),
+                AdvertisementDocument.class);
+    }
+
+    @Override
+    public Mono<AdvertisementDocument> replace(String id, Long expectedVersion, Advertisement advertisement, Instant modifiedAt) {
+        return reactiveMongoTemplate.findAndModify(Query.query(AdvertisementUpdates.byIdAndVersion(id, expectedVersion)),
+                AdvertisementUpdates.replaceUpdate(advertisement, modifiedAt),
+                FindAndModifyOptions.options().returnNew(true), AdvertisementDocument.class);
+    }
+
+    @Override
+    public Mono<AdvertisementDocument> deleteIfMatch(String id, Long expectedVersion) {
+        return reactiveMongoTemplate.findAndRemove(Query.query(AdvertisementUpdates.byIdAndVersion(id, expectedVersion)),
+                AdvertisementDocument.class);
+    }
+}
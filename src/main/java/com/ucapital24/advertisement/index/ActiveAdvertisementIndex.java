@@ -0,0 +1,217 @@
+package com.ucapital24.advertisement.index;
+
+import com.ucapital24.advertisement.catalog.OffHeapAdvertisementCatalog;
+import com.ucapital24.advertisement.catalog.OffHeapArena;
+import com.ucapital24.advertisement.dao.AdvertisementDocument;
+import com.ucapital24.advertisement.model.Advertisement;
+import com.ucapital24.advertisement.replication.AdvertisementReadModel;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import jakarta.validation.constraints.NotNull;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.util.unit.DataSize;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+
+/**
+ * In-memory index answering "which advertisements are live at instant T / in window [a, b)".
+ * <p>
+ * The advertisements are held in an {@link OffHeapAdvertisementCatalog}, outside the heap, in chunks of
+ * {@code advertisement.index.off-heap.chunk-size}, and only turned into {@link Advertisement} objects when they are
+ * returned. Writes only touch the catalog and mark the index dirty; the first read after a write rebuilds an
+ * immutable snapshot, which is an interval tree laid out over primitive arrays sorted by {@code start_date}. Every
+ * implicit tree node keeps the maximum {@code end_date} of its subtree, so a query runs in O(log n + k).
+ * An advertisement is considered live in {@code [start_date, end_date)}.
+ */
+@Component
+public class ActiveAdvertisementIndex implements MeterBinder, AdvertisementReadModel {
+
+    private static final DataSize DEFAULT_CHUNK_SIZE = DataSize.ofMegabytes(16);
+
+    private final OffHeapAdvertisementCatalog catalog;
+    private final Object rebuildLock = new Object();
+    private volatile Snapshot snapshot = Snapshot.EMPTY;
+    private volatile boolean dirty;
+
+    public ActiveAdvertisementIndex() {
+        this(DEFAULT_CHUNK_SIZE);
+    }
+
+    @Autowired
+    public ActiveAdvertisementIndex(@Value("${advertisement.index.off-heap.chunk-size:16MB}") DataSize chunkSize) {
+        this.catalog = new OffHeapAdvertisementCatalog(Math.toIntExact(chunkSize.toBytes()));
+    }
+
+    /**
+     * Replaces the whole content of the index.
+     *
+     * @param advertisementDocuments the documents to index
+     */
+    @Override
+    public void reload(@NotNull Iterable<AdvertisementDocument> advertisementDocuments) {
+        synchronized (rebuildLock) {
+            catalog.reload(advertisementDocuments);
+            dirty = true;
+        }
+    }
+
+    /**
+     * Adds an advertisement to the index or replaces the indexed version of it.
+     *
+     * @param advertisementDocument the document to index
+     */
+    @Override
+    public void put(@NotNull AdvertisementDocument advertisementDocument) {
+        catalog.put(advertisementDocument);
+        dirty = true;
+    }
+
+    /**
+     * Removes an advertisement from the index.
+     *
+     * @param adId the ID of the advertisement to remove
+     */
+    @Override
+    public void remove(@NotNull String adId) {
+        if (catalog.remove(adId)) {
+            dirty = true;
+        }
+    }
+
+    /**
+     * @param adId the ID of an advertisement
+     * @return whether the advertisement is indexed
+     */
+    public boolean contains(@NotNull String adId) {
+        return catalog.contains(adId);
+    }
+
+    public int size() {
+        return catalog.size();
+    }
+
+    /**
+     * Finds the advertisements live at the given instant.
+     *
+     * @param at the instant to look at
+     * @return the live advertisements ordered by start date
+     */
+    @NotNull
+    public List<Advertisement> findActiveAt(@NotNull Instant at) {
+        long millis = at.toEpochMilli();
+        return currentSnapshot().overlapping(millis, millis + 1);
+    }
+
+    /**
+     * Finds the advertisements live at any point of the window {@code [from, to)}.
+     *
+     * @param from the inclusive start of the window
+     * @param to   the exclusive end of the window
+     * @return the matching advertisements ordered by start date
+     */
+    @NotNull
+    public List<Advertisement> findActiveBetween(@NotNull Instant from, @NotNull Instant to) {
+        return currentSnapshot().overlapping(from.toEpochMilli(), to.toEpochMilli());
+    }
+
+    @Override
+    public void bindTo(@NotNull MeterRegistry registry) {
+        Gauge.builder("advertisement.index.size", catalog, OffHeapAdvertisementCatalog::size)
+                .description("Number of advertisements in the active advertisement index")
+                .register(registry);
+        Gauge.builder("advertisement.index.off-heap", catalog, OffHeapAdvertisementCatalog::allocatedBytes)
+                .description("Memory allocated outside the heap for the advertisements of the active advertisement index")
+                .baseUnit("bytes")
+                .register(registry);
+    }
+
+    private Snapshot currentSnapshot() {
+        if (dirty) {
+            synchronized (rebuildLock) {
+                if (dirty) {
+                    dirty = false;
+                    snapshot = Snapshot.of(catalog);
+                }
+            }
+        }
+        return snapshot;
+    }
+
+    private static final class Snapshot {
+
+        private static final Snapshot EMPTY = new Snapshot(null, new Entry[0]);
+
+        private final OffHeapArena arena;
+        private final long[] addresses;
+        private final long[] starts;
+        private final long[] ends;
+        private final long[] maxEnds;
+
+        private Snapshot(OffHeapArena arena, Entry[] entries) {
+            this.arena = arena;
+            this.addresses = new long[entries.length];
+            this.starts = new long[entries.length];
+            this.ends = new long[entries.length];
+            this.maxEnds = new long[entries.length];
+            for (int i = 0; i < entries.length; i++) {
+                addresses[i] = entries[i].address();
+                starts[i] = entries[i].start();
+                ends[i] = entries[i].end();
+            }
+            computeMaxEnds(0, entries.length - 1);
+        }
+
+        private static Snapshot of(OffHeapAdvertisementCatalog catalog) {
+            List<Entry> entries = new ArrayList<>(catalog.size());
+            // every ID is decoded once here rather than on each comparison of the sort
+            OffHeapArena arena = catalog.forEach(advertisement -> entries.add(new Entry(advertisement.address(),
+                    advertisement.startMillis(), advertisement.endMillis(), advertisement.id())));
+            Entry[] sorted = entries.toArray(new Entry[0]);
+            Arrays.sort(sorted, Comparator.comparingLong(Entry::start).thenComparing(Entry::id));
+            return new Snapshot(arena, sorted);
+        }
+
+        private long computeMaxEnds(int low, int high) {
+            if (low > high) {
+                return Long.MIN_VALUE;
+            }
+            int mid = (low + high) >>> 1;
+            long max = Math.max(ends[mid], Math.max(computeMaxEnds(low, mid - 1), computeMaxEnds(mid + 1, high)));
+            maxEnds[mid] = max;
+            return max;
+        }
+
+        private List<Advertisement> overlapping(long from, long to) {
+            List<Advertisement> result = new ArrayList<>();
+            collect(0, addresses.length - 1, from, to, result);
+            return result;
+        }
+
+        private void collect(int low, int high, long from, long to, List<Advertisement> result) {
+            if (low > high) {
+                return;
+            }
+            int mid = (low + high) >>> 1;
+            if (maxEnds[mid] <= from) {
+                return;
+            }
+            collect(low, mid - 1, from, to, result);
+            if (starts[mid] < to) {
+                if (ends[mid] > from) {
+                    result.add(arena.advertisement(addresses[mid]).toAdvertisement());
+                }
+                collect(mid + 1, high, from, to, result);
+            }
+        }
+    }
+
+    private record Entry(long address, long start, long end, String id) {
+    }
+}
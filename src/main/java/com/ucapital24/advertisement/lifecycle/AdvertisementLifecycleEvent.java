@@ -0,0 +1,23 @@
+package com.ucapital24.advertisement.lifecycle;
+
+import java.time.Instant;
+
+/**
+ * A lifecycle transition of an advertisement, published as an application event by the
+ * {@link AdvertisementLifecycleScheduler}.
+ *
+ * @param type the transition
+ * @param adId the ID of the advertisement
+ * @param at   the time of the transition: start_date, end_date, or the time it was archived
+ */
+public record AdvertisementLifecycleEvent(Type type, String adId, Instant at) {
+
+    public enum Type {
+        /** start_date was reached: the advertisement went live */
+        ACTIVATED,
+        /** end_date was reached: the advertisement is no longer live */
+        EXPIRED,
+        /** the expired advertisement was moved to the archive collection */
+        ARCHIVED
+    }
+}
@@ -0,0 +1,289 @@
+package com.ucapital24.advertisement.lifecycle;
+
+import com.ucapital24.advertisement.cache.AdvertisementCache;
+import com.ucapital24.advertisement.dao.AdvertisementDocument;
+import com.ucapital24.advertisement.replication.AdvertisementReadModel;
+import com.ucapital24.advertisement.store.AdvertisementStore;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import jakarta.validation.constraints.NotNull;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.DelayQueue;
+import java.util.concurrent.Delayed;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Fires the activation and expiry of advertisements at their start_date and end_date, and moves the expired
+ * advertisements out of the advertisement collection, so that the stored and indexed working set stays
+ * proportional to the live and upcoming advertisements.
+ * <p>
+ * The upcoming transitions are kept in a {@link DelayQueue} ordered by time and drained by a dedicated thread,
+ * which publishes an {@link AdvertisementLifecycleEvent} for each of them. The
+ * {@link com.ucapital24.advertisement.selection.AdvertisementSelector} follows them to keep its live set current.
+ * A changed or deleted advertisement does not remove its queued transitions: they are skipped when they fire, and
+ * purged once they outnumber the live ones.
+ * <p>
+ * Every {@code advertisement.lifecycle.sweep-interval}, the advertisements that ended more than
+ * {@code advertisement.lifecycle.archive-after} ago are moved to the archive collection in batches of
+ * {@code advertisement.lifecycle.archive-batch-size}, and dropped from every other {@link AdvertisementReadModel}
+ * and from the {@link AdvertisementCache}. The other instances see the deletions through replication.
+ */
+@Component
+@Slf4j
+public class AdvertisementLifecycleScheduler implements AdvertisementReadModel {
+
+    private static final int PURGE_SLACK = 1024;
+
+    private final DelayQueue<Transition> transitions = new DelayQueue<>();
+    private final Map<String, AdvertisementDocument> scheduled = new ConcurrentHashMap<>();
+    private final AdvertisementStore advertisementStore;
+    private final List<AdvertisementReadModel> readModels;
+    private final AdvertisementCache advertisementCache;
+    private final ApplicationEventPublisher eventPublisher;
+    private final Clock clock;
+    private final boolean archiveEnabled;
+    private final Duration archiveAfter;
+    private final int archiveBatchSize;
+    private final Map<AdvertisementLifecycleEvent.Type, Counter> firedTransitions = new EnumMap<>(AdvertisementLifecycleEvent.Type.class);
+
+    private volatile boolean running;
+    private Thread thread;
+
+    public AdvertisementLifecycleScheduler(AdvertisementStore advertisementStore,
+                                           List<AdvertisementReadModel> readModels,
+                                           AdvertisementCache advertisementCache,
+                                           ApplicationEventPublisher eventPublisher,
+                                           Clock clock,
+                                           @Value("${advertisement.lifecycle.archive-enabled:true}") boolean archiveEnabled,
+                                           @Value("${advertisement.lifecycle.archive-after:PT1H}") Duration archiveAfter,
+                                           @Value("${advertisement.lifecycle.archive-batch-size:500}") int archiveBatchSize,
+                                           MeterRegistry meterRegistry) {
+        this.advertisementStore = advertisementStore;
+        this.readModels = readModels;
+        this.advertisementCache = advertisementCache;
+        this.eventPublisher = eventPublisher;
+        this.clock = clock;
+        this.archiveEnabled = archiveEnabled;
+        this.archiveAfter = archiveAfter;
+        this.archiveBatchSize = archiveBatchSize;
+        for (AdvertisementLifecycleEvent.Type type : AdvertisementLifecycleEvent.Type.values()) {
+            firedTransitions.put(type, meterRegistry.counter("advertisement.lifecycle.transitions", "type", type.name()));
+        }
+        Gauge.builder("advertisement.lifecycle.pending", transitions, DelayQueue::size)
+                .description("Number of queued activation and expiry transitions")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Starts firing the transitions once the application is up.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public synchronized void start() {
+        if (running) {
+            return;
+        }
+        running = true;
+        thread = new Thread(this::run, "advertisement-lifecycle");
+        thread.setDaemon(true);
+        thread.start();
+    }
+
+    @PreDestroy
+    public void stop() throws InterruptedException {
+        Thread lifecycleThread;
+        synchronized (this) {
+            running = false;
+            lifecycleThread = thread;
+        }
+        if (lifecycleThread != null) {
+            lifecycleThread.interrupt();
+            lifecycleThread.join(1000);
+        }
+    }
+
+    /**
+     * Replaces the queued transitions with the upcoming transitions of the given advertisements.
+     *
+     * @param advertisementDocuments every stored advertisement
+     */
+    @Override
+    public synchronized void reload(@NotNull Iterable<AdvertisementDocument> advertisementDocuments) {
+        transitions.clear();
+        scheduled.clear();
+        advertisementDocuments.forEach(this::put);
+    }
+
+    /**
+     * Queues the upcoming transitions of an advertisement, superseding the ones queued for its previous version.
+     *
+     * @param advertisementDocument the new version of the advertisement
+     */
+    @Override
+    public void put(@NotNull AdvertisementDocument advertisementDocument) {
+        long now = clock.millis();
+        long start = advertisementDocument.getStartDate().toEpochMilli();
+        long end = advertisementDocument.getEndDate().toEpochMilli();
+        if (end <= now) {
+            scheduled.remove(advertisementDocument.getId());
+            return;
+        }
+        scheduled.put(advertisementDocument.getId(), advertisementDocument);
+        if (start > now) {
+            transitions.add(new Transition(AdvertisementLifecycleEvent.Type.ACTIVATED, advertisementDocument, start));
+        }
+        transitions.add(new Transition(AdvertisementLifecycleEvent.Type.EXPIRED, advertisementDocument, end));
+        if (transitions.size() > 2 * scheduled.size() + PURGE_SLACK) {
+            transitions.removeIf(transition -> !transition.isCurrent());
+        }
+    }
+
+    /**
+     * Cancels the queued transitions of a deleted advertisement.
+     *
+     * @param adId the ID of the deleted advertisement
+     */
+    @Override
+    public void remove(@NotNull String adId) {
+        scheduled.remove(adId);
+    }
+
+    /**
+     * Moves the advertisements that ended more than {@code advertisement.lifecycle.archive-after} ago to the archive
+     * collection, one batch at a time, and drops them from the in-memory read models.
+     *
+     * @return the number of archived advertisements
+     */
+    @Scheduled(fixedDelayString = "${advertisement.lifecycle.sweep-interval:PT1M}")
+    public synchronized int archiveExpired() {
+        if (!archiveEnabled) {
+            return 0;
+        }
+        Instant now = clock.instant().truncatedTo(ChronoUnit.MILLIS);
+        Instant endedBefore = now.minus(archiveAfter);
+        int archived = 0;
+        List<AdvertisementDocument> batch;
+        do {
+            try {
+                batch = advertisementStore.archiveEndedBefore(endedBefore, archiveBatchSize, now);
+            } catch (Exception e) {
+                log.error("Error archiving expired advertisements, retrying on the next sweep: {}", e.toString());
+                break;
+            }
+            for (AdvertisementDocument document : batch) {
+                scheduled.remove(document.getId());
+                for (AdvertisementReadModel readModel : readModels) {
+                    if (readModel != this) {
+                        readModel.remove(document.getId());
+                    }
+                }
+                advertisementCache.invalidate(document.getId());
+                publish(AdvertisementLifecycleEvent.Type.ARCHIVED, document.getId(), now);
+            }
+            archived += batch.size();
+        } while (batch.size() == archiveBatchSize);
+        if (archived > 0) {
+            log.info("Archived {} expired advertisements", archived);
+        }
+        return archived;
+    }
+
+    /**
+     * @return the number of queued transitions, including the superseded ones not purged yet
+     */
+    public int pendingTransitions() {
+        return transitions.size();
+    }
+
+    /**
+     * Fires the transitions that are due, without waiting for the upcoming ones.
+     *
+     * @return the number of fired transitions
+     */
+    int fireDue() {
+        int fired = 0;
+        Transition transition;
+        while ((transition = transitions.poll()) != null) {
+            if (fire(transition)) {
+                fired++;
+            }
+        }
+        return fired;
+    }
+
+    private void run() {
+        while (running) {
+            try {
+                fire(transitions.take());
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                break;
+            } catch (Exception e) {
+                log.error("Error firing advertisement lifecycle transition: {}", e.toString());
+            }
+        }
+    }
+
+    private boolean fire(Transition transition) {
+        if (!transition.isCurrent()) {
+            return false;
+        }
+        String adId = transition.document.getId();
+        if (transition.type == AdvertisementLifecycleEvent.Type.EXPIRED) {
+            scheduled.remove(adId, transition.document);
+        }
+        publish(transition.type, adId, Instant.ofEpochMilli(transition.atMillis));
+        return true;
+    }
+
+    private void publish(AdvertisementLifecycleEvent.Type type, String adId, Instant at) {
+        firedTransitions.get(type).increment();
+        eventPublisher.publishEvent(new AdvertisementLifecycleEvent(type, adId, at));
+    }
+
+    private final class Transition implements Delayed {
+
+        private final AdvertisementLifecycleEvent.Type type;
+        private final AdvertisementDocument document;
+        private final long atMillis;
+
+        private Transition(AdvertisementLifecycleEvent.Type type, AdvertisementDocument document, long atMillis) {
+            this.type = type;
+            this.document = document;
+            this.atMillis = atMillis;
+        }
+
+        /**
+         * @return whether the transition belongs to the latest version of its advertisement
+         */
+        private boolean isCurrent() {
+            return scheduled.get(document.getId()) == document;
+        }
+
+        @Override
+        public long getDelay(TimeUnit unit) {
+            return unit.convert(atMillis - clock.millis(), TimeUnit.MILLISECONDS);
+        }
+
+        @Override
+        public int compareTo(Delayed other) {
+            return Long.compare(atMillis, ((Transition) other).atMillis);
+        }
+    }
+}
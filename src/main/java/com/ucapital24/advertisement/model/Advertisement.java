@@ -1,12 +1,14 @@
 package com.ucapital24.advertisement.model;
 
+import com.fasterxml.jackson.annotation.JsonInclude;
 import com.fasterxml.jackson.annotation.JsonProperty;
-import com.ucapital24.advertisement.Exception.ValidationException;
 import jakarta.validation.constraints.NotNull;
-import java.net.MalformedURLException;
-import java.net.URL;
 import java.time.Instant;
 
+/**
+ * An advertisement as exposed by the API. Building one does not validate it: input is validated on the write paths
+ * by {@code AdvertisementValidator}, while records mapped from stored documents are trusted.
+ */
 public record Advertisement(@JsonProperty(value = "_id", required = false)
                             String id,
 
@@ -32,37 +34,15 @@ public record Advertisement(@JsonProperty(value = "_id", required = false)
 
                             @JsonProperty(value = "end_date", required = true)
                             @NotNull(message = "end_date is required")
-                            Instant endDate) {
-    public Advertisement {
-        validate(title, content, mediaUrl, startDate, endDate);
-    }
+                            Instant endDate,
+
+                            // relative selection weight, 1 when not set
+                            @JsonProperty(value = "weight", required = false)
+                            @JsonInclude(JsonInclude.Include.NON_NULL)
+                            Integer weight) {
 
-    private void validate(@NotNull String title,
-                          @NotNull String content,
-                          @NotNull String mediaUrl,
-                          @NotNull Instant startDate,
-                          @NotNull Instant endDate) {
-        if (startDate.isAfter(endDate)) {
-            throw new ValidationException("start_date should be before end_date");
-        }
-        if (endDate.isBefore(Instant.now())) {
-            throw new ValidationException("end_date cannot be in the past");
-        }
-        if (title.isEmpty() || title.length() < 2) {
-            throw new ValidationException("Title length too short");
-        }
-        if (content.isEmpty() || content.length() < 2) {
-            throw new ValidationException("Content length too short");
-        }
-        try {
-            URL url = new URL(mediaUrl);
-            String protocol = url.getProtocol();
-            if (!(protocol.equals("http") || protocol.equals("https"))) {
-                throw new ValidationException("URL must use http or https");
-            }
-        } catch (MalformedURLException e) {
-            String errorMessage = String.format("URL is not valid: %s", e.getMessage());
-            throw new ValidationException(errorMessage);
-        }
+    public Advertisement(String id, String title, String content, String mediaUrl,
+                         AdvertisementMediaType mediaType, Instant startDate, Instant endDate) {
+        this(id, title, content, mediaUrl, mediaType, startDate, endDate, null);
     }
 }
@@ -0,0 +1,12 @@
+package com.ucapital24.advertisement.model;
+
+import com.fasterxml.jackson.annotation.JsonProperty;
+
+import java.util.List;
+
+public record AdvertisementBatch(@JsonProperty("content")
+                                 List<Advertisement> content,
+
+                                 @JsonProperty("missing_ids")
+                                 List<String> missingIds) {
+}
@@ -0,0 +1,29 @@
+package com.ucapital24.advertisement.model;
+
+import com.fasterxml.jackson.annotation.JsonProperty;
+import jakarta.validation.constraints.NotNull;
+import org.springframework.data.domain.Page;
+
+import java.util.List;
+
+/**
+ * A lean page envelope for the binary formats: the advertisements, the page position and the total count, without
+ * the pageable and sort metadata of {@code PageImpl}.
+ */
+public record AdvertisementPage(@JsonProperty("content")
+                                List<Advertisement> content,
+
+                                @JsonProperty("page")
+                                int page,
+
+                                @JsonProperty("size")
+                                int size,
+
+                                @JsonProperty("total_elements")
+                                long totalElements) {
+
+    @NotNull
+    public static AdvertisementPage of(@NotNull Page<Advertisement> page) {
+        return new AdvertisementPage(page.getContent(), page.getNumber(), page.getSize(), page.getTotalElements());
+    }
+}
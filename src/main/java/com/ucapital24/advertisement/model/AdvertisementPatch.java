@@ -0,0 +1,35 @@
+package com.ucapital24.advertisement.model;
+
+import com.fasterxml.jackson.annotation.JsonProperty;
+
+import java.time.Instant;
+
+/**
+ * A partial update of an advertisement: only the fields that are set are changed, null fields are left as they are.
+ */
+public record AdvertisementPatch(@JsonProperty("title")
+                                 String title,
+
+                                 @JsonProperty("content")
+                                 String content,
+
+                                 @JsonProperty("media_url")
+                                 String mediaUrl,
+
+                                 @JsonProperty("media_type")
+                                 AdvertisementMediaType mediaType,
+
+                                 @JsonProperty("start_date")
+                                 Instant startDate,
+
+                                 @JsonProperty("end_date")
+                                 Instant endDate,
+
+                                 @JsonProperty("weight")
+                                 Integer weight) {
+
+    public boolean isEmpty() {
+        return title == null && content == null && mediaUrl == null && mediaType == null && startDate == null && endDate == null
+                && weight == null;
+    }
+}
@@ -0,0 +1,15 @@
+package com.ucapital24.advertisement.model;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import com.fasterxml.jackson.annotation.JsonProperty;
+
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public record AdvertisementPersistence(@JsonProperty("_id")
+                                       String id,
+
+                                       @JsonProperty("status")
+                                       PersistenceStatus status,
+
+                                       @JsonProperty("error_message")
+                                       String errorMessage) {
+}
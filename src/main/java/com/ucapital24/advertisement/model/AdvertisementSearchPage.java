@@ -0,0 +1,23 @@
+package com.ucapital24.advertisement.model;
+
+import com.fasterxml.jackson.annotation.JsonProperty;
+
+import java.util.List;
+import java.util.Map;
+
+/**
+ * A page of search results. Every result only holds the fields that were asked for, keyed by their API name.
+ * No total count is computed, {@code has_next} tells whether a next page exists.
+ */
+public record AdvertisementSearchPage(@JsonProperty("content")
+                                      List<Map<String, Object>> content,
+
+                                      @JsonProperty("page")
+                                      int page,
+
+                                      @JsonProperty("size")
+                                      int size,
+
+                                      @JsonProperty("has_next")
+                                      boolean hasNext) {
+}
@@ -0,0 +1,15 @@
+package com.ucapital24.advertisement.model;
+
+import com.fasterxml.jackson.annotation.JsonProperty;
+
+import java.util.List;
+
+public record AdvertisementSlice(@JsonProperty("content")
+                                 List<Advertisement> content,
+
+                                 @JsonProperty("next_cursor")
+                                 String nextCursor,
+
+                                 @JsonProperty("has_next")
+                                 boolean hasNext) {
+}
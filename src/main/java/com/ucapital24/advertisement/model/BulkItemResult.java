@@ -0,0 +1,18 @@
+package com.ucapital24.advertisement.model;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import com.fasterxml.jackson.annotation.JsonProperty;
+
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public record BulkItemResult(@JsonProperty("index")
+                             int index,
+
+                             @JsonProperty("_id")
+                             String id,
+
+                             @JsonProperty("status")
+                             BulkItemStatus status,
+
+                             @JsonProperty("error_message")
+                             String errorMessage) {
+}
@@ -0,0 +1,11 @@
+package com.ucapital24.advertisement.model;
+
+public enum BulkItemStatus {
+    CREATED,
+    UPDATED,
+    DELETED,
+    NOT_FOUND,
+    CONFLICT,
+    INVALID,
+    FAILED
+}
@@ -0,0 +1,18 @@
+package com.ucapital24.advertisement.model;
+
+import com.fasterxml.jackson.annotation.JsonProperty;
+import com.fasterxml.jackson.databind.JsonNode;
+
+/**
+ * One operation of a bulk request. The advertisement is kept as a raw JSON tree so that it is validated per item
+ * and an invalid item does not reject the whole request.
+ */
+public record BulkOperation(@JsonProperty(value = "op", required = true)
+                            BulkOperationType op,
+
+                            @JsonProperty(value = "_id", required = false)
+                            String id,
+
+                            @JsonProperty(value = "advertisement", required = false)
+                            JsonNode advertisement) {
+}
@@ -0,0 +1,19 @@
+package com.ucapital24.advertisement.model;
+
+import com.fasterxml.jackson.annotation.JsonProperty;
+
+public record CacheStatistics(@JsonProperty("size")
+                              long size,
+
+                              @JsonProperty("hit_count")
+                              long hitCount,
+
+                              @JsonProperty("miss_count")
+                              long missCount,
+
+                              @JsonProperty("eviction_count")
+                              long evictionCount,
+
+                              @JsonProperty("hit_rate")
+                              double hitRate) {
+}
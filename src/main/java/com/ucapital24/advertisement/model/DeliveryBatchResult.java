@@ -0,0 +1,10 @@
+package com.ucapital24.advertisement.model;
+
+import com.fasterxml.jackson.annotation.JsonProperty;
+
+public record DeliveryBatchResult(@JsonProperty("accepted")
+                                  int accepted,
+
+                                  @JsonProperty("rejected")
+                                  int rejected) {
+}
@@ -0,0 +1,20 @@
+package com.ucapital24.advertisement.model;
+
+import com.fasterxml.jackson.annotation.JsonProperty;
+
+/**
+ * One or more delivery events of the same type for an advertisement, as received by the batch endpoint.
+ *
+ * @param adId  the ID of the advertisement
+ * @param type  the type of the events
+ * @param count the number of events, 1 if absent
+ */
+public record DeliveryEvent(@JsonProperty("ad_id")
+                            String adId,
+
+                            @JsonProperty("type")
+                            DeliveryEventType type,
+
+                            @JsonProperty("count")
+                            Integer count) {
+}
@@ -0,0 +1,6 @@
+package com.ucapital24.advertisement.model;
+
+public enum DeliveryEventType {
+    IMPRESSION,
+    CLICK
+}
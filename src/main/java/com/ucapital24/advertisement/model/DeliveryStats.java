@@ -0,0 +1,18 @@
+package com.ucapital24.advertisement.model;
+
+import com.fasterxml.jackson.annotation.JsonProperty;
+
+import java.time.Instant;
+
+public record DeliveryStats(@JsonProperty("ad_id")
+                            String adId,
+
+                            @JsonProperty("minute")
+                            Instant minute,
+
+                            @JsonProperty("impressions")
+                            long impressions,
+
+                            @JsonProperty("clicks")
+                            long clicks) {
+}
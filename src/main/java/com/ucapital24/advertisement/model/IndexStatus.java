@@ -0,0 +1,13 @@
+package com.ucapital24.advertisement.model;
+
+import com.fasterxml.jackson.annotation.JsonProperty;
+
+public record IndexStatus(@JsonProperty("name")
+                          String name,
+
+                          @JsonProperty("definition")
+                          String definition,
+
+                          @JsonProperty("present")
+                          boolean present) {
+}
@@ -0,0 +1,7 @@
+package com.ucapital24.advertisement.model;
+
+public enum PersistenceStatus {
+    PENDING,
+    PERSISTED,
+    FAILED
+}
@@ -0,0 +1,27 @@
+package com.ucapital24.advertisement.model;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import com.fasterxml.jackson.annotation.JsonProperty;
+
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public record QueryPlan(@JsonProperty("query")
+                        String query,
+
+                        @JsonProperty("filter")
+                        String filter,
+
+                        @JsonProperty("sort")
+                        String sort,
+
+                        @JsonProperty("winning_plan")
+                        String winningPlan,
+
+                        @JsonProperty("index_name")
+                        String indexName,
+
+                        @JsonProperty("collection_scan")
+                        boolean collectionScan,
+
+                        @JsonProperty("error_message")
+                        String errorMessage) {
+}
@@ -0,0 +1,27 @@
+package com.ucapital24.advertisement.model;
+
+import jakarta.validation.constraints.NotNull;
+
+import java.time.Instant;
+
+/**
+ * An advertisement together with the version and last modification time of its stored document, which are used
+ * as HTTP validators. Documents written before versioning was introduced have version 0 and no modification time.
+ *
+ * @param advertisement the advertisement
+ * @param version       the version of the stored document, bumped on every write
+ * @param lastModified  the time of the last write, or null if unknown
+ */
+public record VersionedAdvertisement(@NotNull Advertisement advertisement, long version, Instant lastModified) {
+
+    /**
+     * @return a strong entity tag of the advertisement, which changes on every write
+     */
+    @NotNull
+    public String etag() {
+        if (lastModified == null) {
+            return "\"" + version + "\"";
+        }
+        return "\"" + version + "-" + lastModified.toEpochMilli() + "\"";
+    }
+}
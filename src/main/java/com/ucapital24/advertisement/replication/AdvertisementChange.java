@@ -0,0 +1,34 @@
+package com.ucapital24.advertisement.replication;
+
+import com.ucapital24.advertisement.dao.AdvertisementDocument;
+
+/**
+ * A change of the advertisement collection.
+ *
+ * @param type     the kind of change
+ * @param id       the ID of the changed advertisement, null for {@link Type#INVALIDATE}
+ * @param document the advertisement after the change, only set for {@link Type#UPSERT}
+ */
+public record AdvertisementChange(Type type, String id, AdvertisementDocument document) {
+
+    public enum Type {
+        /** an advertisement was inserted, updated or replaced */
+        UPSERT,
+        /** an advertisement was deleted */
+        DELETE,
+        /** the collection was dropped or renamed: the read models must be reloaded */
+        INVALIDATE
+    }
+
+    public static AdvertisementChange upsert(AdvertisementDocument document) {
+        return new AdvertisementChange(Type.UPSERT, document.getId(), document);
+    }
+
+    public static AdvertisementChange delete(String id) {
+        return new AdvertisementChange(Type.DELETE, id, null);
+    }
+
+    public static AdvertisementChange invalidate() {
+        return new AdvertisementChange(Type.INVALIDATE, null, null);
+    }
+}
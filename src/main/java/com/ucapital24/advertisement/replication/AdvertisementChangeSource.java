@@ -0,0 +1,16 @@
+package com.ucapital24.advertisement.replication;
+
+/**
+ * Opens ordered streams of the changes made to the advertisement collection.
+ */
+public interface AdvertisementChangeSource {
+
+    /**
+     * Opens a stream of changes.
+     *
+     * @param resumeAfter the resume token of the last applied change, or null to start from now
+     * @return the stream, to be closed by the caller
+     * @throws ResumeTokenLostException if the changes following the token are no longer available
+     */
+    AdvertisementChangeStream open(String resumeAfter);
+}
@@ -0,0 +1,27 @@
+package com.ucapital24.advertisement.replication;
+
+import java.time.Duration;
+
+/**
+ * An open, ordered stream of changes of the advertisement collection.
+ */
+public interface AdvertisementChangeStream extends AutoCloseable {
+
+    /**
+     * Waits for the next change.
+     *
+     * @param timeout how long to wait at most
+     * @return the next change, or null if none arrived in time
+     * @throws ResumeTokenLostException if the stream fell too far behind and changes were lost
+     * @throws InterruptedException if the thread is interrupted while waiting
+     */
+    AdvertisementChange poll(Duration timeout) throws InterruptedException;
+
+    /**
+     * @return the token to resume the stream from its current position, or null if it has none yet
+     */
+    String resumeToken();
+
+    @Override
+    void close();
+}
@@ -0,0 +1,32 @@
+package com.ucapital24.advertisement.replication;
+
+import com.ucapital24.advertisement.dao.AdvertisementDocument;
+import jakarta.validation.constraints.NotNull;
+
+/**
+ * In-process state derived from the stored advertisements, kept in sync by the {@link AdvertisementReplicator}
+ * with the writes made by every instance of the service.
+ */
+public interface AdvertisementReadModel {
+
+    /**
+     * Replaces the whole content of the read model.
+     *
+     * @param advertisementDocuments every stored advertisement
+     */
+    void reload(@NotNull Iterable<AdvertisementDocument> advertisementDocuments);
+
+    /**
+     * Applies an inserted or updated advertisement.
+     *
+     * @param advertisementDocument the new version of the advertisement
+     */
+    void put(@NotNull AdvertisementDocument advertisementDocument);
+
+    /**
+     * Applies a deleted advertisement.
+     *
+     * @param adId the ID of the deleted advertisement
+     */
+    void remove(@NotNull String adId);
+}
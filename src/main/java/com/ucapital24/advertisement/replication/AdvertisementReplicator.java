@@ -0,0 +1,180 @@
+package com.ucapital24.advertisement.replication;
+
+import com.ucapital24.advertisement.dao.AdvertisementDocument;
+import com.ucapital24.advertisement.store.AdvertisementStore;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+
+import java.time.Duration;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Keeps the {@link AdvertisementReadModel}s of this instance in sync with the writes made by every instance, by
+ * applying the changes of an {@link AdvertisementChangeSource} one at a time on a dedicated thread.
+ * <p>
+ * The resume token of the last applied change is kept, so a broken stream is reopened where it stopped and only
+ * the missed changes are applied. The read models are fully reloaded on startup and when the token is lost; the
+ * stream is opened before the reload, so that no change made during the reload is missed.
+ */
+@Slf4j
+public class AdvertisementReplicator {
+
+    private static final Duration POLL_TIMEOUT = Duration.ofSeconds(1);
+
+    private final AdvertisementChangeSource changeSource;
+    private final AdvertisementStore advertisementStore;
+    private final List<AdvertisementReadModel> readModels;
+    private final Duration retryDelay;
+    private final Map<AdvertisementChange.Type, Counter> appliedChanges = new EnumMap<>(AdvertisementChange.Type.class);
+    private final Counter reloads;
+    private final Counter restarts;
+
+    private AdvertisementChangeStream stream;
+    private volatile String resumeToken;
+    private volatile boolean running;
+    private Thread thread;
+
+    public AdvertisementReplicator(AdvertisementChangeSource changeSource,
+                                   AdvertisementStore advertisementStore,
+                                   List<AdvertisementReadModel> readModels,
+                                   Duration retryDelay,
+                                   MeterRegistry meterRegistry) {
+        this.changeSource = changeSource;
+        this.advertisementStore = advertisementStore;
+        this.readModels = readModels;
+        this.retryDelay = retryDelay;
+        for (AdvertisementChange.Type type : AdvertisementChange.Type.values()) {
+            appliedChanges.put(type, meterRegistry.counter("advertisement.replication.changes", "type", type.name()));
+        }
+        this.reloads = meterRegistry.counter("advertisement.replication.reloads");
+        this.restarts = meterRegistry.counter("advertisement.replication.restarts");
+    }
+
+    /**
+     * Starts replicating once the application is up.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public synchronized void start() {
+        if (running) {
+            return;
+        }
+        running = true;
+        thread = new Thread(this::run, "advertisement-replication");
+        thread.setDaemon(true);
+        thread.start();
+    }
+
+    @PreDestroy
+    public void stop() throws InterruptedException {
+        Thread replicationThread;
+        synchronized (this) {
+            running = false;
+            replicationThread = thread;
+        }
+        if (replicationThread != null) {
+            replicationThread.interrupt();
+            replicationThread.join(retryDelay.plus(POLL_TIMEOUT).toMillis());
+        }
+    }
+
+    /**
+     * @return the resume token of the last applied change, or null before the first one
+     */
+    public String resumeToken() {
+        return resumeToken;
+    }
+
+    private void run() {
+        while (running) {
+            try {
+                step();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                break;
+            } catch (Exception e) {
+                log.error("Advertisement replication failed, reopening the change stream in {}: {}", retryDelay, e.toString());
+                closeStream();
+                restarts.increment();
+                try {
+                    Thread.sleep(retryDelay.toMillis());
+                } catch (InterruptedException interrupted) {
+                    Thread.currentThread().interrupt();
+                    break;
+                }
+            }
+        }
+        closeStream();
+    }
+
+    /**
+     * Opens the stream if needed, then applies at most one change.
+     */
+    void step() throws InterruptedException {
+        if (stream == null) {
+            openStream();
+        }
+        try {
+            AdvertisementChange change = stream.poll(POLL_TIMEOUT);
+            if (change != null) {
+                apply(change);
+            }
+            String token = stream.resumeToken();
+            if (token != null) {
+                resumeToken = token;
+            }
+        } catch (ResumeTokenLostException e) {
+            log.warn("Advertisement change stream fell behind: {}", e.getMessage());
+            closeStream();
+            resumeToken = null;
+        }
+    }
+
+    private void openStream() {
+        if (resumeToken != null) {
+            try {
+                stream = changeSource.open(resumeToken);
+                log.info("Advertisement change stream resumed");
+                return;
+            } catch (ResumeTokenLostException e) {
+                log.warn("Advertisement change stream cannot be resumed: {}", e.getMessage());
+                resumeToken = null;
+            }
+        }
+        stream = changeSource.open(null);
+        resumeToken = stream.resumeToken();
+        reload();
+    }
+
+    private void apply(AdvertisementChange change) {
+        switch (change.type()) {
+            case UPSERT -> readModels.forEach(readModel -> readModel.put(change.document()));
+            case DELETE -> readModels.forEach(readModel -> readModel.remove(change.id()));
+            case INVALIDATE -> reload();
+        }
+        appliedChanges.get(change.type()).increment();
+    }
+
+    private void reload() {
+        List<AdvertisementDocument> advertisementDocuments = advertisementStore.findAll();
+        readModels.forEach(readModel -> readModel.reload(advertisementDocuments));
+        reloads.increment();
+        log.info("Advertisement read models reloaded with {} advertisements", advertisementDocuments.size());
+    }
+
+    private void closeStream() {
+        if (stream != null) {
+            try {
+                stream.close();
+            } catch (Exception e) {
+                log.warn("Error closing the advertisement change stream: {}", e.toString());
+            }
+            stream = null;
+        }
+    }
+}
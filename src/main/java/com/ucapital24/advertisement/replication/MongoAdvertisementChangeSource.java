@@ -0,0 +1,110 @@
+package com.ucapital24.advertisement.replication;
+
+import com.mongodb.MongoCommandException;
+import com.mongodb.client.MongoChangeStreamCursor;
+import com.mongodb.client.model.changestream.ChangeStreamDocument;
+import com.mongodb.client.model.changestream.FullDocument;
+import com.ucapital24.advertisement.dao.AdvertisementDocument;
+import org.bson.BsonDocument;
+import org.bson.BsonValue;
+import org.bson.Document;
+import org.springframework.data.mongodb.core.MongoTemplate;
+
+import java.time.Duration;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Tails a MongoDB change stream on the advertisement collection. Change streams need a replica set or a sharded
+ * cluster. Updates are read with the full document looked up, so every change carries the whole advertisement.
+ */
+public class MongoAdvertisementChangeSource implements AdvertisementChangeSource {
+
+    // CappedPositionLost, ChangeStreamFatalError, ChangeStreamHistoryLost
+    private static final Set<Integer> HISTORY_LOST_ERROR_CODES = Set.of(136, 280, 286);
+
+    private final MongoTemplate mongoTemplate;
+
+    public MongoAdvertisementChangeSource(MongoTemplate mongoTemplate) {
+        this.mongoTemplate = mongoTemplate;
+    }
+
+    @Override
+    public AdvertisementChangeStream open(String resumeAfter) {
+        var changeStream = mongoTemplate.getCollection(mongoTemplate.getCollectionName(AdvertisementDocument.class))
+                .watch()
+                .fullDocument(FullDocument.UPDATE_LOOKUP);
+        if (resumeAfter != null) {
+            changeStream.resumeAfter(BsonDocument.parse(resumeAfter));
+        }
+        try {
+            return new MongoChangeStream(changeStream.cursor());
+        } catch (MongoCommandException e) {
+            throw translate(e);
+        }
+    }
+
+    private static RuntimeException translate(MongoCommandException e) {
+        if (HISTORY_LOST_ERROR_CODES.contains(e.getErrorCode())) {
+            return new ResumeTokenLostException(e.getErrorMessage());
+        }
+        return e;
+    }
+
+    private final class MongoChangeStream implements AdvertisementChangeStream {
+
+        private final MongoChangeStreamCursor<ChangeStreamDocument<Document>> cursor;
+
+        private MongoChangeStream(MongoChangeStreamCursor<ChangeStreamDocument<Document>> cursor) {
+            this.cursor = cursor;
+        }
+
+        @Override
+        public AdvertisementChange poll(Duration timeout) {
+            long deadline = System.nanoTime() + timeout.toNanos();
+            do {
+                ChangeStreamDocument<Document> event;
+                try {
+                    event = cursor.tryNext();
+                } catch (MongoCommandException e) {
+                    throw translate(e);
+                }
+                if (event != null) {
+                    AdvertisementChange change = toChange(event);
+                    if (change != null) {
+                        return change;
+                    }
+                }
+            } while (System.nanoTime() < deadline);
+            return null;
+        }
+
+        private AdvertisementChange toChange(ChangeStreamDocument<Document> event) {
+            return switch (event.getOperationType()) {
+                case INSERT, UPDATE, REPLACE -> event.getFullDocument() == null
+                        // deleted before the lookup, the delete event follows
+                        ? AdvertisementChange.delete(idOf(event.getDocumentKey()))
+                        : AdvertisementChange.upsert(mongoTemplate.getConverter().read(AdvertisementDocument.class, event.getFullDocument()));
+                case DELETE -> AdvertisementChange.delete(idOf(event.getDocumentKey()));
+                case DROP, DROP_DATABASE, RENAME, INVALIDATE -> AdvertisementChange.invalidate();
+                default -> null;
+            };
+        }
+
+        private static String idOf(BsonDocument documentKey) {
+            BsonValue id = documentKey.get("_id");
+            return id.isString() ? id.asString().getValue() : id.asObjectId().getValue().toHexString();
+        }
+
+        @Override
+        public String resumeToken() {
+            BsonDocument resumeToken = cursor.getResumeToken();
+            return resumeToken == null ? null : resumeToken.toJson();
+        }
+
+        @Override
+        public void close() {
+            cursor.close();
+        }
+    }
+}
@@ -0,0 +1,100 @@
+package com.ucapital24.advertisement.replication;
+
+import com.ucapital24.advertisement.dao.AdvertisementDocument;
+
+import java.time.Duration;
+import java.util.ArrayDeque;
+import java.util.Deque;
+
+/**
+ * In-process stand-in for the MongoDB change stream, for tests and single-node setups without a replica set.
+ * Changes are published explicitly and kept in a bounded history; resume tokens are sequence numbers, and a
+ * token older than the history is reported as lost, like an expired oplog position.
+ */
+public class ReplayAdvertisementChangeSource implements AdvertisementChangeSource {
+
+    private final int historySize;
+    private final Deque<AdvertisementChange> history = new ArrayDeque<>();
+    private long lastSequence;
+
+    public ReplayAdvertisementChangeSource(int historySize) {
+        this.historySize = historySize;
+    }
+
+    public void publishUpsert(AdvertisementDocument advertisementDocument) {
+        publish(AdvertisementChange.upsert(advertisementDocument));
+    }
+
+    public void publishDelete(String adId) {
+        publish(AdvertisementChange.delete(adId));
+    }
+
+    public synchronized void publish(AdvertisementChange change) {
+        history.addLast(change);
+        lastSequence++;
+        if (history.size() > historySize) {
+            history.removeFirst();
+        }
+        notifyAll();
+    }
+
+    @Override
+    public synchronized AdvertisementChangeStream open(String resumeAfter) {
+        long position = resumeAfter == null ? lastSequence : Long.parseLong(resumeAfter);
+        checkAvailable(position);
+        return new ReplayStream(position);
+    }
+
+    private void checkAvailable(long position) {
+        long oldest = lastSequence - history.size() + 1;
+        if (position + 1 < oldest) {
+            throw new ResumeTokenLostException(String.format("change %d is no longer in the history", position + 1));
+        }
+    }
+
+    private synchronized AdvertisementChange next(long position, Duration timeout) throws InterruptedException {
+        long deadline = System.nanoTime() + timeout.toNanos();
+        while (lastSequence <= position) {
+            long remaining = deadline - System.nanoTime();
+            if (remaining <= 0) {
+                return null;
+            }
+            wait(Math.max(1, remaining / 1_000_000));
+        }
+        checkAvailable(position);
+        long sequence = lastSequence - history.size() + 1;
+        for (AdvertisementChange change : history) {
+            if (sequence++ == position + 1) {
+                return change;
+            }
+        }
+        throw new IllegalStateException("change not found in the history");
+    }
+
+    private final class ReplayStream implements AdvertisementChangeStream {
+
+        private long position;
+
+        private ReplayStream(long position) {
+            this.position = position;
+        }
+
+        @Override
+        public AdvertisementChange poll(Duration timeout) throws InterruptedException {
+            AdvertisementChange change = next(position, timeout);
+            if (change != null) {
+                position++;
+            }
+            return change;
+        }
+
+        @Override
+        public String resumeToken() {
+            return Long.toString(position);
+        }
+
+        @Override
+        public void close() {
+        }
+    }
+}
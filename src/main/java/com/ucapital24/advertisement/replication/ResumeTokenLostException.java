@@ -0,0 +1,11 @@
+package com.ucapital24.advertisement.replication;
+
+/**
+ * Thrown when a change stream cannot be resumed because the changes following the resume token are gone.
+ */
+public class ResumeTokenLostException extends RuntimeException{
+
+    public ResumeTokenLostException(String message) {
+        super(message);
+    }
+}
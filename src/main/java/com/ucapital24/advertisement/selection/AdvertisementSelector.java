@@ -0,0 +1,351 @@
+package com.ucapital24.advertisement.selection;
+
+import com.ucapital24.advertisement.catalog.OffHeapAdvertisement;
+import com.ucapital24.advertisement.catalog.OffHeapAdvertisementCatalog;
+import com.ucapital24.advertisement.dao.AdvertisementDocument;
+import com.ucapital24.advertisement.lifecycle.AdvertisementLifecycleEvent;
+import com.ucapital24.advertisement.lifecycle.AdvertisementLifecycleScheduler;
+import com.ucapital24.advertisement.model.Advertisement;
+import com.ucapital24.advertisement.model.AdvertisementMediaType;
+import com.ucapital24.advertisement.replication.AdvertisementReadModel;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import jakarta.validation.constraints.NotNull;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.util.unit.DataSize;
+
+import java.time.Clock;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.locks.StampedLock;
+
+/**
+ * Picks one live advertisement at random, in proportion to its weight, optionally among one media type.
+ * <p>
+ * The advertisements that have not ended are held in an {@link OffHeapAdvertisementCatalog}, outside the heap, in
+ * chunks of {@code advertisement.index.off-heap.chunk-size}, and only turned into an {@link Advertisement} when one is
+ * picked. Every media type, plus all of them together, has a {@link WeightedSampler} over its live advertisements, updated in
+ * place by every write in O(1): nothing is ever rebuilt from the whole set of advertisements. A selection takes an
+ * expected constant number of random numbers and array reads, whatever the number of advertisements.
+ * <p>
+ * The live set changes when a start_date or end_date is reached: the {@link AdvertisementLifecycleEvent}s
+ * {@code ACTIVATED} and {@code EXPIRED} published by the {@link AdvertisementLifecycleScheduler} add the advertisement
+ * to the samplers or drop it. A selection still checks the dates of the advertisement it picked, and drops it instead
+ * of returning it if its end_date passed before the {@code EXPIRED} transition was applied.
+ */
+@Component
+public class AdvertisementSelector implements MeterBinder, AdvertisementReadModel {
+
+    private static final DataSize DEFAULT_CHUNK_SIZE = DataSize.ofMegabytes(16);
+
+    private final OffHeapAdvertisementCatalog catalog;
+    private final Clock clock;
+    // one per media type, the last one selects among all media types
+    private volatile WeightedSampler[] samplers = newSamplers();
+
+    public AdvertisementSelector(Clock clock) {
+        this(clock, DEFAULT_CHUNK_SIZE);
+    }
+
+    @Autowired
+    public AdvertisementSelector(Clock clock,
+                                 @Value("${advertisement.index.off-heap.chunk-size:16MB}") DataSize chunkSize) {
+        this.clock = clock;
+        this.catalog = new OffHeapAdvertisementCatalog(Math.toIntExact(chunkSize.toBytes()));
+    }
+
+    @Override
+    public synchronized void reload(@NotNull Iterable<AdvertisementDocument> advertisementDocuments) {
+        long now = clock.millis();
+        WeightedSampler[] loaded = newSamplers();
+        List<AdvertisementDocument> pending = new ArrayList<>();
+        for (AdvertisementDocument document : advertisementDocuments) {
+            if (document.getEndDate().toEpochMilli() > now) {
+                pending.add(document);
+                if (document.getStartDate().toEpochMilli() <= now) {
+                    addToSamplers(loaded, document.getId(), document.getMediaType(), document.effectiveWeight());
+                }
+            }
+        }
+        catalog.reload(pending);
+        samplers = loaded;
+    }
+
+    @Override
+    public synchronized void put(@NotNull AdvertisementDocument advertisementDocument) {
+        catalog.put(advertisementDocument);
+        removeFromSamplers(advertisementDocument.getId());
+        long now = clock.millis();
+        if (advertisementDocument.getStartDate().toEpochMilli() <= now && advertisementDocument.getEndDate().toEpochMilli() > now) {
+            addToSamplers(samplers, advertisementDocument.getId(), advertisementDocument.getMediaType(),
+                    advertisementDocument.effectiveWeight());
+        }
+    }
+
+    @Override
+    public synchronized void remove(@NotNull String adId) {
+        if (catalog.remove(adId)) {
+            removeFromSamplers(adId);
+        }
+    }
+
+    /**
+     * Follows the activations and expiries of the advertisements. An expired advertisement is dropped, unless it was
+     * updated meanwhile with a later end_date.
+     */
+    @EventListener
+    public synchronized void onLifecycleEvent(AdvertisementLifecycleEvent event) {
+        OffHeapAdvertisement advertisement = catalog.get(event.adId());
+        if (advertisement == null) {
+            return;
+        }
+        switch (event.type()) {
+            case ACTIVATED -> {
+                if (isLive(advertisement, clock.millis())) {
+                    addToSamplers(samplers, advertisement.id(), advertisement.mediaType(), weight(advertisement));
+                }
+            }
+            case EXPIRED -> dropIfEnded(advertisement);
+            case ARCHIVED -> {
+            }
+        }
+    }
+
+    /**
+     * @param adId the ID of an advertisement
+     * @return whether the advertisement is held by the selector
+     */
+    public boolean contains(@NotNull String adId) {
+        return catalog.contains(adId);
+    }
+
+    @Override
+    public void bindTo(@NotNull MeterRegistry registry) {
+        Gauge.builder("advertisement.selector.off-heap", catalog, OffHeapAdvertisementCatalog::allocatedBytes)
+                .description("Memory allocated outside the heap for the advertisements of the selector")
+                .baseUnit("bytes")
+                .register(registry);
+    }
+
+    /**
+     * Picks a live advertisement with a probability proportional to its weight.
+     *
+     * @param mediaType the media type to pick among, or null for all
+     * @return the picked advertisement, or null if none is live
+     */
+    public Advertisement select(AdvertisementMediaType mediaType) {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        while (true) {
+            WeightedSampler sampler = samplers[mediaType == null ? samplers.length - 1 : mediaType.ordinal()];
+            String adId = sampler.sample(random);
+            if (adId == null) {
+                return null;
+            }
+            OffHeapAdvertisement advertisement = catalog.get(adId);
+            if (advertisement != null && isLive(advertisement, clock.millis())) {
+                return advertisement.toAdvertisement();
+            }
+            // written or ended meanwhile: each pass drops one such advertisement, so the loop ends
+            evict(adId);
+        }
+    }
+
+    private synchronized void evict(String adId) {
+        OffHeapAdvertisement advertisement = catalog.get(adId);
+        if (advertisement == null || !dropIfEnded(advertisement) && !isLive(advertisement, clock.millis())) {
+            removeFromSamplers(adId);
+        }
+    }
+
+    private boolean dropIfEnded(OffHeapAdvertisement advertisement) {
+        if (advertisement.endMillis() > clock.millis()) {
+            return false;
+        }
+        String adId = advertisement.id();
+        catalog.remove(adId);
+        removeFromSamplers(adId);
+        return true;
+    }
+
+    private static void addToSamplers(WeightedSampler[] samplers, String adId, AdvertisementMediaType mediaType, int weight) {
+        if (mediaType != null) {
+            samplers[mediaType.ordinal()].put(adId, weight);
+        }
+        samplers[samplers.length - 1].put(adId, weight);
+    }
+
+    /**
+     * Removes the advertisement from every sampler, whatever the media type it was added with.
+     */
+    private void removeFromSamplers(String adId) {
+        for (WeightedSampler sampler : samplers) {
+            sampler.remove(adId);
+        }
+    }
+
+    private static boolean isLive(OffHeapAdvertisement advertisement, long now) {
+        return advertisement.startMillis() <= now && advertisement.endMillis() > now;
+    }
+
+    private static int weight(OffHeapAdvertisement advertisement) {
+        Integer weight = advertisement.weight();
+        return weight == null ? 1 : weight;
+    }
+
+    private static WeightedSampler[] newSamplers() {
+        WeightedSampler[] samplers = new WeightedSampler[AdvertisementMediaType.values().length + 1];
+        for (int i = 0; i < samplers.length; i++) {
+            samplers[i] = new WeightedSampler();
+        }
+        return samplers;
+    }
+
+    /**
+     * Weighted random sampling over a changing set, with O(1) updates and O(1) expected sampling.
+     * <p>
+     * The entries are grouped by weight class: class k holds the weights in {@code [2^k, 2^(k+1))}. A sample picks a
+     * class in proportion to its total weight, among at most 31, then an entry of the class uniformly, accepted with
+     * probability {@code weight / 2^(k+1)}, which is at least one half. An entry is removed by moving the last entry of
+     * its class into its slot.
+     * <p>
+     * Writers are serialized by the caller. Samples run concurrently with them under an optimistic read of a
+     * {@link StampedLock}, and take the read lock only when a write overlapped.
+     */
+    static final class WeightedSampler {
+
+        private static final int CLASSES = 31;
+        private static final int MAX_ATTEMPTS = 64;
+
+        private final StampedLock lock = new StampedLock();
+        // class << 32 | index of every entry
+        private final Map<String, Long> positions = new HashMap<>();
+        private final String[][] ids = new String[CLASSES][0];
+        private final int[][] weights = new int[CLASSES][0];
+        private final int[] sizes = new int[CLASSES];
+        private final long[] classWeights = new long[CLASSES];
+        private long totalWeight;
+
+        /**
+         * Adds an entry or replaces its weight.
+         */
+        void put(String id, int weight) {
+            long stamp = lock.writeLock();
+            try {
+                removeEntry(id);
+                int weightClass = 31 - Integer.numberOfLeadingZeros(Math.max(1, weight));
+                int index = sizes[weightClass]++;
+                if (index == ids[weightClass].length) {
+                    ids[weightClass] = Arrays.copyOf(ids[weightClass], Math.max(16, 2 * index));
+                    weights[weightClass] = Arrays.copyOf(weights[weightClass], Math.max(16, 2 * index));
+                }
+                ids[weightClass][index] = id;
+                weights[weightClass][index] = Math.max(1, weight);
+                classWeights[weightClass] += weights[weightClass][index];
+                totalWeight += weights[weightClass][index];
+                positions.put(id, (long) weightClass << 32 | index);
+            } finally {
+                lock.unlockWrite(stamp);
+            }
+        }
+
+        void remove(String id) {
+            long stamp = lock.writeLock();
+            try {
+                removeEntry(id);
+            } finally {
+                lock.unlockWrite(stamp);
+            }
+        }
+
+        int size() {
+            long stamp = lock.readLock();
+            try {
+                return positions.size();
+            } finally {
+                lock.unlockRead(stamp);
+            }
+        }
+
+        /**
+         * @return the ID of the picked entry, or null if there is none
+         */
+        String sample(ThreadLocalRandom random) {
+            long stamp = lock.tryOptimisticRead();
+            String id = trySample(random);
+            if (lock.validate(stamp)) {
+                return id;
+            }
+            stamp = lock.readLock();
+            try {
+                return trySample(random);
+            } finally {
+                lock.unlockRead(stamp);
+            }
+        }
+
+        /**
+         * Samples without locking: every read is bounds-checked, so that a sample racing with a write returns a wrong
+         * result, which the caller discards, rather than failing.
+         */
+        private String trySample(ThreadLocalRandom random) {
+            long total = totalWeight;
+            if (total <= 0) {
+                return null;
+            }
+            long target = random.nextLong(total);
+            for (int weightClass = 0; weightClass < CLASSES; weightClass++) {
+                target -= classWeights[weightClass];
+                if (target < 0) {
+                    return sampleClass(random, weightClass);
+                }
+            }
+            return null;
+        }
+
+        private String sampleClass(ThreadLocalRandom random, int weightClass) {
+            String[] classIds = ids[weightClass];
+            int[] classWeights = weights[weightClass];
+            int size = Math.min(sizes[weightClass], Math.min(classIds.length, classWeights.length));
+            if (size <= 0) {
+                return null;
+            }
+            int bound = 1 << (weightClass + 1);
+            for (int attempt = 0; attempt < MAX_ATTEMPTS; attempt++) {
+                int index = random.nextInt(size);
+                if (random.nextInt(bound) < classWeights[index]) {
+                    return classIds[index];
+                }
+            }
+            return null;
+        }
+
+        private void removeEntry(String id) {
+            Long position = positions.remove(id);
+            if (position == null) {
+                return;
+            }
+            int weightClass = (int) (position >>> 32);
+            int index = position.intValue();
+            int last = --sizes[weightClass];
+            int weight = weights[weightClass][index];
+            classWeights[weightClass] -= weight;
+            totalWeight -= weight;
+            if (index != last) {
+                String moved = ids[weightClass][last];
+                ids[weightClass][index] = moved;
+                weights[weightClass][index] = weights[weightClass][last];
+                positions.put(moved, (long) weightClass << 32 | index);
+            }
+            ids[weightClass][last] = null;
+            weights[weightClass][last] = 0;
+        }
+    }
+}
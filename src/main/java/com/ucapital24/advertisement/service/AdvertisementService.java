@@ -1,40 +1,270 @@
 package com.ucapital24.advertisement.service;
 
 import com.ucapital24.advertisement.Exception.AdvertisementNotFoundException;
+import com.ucapital24.advertisement.Exception.ConflictException;
 import com.ucapital24.advertisement.Exception.GenericException;
+import com.ucapital24.advertisement.Exception.PreconditionFailedException;
+import com.ucapital24.advertisement.Exception.ServiceOverloadedException;
+import com.ucapital24.advertisement.Exception.ValidationException;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.ucapital24.advertisement.cache.AdvertisementCache;
+import com.ucapital24.advertisement.cache.HotPageCache;
+import com.ucapital24.advertisement.cache.SingleFlight;
 import com.ucapital24.advertisement.dao.AdvertisementDocument;
-import com.ucapital24.advertisement.dao.AdvertisementRepository;
+import com.ucapital24.advertisement.dao.AdvertisementPageQuery;
+import com.ucapital24.advertisement.dao.AdvertisementSearchCriteria;
+import com.ucapital24.advertisement.dao.AdvertisementWrite;
+import com.ucapital24.advertisement.dao.AdvertisementWriteResult;
+import com.ucapital24.advertisement.dao.AdvertisementWriteStatus;
+import com.ucapital24.advertisement.index.ActiveAdvertisementIndex;
+import com.ucapital24.advertisement.lifecycle.AdvertisementLifecycleScheduler;
 import com.ucapital24.advertisement.model.Advertisement;
+import com.ucapital24.advertisement.model.AdvertisementBatch;
+import com.ucapital24.advertisement.model.AdvertisementMediaType;
+import com.ucapital24.advertisement.model.AdvertisementPatch;
+import com.ucapital24.advertisement.model.AdvertisementPersistence;
+import com.ucapital24.advertisement.model.AdvertisementSearchPage;
+import com.ucapital24.advertisement.model.AdvertisementSlice;
+import com.ucapital24.advertisement.model.BulkItemResult;
+import com.ucapital24.advertisement.model.BulkItemStatus;
+import com.ucapital24.advertisement.model.BulkOperation;
+import com.ucapital24.advertisement.model.BulkOperationType;
+import com.ucapital24.advertisement.model.PersistenceStatus;
+import com.ucapital24.advertisement.model.ScrollOrder;
+import com.ucapital24.advertisement.model.VersionedAdvertisement;
+import com.ucapital24.advertisement.replication.AdvertisementReplicator;
+import com.ucapital24.advertisement.selection.AdvertisementSelector;
+import com.ucapital24.advertisement.store.AdvertisementStore;
+import com.ucapital24.advertisement.writebehind.AdvertisementWriteBehindQueue;
+import io.micrometer.core.annotation.Timed;
 import jakarta.validation.constraints.NotNull;
 import lombok.extern.slf4j.Slf4j;
+import org.bson.Document;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
 import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.Sort;
+import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Service;
 
+import java.io.UncheckedIOException;
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
 import java.util.UUID;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
 
 @Service
 @Slf4j
+@Timed(value = "advertisement.service", percentiles = {0.5, 0.99, 0.999}, histogram = true)
 public class AdvertisementService {
 
     @Autowired
-    private AdvertisementRepository advertisementRepository;
+    private AdvertisementStore advertisementStore;
 
+    @Autowired
+    private ActiveAdvertisementIndex activeAdvertisementIndex;
+
+    @Autowired
+    private AdvertisementCache advertisementCache;
+
+    @Autowired
+    private HotPageCache hotPageCache;
+
+    @Autowired
+    private SingleFlight<AdvertisementPageQuery, Page<VersionedAdvertisement>> advertisementPageQueries;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private AdvertisementValidator advertisementValidator;
+
+    @Autowired
+    private AdvertisementLifecycleScheduler advertisementLifecycleScheduler;
+
+    @Autowired
+    private AdvertisementSelector advertisementSelector;
+
+    @Autowired(required = false)
+    private AdvertisementReplicator advertisementReplicator;
+
+    @Autowired(required = false)
+    private AdvertisementWriteBehindQueue advertisementWriteBehindQueue;
+
+    @Value("${advertisement.bulk.chunk-size:1000}")
+    private int bulkChunkSize = 1000;
+
+    @Value("${advertisement.bulk.max-operations:10000}")
+    private int bulkMaxOperations = 10000;
+
+    @Value("${advertisement.write-behind.batch-size:500}")
+    private int writeBehindBatchSize = 500;
 
     /**
-     * Retrieves a paginated list of advertisements.
+     * Loads every stored advertisement into the {@link ActiveAdvertisementIndex}, the
+     * {@link AdvertisementLifecycleScheduler} and the {@link AdvertisementSelector} once the application is up, unless
+     * replication is enabled.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void loadActiveAdvertisementIndex() {
+        if (advertisementReplicator != null) {
+            // the replicator loads the index itself, once its change stream is open
+            return;
+        }
+        List<AdvertisementDocument> advertisementDocuments = advertisementStore.findAll();
+        activeAdvertisementIndex.reload(advertisementDocuments);
+        advertisementLifecycleScheduler.reload(advertisementDocuments);
+        advertisementSelector.reload(advertisementDocuments);
+        log.info("Active advertisement index loaded with {} advertisements", activeAdvertisementIndex.size());
+    }
+
+    /**
+     * Retrieves a paginated list of advertisements. Identical concurrent calls share one query.
      *
      * @param pageable pagination parameters (page number, size, sorting)
      * @return a page of {@link Advertisement} objects
      */
     @NotNull
     public Page<Advertisement> getAdvertisements(Pageable pageable) {
-        return advertisementRepository.findAll(pageable).map(AdvertisementDocument::toAdvertisement);
+        return getVersionedAdvertisements(pageable, null, null).map(VersionedAdvertisement::advertisement);
+    }
+
+    /**
+     * Retrieves a paginated list of advertisements with their versions, optionally restricted to a media type
+     * and/or to the advertisements live at an instant. The filtered queries are served by the compound indexes
+     * declared on {@link AdvertisementDocument}. Identical concurrent calls share one query, unless a write
+     * happened in between.
+     *
+     * @param pageable  pagination parameters (page number, size, sorting)
+     * @param mediaType the media type to keep, or null for all
+     * @param activeAt  the instant the advertisements must be live at, or null for all
+     * @return a page of {@link VersionedAdvertisement} objects
+     */
+    @NotNull
+    public Page<VersionedAdvertisement> getVersionedAdvertisements(Pageable pageable, AdvertisementMediaType mediaType, Instant activeAt) {
+        return advertisementPageQueries.execute(new AdvertisementPageQuery(pageable, mediaType, activeAt, hotPageCache.generation()),
+                () -> findVersionedAdvertisements(pageable, mediaType, activeAt));
+    }
+
+    private Page<VersionedAdvertisement> findVersionedAdvertisements(Pageable pageable, AdvertisementMediaType mediaType, Instant activeAt) {
+        Page<AdvertisementDocument> documents;
+        if (mediaType != null && activeAt != null) {
+            documents = advertisementStore.findActiveAtByMediaType(mediaType, activeAt, pageable);
+        } else if (mediaType != null) {
+            documents = advertisementStore.findByMediaType(mediaType, pageable);
+        } else if (activeAt != null) {
+            documents = advertisementStore.findActiveAt(activeAt, pageable);
+        } else {
+            documents = advertisementStore.findAll(pageable);
+        }
+        return documents.map(AdvertisementDocument::toVersionedAdvertisement);
+    }
+
+    /**
+     * Passes every advertisement to the consumer, reading them from a MongoDB cursor one batch at a time.
+     * Only one batch is held in memory, and the cursor is not advanced faster than the consumer accepts.
+     *
+     * @param consumer receives the advertisements one by one
+     * @return the number of exported advertisements
+     */
+    public long exportAdvertisements(@NotNull Consumer<Advertisement> consumer) {
+        long count = 0;
+        try (Stream<AdvertisementDocument> documents = advertisementStore.streamAllBy()) {
+            var iterator = documents.iterator();
+            while (iterator.hasNext()) {
+                consumer.accept(iterator.next().toAdvertisement());
+                count++;
+            }
+        }
+        return count;
+    }
+
+    /**
+     * Retrieves a slice of advertisements using keyset pagination: the query seeks directly past the position
+     * carried by the cursor and no total count is computed, so latency does not depend on the depth.
+     *
+     * @param cursor the continuation token returned with the previous slice, or null to start from the beginning
+     * @param order  the key to scroll on when starting; a cursor always continues on the key it was created with
+     * @param size   the maximum number of advertisements to return
+     * @return a slice of {@link Advertisement} objects with the token of the next slice
+     * @throws ValidationException if the cursor is not valid
+     */
+    @NotNull
+    public AdvertisementSlice scrollAdvertisements(String cursor, @NotNull ScrollOrder order, int size) {
+        ScrollCursor position = cursor == null ? null : ScrollCursor.decode(cursor);
+        ScrollOrder effectiveOrder = position == null ? order : position.order();
+        Slice<AdvertisementDocument> slice;
+        if (effectiveOrder == ScrollOrder.START_DATE) {
+            Pageable pageable = PageRequest.of(0, size, Sort.by("startDate", "id"));
+            slice = position == null
+                    ? advertisementStore.findAllBy(pageable)
+                    : advertisementStore.findAfterStartDate(position.startDate(), position.id(), pageable);
+        } else {
+            Pageable pageable = PageRequest.of(0, size, Sort.by("id"));
+            slice = position == null
+                    ? advertisementStore.findAllBy(pageable)
+                    : advertisementStore.findByIdGreaterThan(position.id(), pageable);
+        }
+        List<AdvertisementDocument> documents = slice.getContent();
+        String nextCursor = slice.hasNext()
+                ? ScrollCursor.after(documents.get(documents.size() - 1), effectiveOrder).encode()
+                : null;
+        return new AdvertisementSlice(documents.stream().map(AdvertisementDocument::toAdvertisement).toList(), nextCursor, slice.hasNext());
+    }
+
+    /**
+     * Searches the advertisements ordered by ID. Only the requested fields are read from MongoDB and returned,
+     * the stored documents are not mapped to {@link Advertisement}.
+     *
+     * @param criteria the filters to apply
+     * @param fields   the fields to return, all of them if null or empty
+     * @param page     the zero-based page number
+     * @param size     the maximum number of advertisements to return
+     * @return a page of projected advertisements keyed by field name
+     */
+    @NotNull
+    public AdvertisementSearchPage searchAdvertisements(@NotNull AdvertisementSearchCriteria criteria, List<String> fields, int page, int size) {
+        if (criteria.activeFrom() != null && !criteria.activeFrom().isBefore(criteria.activeTo())) {
+            throw new ValidationException("from should be before to");
+        }
+        List<String> projection = fields == null || fields.isEmpty() ? AdvertisementDocument.FIELDS : fields;
+        for (String field : projection) {
+            if (!AdvertisementDocument.FIELDS.contains(field)) {
+                throw new ValidationException(String.format("unknown field: %s", field));
+            }
+        }
+        List<Document> documents = advertisementStore.search(criteria, projection, (long) page * size, size + 1);
+        boolean hasNext = documents.size() > size;
+        List<Map<String, Object>> content = new ArrayList<>(Math.min(documents.size(), size));
+        for (int i = 0; i < documents.size() && i < size; i++) {
+            Document document = documents.get(i);
+            document.replaceAll((field, value) -> value instanceof Date date ? date.toInstant() : value);
+            content.add(document);
+        }
+        return new AdvertisementSearchPage(content, page, size, hasNext);
     }
 
     /**
-     * Retrieves an advertisement by its ID.
+     * Retrieves an advertisement by its ID, going through the {@link AdvertisementCache}.
      *
      * @param adId the ID of the advertisement
      * @return the {@link Advertisement} object
@@ -42,7 +272,107 @@ public class AdvertisementService {
      */
     @NotNull
     public Advertisement getAdvertisement(@NotNull String adId) {
-        return findAdvertisementById(adId).toAdvertisement();
+        return getVersionedAdvertisement(adId).advertisement();
+    }
+
+    /**
+     * Retrieves an advertisement and its version by its ID, going through the {@link AdvertisementCache}. A cache
+     * hit does not read the repository.
+     *
+     * @param adId the ID of the advertisement
+     * @return the {@link VersionedAdvertisement} object
+     * @throws AdvertisementNotFoundException if the advertisement is not found
+     */
+    @NotNull
+    public VersionedAdvertisement getVersionedAdvertisement(@NotNull String adId) {
+        return advertisementCache.get(adId, id -> advertisementStore.findById(id).map(AdvertisementDocument::toVersionedAdvertisement))
+                .orElseThrow(() -> notFound(adId));
+    }
+
+    /**
+     * Retrieves several advertisements by ID, going through the {@link AdvertisementCache}. The advertisements that
+     * are not cached are read with a single {@code $in} query, and duplicate IDs are looked up once.
+     *
+     * @param adIds the IDs of the advertisements
+     * @return the found advertisements in the order of their first occurrence in {@code adIds}, and the IDs that
+     * were not found in the same order
+     */
+    @NotNull
+    public AdvertisementBatch getAdvertisements(@NotNull List<String> adIds) {
+        Set<String> distinctIds = new LinkedHashSet<>(adIds);
+        Map<String, Optional<VersionedAdvertisement>> found = advertisementCache.getAll(distinctIds, missingIds -> {
+            Map<String, VersionedAdvertisement> loaded = new HashMap<>();
+            for (AdvertisementDocument advertisementDocument : advertisementStore.findAllById(missingIds)) {
+                loaded.put(advertisementDocument.getId(), advertisementDocument.toVersionedAdvertisement());
+            }
+            return loaded;
+        });
+        List<Advertisement> advertisements = new ArrayList<>(distinctIds.size());
+        List<String> missingIds = new ArrayList<>();
+        for (String adId : distinctIds) {
+            Optional<VersionedAdvertisement> versioned = found.get(adId);
+            if (versioned != null && versioned.isPresent()) {
+                advertisements.add(versioned.get().advertisement());
+            } else {
+                missingIds.add(adId);
+            }
+        }
+        return new AdvertisementBatch(advertisements, missingIds);
+    }
+
+    /**
+     * Tells whether an advertisement exists, from the in-memory index or else through the {@link AdvertisementCache}.
+     *
+     * @param adId the ID of the advertisement
+     * @return whether the advertisement exists
+     */
+    public boolean advertisementExists(@NotNull String adId) {
+        return activeAdvertisementIndex.contains(adId)
+                || advertisementCache.get(adId, id -> advertisementStore.findById(id).map(AdvertisementDocument::toVersionedAdvertisement)).isPresent();
+    }
+
+    /**
+     * Retrieves the advertisements live at the given instant from the in-memory index.
+     *
+     * @param at the instant to look at
+     * @return the live {@link Advertisement} objects ordered by start date
+     */
+    @NotNull
+    public List<Advertisement> getActiveAdvertisements(@NotNull Instant at) {
+        return activeAdvertisementIndex.findActiveAt(at);
+    }
+
+    /**
+     * Retrieves the advertisements live at any point of the window [from, to) from the in-memory index.
+     *
+     * @param from the inclusive start of the window
+     * @param to   the exclusive end of the window
+     * @return the matching {@link Advertisement} objects ordered by start date
+     * @throws ValidationException if from is not before to
+     */
+    @NotNull
+    public List<Advertisement> getActiveAdvertisements(@NotNull Instant from, @NotNull Instant to) {
+        if (!from.isBefore(to)) {
+            throw new ValidationException("from should be before to");
+        }
+        return activeAdvertisementIndex.findActiveBetween(from, to);
+    }
+
+    /**
+     * Picks one live advertisement at random, in proportion to the advertisement weights, from the in-memory
+     * {@link AdvertisementSelector}.
+     *
+     * @param mediaType the media type to pick among, or null for all
+     * @return the picked {@link Advertisement}
+     * @throws AdvertisementNotFoundException if no advertisement is live
+     */
+    @NotNull
+    public Advertisement selectAdvertisement(AdvertisementMediaType mediaType) {
+        Advertisement selected = advertisementSelector.select(mediaType);
+        if (selected == null) {
+            throw new AdvertisementNotFoundException("No live advertisement to select");
+        }
+        return selected;
     }
 
     /**
@@ -50,27 +380,310 @@ public class AdvertisementService {
      *
      * @param advertisement the advertisement to create
      * @return the created {@link Advertisement}
+     * @throws ValidationException if the advertisement is not valid
      * @throws GenericException if the save operation fails
      */
     public Advertisement createAdvertisement(@NotNull Advertisement advertisement) {
+        advertisementValidator.validate(advertisement);
         try {
             String id = UUID.randomUUID().toString();
-            AdvertisementDocument advertisementDocument = new AdvertisementDocument(
-                    id,
-                    advertisement.title(),
-                    advertisement.content(),
-                    advertisement.mediaUrl(),
-                    advertisement.mediaType(),
-                    advertisement.startDate(),
-                    advertisement.endDate()
-            );
-            return advertisementRepository.save(advertisementDocument).toAdvertisement();
+            AdvertisementDocument advertisementDocument = toDocument(id, advertisement);
+            AdvertisementDocument saved = advertisementStore.save(advertisementDocument);
+            indexPut(saved);
+            return saved.toAdvertisement();
         } catch (Exception e) {
             log.error("Error saving advertisement: {}" , e);
             throw new GenericException(e.getMessage());
         }
     }
 
+    /**
+     * @return whether creations are acknowledged once queued, and written to the store in the background
+     */
+    public boolean isWriteBehindEnabled() {
+        return advertisementWriteBehindQueue != null;
+    }
+
+    /**
+     * Accepts a new advertisement in write-behind mode: it is validated, given its ID and appended to the durable
+     * write-behind queue, then written to the store by {@link #flushWriteBehindQueue()}. It is not readable until
+     * then.
+     *
+     * @param advertisement the advertisement to create
+     * @return the ID of the advertisement, with the {@code PENDING} status
+     * @throws ValidationException if the advertisement is not valid
+     * @throws ServiceOverloadedException if the write-behind queue is full
+     * @throws GenericException if write-behind is disabled or the queue cannot be written
+     */
+    @NotNull
+    public AdvertisementPersistence acceptAdvertisement(@NotNull Advertisement advertisement) {
+        if (advertisementWriteBehindQueue == null) {
+            throw new GenericException("Write-behind is not enabled");
+        }
+        advertisementValidator.validate(advertisement);
+        String id = UUID.randomUUID().toString();
+        try {
+            advertisementWriteBehindQueue.enqueue(toDocument(id, advertisement));
+        } catch (UncheckedIOException | IllegalArgumentException e) {
+            log.error("Error queuing advertisement: {}", e.toString());
+            throw new GenericException(e.getMessage());
+        }
+        return new AdvertisementPersistence(id, PersistenceStatus.PENDING, null);
+    }
+
+    /**
+     * Writes the queued advertisements to the store as unordered bulk inserts of
+     * {@code advertisement.write-behind.batch-size} advertisements, then adds them to the read models. An
+     * advertisement the store rejects leaves the queue as failed; if a batch cannot be written at all, it stays
+     * queued and is retried on the next flush. An advertisement already in the store leaves the queue as persisted,
+     * and the stored advertisement is read again for the read models.
+     *
+     * @return the number of advertisements written
+     */
+    @Scheduled(fixedDelayString = "${advertisement.write-behind.flush-interval:PT1S}")
+    public synchronized int flushWriteBehindQueue() {
+        if (advertisementWriteBehindQueue == null) {
+            return 0;
+        }
+        int written = 0;
+        List<AdvertisementDocument> batch;
+        while (!(batch = advertisementWriteBehindQueue.peek(writeBehindBatchSize)).isEmpty()) {
+            List<AdvertisementWriteResult> results;
+            try {
+                results = advertisementStore.bulkWrite(batch.stream().map(AdvertisementWrite::insert).toList());
+            } catch (Exception e) {
+                log.error("Error writing {} queued advertisements, retrying on the next flush: {}", batch.size(), e.toString());
+                advertisementWriteBehindQueue.recordFlushFailure();
+                break;
+            }
+            List<String> persistedIds = new ArrayList<>(batch.size());
+            List<String> duplicateIds = new ArrayList<>();
+            Map<String, String> failures = new HashMap<>();
+            for (int i = 0; i < batch.size(); i++) {
+                AdvertisementDocument advertisementDocument = batch.get(i);
+                AdvertisementWriteResult result = results.get(i);
+                if (result.isApplied()) {
+                    advertisementCache.invalidate(advertisementDocument.getId());
+                    indexPut(advertisementDocument);
+                    persistedIds.add(advertisementDocument.getId());
+                } else if (result.status() == AdvertisementWriteStatus.DUPLICATE_KEY) {
+                    duplicateIds.add(advertisementDocument.getId());
+                } else {
+                    failures.put(advertisementDocument.getId(), result.errorMessage());
+                }
+            }
+            boolean retryDuplicates = false;
+            if (!duplicateIds.isEmpty()) {
+                // written by a flush that stopped before dequeuing them, and possibly updated since: the queued
+                // copies are stale, the read models get the stored advertisements
+                try {
+                    for (AdvertisementDocument stored : advertisementStore.findAllById(duplicateIds)) {
+                        advertisementCache.invalidate(stored.getId());
+                        indexPut(stored);
+                    }
+                    persistedIds.addAll(duplicateIds);
+                } catch (Exception e) {
+                    log.error("Error reading {} advertisements already written, retrying on the next flush: {}", duplicateIds.size(), e.toString());
+                    advertisementWriteBehindQueue.recordFlushFailure();
+                    retryDuplicates = true;
+                }
+            }
+            advertisementWriteBehindQueue.complete(persistedIds, failures);
+            written += persistedIds.size();
+            if (retryDuplicates) {
+                // still queued: peeking again would return them at once
+                break;
+            }
+        }
+        return written;
+    }
+
+    /**
+     * Tells where an advertisement stands: queued for write-behind, written to the store, or rejected by it.
+     *
+     * @param adId the ID of the advertisement
+     * @return the persistence of the advertisement
+     * @throws AdvertisementNotFoundException if the advertisement is neither queued, recently rejected, nor stored
+     */
+    @NotNull
+    public AdvertisementPersistence getAdvertisementPersistence(@NotNull String adId) {
+        AdvertisementPersistence persistence = advertisementWriteBehindQueue == null ? null : advertisementWriteBehindQueue.status(adId);
+        if (persistence != null) {
+            return persistence;
+        }
+        if (advertisementExists(adId)) {
+            return new AdvertisementPersistence(adId, PersistenceStatus.PERSISTED, null);
+        }
+        throw notFound(adId);
+    }
+
+    /**
+     * Applies a mix of create, update and delete operations. Operations are validated in parallel, then written
+     * in chunks of {@code advertisement.bulk.chunk-size} operations: the creates of a chunk as one unordered bulk
+     * write, the updates and deletes each as a write conditioned on the version read at the start of the chunk. A
+     * failing operation does not stop the others. Operations targeting an ID that another operation of the request
+     * also targets are rejected, since their order would be undefined.
+     *
+     * @param operations the operations to apply
+     * @return the outcome of every operation, in the order of {@code operations}
+     * @throws ValidationException if there are more than {@code advertisement.bulk.max-operations} operations
+     */
+    @NotNull
+    public List<BulkItemResult> bulkWrite(@NotNull List<BulkOperation> operations) {
+        if (operations.size() > bulkMaxOperations) {
+            throw new ValidationException(String.format("A bulk request holds at most %d operations", bulkMaxOperations));
+        }
+        List<PreparedOperation> prepared = IntStream.range(0, operations.size())
+                .parallel()
+                .mapToObj(index -> prepareBulkOperation(index, operations.get(index)))
+                .toList();
+        Map<String, Integer> targets = new HashMap<>();
+        prepared.stream()
+                .filter(operation -> operation.error() == null && operation.type() != BulkOperationType.CREATE)
+                .forEach(operation -> targets.merge(operation.id(), 1, Integer::sum));
+        prepared = prepared.stream()
+                .map(operation -> operation.error() == null && operation.type() != BulkOperationType.CREATE && targets.get(operation.id()) > 1
+                        ? PreparedOperation.invalid(operation.index(), operation.id(), "_id is the target of several operations")
+                        : operation)
+                .toList();
+        BulkItemResult[] results = new BulkItemResult[operations.size()];
+        for (int from = 0; from < prepared.size(); from += bulkChunkSize) {
+            writeBulkChunk(prepared.subList(from, Math.min(from + bulkChunkSize, prepared.size())), results);
+        }
+        return List.of(results);
+    }
+
+    /**
+     * @return the maximum number of operations of a bulk request
+     */
+    public int getBulkMaxOperations() {
+        return bulkMaxOperations;
+    }
+
+    private PreparedOperation prepareBulkOperation(int index, BulkOperation operation) {
+        if (operation.op() == null) {
+            return PreparedOperation.invalid(index, operation.id(), "op is required");
+        }
+        if (operation.op() != BulkOperationType.CREATE && operation.id() == null) {
+            return PreparedOperation.invalid(index, null, "_id is required");
+        }
+        if (operation.op() == BulkOperationType.DELETE) {
+            return new PreparedOperation(index, operation.op(), operation.id(), null, null);
+        }
+        if (operation.advertisement() == null) {
+            return PreparedOperation.invalid(index, operation.id(), "advertisement is required");
+        }
+        try {
+            Advertisement advertisement = objectMapper.treeToValue(operation.advertisement(), Advertisement.class);
+            advertisementValidator.validate(advertisement);
+            String id = operation.op() == BulkOperationType.CREATE ? UUID.randomUUID().toString() : operation.id();
+            return new PreparedOperation(index, operation.op(), id, toDocument(id, advertisement), null);
+        } catch (ValidationException e) {
+            return PreparedOperation.invalid(index, operation.id(), e.getMessage());
+        } catch (JsonProcessingException e) {
+            return PreparedOperation.invalid(index, operation.id(), String.format("advertisement is not valid: %s", e.getOriginalMessage()));
+        }
+    }
+
+    /**
+     * Writes a chunk of operations. The versions read first only condition the writes: the outcome of every
+     * operation, and the read models, follow what the store reports for it.
+     */
+    private void writeBulkChunk(List<PreparedOperation> chunk, BulkItemResult[] results) {
+        Set<String> targetIds = new HashSet<>();
+        chunk.stream()
+                .filter(operation -> operation.error() == null && operation.type() != BulkOperationType.CREATE)
+                .forEach(operation -> targetIds.add(operation.id()));
+        Map<String, AdvertisementDocument> existing = new HashMap<>();
+        if (!targetIds.isEmpty()) {
+            advertisementStore.findAllById(targetIds).forEach(document -> existing.put(document.getId(), document));
+        }
+
+        List<PreparedOperation> toWrite = new ArrayList<>();
+        List<AdvertisementWrite> writes = new ArrayList<>();
+        for (PreparedOperation operation : chunk) {
+            if (operation.error() != null) {
+                results[operation.index()] = new BulkItemResult(operation.index(), operation.id(), BulkItemStatus.INVALID, operation.error());
+            } else if (operation.type() != BulkOperationType.CREATE && !existing.containsKey(operation.id())) {
+                results[operation.index()] = new BulkItemResult(operation.index(), operation.id(), BulkItemStatus.NOT_FOUND,
+                        notFound(operation.id()).getMessage());
+            } else {
+                Long expectedVersion = null;
+                if (operation.type() != BulkOperationType.CREATE) {
+                    Long version = existing.get(operation.id()).getVersion();
+                    expectedVersion = version == null ? 0 : version;
+                }
+                if (operation.type() == BulkOperationType.UPDATE) {
+                    operation.document().setVersion(expectedVersion);
+                    operation.document().markModified(Instant.now());
+                }
+                toWrite.add(operation);
+                writes.add(switch (operation.type()) {
+                    case CREATE -> AdvertisementWrite.insert(operation.document());
+                    case UPDATE -> AdvertisementWrite.replace(operation.document(), expectedVersion);
+                    case DELETE -> AdvertisementWrite.delete(operation.id(), expectedVersion);
+                });
+            }
+        }
+
+        List<AdvertisementWriteResult> writeResults;
+        try {
+            writeResults = advertisementStore.bulkWrite(writes);
+        } catch (Exception e) {
+            log.error("Error executing bulk write: {}", e);
+            writeResults = Collections.nCopies(writes.size(), AdvertisementWriteResult.failed(e.getMessage()));
+        }
+        Set<String> unmatchedIds = new HashSet<>();
+        for (int i = 0; i < toWrite.size(); i++) {
+            if (writeResults.get(i).status() == AdvertisementWriteStatus.NOT_MATCHED) {
+                unmatchedIds.add(toWrite.get(i).id());
+            }
+        }
+        // only read on the failure path, to tell a concurrent delete from a concurrent write
+        Set<String> stillStored = new HashSet<>();
+        if (!unmatchedIds.isEmpty()) {
+            advertisementStore.findAllById(unmatchedIds).forEach(document -> stillStored.add(document.getId()));
+        }
+        for (int i = 0; i < toWrite.size(); i++) {
+            PreparedOperation operation = toWrite.get(i);
+            AdvertisementWriteResult writeResult = writeResults.get(i);
+            if (writeResult.status() == AdvertisementWriteStatus.NOT_MATCHED) {
+                results[operation.index()] = stillStored.contains(operation.id())
+                        ? new BulkItemResult(operation.index(), operation.id(), BulkItemStatus.CONFLICT,
+                                String.format("Advertisement with id: %s has been modified", operation.id()))
+                        : new BulkItemResult(operation.index(), operation.id(), BulkItemStatus.NOT_FOUND, notFound(operation.id()).getMessage());
+                continue;
+            }
+            if (!writeResult.isApplied()) {
+                results[operation.index()] = new BulkItemResult(operation.index(), operation.id(), BulkItemStatus.FAILED, writeResult.errorMessage());
+                continue;
+            }
+            switch (operation.type()) {
+                case CREATE -> indexPut(operation.document());
+                case UPDATE -> {
+                    advertisementCache.invalidate(operation.id());
+                    indexPut(operation.document());
+                }
+                case DELETE -> {
+                    advertisementCache.invalidate(operation.id());
+                    indexRemove(operation.id());
+                }
+            }
+            results[operation.index()] = new BulkItemResult(operation.index(), operation.id(), switch (operation.type()) {
+                case CREATE -> BulkItemStatus.CREATED;
+                case UPDATE -> BulkItemStatus.UPDATED;
+                case DELETE -> BulkItemStatus.DELETED;
+            }, null);
+        }
+    }
+
+    private record PreparedOperation(int index, BulkOperationType type, String id, AdvertisementDocument document, String error) {
+
+        static PreparedOperation invalid(int index, String id, String error) {
+            return new PreparedOperation(index, null, id, null, error);
+        }
+    }
+
     /**
      * Deletes an advertisement by ID.
      *
@@ -79,22 +692,68 @@ public class AdvertisementService {
      * @throws GenericException for any other errors during deletion
      */
     public void deleteAdvertisement(@NotNull String adId) {
+        deleteAdvertisement(adId, null);
+    }
 
+    /**
+     * Deletes an advertisement by ID in one conditional findAndRemove.
+     *
+     * @param adId            the ID of the advertisement to delete
+     * @param expectedVersion the version the advertisement must have, or null for any version
+     * @throws AdvertisementNotFoundException if the advertisement does not exist
+     * @throws PreconditionFailedException if the advertisement does not have the expected version
+     * @throws ConflictException if the advertisement was replaced concurrently
+     * @throws GenericException for any other errors during deletion
+     */
+    public void deleteAdvertisement(@NotNull String adId, Long expectedVersion) {
+        AdvertisementDocument deleted;
         try {
-            AdvertisementDocument advertisementDocument = findAdvertisementById(adId);
-            advertisementRepository.delete(advertisementDocument);
-        } catch (AdvertisementNotFoundException e) {
-            throw e;
+            deleted = advertisementStore.deleteIfMatch(adId, expectedVersion);
         } catch (Exception e) {
             log.error("Error deleting advertisement with Id: {}, error: {}" , adId, e);
             throw new GenericException(e.getMessage());
         }
+        if (deleted == null) {
+            throw writeConflict(adId, expectedVersion, null);
+        }
+        advertisementCache.invalidate(adId);
+        indexRemove(adId);
     }
 
-    @NotNull
-    private AdvertisementDocument findAdvertisementById(@NotNull String adId) {
-        return advertisementRepository.findById(adId).orElseThrow(() ->
-                new AdvertisementNotFoundException(String.format("Advertisement with id: %s not found", adId)));
+    /**
+     * Applies a write of the store to the in-process read models. Also called by {@link ReactiveAdvertisementService}.
+     */
+    void indexPut(AdvertisementDocument advertisementDocument) {
+        activeAdvertisementIndex.put(advertisementDocument);
+        advertisementLifecycleScheduler.put(advertisementDocument);
+        advertisementSelector.put(advertisementDocument);
+        hotPageCache.invalidateAll();
+    }
+
+    void indexRemove(String adId) {
+        activeAdvertisementIndex.remove(adId);
+        advertisementLifecycleScheduler.remove(adId);
+        advertisementSelector.remove(adId);
+        hotPageCache.invalidateAll();
+    }
+
+    static AdvertisementDocument toDocument(String id, Advertisement advertisement) {
+        AdvertisementDocument advertisementDocument = new AdvertisementDocument(
+                id,
+                advertisement.title(),
+                advertisement.content(),
+                advertisement.mediaUrl(),
+                advertisement.mediaType(),
+                advertisement.startDate(),
+                advertisement.endDate()
+        );
+        advertisementDocument.setWeight(advertisement.weight());
+        advertisementDocument.markModified(Instant.now());
+        return advertisementDocument;
+    }
+
+    static AdvertisementNotFoundException notFound(String adId) {
+        return new AdvertisementNotFoundException(String.format("Advertisement with id: %s not found", adId));
     }
 
     /**
@@ -103,26 +762,108 @@ public class AdvertisementService {
      * @param adId          the ID of the advertisement to update
      * @param advertisement the updated advertisement data
      * @return the updated {@link Advertisement}
+     * @throws ValidationException if the advertisement is not valid
      * @throws AdvertisementNotFoundException if the advertisement is not found
      * @throws GenericException if an error occurs while updating
      */
     @NotNull
     public Advertisement updateAdvertisement(@NotNull String adId, @NotNull Advertisement advertisement) {
+        return updateAdvertisement(adId, advertisement, null).advertisement();
+    }
+
+    /**
+     * Replaces every field of an existing advertisement in one conditional findAndModify; the optional fields left
+     * null are reset to their default.
+     *
+     * @param adId            the ID of the advertisement to update
+     * @param advertisement   the updated advertisement data
+     * @param expectedVersion the version the advertisement must have, or null for any version
+     * @return the updated {@link VersionedAdvertisement}
+     * @throws ValidationException if the advertisement is not valid
+     * @throws AdvertisementNotFoundException if the advertisement is not found
+     * @throws PreconditionFailedException if the advertisement does not have the expected version
+     * @throws ConflictException if the advertisement was replaced concurrently
+     * @throws GenericException if an error occurs while updating
+     */
+    @NotNull
+    public VersionedAdvertisement updateAdvertisement(@NotNull String adId, @NotNull Advertisement advertisement, Long expectedVersion) {
+        advertisementValidator.validate(advertisement);
+        return applyUpdate(adId, expectedVersion, null,
+                modifiedAt -> advertisementStore.replace(adId, expectedVersion, advertisement, modifiedAt));
+    }
+
+    /**
+     * Changes the set fields of an existing advertisement in one conditional findAndModify, without reading it first.
+     *
+     * @param adId            the ID of the advertisement to update
+     * @param patch           the fields to change
+     * @param expectedVersion the version the advertisement must have, or null for any version
+     * @return the updated {@link VersionedAdvertisement}
+     * @throws ValidationException if the patch is not valid, or would put start_date after end_date
+     * @throws AdvertisementNotFoundException if the advertisement is not found
+     * @throws PreconditionFailedException if the advertisement does not have the expected version
+     * @throws ConflictException if the advertisement was replaced concurrently
+     * @throws GenericException if an error occurs while updating
+     */
+    @NotNull
+    public VersionedAdvertisement patchAdvertisement(@NotNull String adId, @NotNull AdvertisementPatch patch, Long expectedVersion) {
+        advertisementValidator.validate(patch);
+        return applyUpdate(adId, expectedVersion, patch,
+                modifiedAt -> advertisementStore.patch(adId, expectedVersion, patch, modifiedAt));
+    }
 
+    /**
+     * @param patch the patch applied, whose date guard may be why the update matched nothing, or null for a
+     *              replacement
+     */
+    private VersionedAdvertisement applyUpdate(String adId, Long expectedVersion, AdvertisementPatch patch,
+                                               Function<Instant, AdvertisementDocument> update) {
+        AdvertisementDocument updated;
         try {
-            AdvertisementDocument advertisementDocument = findAdvertisementById(adId);
-            advertisementDocument.setTitle(advertisement.title());
-            advertisementDocument.setContent(advertisement.content());
-            advertisementDocument.setMediaUrl(advertisement.mediaUrl());
-            advertisementDocument.setMediaType(advertisement.mediaType());
-            advertisementDocument.setStartDate(advertisement.startDate());
-            advertisementDocument.setEndDate(advertisement.endDate());
-            return advertisementRepository.save(advertisementDocument).toAdvertisement();
-        } catch (AdvertisementNotFoundException e) {
-            throw e;
+            updated = update.apply(Instant.now().truncatedTo(ChronoUnit.MILLIS));
         } catch (Exception e) {
             log.error("Error updating advertisement: {}" , e);
             throw new GenericException(e.getMessage());
         }
+        if (updated == null) {
+            throw writeConflict(adId, expectedVersion, patch);
+        }
+        advertisementCache.invalidate(adId);
+        indexPut(updated);
+        return updated.toVersionedAdvertisement();
+    }
+
+    /**
+     * Tells why a conditional write matched no document. Only runs on the failure path, so the successful write
+     * stays a single round trip.
+     *
+     * @param patch the patch of a PATCH, which only matches if the date it sets stays on the right side of the stored
+     *              one, or null for the other writes
+     */
+    private RuntimeException writeConflict(String adId, Long expectedVersion, AdvertisementPatch patch) {
+        return writeConflict(adId, expectedVersion, patch, advertisementStore.findById(adId).orElse(null));
+    }
+
+    /**
+     * @param current the advertisement as stored after the write, or null if there is none
+     */
+    static RuntimeException writeConflict(String adId, Long expectedVersion, AdvertisementPatch patch, AdvertisementDocument current) {
+        if (current == null) {
+            return notFound(adId);
+        }
+        long currentVersion = current.getVersion() == null ? 0 : current.getVersion();
+        if (expectedVersion != null && currentVersion != expectedVersion) {
+            return new PreconditionFailedException(String.format("Advertisement with id: %s has been modified", adId));
+        }
+        if (patch != null && !isBefore(patch.startDate() != null ? patch.startDate() : current.getStartDate(),
+                patch.endDate() != null ? patch.endDate() : current.getEndDate())) {
+            return new ValidationException("start_date should be before end_date");
+        }
+        // deleted and recreated, or otherwise changed, between the write and this read
+        return new ConflictException(String.format("Advertisement with id: %s was modified concurrently, retry", adId));
+    }
+
+    private static boolean isBefore(Instant startDate, Instant endDate) {
+        return startDate != null && endDate != null && startDate.isBefore(endDate);
     }
 }
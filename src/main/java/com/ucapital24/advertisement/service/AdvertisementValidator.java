@@ -0,0 +1,189 @@
+package com.ucapital24.advertisement.service;
+
+import com.ucapital24.advertisement.Exception.ValidationException;
+import com.ucapital24.advertisement.model.Advertisement;
+import com.ucapital24.advertisement.model.AdvertisementPatch;
+import jakarta.validation.constraints.NotNull;
+import org.springframework.stereotype.Component;
+
+import java.time.Clock;
+import java.time.Instant;
+import java.util.Locale;
+
+/**
+ * Validates advertisements on the write paths. Records read back from the database are trusted and not validated.
+ * <p>
+ * The media URL check is hand-rolled: it only accepts absolute http/https URLs with a host, and does not allocate
+ * unless the URL is rejected.
+ */
+@Component
+public class AdvertisementValidator {
+
+    private static final String[] NON_HTTP_PROTOCOLS = {"ftp", "file", "jar", "mailto"};
+    private static final int MAX_WEIGHT = 10_000;
+
+    private final Clock clock;
+
+    public AdvertisementValidator(Clock clock) {
+        this.clock = clock;
+    }
+
+    /**
+     * @param advertisement the advertisement to validate
+     * @throws ValidationException if the advertisement is not valid
+     */
+    public void validate(@NotNull Advertisement advertisement) {
+        requireNonNull(advertisement.title(), "title is required");
+        requireNonNull(advertisement.content(), "content is required");
+        requireNonNull(advertisement.mediaUrl(), "media_url is required");
+        requireNonNull(advertisement.mediaType(), "media_type is required");
+        requireNonNull(advertisement.startDate(), "start_date is required");
+        requireNonNull(advertisement.endDate(), "end_date is required");
+
+        validateDates(advertisement.startDate(), advertisement.endDate());
+        validateTitle(advertisement.title());
+        validateContent(advertisement.content());
+        validateMediaUrl(advertisement.mediaUrl());
+        if (advertisement.weight() != null) {
+            validateWeight(advertisement.weight());
+        }
+    }
+
+    /**
+     * Validates the set fields of a patch. When only one date is patched, its order with the stored date is
+     * checked by the update itself.
+     *
+     * @param patch the patch to validate
+     * @throws ValidationException if the patch is empty or a set field is not valid
+     */
+    public void validate(@NotNull AdvertisementPatch patch) {
+        if (patch.isEmpty()) {
+            throw new ValidationException("patch has no field to update");
+        }
+        if (patch.startDate() != null && patch.endDate() != null) {
+            validateDates(patch.startDate(), patch.endDate());
+        } else if (patch.endDate() != null && patch.endDate().isBefore(clock.instant())) {
+            throw new ValidationException("end_date cannot be in the past");
+        }
+        if (patch.title() != null) {
+            validateTitle(patch.title());
+        }
+        if (patch.content() != null) {
+            validateContent(patch.content());
+        }
+        if (patch.mediaUrl() != null) {
+            validateMediaUrl(patch.mediaUrl());
+        }
+        if (patch.weight() != null) {
+            validateWeight(patch.weight());
+        }
+    }
+
+    void validateDates(Instant startDate, Instant endDate) {
+        if (startDate.isAfter(endDate)) {
+            throw new ValidationException("start_date should be before end_date");
+        }
+        if (endDate.isBefore(clock.instant())) {
+            throw new ValidationException("end_date cannot be in the past");
+        }
+    }
+
+    void validateTitle(String title) {
+        if (title.length() < 2) {
+            throw new ValidationException("Title length too short");
+        }
+    }
+
+    void validateContent(String content) {
+        if (content.length() < 2) {
+            throw new ValidationException("Content length too short");
+        }
+    }
+
+    void validateWeight(int weight) {
+        if (weight < 1 || weight > MAX_WEIGHT) {
+            throw new ValidationException(String.format("weight must be between 1 and %d", MAX_WEIGHT));
+        }
+    }
+
+    void validateMediaUrl(String mediaUrl) {
+        int colon = mediaUrl.indexOf(':');
+        if (colon <= 0) {
+            throw new ValidationException(String.format("URL is not valid: no protocol: %s", mediaUrl));
+        }
+        int authorityStart;
+        if (mediaUrl.regionMatches(true, 0, "https", 0, colon) && colon == 5) {
+            authorityStart = colon + 1;
+        } else if (mediaUrl.regionMatches(true, 0, "http", 0, colon) && colon == 4) {
+            authorityStart = colon + 1;
+        } else {
+            for (String protocol : NON_HTTP_PROTOCOLS) {
+                if (colon == protocol.length() && mediaUrl.regionMatches(true, 0, protocol, 0, colon)) {
+                    throw new ValidationException("URL must use http or https");
+                }
+            }
+            throw new ValidationException(String.format("URL is not valid: unknown protocol: %s", mediaUrl.substring(0, colon).toLowerCase(Locale.ROOT)));
+        }
+        if (!mediaUrl.startsWith("//", authorityStart)) {
+            throw new ValidationException("URL is not valid: missing host");
+        }
+        authorityStart += 2;
+
+        int authorityEnd = mediaUrl.length();
+        for (int i = authorityStart; i < mediaUrl.length(); i++) {
+            char c = mediaUrl.charAt(i);
+            if (c <= ' ' || c == 0x7f) {
+                throw new ValidationException("URL is not valid: illegal character");
+            }
+            if (authorityEnd == mediaUrl.length() && (c == '/' || c == '?' || c == '#')) {
+                authorityEnd = i;
+            }
+        }
+        int hostStart = mediaUrl.lastIndexOf('@', authorityEnd - 1) + 1;
+        if (hostStart < authorityStart) {
+            hostStart = authorityStart;
+        }
+        validateHostAndPort(mediaUrl, hostStart, authorityEnd);
+    }
+
+    private static void validateHostAndPort(String mediaUrl, int hostStart, int authorityEnd) {
+        int hostEnd = authorityEnd;
+        if (hostStart < authorityEnd && mediaUrl.charAt(hostStart) == '[') {
+            int closing = mediaUrl.indexOf(']', hostStart);
+            if (closing < 0 || closing >= authorityEnd) {
+                throw new ValidationException("URL is not valid: invalid IPv6 address");
+            }
+            hostEnd = closing + 1;
+        } else {
+            for (int i = hostStart; i < authorityEnd; i++) {
+                char c = mediaUrl.charAt(i);
+                if (c == ':') {
+                    hostEnd = i;
+                    break;
+                }
+                if (!(Character.isLetterOrDigit(c) || c == '.' || c == '-' || c == '_')) {
+                    throw new ValidationException("URL is not valid: invalid host");
+                }
+            }
+        }
+        if (hostEnd == hostStart) {
+            throw new ValidationException("URL is not valid: missing host");
+        }
+        if (hostEnd < authorityEnd) {
+            if (mediaUrl.charAt(hostEnd) != ':') {
+                throw new ValidationException("URL is not valid: invalid host");
+            }
+            for (int i = hostEnd + 1; i < authorityEnd; i++) {
+                if (!Character.isDigit(mediaUrl.charAt(i))) {
+                    throw new ValidationException("URL is not valid: invalid port");
+                }
+            }
+        }
+    }
+
+    private static void requireNonNull(Object value, String message) {
+        if (value == null) {
+            throw new ValidationException(message);
+        }
+    }
+}
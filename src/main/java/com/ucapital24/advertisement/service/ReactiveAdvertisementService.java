@@ -0,0 +1,179 @@
+package com.ucapital24.advertisement.service;
+
+import com.ucapital24.advertisement.Exception.AdvertisementNotFoundException;
+import com.ucapital24.advertisement.Exception.ConflictException;
+import com.ucapital24.advertisement.Exception.GenericException;
+import com.ucapital24.advertisement.Exception.PreconditionFailedException;
+import com.ucapital24.advertisement.Exception.ValidationException;
+import com.ucapital24.advertisement.cache.AdvertisementCache;
+import com.ucapital24.advertisement.dao.AdvertisementDocument;
+import com.ucapital24.advertisement.dao.ReactiveAdvertisementRepository;
+import com.ucapital24.advertisement.model.Advertisement;
+import com.ucapital24.advertisement.model.AdvertisementPatch;
+import com.ucapital24.advertisement.model.VersionedAdvertisement;
+import jakarta.validation.constraints.NotNull;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Service;
+import reactor.core.publisher.Mono;
+
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+import java.util.Optional;
+import java.util.UUID;
+
+/**
+ * The single-advertisement reads and writes of {@link AdvertisementService}, on the
+ * {@link ReactiveAdvertisementRepository}: no thread waits for MongoDB. Used in the reactive execution mode
+ * ({@code advertisement.execution-mode=reactive}).
+ * <p>
+ * The results go through the same {@link AdvertisementCache} and update the same read models as the blocking
+ * service, from the thread that completes the MongoDB call.
+ */
+@Service
+@Slf4j
+@ConditionalOnProperty(name = "advertisement.execution-mode", havingValue = "reactive")
+public class ReactiveAdvertisementService {
+
+    @Autowired
+    private ReactiveAdvertisementRepository reactiveAdvertisementRepository;
+
+    @Autowired
+    private AdvertisementService advertisementService;
+
+    @Autowired
+    private AdvertisementCache advertisementCache;
+
+    @Autowired
+    private AdvertisementValidator advertisementValidator;
+
+    /**
+     * Retrieves an advertisement and its version by its ID, going through the {@link AdvertisementCache}. A cache
+     * hit does not read the repository.
+     *
+     * @param adId the ID of the advertisement
+     * @return the {@link VersionedAdvertisement}, or an {@link AdvertisementNotFoundException} error
+     */
+    @NotNull
+    public Mono<VersionedAdvertisement> getVersionedAdvertisement(@NotNull String adId) {
+        Optional<VersionedAdvertisement> cached = advertisementCache.getIfPresent(adId);
+        if (cached != null) {
+            return cached.map(Mono::just).orElseGet(() -> Mono.error(AdvertisementService.notFound(adId)));
+        }
+        long stamp = advertisementCache.stamp();
+        return reactiveAdvertisementRepository.findById(adId)
+                .map(AdvertisementDocument::toVersionedAdvertisement)
+                .map(Optional::of)
+                .defaultIfEmpty(Optional.empty())
+                .flatMap(loaded -> {
+                    advertisementCache.putIfUnchanged(adId, loaded, stamp);
+                    return loaded.map(Mono::just).orElseGet(() -> Mono.error(AdvertisementService.notFound(adId)));
+                });
+    }
+
+    /**
+     * Creates a new advertisement.
+     *
+     * @param advertisement the advertisement to create
+     * @return the created {@link Advertisement}, or a {@link ValidationException} or {@link GenericException} error
+     */
+    @NotNull
+    public Mono<Advertisement> createAdvertisement(@NotNull Advertisement advertisement) {
+        return Mono.fromCallable(() -> {
+                    advertisementValidator.validate(advertisement);
+                    return AdvertisementService.toDocument(UUID.randomUUID().toString(), advertisement);
+                })
+                .flatMap(document -> reactiveAdvertisementRepository.save(document)
+                        .onErrorMap(e -> {
+                            log.error("Error saving advertisement: {}", e.toString());
+                            return new GenericException(e.getMessage());
+                        }))
+                .doOnNext(advertisementService::indexPut)
+                .map(AdvertisementDocument::toAdvertisement);
+    }
+
+    /**
+     * Replaces every field of an existing advertisement in one conditional findAndModify.
+     *
+     * @param adId            the ID of the advertisement to update
+     * @param advertisement   the updated advertisement data
+     * @param expectedVersion the version the advertisement must have, or null for any version
+     * @return the updated {@link VersionedAdvertisement}, or the errors of
+     * {@link AdvertisementService#updateAdvertisement(String, Advertisement, Long)}
+     */
+    @NotNull
+    public Mono<VersionedAdvertisement> updateAdvertisement(@NotNull String adId, @NotNull Advertisement advertisement, Long expectedVersion) {
+        return Mono.fromRunnable(() -> advertisementValidator.validate(advertisement))
+                .then(Mono.defer(() -> applyUpdate(adId, expectedVersion, null,
+                        reactiveAdvertisementRepository.replace(adId, expectedVersion, advertisement, now()))));
+    }
+
+    /**
+     * Changes the set fields of an existing advertisement in one conditional findAndModify.
+     *
+     * @param adId            the ID of the advertisement to update
+     * @param patch           the fields to change
+     * @param expectedVersion the version the advertisement must have, or null for any version
+     * @return the updated {@link VersionedAdvertisement}, or the errors of
+     * {@link AdvertisementService#patchAdvertisement(String, AdvertisementPatch, Long)}
+     */
+    @NotNull
+    public Mono<VersionedAdvertisement> patchAdvertisement(@NotNull String adId, @NotNull AdvertisementPatch patch, Long expectedVersion) {
+        return Mono.fromRunnable(() -> advertisementValidator.validate(patch))
+                .then(Mono.defer(() -> applyUpdate(adId, expectedVersion, patch,
+                        reactiveAdvertisementRepository.patch(adId, expectedVersion, patch, now()))));
+    }
+
+    /**
+     * Deletes an advertisement by ID in one conditional findAndRemove.
+     *
+     * @param adId            the ID of the advertisement to delete
+     * @param expectedVersion the version the advertisement must have, or null for any version
+     * @return completes once deleted, or with an {@link AdvertisementNotFoundException},
+     * {@link PreconditionFailedException}, {@link ConflictException} or {@link GenericException} error
+     */
+    @NotNull
+    public Mono<Void> deleteAdvertisement(@NotNull String adId, Long expectedVersion) {
+        return reactiveAdvertisementRepository.deleteIfMatch(adId, expectedVersion)
+                .onErrorMap(e -> {
+                    log.error("Error deleting advertisement with Id: {}, error: {}", adId, e.toString());
+                    return new GenericException(e.getMessage());
+                })
+                .switchIfEmpty(Mono.defer(() -> writeConflict(adId, expectedVersion, null)))
+                .doOnNext(deleted -> {
+                    advertisementCache.invalidate(adId);
+                    advertisementService.indexRemove(adId);
+                })
+                .then();
+    }
+
+    private Mono<VersionedAdvertisement> applyUpdate(String adId, Long expectedVersion, AdvertisementPatch patch,
+                                                     Mono<AdvertisementDocument> update) {
+        return update
+                .onErrorMap(e -> {
+                    log.error("Error updating advertisement: {}", e.toString());
+                    return new GenericException(e.getMessage());
+                })
+                .switchIfEmpty(Mono.defer(() -> writeConflict(adId, expectedVersion, patch)))
+                .doOnNext(updated -> {
+                    advertisementCache.invalidate(adId);
+                    advertisementService.indexPut(updated);
+                })
+                .map(AdvertisementDocument::toVersionedAdvertisement);
+    }
+
+    /**
+     * Reads the advertisement again to tell why a conditional write matched nothing, only on the failure path.
+     */
+    private <T> Mono<T> writeConflict(String adId, Long expectedVersion, AdvertisementPatch patch) {
+        return reactiveAdvertisementRepository.findById(adId)
+                .map(Optional::of)
+                .defaultIfEmpty(Optional.empty())
+                .flatMap(current -> Mono.error(AdvertisementService.writeConflict(adId, expectedVersion, patch, current.orElse(null))));
+    }
+
+    private static Instant now() {
+        return Instant.now().truncatedTo(ChronoUnit.MILLIS);
+    }
+}
@@ -0,0 +1,44 @@
+package com.ucapital24.advertisement.service;
+
+import com.ucapital24.advertisement.Exception.ValidationException;
+import com.ucapital24.advertisement.dao.AdvertisementDocument;
+import com.ucapital24.advertisement.model.ScrollOrder;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.util.Base64;
+
+/**
+ * Position of a keyset scroll: the sort key of the last advertisement returned, encoded as an opaque token.
+ */
+record ScrollCursor(ScrollOrder order, Instant startDate, String id) {
+
+    private static final char SEPARATOR = '|';
+
+    static ScrollCursor after(AdvertisementDocument last, ScrollOrder order) {
+        return new ScrollCursor(order, order == ScrollOrder.START_DATE ? last.getStartDate() : null, last.getId());
+    }
+
+    static ScrollCursor decode(String token) {
+        try {
+            String decoded = new String(Base64.getUrlDecoder().decode(token), StandardCharsets.UTF_8);
+            int first = decoded.indexOf(SEPARATOR);
+            ScrollOrder order = ScrollOrder.valueOf(decoded.substring(0, first));
+            if (order == ScrollOrder.START_DATE) {
+                int second = decoded.indexOf(SEPARATOR, first + 1);
+                Instant startDate = Instant.ofEpochMilli(Long.parseLong(decoded.substring(first + 1, second)));
+                return new ScrollCursor(order, startDate, decoded.substring(second + 1));
+            }
+            return new ScrollCursor(order, null, decoded.substring(first + 1));
+        } catch (IllegalArgumentException | IndexOutOfBoundsException e) {
+            throw new ValidationException("cursor is not valid");
+        }
+    }
+
+    String encode() {
+        String raw = order == ScrollOrder.START_DATE
+                ? order.name() + SEPARATOR + startDate.toEpochMilli() + SEPARATOR + id
+                : order.name() + SEPARATOR + id;
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+}
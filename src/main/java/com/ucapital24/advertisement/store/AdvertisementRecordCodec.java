@@ -0,0 +1,140 @@
+package com.ucapital24.advertisement.store;
+
+import com.ucapital24.advertisement.dao.AdvertisementDocument;
+import com.ucapital24.advertisement.model.AdvertisementMediaType;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+
+/**
+ * Binary encoding of the records of the {@link LogAdvertisementStore}, also used by the journal of the
+ * {@link com.ucapital24.advertisement.writebehind.AdvertisementWriteBehindQueue}. Documents are decoded straight from the mapped
+ * segment with absolute reads, so that a read neither moves nor copies the shared buffer beyond the string bytes.
+ * <p>
+ * A document is encoded as its ID, title, content, media URL and media type name (each an int length, -1 for null,
+ * then the UTF-8 bytes), then its start date, end date, weight, version and last modification time, with
+ * {@code MIN_VALUE} standing for null. Dates are epoch milliseconds, as in MongoDB.
+ */
+public final class AdvertisementRecordCodec {
+
+    public static final byte PUT = 1;
+    public static final byte DELETE = 2;
+    public static final byte ARCHIVE = 3;
+
+    private AdvertisementRecordCodec() {
+    }
+
+    public static byte[] encodePut(AdvertisementDocument document) {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream(256);
+        try (DataOutputStream output = new DataOutputStream(bytes)) {
+            writeDocument(output, document);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return bytes.toByteArray();
+    }
+
+    public static byte[] encodeDelete(String id) {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream(64);
+        try (DataOutputStream output = new DataOutputStream(bytes)) {
+            writeString(output, id);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return bytes.toByteArray();
+    }
+
+    public static byte[] encodeArchive(AdvertisementDocument document, Instant archivedAt) {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream(256);
+        try (DataOutputStream output = new DataOutputStream(bytes)) {
+            output.writeLong(archivedAt.toEpochMilli());
+            writeDocument(output, document);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return bytes.toByteArray();
+    }
+
+    /**
+     * Reads the ID at the start of a PUT or DELETE payload.
+     */
+    public static String decodeId(ByteBuffer buffer, int offset) {
+        return readString(buffer, offset);
+    }
+
+    public static AdvertisementDocument decodePut(ByteBuffer buffer, int offset) {
+        int position = offset;
+        String id = readString(buffer, position);
+        position += stringSize(buffer, position);
+        String title = readString(buffer, position);
+        position += stringSize(buffer, position);
+        String content = readString(buffer, position);
+        position += stringSize(buffer, position);
+        String mediaUrl = readString(buffer, position);
+        position += stringSize(buffer, position);
+        String mediaType = readString(buffer, position);
+        position += stringSize(buffer, position);
+        Instant startDate = readInstant(buffer, position);
+        Instant endDate = readInstant(buffer, position + 8);
+        int weight = buffer.getInt(position + 16);
+        long version = buffer.getLong(position + 20);
+        Instant lastModified = readInstant(buffer, position + 28);
+        return new AdvertisementDocument(id, title, content, mediaUrl,
+                mediaType == null ? null : AdvertisementMediaType.valueOf(mediaType),
+                startDate, endDate,
+                weight == Integer.MIN_VALUE ? null : weight,
+                version == Long.MIN_VALUE ? null : version,
+                lastModified);
+    }
+
+    private static void writeDocument(DataOutputStream output, AdvertisementDocument document) throws IOException {
+        writeString(output, document.getId());
+        writeString(output, document.getTitle());
+        writeString(output, document.getContent());
+        writeString(output, document.getMediaUrl());
+        writeString(output, document.getMediaType() == null ? null : document.getMediaType().name());
+        writeInstant(output, document.getStartDate());
+        writeInstant(output, document.getEndDate());
+        output.writeInt(document.getWeight() == null ? Integer.MIN_VALUE : document.getWeight());
+        output.writeLong(document.getVersion() == null ? Long.MIN_VALUE : document.getVersion());
+        writeInstant(output, document.getLastModified());
+    }
+
+    private static void writeString(DataOutputStream output, String value) throws IOException {
+        if (value == null) {
+            output.writeInt(-1);
+            return;
+        }
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        output.writeInt(bytes.length);
+        output.write(bytes);
+    }
+
+    private static void writeInstant(DataOutputStream output, Instant value) throws IOException {
+        output.writeLong(value == null ? Long.MIN_VALUE : value.toEpochMilli());
+    }
+
+    private static String readString(ByteBuffer buffer, int offset) {
+        int length = buffer.getInt(offset);
+        if (length < 0) {
+            return null;
+        }
+        byte[] bytes = new byte[length];
+        buffer.get(offset + 4, bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    private static int stringSize(ByteBuffer buffer, int offset) {
+        return 4 + Math.max(0, buffer.getInt(offset));
+    }
+
+    private static Instant readInstant(ByteBuffer buffer, int offset) {
+        long millis = buffer.getLong(offset);
+        return millis == Long.MIN_VALUE ? null : Instant.ofEpochMilli(millis);
+    }
+}
@@ -0,0 +1,176 @@
+package com.ucapital24.advertisement.store;
+
+import com.ucapital24.advertisement.dao.AdvertisementDocument;
+import com.ucapital24.advertisement.dao.AdvertisementSearchCriteria;
+import com.ucapital24.advertisement.dao.AdvertisementWrite;
+import com.ucapital24.advertisement.dao.AdvertisementWriteResult;
+import com.ucapital24.advertisement.model.Advertisement;
+import com.ucapital24.advertisement.model.AdvertisementMediaType;
+import com.ucapital24.advertisement.model.AdvertisementPatch;
+import org.bson.Document;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+
+import java.time.Instant;
+import java.util.List;
+import java.util.Optional;
+import java.util.stream.Stream;
+
+/**
+ * Storage of the advertisements, between the service and the persistence technology. The implementation is chosen
+ * with {@code advertisement.store.type}: {@code mongo} ({@link MongoAdvertisementStore}, the default) or {@code log}
+ * ({@link LogAdvertisementStore}, an embedded append-only log).
+ * <p>
+ * Sort orders are given with the property names of {@link AdvertisementDocument}. Unsorted pages are returned in the
+ * natural order of the store.
+ */
+public interface AdvertisementStore {
+
+    /**
+     * @param id the ID of the advertisement
+     * @return the advertisement, or an empty optional if it does not exist
+     */
+    Optional<AdvertisementDocument> findById(String id);
+
+    /**
+     * @param ids the IDs of the advertisements
+     * @return the advertisements that exist, in no particular order
+     */
+    List<AdvertisementDocument> findAllById(Iterable<String> ids);
+
+    /**
+     * @return every advertisement
+     */
+    List<AdvertisementDocument> findAll();
+
+    /**
+     * @param pageable the page to return
+     * @return a page of advertisements, with the total count
+     */
+    Page<AdvertisementDocument> findAll(Pageable pageable);
+
+    /**
+     * @param mediaType the media type to keep
+     * @param pageable  the page to return
+     * @return a page of the advertisements of the media type, with the total count
+     */
+    Page<AdvertisementDocument> findByMediaType(AdvertisementMediaType mediaType, Pageable pageable);
+
+    /**
+     * @param at       the instant the advertisements must be live at, in {@code [start_date, end_date)}
+     * @param pageable the page to return
+     * @return a page of the advertisements live at {@code at}, with the total count
+     */
+    Page<AdvertisementDocument> findActiveAt(Instant at, Pageable pageable);
+
+    /**
+     * @param mediaType the media type to keep
+     * @param at        the instant the advertisements must be live at, in {@code [start_date, end_date)}
+     * @param pageable  the page to return
+     * @return a page of the advertisements of the media type live at {@code at}, with the total count
+     */
+    Page<AdvertisementDocument> findActiveAtByMediaType(AdvertisementMediaType mediaType, Instant at, Pageable pageable);
+
+    /**
+     * @param pageable the slice to return
+     * @return a slice of advertisements, without total count
+     */
+    Slice<AdvertisementDocument> findAllBy(Pageable pageable);
+
+    /**
+     * @param id       the exclusive lower bound on the ID
+     * @param pageable the slice to return
+     * @return a slice of the advertisements with a greater ID, without total count
+     */
+    Slice<AdvertisementDocument> findByIdGreaterThan(String id, Pageable pageable);
+
+    /**
+     * @param startDate the start date of the last advertisement returned
+     * @param id        the ID of the last advertisement returned
+     * @param pageable  the slice to return
+     * @return a slice of the advertisements after {@code (startDate, id)} in start date then ID order
+     */
+    Slice<AdvertisementDocument> findAfterStartDate(Instant startDate, String id, Pageable pageable);
+
+    /**
+     * Streams every advertisement without holding them all in memory when the store can. The stream must be closed.
+     *
+     * @return the advertisements
+     */
+    Stream<AdvertisementDocument> streamAllBy();
+
+    /**
+     * Searches the advertisements ordered by ID, reading only the requested fields. The documents are keyed by
+     * stored field name, dates are {@link java.util.Date}s and media types their names.
+     *
+     * @param criteria the filters to apply
+     * @param fields   the stored field names to read, {@code _id} is only returned if listed
+     * @param skip     the number of matching documents to skip
+     * @param limit    the maximum number of documents to return
+     * @return the projected documents
+     */
+    List<Document> search(AdvertisementSearchCriteria criteria, List<String> fields, long skip, int limit);
+
+    /**
+     * Inserts or replaces an advertisement.
+     *
+     * @param document the advertisement to store
+     * @return the stored advertisement
+     */
+    <S extends AdvertisementDocument> S save(S document);
+
+    /**
+     * Executes the writes, a failing write does not stop the others. A replace or a delete only applies to the
+     * advertisement at its expected version, when set.
+     *
+     * @param writes the writes to execute, targeting distinct IDs
+     * @return the result of every write, in the order of {@code writes}
+     */
+    List<AdvertisementWriteResult> bulkWrite(List<AdvertisementWrite> writes);
+
+    /**
+     * Applies the set fields of the patch atomically, bumping the version and setting the last modification time.
+     * The update only happens if the advertisement exists, has the expected version, and keeps start_date before
+     * end_date when only one of the two is patched.
+     *
+     * @param id              the ID of the advertisement
+     * @param expectedVersion the version the advertisement must have, or null for any version
+     * @param patch           the fields to set
+     * @param modifiedAt      the time of the write
+     * @return the updated advertisement, or null if no advertisement matched
+     */
+    AdvertisementDocument patch(String id, Long expectedVersion, AdvertisementPatch patch, Instant modifiedAt);
+
+    /**
+     * Replaces every field of the advertisement atomically, bumping the version and setting the last modification
+     * time. The optional fields the replacement leaves null are removed. The update only happens if the advertisement
+     * exists and has the expected version.
+     *
+     * @param id              the ID of the advertisement
+     * @param expectedVersion the version the advertisement must have, or null for any version
+     * @param advertisement   the new fields, its ID is ignored
+     * @param modifiedAt      the time of the write
+     * @return the updated advertisement, or null if no advertisement matched
+     */
+    AdvertisementDocument replace(String id, Long expectedVersion, Advertisement advertisement, Instant modifiedAt);
+
+    /**
+     * Deletes the advertisement atomically, if it has the expected version.
+     *
+     * @param id              the ID of the advertisement
+     * @param expectedVersion the version the advertisement must have, or null for any version
+     * @return the deleted advertisement, or null if no advertisement matched
+     */
+    AdvertisementDocument deleteIfMatch(String id, Long expectedVersion);
+
+    /**
+     * Moves the advertisements that ended before {@code endedBefore} to the archive, oldest first.
+     *
+     * @param endedBefore the inclusive bound on end_date
+     * @param limit       the maximum number of advertisements to archive
+     * @param archivedAt  the time of the archiving
+     * @return the archived advertisements
+     */
+    List<AdvertisementDocument> archiveEndedBefore(Instant endedBefore, int limit, Instant archivedAt);
+}
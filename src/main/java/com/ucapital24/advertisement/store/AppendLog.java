@@ -0,0 +1,292 @@
+package com.ucapital24.advertisement.store;
+
+import lombok.extern.slf4j.Slf4j;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.stream.Stream;
+import java.util.zip.CRC32;
+
+/**
+ * Append-only log of typed records, stored in a directory as a sequence of fixed-size segment files that are
+ * memory-mapped for their whole life. Every record is {@code [int length][int crc32][byte type][payload]}, where the
+ * length and the checksum cover the type and the payload.
+ * <p>
+ * Appends are serialized; reads are lock-free, and only use absolute accessors on the shared mapped buffers. A record
+ * is addressed by a {@code long} combining its segment position and its offset, which stays valid until the log is
+ * compacted. On open, the segments are replayed in order; the first record that is truncated or fails its checksum
+ * ends the log, and the bytes of a torn last record are cleared before appending resumes.
+ */
+@Slf4j
+public final class AppendLog implements Closeable {
+
+    public static final int HEADER_SIZE = 8;
+    private static final String SUFFIX = ".log";
+
+    /**
+     * Reads a record from its mapped segment.
+     */
+    @FunctionalInterface
+    public interface RecordReader<T> {
+
+        /**
+         * @param segment the mapped segment, to be read with absolute accessors only
+         * @param offset  the offset of the payload in the segment
+         * @param length  the length of the payload
+         */
+        T read(ByteBuffer segment, int offset, int length);
+    }
+
+    /**
+     * Receives the records of the log when it is opened, in append order.
+     */
+    @FunctionalInterface
+    public interface RecordVisitor {
+
+        /**
+         * @param address the address of the record
+         * @param type    the type of the record
+         * @param segment the mapped segment, to be read with absolute accessors only
+         * @param offset  the offset of the payload in the segment
+         * @param length  the length of the payload
+         */
+        void visit(long address, byte type, ByteBuffer segment, int offset, int length);
+    }
+
+    private record Segment(long sequence, Path path, FileChannel channel, MappedByteBuffer buffer) {
+    }
+
+    private final Path directory;
+    private final int segmentSize;
+    private final boolean forceWrites;
+    private final List<Segment> segments = new CopyOnWriteArrayList<>();
+    private long nextSequence;
+    private int writeOffset;
+    private volatile long size;
+
+    private AppendLog(Path directory, int segmentSize, boolean forceWrites) {
+        this.directory = directory;
+        this.segmentSize = segmentSize;
+        this.forceWrites = forceWrites;
+    }
+
+    /**
+     * Opens the log in the directory, creating it if needed, and replays its records.
+     *
+     * @param directory   the directory of the segment files
+     * @param segmentSize the size of the new segment files, which bounds the size of a record
+     * @param forceWrites whether every append is forced to the storage device before returning
+     * @param visitor     receives the records of the log
+     * @return the open log, positioned after its last valid record
+     */
+    public static AppendLog open(Path directory, int segmentSize, boolean forceWrites, RecordVisitor visitor) throws IOException {
+        Files.createDirectories(directory);
+        AppendLog log = new AppendLog(directory, segmentSize, forceWrites);
+        List<Path> paths;
+        try (Stream<Path> files = Files.list(directory)) {
+            paths = files.filter(path -> path.getFileName().toString().endsWith(SUFFIX)).sorted().toList();
+        }
+        for (Path path : paths) {
+            FileChannel channel = FileChannel.open(path, StandardOpenOption.READ, StandardOpenOption.WRITE);
+            String name = path.getFileName().toString();
+            log.segments.add(new Segment(Long.parseLong(name.substring(0, name.length() - SUFFIX.length())), path, channel,
+                    channel.map(FileChannel.MapMode.READ_WRITE, 0, channel.size())));
+        }
+        if (log.segments.isEmpty()) {
+            log.nextSequence = 1;
+            log.roll();
+            return log;
+        }
+        for (int i = 0; i < log.segments.size(); i++) {
+            int end = log.replay(i, visitor);
+            if (i == log.segments.size() - 1) {
+                log.writeOffset = end;
+            }
+        }
+        log.nextSequence = log.segments.get(log.segments.size() - 1).sequence() + 1;
+        return log;
+    }
+
+    /**
+     * Appends a record.
+     *
+     * @param type    the type of the record
+     * @param payload the payload of the record
+     * @return the address of the record
+     * @throws IllegalArgumentException if the record does not fit in a segment
+     */
+    public synchronized long append(byte type, byte[] payload) {
+        int length = 1 + payload.length;
+        int recordSize = HEADER_SIZE + length;
+        if (recordSize > segmentSize) {
+            throw new IllegalArgumentException(String.format("record of %d bytes does not fit in a segment of %d bytes", recordSize, segmentSize));
+        }
+        int segmentIndex = segments.size() - 1;
+        if (writeOffset + recordSize > segments.get(segmentIndex).buffer().capacity()) {
+            roll();
+            segmentIndex++;
+        }
+        MappedByteBuffer buffer = segments.get(segmentIndex).buffer();
+        int offset = writeOffset;
+        CRC32 crc = new CRC32();
+        crc.update(type);
+        crc.update(payload);
+        buffer.put(offset + HEADER_SIZE, type);
+        buffer.put(offset + HEADER_SIZE + 1, payload);
+        buffer.putInt(offset + 4, (int) crc.getValue());
+        buffer.putInt(offset, length);
+        if (forceWrites) {
+            buffer.force(offset, recordSize);
+        }
+        writeOffset += recordSize;
+        size += recordSize;
+        return address(segmentIndex, offset);
+    }
+
+    /**
+     * Reads a record.
+     *
+     * @param address the address returned by {@link #append(byte, byte[])} or given to the visitor
+     * @param reader  reads the payload
+     * @return the value read
+     */
+    public <T> T read(long address, RecordReader<T> reader) {
+        ByteBuffer buffer = segments.get(segmentIndex(address)).buffer();
+        int offset = offset(address);
+        return reader.read(buffer, offset + HEADER_SIZE + 1, buffer.getInt(offset) - 1);
+    }
+
+    /**
+     * @param address the address of a record
+     * @return the size of the record, header included
+     */
+    public int recordSize(long address) {
+        return HEADER_SIZE + segments.get(segmentIndex(address)).buffer().getInt(offset(address));
+    }
+
+    /**
+     * Copies the given records to new segments, in order, then deletes every previous segment. A crash in between
+     * leaves both copies, which replay to the same state since the copies come last.
+     *
+     * @param addresses the addresses of the records to keep
+     * @return the new addresses of the records, in the same order
+     */
+    public synchronized long[] compact(long[] addresses) throws IOException {
+        int previousSegments = segments.size();
+        roll();
+        size = 0;
+        long[] moved = new long[addresses.length];
+        for (int i = 0; i < addresses.length; i++) {
+            byte[] body = read(addresses[i], (segment, offset, length) -> {
+                byte[] bytes = new byte[length + 1];
+                segment.get(offset - 1, bytes);
+                return bytes;
+            });
+            byte[] payload = new byte[body.length - 1];
+            System.arraycopy(body, 1, payload, 0, payload.length);
+            moved[i] = append(body[0], payload);
+        }
+        for (int i = previousSegments; i < segments.size(); i++) {
+            segments.get(i).buffer().force();
+        }
+        for (int i = 0; i < previousSegments; i++) {
+            Segment segment = segments.get(0);
+            segments.remove(0);
+            segment.channel().close();
+            Files.delete(segment.path());
+        }
+        for (int i = 0; i < moved.length; i++) {
+            moved[i] = address(segmentIndex(moved[i]) - previousSegments, offset(moved[i]));
+        }
+        return moved;
+    }
+
+    /**
+     * @return the number of bytes of the valid records, including the superseded ones
+     */
+    public long size() {
+        return size;
+    }
+
+    public int segmentCount() {
+        return segments.size();
+    }
+
+    /**
+     * Forces the appended records to the storage device.
+     */
+    public synchronized void force() {
+        for (Segment segment : segments) {
+            segment.buffer().force();
+        }
+    }
+
+    @Override
+    public synchronized void close() throws IOException {
+        force();
+        for (Segment segment : segments) {
+            segment.channel().close();
+        }
+    }
+
+    private int replay(int segmentIndex, RecordVisitor visitor) {
+        ByteBuffer buffer = segments.get(segmentIndex).buffer();
+        int capacity = buffer.capacity();
+        int offset = 0;
+        int length = 0;
+        while (offset + HEADER_SIZE <= capacity) {
+            length = buffer.getInt(offset);
+            if (length <= 0 || offset + HEADER_SIZE + length > capacity) {
+                break;
+            }
+            CRC32 crc = new CRC32();
+            crc.update(buffer.slice(offset + HEADER_SIZE, length));
+            if ((int) crc.getValue() != buffer.getInt(offset + 4)) {
+                break;
+            }
+            visitor.visit(address(segmentIndex, offset), buffer.get(offset + HEADER_SIZE), buffer, offset + HEADER_SIZE + 1, length - 1);
+            offset += HEADER_SIZE + length;
+            size += HEADER_SIZE + length;
+        }
+        if (offset + HEADER_SIZE <= capacity && buffer.getInt(offset) != 0) {
+            int end = (int) Math.min(capacity, offset + HEADER_SIZE + (long) Math.max(0, length));
+            log.warn("Discarding the torn record at offset {} of {}", offset, segments.get(segmentIndex).path());
+            buffer.put(offset, new byte[end - offset]);
+        }
+        return offset;
+    }
+
+    private void roll() {
+        long sequence = nextSequence++;
+        Path path = directory.resolve(String.format("%020d%s", sequence, SUFFIX));
+        try {
+            FileChannel channel = FileChannel.open(path, StandardOpenOption.CREATE_NEW, StandardOpenOption.READ, StandardOpenOption.WRITE);
+            segments.add(new Segment(sequence, path, channel, channel.map(FileChannel.MapMode.READ_WRITE, 0, segmentSize)));
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        writeOffset = 0;
+    }
+
+    private static long address(int segmentIndex, int offset) {
+        return ((long) segmentIndex << 32) | (offset & 0xFFFFFFFFL);
+    }
+
+    private static int segmentIndex(long address) {
+        return (int) (address >>> 32);
+    }
+
+    private static int offset(long address) {
+        return (int) address;
+    }
+
+}
@@ -0,0 +1,465 @@
+package com.ucapital24.advertisement.store;
+
+import com.ucapital24.advertisement.dao.AdvertisementDocument;
+import com.ucapital24.advertisement.dao.AdvertisementSearchCriteria;
+import com.ucapital24.advertisement.dao.AdvertisementWrite;
+import com.ucapital24.advertisement.dao.AdvertisementWriteResult;
+import com.ucapital24.advertisement.model.Advertisement;
+import com.ucapital24.advertisement.model.AdvertisementMediaType;
+import com.ucapital24.advertisement.model.AdvertisementPatch;
+import com.ucapital24.advertisement.model.BulkOperationType;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.bson.Document;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.SliceImpl;
+import org.springframework.data.domain.Sort;
+import org.springframework.stereotype.Component;
+import org.springframework.util.unit.DataSize;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.function.Predicate;
+import java.util.regex.Pattern;
+import java.util.stream.Stream;
+
+/**
+ * {@link AdvertisementStore} embedded in the process, for single-instance deployments that do not want to run
+ * MongoDB: every write is appended to a memory-mapped {@link AppendLog} and an in-memory index maps each ID to the
+ * address of its latest record. Reads decode the document straight from the mapped segment, so the heap only holds
+ * the index; queries scan the index in ID order, which is the natural order of this store.
+ * <p>
+ * Writes are serialized, which makes the conditional writes (version checks, date constraints) atomic. On startup,
+ * the log is replayed to rebuild the index, and rewritten with the live records only when superseded records take
+ * more than half of it. Archived advertisements are appended to a second log in the {@code archive} subdirectory.
+ * Appends reach the page cache immediately and survive a crash of the process; they survive a crash of the host
+ * once flushed by the operating system, or on every write with {@code advertisement.store.log.force-writes}.
+ */
+@Slf4j
+@Component
+@ConditionalOnProperty(name = "advertisement.store.type", havingValue = "log")
+public class LogAdvertisementStore implements AdvertisementStore, MeterBinder {
+
+    private static final Map<String, Function<AdvertisementDocument, Comparable<?>>> SORT_PROPERTIES = sortProperties();
+
+    private final ConcurrentSkipListMap<String, Long> index = new ConcurrentSkipListMap<>();
+    private final AppendLog catalog;
+    private final AppendLog archive;
+
+    public LogAdvertisementStore(@Value("${advertisement.store.log.directory:data/advertisements}") Path directory,
+                                 @Value("${advertisement.store.log.segment-size:64MB}") DataSize segmentSize,
+                                 @Value("${advertisement.store.log.force-writes:false}") boolean forceWrites) throws IOException {
+        int segmentBytes = Math.toIntExact(segmentSize.toBytes());
+        this.catalog = AppendLog.open(directory, segmentBytes, forceWrites, (address, type, segment, offset, length) -> {
+            String id = AdvertisementRecordCodec.decodeId(segment, offset);
+            if (type == AdvertisementRecordCodec.PUT) {
+                index.put(id, address);
+            } else {
+                index.remove(id);
+            }
+        });
+        this.archive = AppendLog.open(directory.resolve("archive"), segmentBytes, forceWrites, (address, type, segment, offset, length) -> {
+        });
+        long liveBytes = index.values().stream().mapToLong(catalog::recordSize).sum();
+        if (catalog.size() > segmentBytes && catalog.size() > 2 * liveBytes) {
+            compact();
+        }
+        log.info("Opened the advertisement log in {}: {} advertisements in {} segments", directory, index.size(), catalog.segmentCount());
+    }
+
+    @Override
+    public Optional<AdvertisementDocument> findById(String id) {
+        Long address = index.get(id);
+        return address == null ? Optional.empty() : Optional.of(read(address));
+    }
+
+    @Override
+    public List<AdvertisementDocument> findAllById(Iterable<String> ids) {
+        List<AdvertisementDocument> documents = new ArrayList<>();
+        for (String id : ids) {
+            findById(id).ifPresent(documents::add);
+        }
+        return documents;
+    }
+
+    @Override
+    public List<AdvertisementDocument> findAll() {
+        return documents().toList();
+    }
+
+    @Override
+    public Page<AdvertisementDocument> findAll(Pageable pageable) {
+        return page(documents(), pageable);
+    }
+
+    @Override
+    public Page<AdvertisementDocument> findByMediaType(AdvertisementMediaType mediaType, Pageable pageable) {
+        return page(documents().filter(document -> document.getMediaType() == mediaType), pageable);
+    }
+
+    @Override
+    public Page<AdvertisementDocument> findActiveAt(Instant at, Pageable pageable) {
+        return page(documents().filter(activeAt(at)), pageable);
+    }
+
+    @Override
+    public Page<AdvertisementDocument> findActiveAtByMediaType(AdvertisementMediaType mediaType, Instant at, Pageable pageable) {
+        return page(documents().filter(document -> document.getMediaType() == mediaType).filter(activeAt(at)), pageable);
+    }
+
+    @Override
+    public Slice<AdvertisementDocument> findAllBy(Pageable pageable) {
+        return slice(documents(), pageable);
+    }
+
+    @Override
+    public Slice<AdvertisementDocument> findByIdGreaterThan(String id, Pageable pageable) {
+        return slice(index.tailMap(id, false).values().stream().map(this::read), pageable);
+    }
+
+    @Override
+    public Slice<AdvertisementDocument> findAfterStartDate(Instant startDate, String id, Pageable pageable) {
+        return slice(documents().filter(document -> document.getStartDate() != null
+                && (document.getStartDate().isAfter(startDate)
+                || document.getStartDate().equals(startDate) && document.getId().compareTo(id) > 0)), pageable);
+    }
+
+    /**
+     * Streams the advertisements in ID order, decoding them one at a time. The stream sees the writes made while
+     * it is consumed or not, as a MongoDB cursor would.
+     */
+    @Override
+    public Stream<AdvertisementDocument> streamAllBy() {
+        return documents();
+    }
+
+    @Override
+    public List<Document> search(AdvertisementSearchCriteria criteria, List<String> fields, long skip, int limit) {
+        Predicate<AdvertisementDocument> filter = document -> true;
+        if (criteria.mediaType() != null) {
+            filter = filter.and(document -> document.getMediaType() == criteria.mediaType());
+        }
+        if (criteria.activeFrom() != null) {
+            filter = filter.and(document -> document.getEndDate() != null && document.getEndDate().isAfter(criteria.activeFrom())
+                    && document.getStartDate() != null && document.getStartDate().isBefore(criteria.activeTo()));
+        }
+        if (criteria.titlePrefix() != null) {
+            filter = filter.and(document -> document.getTitle() != null && document.getTitle().startsWith(criteria.titlePrefix()));
+        }
+        if (criteria.keyword() != null) {
+            Pattern keyword = Pattern.compile(Pattern.quote(criteria.keyword()), Pattern.CASE_INSENSITIVE | Pattern.UNICODE_CASE);
+            filter = filter.and(document -> document.getTitle() != null && keyword.matcher(document.getTitle()).find());
+        }
+        return documents().filter(filter).skip(skip).limit(limit).map(document -> project(document, fields)).toList();
+    }
+
+    @Override
+    public synchronized <S extends AdvertisementDocument> S save(S document) {
+        if (document.getId() == null) {
+            throw new IllegalArgumentException("the advertisement has no ID");
+        }
+        put(document);
+        return document;
+    }
+
+    /**
+     * Executes the writes in order, with the semantics of the MongoDB store: a create of an existing ID is a duplicate
+     * key, a replace or a delete of a missing ID or of another version does nothing.
+     */
+    @Override
+    public synchronized List<AdvertisementWriteResult> bulkWrite(List<AdvertisementWrite> writes) {
+        List<AdvertisementWriteResult> results = new ArrayList<>(writes.size());
+        for (AdvertisementWrite write : writes) {
+            try {
+                if (write.type() == BulkOperationType.CREATE) {
+                    if (index.containsKey(write.id())) {
+                        results.add(AdvertisementWriteResult.duplicateKey("duplicate key: " + write.id()));
+                    } else {
+                        put(write.document());
+                        results.add(AdvertisementWriteResult.applied());
+                    }
+                    continue;
+                }
+                AdvertisementDocument current = findById(write.id()).orElse(null);
+                if (current == null || !hasVersion(current, write.expectedVersion())) {
+                    results.add(AdvertisementWriteResult.notMatched());
+                } else {
+                    if (write.type() == BulkOperationType.UPDATE) {
+                        put(write.document());
+                    } else {
+                        delete(write.id());
+                    }
+                    results.add(AdvertisementWriteResult.applied());
+                }
+            } catch (RuntimeException e) {
+                results.add(AdvertisementWriteResult.failed(e.getMessage()));
+            }
+        }
+        return results;
+    }
+
+    @Override
+    public synchronized AdvertisementDocument patch(String id, Long expectedVersion, AdvertisementPatch patch, Instant modifiedAt) {
+        AdvertisementDocument document = findById(id).orElse(null);
+        if (document == null || !hasVersion(document, expectedVersion)) {
+            return null;
+        }
+        if (patch.startDate() != null && patch.endDate() == null
+                && (document.getEndDate() == null || document.getEndDate().isBefore(patch.startDate()))) {
+            return null;
+        }
+        if (patch.endDate() != null && patch.startDate() == null
+                && (document.getStartDate() == null || document.getStartDate().isAfter(patch.endDate()))) {
+            return null;
+        }
+        setIfPresent(patch.title(), document::setTitle);
+        setIfPresent(patch.content(), document::setContent);
+        setIfPresent(patch.mediaUrl(), document::setMediaUrl);
+        setIfPresent(patch.mediaType(), document::setMediaType);
+        setIfPresent(patch.startDate(), document::setStartDate);
+        setIfPresent(patch.endDate(), document::setEndDate);
+        setIfPresent(patch.weight(), document::setWeight);
+        document.setVersion(document.getVersion() == null ? 1 : document.getVersion() + 1);
+        document.setLastModified(modifiedAt.truncatedTo(ChronoUnit.MILLIS));
+        put(document);
+        return read(index.get(id));
+    }
+
+    @Override
+    public synchronized AdvertisementDocument replace(String id, Long expectedVersion, Advertisement advertisement, Instant modifiedAt) {
+        AdvertisementDocument document = findById(id).orElse(null);
+        if (document == null || !hasVersion(document, expectedVersion)) {
+            return null;
+        }
+        document.setTitle(advertisement.title());
+        document.setContent(advertisement.content());
+        document.setMediaUrl(advertisement.mediaUrl());
+        document.setMediaType(advertisement.mediaType());
+        document.setStartDate(advertisement.startDate());
+        document.setEndDate(advertisement.endDate());
+        document.setWeight(advertisement.weight());
+        document.setVersion(document.getVersion() == null ? 1 : document.getVersion() + 1);
+        document.setLastModified(modifiedAt.truncatedTo(ChronoUnit.MILLIS));
+        put(document);
+        return read(index.get(id));
+    }
+
+    @Override
+    public synchronized AdvertisementDocument deleteIfMatch(String id, Long expectedVersion) {
+        AdvertisementDocument document = findById(id).orElse(null);
+        if (document == null || !hasVersion(document, expectedVersion)) {
+            return null;
+        }
+        delete(id);
+        return document;
+    }
+
+    /**
+     * Appends the advertisements to the archive log, then deletes them from the catalog.
+     */
+    @Override
+    public synchronized List<AdvertisementDocument> archiveEndedBefore(Instant endedBefore, int limit, Instant archivedAt) {
+        List<AdvertisementDocument> documents = documents()
+                .filter(document -> document.getEndDate() != null && !document.getEndDate().isAfter(endedBefore))
+                .sorted(Comparator.comparing(AdvertisementDocument::getEndDate))
+                .limit(limit)
+                .toList();
+        for (AdvertisementDocument document : documents) {
+            archive.append(AdvertisementRecordCodec.ARCHIVE, AdvertisementRecordCodec.encodeArchive(document, archivedAt));
+            delete(document.getId());
+        }
+        return documents;
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        Gauge.builder("advertisement.store.log.advertisements", index, Map::size)
+                .description("Advertisements in the log store")
+                .register(registry);
+        Gauge.builder("advertisement.store.log.bytes", catalog, AppendLog::size)
+                .description("Bytes of the valid records of the catalog log, superseded records included")
+                .baseUnit("bytes")
+                .register(registry);
+        Gauge.builder("advertisement.store.log.segments", catalog, AppendLog::segmentCount)
+                .description("Segment files of the catalog log")
+                .register(registry);
+    }
+
+    @PreDestroy
+    public void close() throws IOException {
+        catalog.close();
+        archive.close();
+    }
+
+    private void put(AdvertisementDocument document) {
+        index.put(document.getId(), catalog.append(AdvertisementRecordCodec.PUT, AdvertisementRecordCodec.encodePut(document)));
+    }
+
+    private void delete(String id) {
+        catalog.append(AdvertisementRecordCodec.DELETE, AdvertisementRecordCodec.encodeDelete(id));
+        index.remove(id);
+    }
+
+    private synchronized void compact() throws IOException {
+        List<String> ids = new ArrayList<>(index.keySet());
+        long[] addresses = ids.stream().mapToLong(index::get).toArray();
+        long[] moved = catalog.compact(addresses);
+        for (int i = 0; i < ids.size(); i++) {
+            index.put(ids.get(i), moved[i]);
+        }
+        log.info("Compacted the advertisement log to {} bytes", catalog.size());
+    }
+
+    private AdvertisementDocument read(long address) {
+        return catalog.read(address, (segment, offset, length) -> AdvertisementRecordCodec.decodePut(segment, offset));
+    }
+
+    private Stream<AdvertisementDocument> documents() {
+        return index.values().stream().map(this::read);
+    }
+
+    private static Page<AdvertisementDocument> page(Stream<AdvertisementDocument> documents, Pageable pageable) {
+        List<AdvertisementDocument> matching = sorted(documents, pageable.getSort()).toList();
+        if (pageable.isUnpaged()) {
+            return new PageImpl<>(matching, pageable, matching.size());
+        }
+        int from = (int) Math.min(pageable.getOffset(), matching.size());
+        int to = Math.min(from + pageable.getPageSize(), matching.size());
+        return new PageImpl<>(matching.subList(from, to), pageable, matching.size());
+    }
+
+    private static Slice<AdvertisementDocument> slice(Stream<AdvertisementDocument> documents, Pageable pageable) {
+        Stream<AdvertisementDocument> ordered = sorted(documents, pageable.getSort());
+        if (pageable.isUnpaged()) {
+            return new SliceImpl<>(ordered.toList(), pageable, false);
+        }
+        List<AdvertisementDocument> content = new ArrayList<>(ordered.skip(pageable.getOffset()).limit(pageable.getPageSize() + 1L).toList());
+        boolean hasNext = content.size() > pageable.getPageSize();
+        if (hasNext) {
+            content.remove(content.size() - 1);
+        }
+        return new SliceImpl<>(content, pageable, hasNext);
+    }
+
+    /**
+     * Sorts in ID order when unsorted or sorted on the ID alone, which is the order of the index, so that the
+     * stream stays lazy. Nulls come first in ascending order, as in MongoDB.
+     */
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    private static Stream<AdvertisementDocument> sorted(Stream<AdvertisementDocument> documents, Sort sort) {
+        Comparator<AdvertisementDocument> comparator = null;
+        for (Sort.Order order : sort) {
+            Function<AdvertisementDocument, Comparable<?>> property = SORT_PROPERTIES.get(order.getProperty());
+            if (property == null) {
+                continue;
+            }
+            Comparator<AdvertisementDocument> next = Comparator.comparing(property,
+                    Comparator.nullsFirst((Comparator) Comparator.naturalOrder()));
+            if (order.isDescending()) {
+                next = next.reversed();
+            }
+            comparator = comparator == null ? next : comparator.thenComparing(next);
+        }
+        if (comparator == null || isIdOrder(sort)) {
+            return documents;
+        }
+        return documents.sorted(comparator);
+    }
+
+    private static boolean isIdOrder(Sort sort) {
+        List<Sort.Order> orders = sort.toList();
+        return orders.size() == 1 && orders.get(0).isAscending()
+                && SORT_PROPERTIES.get(orders.get(0).getProperty()) == SORT_PROPERTIES.get("id");
+    }
+
+    private static Predicate<AdvertisementDocument> activeAt(Instant at) {
+        return document -> document.getEndDate() != null && document.getEndDate().isAfter(at)
+                && document.getStartDate() != null && !document.getStartDate().isAfter(at);
+    }
+
+    private static boolean hasVersion(AdvertisementDocument document, Long expectedVersion) {
+        if (expectedVersion == null) {
+            return true;
+        }
+        // documents written before versioning have no version and are at version 0
+        return expectedVersion == 0 ? document.getVersion() == null || document.getVersion() == 0
+                : expectedVersion.equals(document.getVersion());
+    }
+
+    private static <T> void setIfPresent(T value, Consumer<T> setter) {
+        if (value != null) {
+            setter.accept(value);
+        }
+    }
+
+    private static Document project(AdvertisementDocument document, List<String> fields) {
+        Document projected = new Document();
+        for (String field : AdvertisementDocument.FIELDS) {
+            if (!fields.contains(field)) {
+                continue;
+            }
+            Object value = switch (field) {
+                case "_id" -> document.getId();
+                case "title" -> document.getTitle();
+                case "content" -> document.getContent();
+                case "media_url" -> document.getMediaUrl();
+                case "media_type" -> document.getMediaType() == null ? null : document.getMediaType().name();
+                case "start_date" -> document.getStartDate() == null ? null : Date.from(document.getStartDate());
+                case "end_date" -> document.getEndDate() == null ? null : Date.from(document.getEndDate());
+                case "weight" -> document.getWeight();
+                default -> null;
+            };
+            if (value != null) {
+                projected.put(field, value);
+            }
+        }
+        return projected;
+    }
+
+    private static Map<String, Function<AdvertisementDocument, Comparable<?>>> sortProperties() {
+        Map<String, Function<AdvertisementDocument, Comparable<?>>> properties = new HashMap<>();
+        Function<AdvertisementDocument, Comparable<?>> id = AdvertisementDocument::getId;
+        properties.put("id", id);
+        properties.put("_id", id);
+        properties.put("title", AdvertisementDocument::getTitle);
+        properties.put("content", AdvertisementDocument::getContent);
+        Function<AdvertisementDocument, Comparable<?>> mediaUrl = AdvertisementDocument::getMediaUrl;
+        properties.put("mediaUrl", mediaUrl);
+        properties.put("media_url", mediaUrl);
+        Function<AdvertisementDocument, Comparable<?>> mediaType = document -> document.getMediaType() == null ? null : document.getMediaType().name();
+        properties.put("mediaType", mediaType);
+        properties.put("media_type", mediaType);
+        Function<AdvertisementDocument, Comparable<?>> startDate = AdvertisementDocument::getStartDate;
+        properties.put("startDate", startDate);
+        properties.put("start_date", startDate);
+        Function<AdvertisementDocument, Comparable<?>> endDate = AdvertisementDocument::getEndDate;
+        properties.put("endDate", endDate);
+        properties.put("end_date", endDate);
+        properties.put("weight", AdvertisementDocument::getWeight);
+        properties.put("version", AdvertisementDocument::getVersion);
+        Function<AdvertisementDocument, Comparable<?>> lastModified = AdvertisementDocument::getLastModified;
+        properties.put("lastModified", lastModified);
+        properties.put("last_modified", lastModified);
+        return Map.copyOf(properties);
+    }
+}
@@ -0,0 +1,144 @@
+package com.ucapital24.advertisement.store;
+
+import com.ucapital24.advertisement.dao.AdvertisementDocument;
+import com.ucapital24.advertisement.dao.AdvertisementRepository;
+import com.ucapital24.advertisement.dao.AdvertisementSearchCriteria;
+import com.ucapital24.advertisement.dao.AdvertisementWrite;
+import com.ucapital24.advertisement.dao.AdvertisementWriteResult;
+import com.ucapital24.advertisement.model.Advertisement;
+import com.ucapital24.advertisement.model.AdvertisementMediaType;
+import com.ucapital24.advertisement.model.AdvertisementPatch;
+import org.bson.Document;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.stereotype.Component;
+
+import java.time.Instant;
+import java.util.List;
+import java.util.Optional;
+import java.util.stream.Stream;
+
+/**
+ * {@link AdvertisementStore} backed by the {@code advertisement} MongoDB collection through
+ * {@link AdvertisementRepository}. Unsorted pages are returned in natural order.
+ */
+@Component
+@ConditionalOnProperty(name = "advertisement.store.type", havingValue = "mongo", matchIfMissing = true)
+public class MongoAdvertisementStore implements AdvertisementStore {
+
+    private final AdvertisementRepository advertisementRepository;
+
+    public MongoAdvertisementStore(AdvertisementRepository advertisementRepository) {
+        this.advertisementRepository = advertisementRepository;
+    }
+
+    @Override
+    public Optional<AdvertisementDocument> findById(String id) {
+        return advertisementRepository.findById(id);
+    }
+
+    @Override
+    public List<AdvertisementDocument> findAllById(Iterable<String> ids) {
+        return advertisementRepository.findAllById(ids);
+    }
+
+    @Override
+    public List<AdvertisementDocument> findAll() {
+        return advertisementRepository.findAll();
+    }
+
+    @Override
+    public Page<AdvertisementDocument> findAll(Pageable pageable) {
+        return advertisementRepository.findAll(pageable);
+    }
+
+    @Override
+    public Page<AdvertisementDocument> findByMediaType(AdvertisementMediaType mediaType, Pageable pageable) {
+        return advertisementRepository.findByMediaType(mediaType, pageable);
+    }
+
+    @Override
+    public Page<AdvertisementDocument> findActiveAt(Instant at, Pageable pageable) {
+        return advertisementRepository.findActiveAt(at, pageable);
+    }
+
+    @Override
+    public Page<AdvertisementDocument> findActiveAtByMediaType(AdvertisementMediaType mediaType, Instant at, Pageable pageable) {
+        return advertisementRepository.findActiveAtByMediaType(mediaType, at, pageable);
+    }
+
+    @Override
+    public Slice<AdvertisementDocument> findAllBy(Pageable pageable) {
+        return advertisementRepository.findAllBy(pageable);
+    }
+
+    @Override
+    public Slice<AdvertisementDocument> findByIdGreaterThan(String id, Pageable pageable) {
+        return advertisementRepository.findByIdGreaterThan(id, pageable);
+    }
+
+    @Override
+    public Slice<AdvertisementDocument> findAfterStartDate(Instant startDate, String id, Pageable pageable) {
+        return advertisementRepository.findAfterStartDate(startDate, id, pageable);
+    }
+
+    /**
+     * Streams the advertisements from a MongoDB cursor, one batch at a time.
+     */
+    @Override
+    public Stream<AdvertisementDocument> streamAllBy() {
+        return advertisementRepository.streamAllBy();
+    }
+
+    @Override
+    public List<Document> search(AdvertisementSearchCriteria criteria, List<String> fields, long skip, int limit) {
+        return advertisementRepository.search(criteria, fields, skip, limit);
+    }
+
+    @Override
+    public <S extends AdvertisementDocument> S save(S document) {
+        return advertisementRepository.save(document);
+    }
+
+    /**
+     * Executes the inserts as one unordered bulk write, and the replaces and deletes one by one.
+     */
+    @Override
+    public List<AdvertisementWriteResult> bulkWrite(List<AdvertisementWrite> writes) {
+        return advertisementRepository.bulkWrite(writes);
+    }
+
+    /**
+     * Applies the patch in one findAndModify.
+     */
+    @Override
+    public AdvertisementDocument patch(String id, Long expectedVersion, AdvertisementPatch patch, Instant modifiedAt) {
+        return advertisementRepository.patch(id, expectedVersion, patch, modifiedAt);
+    }
+
+    /**
+     * Replaces the fields in one findAndModify.
+     */
+    @Override
+    public AdvertisementDocument replace(String id, Long expectedVersion, Advertisement advertisement, Instant modifiedAt) {
+        return advertisementRepository.replace(id, expectedVersion, advertisement, modifiedAt);
+    }
+
+    /**
+     * Deletes the advertisement in one findAndRemove.
+     */
+    @Override
+    public AdvertisementDocument deleteIfMatch(String id, Long expectedVersion) {
+        return advertisementRepository.deleteIfMatch(id, expectedVersion);
+    }
+
+    /**
+     * Moves the advertisements to the {@code advertisement_archive} collection.
+     */
+    @Override
+    public List<AdvertisementDocument> archiveEndedBefore(Instant endedBefore, int limit, Instant archivedAt) {
+        return advertisementRepository.archiveEndedBefore(endedBefore, limit, archivedAt);
+    }
+}
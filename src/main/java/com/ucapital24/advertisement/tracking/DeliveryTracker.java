@@ -0,0 +1,162 @@
+package com.ucapital24.advertisement.tracking;
+
+import com.mongodb.bulk.BulkWriteError;
+import com.ucapital24.advertisement.dao.AdvertisementDeliveryDocument;
+import com.ucapital24.advertisement.dao.AdvertisementDeliveryRepository;
+import com.ucapital24.advertisement.dao.DeliveryIncrement;
+import com.ucapital24.advertisement.model.DeliveryEventType;
+import com.ucapital24.advertisement.model.DeliveryStats;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import jakarta.validation.constraints.NotNull;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.data.mongodb.BulkOperationException;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.Clock;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Counts impressions and clicks per advertisement and minute in memory, and flushes the counts to MongoDB in the
+ * background.
+ * <p>
+ * Recording an event is a lookup in a concurrent map and a {@link LongAdder} increment, with no lock and no I/O.
+ * Every {@code advertisement.tracking.flush-interval} the counts are drained with {@code sumThenReset} and written
+ * as one unordered bulk write of {@code $inc} upserts, so a minute may be flushed several times. The buckets of a
+ * minute are dropped one minute after it ended, leaving time for the increments still in flight. If the write
+ * fails, the drained counts that were not applied are added back and retried on the next flush.
+ * <p>
+ * Only created with the MongoDB store ({@code advertisement.store.type=mongo}).
+ */
+@Component
+@Slf4j
+@ConditionalOnProperty(name = "advertisement.store.type", havingValue = "mongo", matchIfMissing = true)
+public class DeliveryTracker {
+
+    private static final long MINUTE_MILLIS = 60_000;
+
+    private final Map<BucketKey, Bucket> buckets = new ConcurrentHashMap<>();
+    private final AdvertisementDeliveryRepository deliveryRepository;
+    private final Clock clock;
+    private final int flushBatchSize;
+    private final Counter flushedDocuments;
+    private final Counter flushFailures;
+
+    public DeliveryTracker(AdvertisementDeliveryRepository deliveryRepository,
+                           Clock clock,
+                           @Value("${advertisement.tracking.flush-batch-size:1000}") int flushBatchSize,
+                           MeterRegistry meterRegistry) {
+        this.deliveryRepository = deliveryRepository;
+        this.clock = clock;
+        this.flushBatchSize = flushBatchSize;
+        Gauge.builder("advertisement.delivery.buckets", buckets, Map::size)
+                .description("Number of advertisement and minute buckets waiting to be flushed")
+                .register(meterRegistry);
+        this.flushedDocuments = meterRegistry.counter("advertisement.delivery.flushed");
+        this.flushFailures = meterRegistry.counter("advertisement.delivery.flush.failures");
+    }
+
+    /**
+     * Counts delivery events of an advertisement in the current minute.
+     *
+     * @param adId  the ID of the advertisement
+     * @param type  the type of the events
+     * @param count the number of events
+     */
+    public void record(@NotNull String adId, @NotNull DeliveryEventType type, long count) {
+        BucketKey key = new BucketKey(adId, clock.millis() / MINUTE_MILLIS);
+        Bucket bucket = buckets.get(key);
+        if (bucket == null) {
+            bucket = buckets.computeIfAbsent(key, k -> new Bucket());
+        }
+        (type == DeliveryEventType.IMPRESSION ? bucket.impressions : bucket.clicks).add(count);
+    }
+
+    /**
+     * Writes the counts recorded since the last flush to MongoDB.
+     *
+     * @return the number of delivery documents written
+     */
+    @Scheduled(fixedDelayString = "${advertisement.tracking.flush-interval:PT10S}")
+    public synchronized int flush() {
+        long lastClosedMinute = clock.millis() / MINUTE_MILLIS - 2;
+        List<DeliveryIncrement> increments = new ArrayList<>();
+        for (Map.Entry<BucketKey, Bucket> entry : buckets.entrySet()) {
+            BucketKey key = entry.getKey();
+            Bucket bucket = entry.getValue();
+            if (key.minute() <= lastClosedMinute) {
+                buckets.remove(key, bucket);
+            }
+            long impressions = bucket.impressions.sumThenReset();
+            long clicks = bucket.clicks.sumThenReset();
+            if (impressions != 0 || clicks != 0) {
+                increments.add(new DeliveryIncrement(key.adId(), Instant.ofEpochMilli(key.minute() * MINUTE_MILLIS), impressions, clicks));
+            }
+        }
+        int written = 0;
+        for (int from = 0; from < increments.size(); from += flushBatchSize) {
+            List<DeliveryIncrement> batch = increments.subList(from, Math.min(from + flushBatchSize, increments.size()));
+            try {
+                deliveryRepository.increment(batch);
+                written += batch.size();
+            } catch (BulkOperationException e) {
+                // the batch is unordered: every increment but the rejected ones has been applied
+                List<BulkWriteError> errors = e.getErrors();
+                log.error("Error flushing {} of {} delivery counts, retrying them on the next flush: {}", errors.size(), batch.size(), e.toString());
+                flushFailures.increment();
+                errors.forEach(error -> restore(batch.get(error.getIndex())));
+                written += batch.size() - errors.size();
+            } catch (Exception e) {
+                log.error("Error flushing {} delivery counts, retrying on the next flush: {}", batch.size(), e.toString());
+                flushFailures.increment();
+                batch.forEach(this::restore);
+            }
+        }
+        flushedDocuments.increment(written);
+        return written;
+    }
+
+    /**
+     * Reads the flushed counts of an advertisement; the counts of the last flush interval are not included yet.
+     *
+     * @param adId the ID of the advertisement
+     * @param from the inclusive start of the period
+     * @param to   the exclusive end of the period
+     * @return the counts per minute, ordered by minute
+     */
+    @NotNull
+    public List<DeliveryStats> deliveryStats(@NotNull String adId, @NotNull Instant from, @NotNull Instant to) {
+        return deliveryRepository.findByAdIdAndMinuteInRange(adId, from, to).stream()
+                .map(AdvertisementDeliveryDocument::toDeliveryStats)
+                .toList();
+    }
+
+    @PreDestroy
+    public void flushOnShutdown() {
+        flush();
+    }
+
+    private void restore(DeliveryIncrement increment) {
+        Bucket bucket = buckets.computeIfAbsent(new BucketKey(increment.adId(), increment.minute().toEpochMilli() / MINUTE_MILLIS), k -> new Bucket());
+        bucket.impressions.add(increment.impressions());
+        bucket.clicks.add(increment.clicks());
+    }
+
+    private record BucketKey(String adId, long minute) {
+    }
+
+    private static final class Bucket {
+        private final LongAdder impressions = new LongAdder();
+        private final LongAdder clicks = new LongAdder();
+    }
+}
@@ -0,0 +1,211 @@
+package com.ucapital24.advertisement.writebehind;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.ucapital24.advertisement.Exception.ServiceOverloadedException;
+import com.ucapital24.advertisement.dao.AdvertisementDocument;
+import com.ucapital24.advertisement.model.AdvertisementPersistence;
+import com.ucapital24.advertisement.model.PersistenceStatus;
+import com.ucapital24.advertisement.store.AdvertisementRecordCodec;
+import com.ucapital24.advertisement.store.AppendLog;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import jakarta.validation.constraints.NotNull;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+import org.springframework.util.unit.DataSize;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Bounded, durable queue of the advertisements created in write-behind mode, waiting to be written to the
+ * {@link com.ucapital24.advertisement.store.AdvertisementStore}. Enabled with
+ * {@code advertisement.write-behind.enabled}.
+ * <p>
+ * Enqueuing appends the document to a local journal (an {@link AppendLog} of memory-mapped segments) before the
+ * creation is acknowledged, so an accepted advertisement survives a crash of the process, and a crash of the host with
+ * {@code advertisement.write-behind.force-writes}. Once written to the store, an advertisement is marked done in the
+ * journal. On startup, the journal is replayed and the advertisements not marked done are queued again, in their
+ * original order; the journal is rewritten with them only, once done records take more than half of it.
+ * <p>
+ * The outcome of the advertisements that left the queue is kept for {@code advertisement.write-behind.status-ttl},
+ * for clients polling their persistence.
+ */
+@Slf4j
+@Component
+@ConditionalOnProperty(name = "advertisement.write-behind.enabled", havingValue = "true")
+public class AdvertisementWriteBehindQueue implements Closeable {
+
+    private final Map<String, Long> pending = new LinkedHashMap<>();
+    private final Cache<String, AdvertisementPersistence> completed;
+    private final AppendLog journal;
+    private final int capacity;
+    private final int segmentBytes;
+    private final Counter persistedCount;
+    private final Counter failedCount;
+    private final Counter flushFailures;
+    private long liveBytes;
+
+    public AdvertisementWriteBehindQueue(@Value("${advertisement.write-behind.directory:data/write-behind}") Path directory,
+                                         @Value("${advertisement.write-behind.capacity:10000}") int capacity,
+                                         @Value("${advertisement.write-behind.segment-size:16MB}") DataSize segmentSize,
+                                         @Value("${advertisement.write-behind.force-writes:false}") boolean forceWrites,
+                                         @Value("${advertisement.write-behind.status-ttl:PT1H}") Duration statusTtl,
+                                         MeterRegistry meterRegistry) throws IOException {
+        this.capacity = capacity;
+        this.segmentBytes = Math.toIntExact(segmentSize.toBytes());
+        this.completed = Caffeine.newBuilder()
+                .maximumSize(Math.max(capacity, 10_000))
+                .expireAfterWrite(statusTtl)
+                .build();
+        this.journal = AppendLog.open(directory, segmentBytes, forceWrites, (address, type, segment, offset, length) -> {
+            String id = AdvertisementRecordCodec.decodeId(segment, offset);
+            if (type == AdvertisementRecordCodec.PUT) {
+                pending.put(id, address);
+            } else {
+                pending.remove(id);
+            }
+        });
+        this.liveBytes = pending.values().stream().mapToLong(journal::recordSize).sum();
+        compactIfWasteful();
+        Gauge.builder("advertisement.write-behind.pending", this, AdvertisementWriteBehindQueue::size)
+                .description("Number of accepted advertisements waiting to be written to the store")
+                .register(meterRegistry);
+        this.persistedCount = meterRegistry.counter("advertisement.write-behind.written", "result", "persisted");
+        this.failedCount = meterRegistry.counter("advertisement.write-behind.written", "result", "failed");
+        this.flushFailures = meterRegistry.counter("advertisement.write-behind.flush.failures");
+        log.info("Opened the write-behind journal in {}: {} advertisements pending", directory, pending.size());
+    }
+
+    /**
+     * Appends an advertisement to the journal and queues it.
+     *
+     * @param advertisementDocument the advertisement to write, with its ID
+     * @throws ServiceOverloadedException if the queue holds {@code advertisement.write-behind.capacity} advertisements
+     * @throws UncheckedIOException if the journal cannot be extended
+     */
+    public synchronized void enqueue(@NotNull AdvertisementDocument advertisementDocument) {
+        if (pending.size() >= capacity) {
+            throw new ServiceOverloadedException(String.format("The write-behind queue is full (%d advertisements pending)", capacity));
+        }
+        long address = journal.append(AdvertisementRecordCodec.PUT, AdvertisementRecordCodec.encodePut(advertisementDocument));
+        pending.put(advertisementDocument.getId(), address);
+        liveBytes += journal.recordSize(address);
+    }
+
+    /**
+     * Reads the oldest queued advertisements, which stay queued until {@link #complete(Collection, Map)} is called
+     * for them.
+     *
+     * @param maxSize the maximum number of advertisements to read
+     * @return the oldest queued advertisements, in queue order
+     */
+    @NotNull
+    public synchronized List<AdvertisementDocument> peek(int maxSize) {
+        List<AdvertisementDocument> advertisementDocuments = new ArrayList<>(Math.min(maxSize, pending.size()));
+        for (long address : pending.values()) {
+            if (advertisementDocuments.size() == maxSize) {
+                break;
+            }
+            advertisementDocuments.add(journal.read(address, (segment, offset, length) -> AdvertisementRecordCodec.decodePut(segment, offset)));
+        }
+        return advertisementDocuments;
+    }
+
+    /**
+     * Removes written or rejected advertisements from the queue and records their outcome.
+     *
+     * @param persistedIds the IDs of the advertisements written to the store
+     * @param failures     the error message of every advertisement the store rejected, by ID
+     */
+    public synchronized void complete(@NotNull Collection<String> persistedIds, @NotNull Map<String, String> failures) {
+        for (String adId : persistedIds) {
+            if (remove(adId)) {
+                completed.put(adId, new AdvertisementPersistence(adId, PersistenceStatus.PERSISTED, null));
+                persistedCount.increment();
+            }
+        }
+        for (Map.Entry<String, String> failure : failures.entrySet()) {
+            if (remove(failure.getKey())) {
+                log.error("Dropping queued advertisement {} rejected by the store: {}", failure.getKey(), failure.getValue());
+                completed.put(failure.getKey(), new AdvertisementPersistence(failure.getKey(), PersistenceStatus.FAILED, failure.getValue()));
+                failedCount.increment();
+            }
+        }
+        try {
+            compactIfWasteful();
+        } catch (IOException e) {
+            log.error("Error compacting the write-behind journal: {}", e.toString());
+        }
+    }
+
+    /**
+     * Counts a batch that could not be written at all and stays queued.
+     */
+    public void recordFlushFailure() {
+        flushFailures.increment();
+    }
+
+    /**
+     * @param adId the ID of an advertisement
+     * @return the persistence of the advertisement if it is queued or left the queue recently, null otherwise
+     */
+    public synchronized AdvertisementPersistence status(@NotNull String adId) {
+        if (pending.containsKey(adId)) {
+            return new AdvertisementPersistence(adId, PersistenceStatus.PENDING, null);
+        }
+        return completed.getIfPresent(adId);
+    }
+
+    /**
+     * @return the number of queued advertisements
+     */
+    public synchronized int size() {
+        return pending.size();
+    }
+
+    @PreDestroy
+    @Override
+    public synchronized void close() throws IOException {
+        journal.close();
+    }
+
+    private boolean remove(String adId) {
+        Long address = pending.remove(adId);
+        if (address == null) {
+            return false;
+        }
+        liveBytes -= journal.recordSize(address);
+        journal.append(AdvertisementRecordCodec.DELETE, AdvertisementRecordCodec.encodeDelete(adId));
+        return true;
+    }
+
+    /**
+     * Rewrites the journal with the queued advertisements only, once it is larger than a segment and more than half of
+     * it is done.
+     */
+    private void compactIfWasteful() throws IOException {
+        if (journal.size() <= segmentBytes || journal.size() <= 2 * liveBytes) {
+            return;
+        }
+        List<String> ids = new ArrayList<>(pending.keySet());
+        long[] addresses = pending.values().stream().mapToLong(Long::longValue).toArray();
+        long[] moved = journal.compact(addresses);
+        for (int i = 0; i < moved.length; i++) {
+            pending.put(ids.get(i), moved[i]);
+        }
+    }
+}
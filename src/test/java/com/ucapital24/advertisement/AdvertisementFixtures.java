@@ -0,0 +1,45 @@
+package com.ucapital24.advertisement;
+
+import com.ucapital24.advertisement.dao.AdvertisementDocument;
+import com.ucapital24.advertisement.model.AdvertisementMediaType;
+
+import java.time.Instant;
+
+/**
+ * Sample advertisements shared by the unit tests. The title, content and media URL are derived from the ID.
+ */
+public final class AdvertisementFixtures {
+
+    private AdvertisementFixtures() {
+    }
+
+    public static AdvertisementDocument document(String id, Instant startDate, Instant endDate) {
+        return document(id, AdvertisementMediaType.IMAGE, startDate, endDate);
+    }
+
+    public static AdvertisementDocument document(String id, AdvertisementMediaType mediaType, Instant startDate, Instant endDate) {
+        return document(id, "https://example.com/" + id + ".png", mediaType, startDate, endDate);
+    }
+
+    public static AdvertisementDocument document(String id, String mediaUrl, AdvertisementMediaType mediaType,
+                                                 Instant startDate, Instant endDate) {
+        return new AdvertisementDocument(id, "title " + id, "content " + id, mediaUrl, mediaType, startDate, endDate);
+    }
+
+    public static AdvertisementDocument document(String id, AdvertisementMediaType mediaType, Integer weight,
+                                                 Instant startDate, Instant endDate) {
+        AdvertisementDocument document = document(id, mediaType, startDate, endDate);
+        document.setWeight(weight);
+        return document;
+    }
+
+    /**
+     * @return an image advertisement live from a minute before {@code lastModified} to an hour after it
+     */
+    public static AdvertisementDocument versioned(String id, long version, Instant lastModified) {
+        AdvertisementDocument document = document(id, lastModified.minusSeconds(60), lastModified.plusSeconds(3600));
+        document.setVersion(version);
+        document.setLastModified(lastModified);
+        return document;
+    }
+}
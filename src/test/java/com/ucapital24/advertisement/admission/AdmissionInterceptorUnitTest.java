@@ -0,0 +1,101 @@
+package com.ucapital24.advertisement.admission;
+
+import com.ucapital24.advertisement.Exception.ServiceOverloadedException;
+import com.ucapital24.advertisement.Exception.TooManyRequestsException;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jakarta.servlet.DispatcherType;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+import java.util.Set;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class AdmissionInterceptorUnitTest {
+
+    private static final String PROXY_ADDRESS = "10.0.0.254";
+
+    private ConcurrencyLimiter concurrencyLimiter;
+    private SimpleMeterRegistry meterRegistry;
+    private AdmissionInterceptor interceptor;
+
+    @BeforeEach
+    public void setUp() {
+        concurrencyLimiter = new ConcurrencyLimiter(2);
+        meterRegistry = new SimpleMeterRegistry();
+        interceptor = new AdmissionInterceptor(new ClientRateLimiter(1, 3), concurrencyLimiter, Set.of(PROXY_ADDRESS), meterRegistry);
+    }
+
+    @Test
+    void preHandle_concurrencyLimit_shedsWith503() {
+        MockHttpServletRequest first = request("a");
+        MockHttpServletRequest second = request("b");
+        assertTrue(interceptor.preHandle(first, new MockHttpServletResponse(), null));
+        assertTrue(interceptor.preHandle(second, new MockHttpServletResponse(), null));
+
+        assertThrows(ServiceOverloadedException.class, () -> interceptor.preHandle(request("c"), new MockHttpServletResponse(), null));
+
+        interceptor.afterCompletion(first, new MockHttpServletResponse(), null, null);
+        interceptor.afterCompletion(first, new MockHttpServletResponse(), null, null);
+        assertEquals(1, concurrencyLimiter.inFlight());
+        assertTrue(interceptor.preHandle(request("c"), new MockHttpServletResponse(), null));
+        assertEquals(1, meterRegistry.counter("advertisement.admission.rejected", "reason", "overloaded").count());
+    }
+
+    @Test
+    void preHandle_rateLimit_rejectsWith429PerClient() {
+        for (int i = 0; i < 3; i++) {
+            MockHttpServletRequest request = request("greedy");
+            interceptor.preHandle(request, new MockHttpServletResponse(), null);
+            interceptor.afterCompletion(request, new MockHttpServletResponse(), null, null);
+        }
+
+        TooManyRequestsException e = assertThrows(TooManyRequestsException.class,
+                () -> interceptor.preHandle(request("greedy"), new MockHttpServletResponse(), null));
+        assertEquals(1, e.getRetryAfterSeconds());
+        assertEquals(0, concurrencyLimiter.inFlight());
+
+        MockHttpServletRequest anonymous = new MockHttpServletRequest();
+        anonymous.setRemoteAddr("10.0.0.1");
+        assertTrue(interceptor.preHandle(anonymous, new MockHttpServletResponse(), null));
+    }
+
+    @Test
+    void preHandle_clientIdFromUntrustedAddress_keyedByAddress() {
+        for (int i = 0; i < 3; i++) {
+            MockHttpServletRequest request = request("client" + i);
+            request.setRemoteAddr("10.0.0.1");
+            interceptor.preHandle(request, new MockHttpServletResponse(), null);
+            interceptor.afterCompletion(request, new MockHttpServletResponse(), null, null);
+        }
+
+        MockHttpServletRequest spoofed = request("client3");
+        spoofed.setRemoteAddr("10.0.0.1");
+        TooManyRequestsException e = assertThrows(TooManyRequestsException.class,
+                () -> interceptor.preHandle(spoofed, new MockHttpServletResponse(), null));
+        assertEquals("Rate limit exceeded for client: 10.0.0.1", e.getMessage());
+        assertTrue(interceptor.preHandle(request("client3"), new MockHttpServletResponse(), null));
+    }
+
+    @Test
+    void preHandle_asyncDispatch_keepsSlotUntilCompletion() {
+        MockHttpServletRequest request = request("a");
+        assertTrue(interceptor.preHandle(request, new MockHttpServletResponse(), null));
+
+        request.setDispatcherType(DispatcherType.ASYNC);
+        assertTrue(interceptor.preHandle(request, new MockHttpServletResponse(), null));
+        assertEquals(1, concurrencyLimiter.inFlight());
+
+        interceptor.afterCompletion(request, new MockHttpServletResponse(), null, null);
+        assertEquals(0, concurrencyLimiter.inFlight());
+    }
+
+    private static MockHttpServletRequest request(String clientId) {
+        MockHttpServletRequest request = new MockHttpServletRequest();
+        request.setRemoteAddr(PROXY_ADDRESS);
+        request.addHeader(AdmissionInterceptor.CLIENT_ID_HEADER, clientId);
+        return request;
+    }
+}
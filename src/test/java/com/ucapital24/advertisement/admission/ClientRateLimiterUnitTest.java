@@ -0,0 +1,73 @@
+package com.ucapital24.advertisement.admission;
+
+import org.junit.jupiter.api.Test;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.ArrayList;
+import java.util.List;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class ClientRateLimiterUnitTest {
+
+    private static final long SECOND = TimeUnit.SECONDS.toNanos(1);
+
+    @Test
+    void tryAcquire_burstThenRate_OK() {
+        ClientRateLimiter limiter = new ClientRateLimiter(10, 5);
+        long now = 1_000 * SECOND;
+
+        for (int i = 0; i < 5; i++) {
+            assertEquals(0, limiter.tryAcquire("client", now));
+        }
+        assertEquals(SECOND / 10, limiter.tryAcquire("client", now));
+        assertEquals(0, limiter.tryAcquire("other", now));
+
+        assertEquals(0, limiter.tryAcquire("client", now + SECOND / 10));
+        assertTrue(limiter.tryAcquire("client", now + SECOND / 10) > 0);
+    }
+
+    @Test
+    void evictIdleClients_fullBucketsOnly() {
+        ClientRateLimiter limiter = new ClientRateLimiter(10, 5);
+        long now = 1_000 * SECOND;
+        limiter.tryAcquire("idle", now);
+        for (int i = 0; i < 5; i++) {
+            limiter.tryAcquire("busy", now + SECOND / 10);
+        }
+
+        limiter.evictIdleClients(now + SECOND / 5);
+
+        assertEquals(1, limiter.clientCount());
+        assertEquals(0, limiter.tryAcquire("busy", now + SECOND / 5));
+        assertTrue(limiter.tryAcquire("busy", now + SECOND / 5) > 0);
+    }
+
+    @Test
+    void tryAcquire_concurrently_admitsBurstOnly() throws Exception {
+        ClientRateLimiter limiter = new ClientRateLimiter(1, 1000);
+        long now = 1_000 * SECOND;
+        ExecutorService executor = Executors.newFixedThreadPool(8);
+        List<Future<Integer>> admitted = new ArrayList<>();
+        for (int thread = 0; thread < 8; thread++) {
+            admitted.add(executor.submit(() -> {
+                int count = 0;
+                for (int i = 0; i < 500; i++) {
+                    if (limiter.tryAcquire("client", now) == 0) {
+                        count++;
+                    }
+                }
+                return count;
+            }));
+        }
+        int total = 0;
+        for (Future<Integer> future : admitted) {
+            total += future.get();
+        }
+        executor.shutdown();
+
+        assertEquals(1000, total);
+    }
+}
@@ -1,8 +1,21 @@
 package com.ucapital24.advertisement.api;
 
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.dataformat.cbor.CBORFactory;
+import com.fasterxml.jackson.dataformat.smile.SmileFactory;
+import com.google.protobuf.UnknownFieldSet;
+import com.jayway.jsonpath.JsonPath;
+import com.ucapital24.advertisement.cache.AdvertisementCache;
+import com.ucapital24.advertisement.cache.HotPageCache;
+import com.ucapital24.advertisement.dao.AdvertisementArchiveRepository;
+import com.ucapital24.advertisement.dao.AdvertisementDeliveryRepository;
 import com.ucapital24.advertisement.dao.AdvertisementDocument;
 import com.ucapital24.advertisement.dao.AdvertisementRepository;
+import com.ucapital24.advertisement.lifecycle.AdvertisementLifecycleScheduler;
 import com.ucapital24.advertisement.model.AdvertisementMediaType;
+import com.ucapital24.advertisement.model.CacheStatistics;
+import com.ucapital24.advertisement.tracking.DeliveryTracker;
 import org.junit.jupiter.api.AfterEach;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
@@ -10,18 +23,30 @@ import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
 import org.springframework.boot.test.context.SpringBootTest;
 import org.springframework.http.MediaType;
+import org.springframework.mock.web.MockHttpServletResponse;
 import org.springframework.test.web.servlet.MockMvc;
+import java.io.ByteArrayInputStream;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
 import java.time.Instant;
 import java.time.temporal.ChronoUnit;
+import java.util.zip.GZIPInputStream;
+import static org.awaitility.Awaitility.await;
 import static org.hamcrest.Matchers.containsString;
+import static org.hamcrest.Matchers.hasItem;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.delete;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.patch;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.put;
 import static org.springframework.test.web.servlet.result.MockMvcResultHandlers.print;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
 
-@SpringBootTest
+@SpringBootTest(properties = {"advertisement.lifecycle.sweep-interval=PT1H", "advertisement.hot-pages.compression-min-size=0",
+        "advertisement.admission.trusted-proxies=127.0.0.1"})
 @AutoConfigureMockMvc
 public class AdvertisementControllerIntegrationTest {
 
@@ -37,6 +62,24 @@ public class AdvertisementControllerIntegrationTest {
     @Autowired
     private AdvertisementRepository advertisementRepository;
 
+    @Autowired
+    private AdvertisementCache advertisementCache;
+
+    @Autowired
+    private HotPageCache hotPageCache;
+
+    @Autowired
+    private AdvertisementDeliveryRepository deliveryRepository;
+
+    @Autowired
+    private DeliveryTracker deliveryTracker;
+
+    @Autowired
+    private AdvertisementArchiveRepository archiveRepository;
+
+    @Autowired
+    private AdvertisementLifecycleScheduler lifecycleScheduler;
+
     @BeforeEach
     public void setUp() {
         startDate = Instant.now();
@@ -67,6 +110,10 @@ public class AdvertisementControllerIntegrationTest {
     @AfterEach
     public void cleanUp() {
         advertisementRepository.deleteAll();
+        deliveryRepository.deleteAll();
+        archiveRepository.deleteAll();
+        advertisementCache.invalidateAll();
+        hotPageCache.invalidateAll();
     }
 
     @Test
@@ -228,6 +275,171 @@ public class AdvertisementControllerIntegrationTest {
 
     }
 
+    @Test
+    public void getActiveAdvertisements_OK() throws Exception {
+
+        String requestBody = """
+        {
+          "title": "Active window ad",
+          "content": "Come and visit us by clicking the link!",
+          "media_url": "http://example.com/image.jpg",
+          "media_type": "IMAGE",
+          "start_date": "2031-04-21T00:00:00Z",
+          "end_date": "2031-04-30T00:00:00Z"
+        }
+        """;
+
+        mockMvc.perform(post(API_PATH)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(requestBody))
+                .andExpect(status().isOk());
+
+        mockMvc.perform(get(API_PATH + "/active").param("at", "2031-04-25T00:00:00Z"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.length()").value(1))
+                .andExpect(jsonPath("$.[0].title").value("Active window ad"));
+
+        mockMvc.perform(get(API_PATH + "/active")
+                        .param("from", "2031-04-29T00:00:00Z")
+                        .param("to", "2031-05-02T00:00:00Z"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.length()").value(1));
+
+        mockMvc.perform(get(API_PATH + "/active").param("at", "2031-05-01T00:00:00Z"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.length()").value(0));
+    }
+
+    @Test
+    public void getActiveAdvertisements_missingTo_KO() throws Exception {
+
+        mockMvc.perform(get(API_PATH + "/active").param("from", "2031-04-29T00:00:00Z"))
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$.error_code").value("VALIDATION_ERROR"));
+    }
+
+    @Test
+    public void exportAdvertisements_ndjson_OK() throws Exception {
+
+        String response = mockMvc.perform(get(API_PATH + "/export"))
+                .andExpect(status().isOk())
+                .andExpect(content().contentType("application/x-ndjson;charset=UTF-8"))
+                .andReturn().getResponse().getContentAsString();
+
+        String[] lines = response.split("\n");
+        assertEquals(2, lines.length);
+        assertEquals("first add title", JsonPath.read(lines[0], "$.title"));
+        assertEquals("second add title", JsonPath.read(lines[1], "$.title"));
+    }
+
+    @Test
+    public void exportAdvertisements_jsonArray_OK() throws Exception {
+
+        mockMvc.perform(get(API_PATH + "/export").param("format", "json"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.length()").value(2))
+                .andExpect(jsonPath("$.[1].title").value("second add title"));
+    }
+
+    @Test
+    public void scrollAdvertisements_OK() throws Exception {
+
+        String response = mockMvc.perform(get(API_PATH + "/scroll").param("size", "1"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.content.length()").value(1))
+                .andExpect(jsonPath("$.content.[0]._id").value(docId1))
+                .andExpect(jsonPath("$.has_next").value(true))
+                .andReturn().getResponse().getContentAsString();
+        String cursor = JsonPath.read(response, "$.next_cursor");
+
+        mockMvc.perform(get(API_PATH + "/scroll").param("size", "1").param("cursor", cursor))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.content.length()").value(1))
+                .andExpect(jsonPath("$.content.[0]._id").value(docId2))
+                .andExpect(jsonPath("$.has_next").value(false))
+                .andExpect(jsonPath("$.next_cursor").doesNotExist());
+    }
+
+    @Test
+    public void scrollAdvertisements_invalidCursor_KO() throws Exception {
+
+        mockMvc.perform(get(API_PATH + "/scroll").param("cursor", "@@@"))
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$.error_message").value("cursor is not valid"));
+    }
+
+    @Test
+    public void getAllAdvertisements_filtered() throws Exception {
+
+        mockMvc.perform(get(API_PATH).param("media_type", "VIDEO"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.content.length()").value(1))
+                .andExpect(jsonPath("$.content.[0].title").value("second add title"));
+
+        mockMvc.perform(get(API_PATH).param("active_at", startDate.plusSeconds(60).toString()))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.content.length()").value(2));
+
+        mockMvc.perform(get(API_PATH)
+                        .param("media_type", "IMAGE")
+                        .param("active_at", endDate.plusSeconds(60).toString()))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.content.length()").value(0));
+    }
+
+    @Test
+    public void searchAdvertisements_OK() throws Exception {
+
+        mockMvc.perform(get(API_PATH + "/search")
+                        .param("title_prefix", "second")
+                        .param("fields", "_id,title,media_url"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.content.length()").value(1))
+                .andExpect(jsonPath("$.content.[0]._id").value(docId2))
+                .andExpect(jsonPath("$.content.[0].title").value("second add title"))
+                .andExpect(jsonPath("$.content.[0].content").doesNotExist())
+                .andExpect(jsonPath("$.has_next").value(false));
+
+        mockMvc.perform(get(API_PATH + "/search")
+                        .param("q", "ADD")
+                        .param("media_type", "IMAGE")
+                        .param("at", startDate.plusSeconds(60).toString())
+                        .param("fields", "title,end_date"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.content.length()").value(1))
+                .andExpect(jsonPath("$.content.[0]._id").doesNotExist())
+                .andExpect(jsonPath("$.content.[0].end_date").value(endDate.truncatedTo(ChronoUnit.MILLIS).toString()));
+
+        mockMvc.perform(get(API_PATH + "/search").param("size", "1"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.content.length()").value(1))
+                .andExpect(jsonPath("$.content.[0]._id").value(docId1))
+                .andExpect(jsonPath("$.content.[0].media_type").value("IMAGE"))
+                .andExpect(jsonPath("$.has_next").value(true));
+    }
+
+    @Test
+    public void searchAdvertisements_unknownField_KO() throws Exception {
+
+        mockMvc.perform(get(API_PATH + "/search").param("fields", "title,password"))
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$.error_message").value("unknown field: password"));
+    }
+
+    @Test
+    public void indexesAndQueryPlans_OK() throws Exception {
+
+        mockMvc.perform(get("/api/v1/admin/indexes"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.length()").value(5))
+                .andExpect(jsonPath("$.[?(@.name == 'end_date_start_date')].definition").value("{\"end_date\": 1, \"start_date\": 1}"));
+
+        mockMvc.perform(get("/api/v1/admin/query-plans"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.length()").value(6))
+                .andExpect(jsonPath("$.[0].query").value("findActiveAt"));
+    }
+
     @Test
     public void getAdvertisement_byId_OK() throws Exception {
 
@@ -248,6 +460,472 @@ public class AdvertisementControllerIntegrationTest {
 
     }
 
+    @Test
+    public void getAdvertisementPersistence_OK() throws Exception {
+
+        mockMvc.perform(get(API_PATH + "/" + docId1 + "/persistence"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$._id").value(docId1))
+                .andExpect(jsonPath("$.status").value("PERSISTED"))
+                .andExpect(jsonPath("$.error_message").doesNotExist());
+        mockMvc.perform(get(API_PATH + "/anyId/persistence"))
+                .andExpect(status().isNotFound())
+                .andExpect(jsonPath("$.error_code").value("ADVERTISEMENT_NOT_FOUND"));
+    }
+
+    @Test
+    public void getAdvertisementsByIds_OK() throws Exception {
+
+        mockMvc.perform(get(API_PATH + "/batch").param("ids", docId2 + ",unknown," + docId1 + "," + docId2))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.content.length()").value(2))
+                .andExpect(jsonPath("$.content.[0]._id").value(docId2))
+                .andExpect(jsonPath("$.content.[1]._id").value(docId1))
+                .andExpect(jsonPath("$.missing_ids").value(hasItem("unknown")))
+                .andExpect(jsonPath("$.missing_ids.length()").value(1));
+
+        mockMvc.perform(get(API_PATH + "/batch").param("ids", "unknown"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.content.length()").value(0))
+                .andExpect(jsonPath("$.missing_ids.[0]").value("unknown"));
+
+        mockMvc.perform(get(API_PATH + "/batch").param("ids", "x,".repeat(101)))
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$.error_message").value("ids must contain between 1 and 100 IDs"));
+    }
+
+    @Test
+    public void getAdvertisement_byId_cached_OK() throws Exception {
+
+        CacheStatistics before = advertisementCache.statistics();
+        mockMvc.perform(get(API_PATH + "/" + docId1))
+                .andExpect(status().isOk());
+        mockMvc.perform(get(API_PATH + "/" + docId1))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.title").value("first add title"));
+
+        mockMvc.perform(get("/api/v1/admin/cache"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.size").value(1))
+                .andExpect(jsonPath("$.hit_count").value(before.hitCount() + 1))
+                .andExpect(jsonPath("$.miss_count").value(before.missCount() + 1));
+    }
+
+    @Test
+    public void getAdvertisement_byId_notModified() throws Exception {
+
+        String etag = mockMvc.perform(get(API_PATH + "/" + docId1))
+                .andExpect(status().isOk())
+                .andExpect(header().exists("ETag"))
+                .andReturn().getResponse().getHeader("ETag");
+
+        mockMvc.perform(get(API_PATH + "/" + docId1).header("If-None-Match", etag))
+                .andExpect(status().isNotModified())
+                .andExpect(header().string("ETag", etag))
+                .andExpect(content().string(""));
+
+        String requestBody = """
+        {
+          "title": "first add new title",
+          "content": "clicking on first add will bring you to the add page",
+          "media_url": "https://example.com/image.png",
+          "media_type": "IMAGE",
+          "start_date": "2029-04-21T00:00:00Z",
+          "end_date": "2029-04-30T00:00:00Z"
+        }
+        """;
+        mockMvc.perform(put(API_PATH + "/" + docId1)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(requestBody))
+                .andExpect(status().isOk());
+
+        String newEtag = mockMvc.perform(get(API_PATH + "/" + docId1).header("If-None-Match", etag))
+                .andExpect(status().isOk())
+                .andExpect(header().exists("Last-Modified"))
+                .andExpect(jsonPath("$.title").value("first add new title"))
+                .andReturn().getResponse().getHeader("ETag");
+
+        mockMvc.perform(get(API_PATH + "/" + docId1).header("If-None-Match", newEtag))
+                .andExpect(status().isNotModified());
+    }
+
+    @Test
+    public void getAllAdvertisements_notModified() throws Exception {
+
+        String etag = mockMvc.perform(get(API_PATH))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getHeader("ETag");
+
+        mockMvc.perform(get(API_PATH).header("If-None-Match", etag))
+                .andExpect(status().isNotModified())
+                .andExpect(content().string(""));
+
+        mockMvc.perform(get(API_PATH).param("media_type", "VIDEO").header("If-None-Match", etag))
+                .andExpect(status().isOk());
+
+        mockMvc.perform(delete(API_PATH + "/" + docId2))
+                .andExpect(status().isOk());
+
+        mockMvc.perform(get(API_PATH).header("If-None-Match", etag))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.content.length()").value(1));
+    }
+
+    @Test
+    public void patchAdvertisement_OK() throws Exception {
+
+        String etag = mockMvc.perform(get(API_PATH + "/" + docId1))
+                .andReturn().getResponse().getHeader("ETag");
+
+        String newEtag = mockMvc.perform(patch(API_PATH + "/" + docId1)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .header("If-Match", etag)
+                        .content("{\"title\": \"patched title\"}"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.title").value("patched title"))
+                .andExpect(jsonPath("$.content").value("clicking on first add will bring you to the add page"))
+                .andReturn().getResponse().getHeader("ETag");
+
+        mockMvc.perform(get(API_PATH + "/" + docId1).header("If-None-Match", newEtag))
+                .andExpect(status().isNotModified());
+
+        mockMvc.perform(patch(API_PATH + "/" + docId1)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .header("If-Match", etag)
+                        .content("{\"title\": \"lost update\"}"))
+                .andExpect(status().isPreconditionFailed())
+                .andExpect(jsonPath("$.error_code").value("PRECONDITION_FAILED"));
+
+        mockMvc.perform(delete(API_PATH + "/" + docId1).header("If-Match", etag))
+                .andExpect(status().isPreconditionFailed());
+
+        mockMvc.perform(delete(API_PATH + "/" + docId1).header("If-Match", newEtag))
+                .andExpect(status().isOk());
+    }
+
+    @Test
+    public void patchAdvertisement_KO() throws Exception {
+
+        mockMvc.perform(patch(API_PATH + "/" + docId1)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"start_date\": \"" + endDate.plusSeconds(60) + "\"}"))
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$.error_message").value("start_date should be before end_date"));
+
+        mockMvc.perform(patch(API_PATH + "/anyId")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"title\": \"patched title\"}"))
+                .andExpect(status().isNotFound());
+
+        mockMvc.perform(patch(API_PATH + "/" + docId1)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .header("If-Match", "W/\"1\"")
+                        .content("{\"title\": \"patched title\"}"))
+                .andExpect(status().isBadRequest());
+    }
+
+    @Test
+    public void bulkAdvertisements_OK() throws Exception {
+
+        String requestBody = """
+        [
+          { "op": "CREATE", "advertisement": { "title": "Bulk Ad title", "content": "Come and visit us by clicking the link!",
+            "media_url": "http://example.com/image.jpg", "media_type": "IMAGE",
+            "start_date": "2029-04-21T00:00:00Z", "end_date": "2029-04-30T00:00:00Z" } },
+          { "op": "CREATE", "advertisement": { "title": "Bulk Ad title", "content": "Come and visit us by clicking the link!",
+            "media_url": "ht://example.com/image.jpg", "media_type": "IMAGE",
+            "start_date": "2029-04-21T00:00:00Z", "end_date": "2029-04-30T00:00:00Z" } },
+          { "op": "UPDATE", "_id": "doc1", "advertisement": { "title": "updated Ad title", "content": "Come and visit us by clicking the link!",
+            "media_url": "http://example.com/image.jpg", "media_type": "IMAGE",
+            "start_date": "2029-04-21T00:00:00Z", "end_date": "2029-04-30T00:00:00Z" } },
+          { "op": "DELETE", "_id": "doc2" },
+          { "op": "DELETE", "_id": "anyId" }
+        ]
+        """;
+
+        mockMvc.perform(post(API_PATH + "/bulk")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(requestBody))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.length()").value(5))
+                .andExpect(jsonPath("$.[0].status").value("CREATED"))
+                .andExpect(jsonPath("$.[1].status").value("INVALID"))
+                .andExpect(jsonPath("$.[1].error_message").value("URL is not valid: unknown protocol: ht"))
+                .andExpect(jsonPath("$.[2].status").value("UPDATED"))
+                .andExpect(jsonPath("$.[3].status").value("DELETED"))
+                .andExpect(jsonPath("$.[4].status").value("NOT_FOUND"));
+
+        mockMvc.perform(get(API_PATH + "/" + docId1))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.title").value("updated Ad title"));
+        mockMvc.perform(get(API_PATH + "/" + docId2))
+                .andExpect(status().isNotFound());
+    }
+
+    @Test
+    public void bulkAdvertisements_ndjson_OK() throws Exception {
+
+        String requestBody = """
+        { "op": "DELETE", "_id": "doc1" }
+        { "op": "DELETE", "_id": "doc2" }
+        """;
+
+        mockMvc.perform(post(API_PATH + "/bulk")
+                        .contentType("application/x-ndjson")
+                        .content(requestBody))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.length()").value(2))
+                .andExpect(jsonPath("$.[0].status").value("DELETED"))
+                .andExpect(jsonPath("$.[1].status").value("DELETED"));
+    }
+
+    @Test
+    public void archiveExpired_OK() throws Exception {
+
+        AdvertisementDocument expired = new AdvertisementDocument(
+                "expired",
+                "expired add title",
+                "this add ended two days ago",
+                "https://example.com/image.png",
+                AdvertisementMediaType.IMAGE,
+                startDate.minus(3, ChronoUnit.DAYS),
+                startDate.minus(2, ChronoUnit.DAYS)
+        );
+        advertisementRepository.save(expired);
+        mockMvc.perform(get(API_PATH + "/expired"))
+                .andExpect(status().isOk());
+
+        assertEquals(1, lifecycleScheduler.archiveExpired());
+
+        mockMvc.perform(get(API_PATH + "/expired"))
+                .andExpect(status().isNotFound());
+        mockMvc.perform(get(API_PATH + "/" + docId1))
+                .andExpect(status().isOk());
+        assertEquals("expired add title", archiveRepository.findById("expired").orElseThrow().getTitle());
+        assertEquals(0, lifecycleScheduler.archiveExpired());
+    }
+
+    @Test
+    public void getAdds_pageSizeCapped_OK() throws Exception {
+
+        mockMvc.perform(get(API_PATH).param("size", "2000"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.size").value(200));
+    }
+
+    @Test
+    public void getAdds_hotPage_OK() throws Exception {
+
+        MockHttpServletResponse gzipped = mockMvc.perform(get(API_PATH).header("Accept-Encoding", "gzip, deflate"))
+                .andExpect(status().isOk())
+                .andExpect(header().string("Content-Encoding", "gzip"))
+                .andExpect(header().string("Vary", "Accept, Accept-Encoding"))
+                .andReturn().getResponse();
+        String json;
+        try (GZIPInputStream gzip = new GZIPInputStream(new ByteArrayInputStream(gzipped.getContentAsByteArray()))) {
+            json = new String(gzip.readAllBytes(), StandardCharsets.UTF_8);
+        }
+        assertEquals(2, (Integer) JsonPath.read(json, "$.totalElements"));
+
+        MockHttpServletResponse identity = mockMvc.perform(get(API_PATH))
+                .andExpect(status().isOk())
+                .andExpect(header().doesNotExist("Content-Encoding"))
+                .andReturn().getResponse();
+        assertEquals(json, identity.getContentAsString());
+        assertEquals(identity.getHeader("ETag").replaceFirst("\"$", "-gzip\""), gzipped.getHeader("ETag"));
+        mockMvc.perform(get(API_PATH).header("Accept-Encoding", "gzip").header("If-None-Match", identity.getHeader("ETag")))
+                .andExpect(status().isNotModified())
+                .andExpect(header().string("ETag", gzipped.getHeader("ETag")));
+        mockMvc.perform(get(API_PATH).header("If-None-Match", gzipped.getHeader("ETag")))
+                .andExpect(status().isNotModified())
+                .andExpect(header().string("ETag", identity.getHeader("ETag")));
+
+        String requestBody = """
+        {
+          "title": "My Ad title",
+          "content": "Come and visit us by clicking the link!",
+          "media_url": "http://example.com/image.jpg",
+          "media_type": "IMAGE",
+          "start_date": "2029-04-21T00:00:00Z",
+          "end_date": "2029-04-30T00:00:00Z"
+        }
+        """;
+        mockMvc.perform(post(API_PATH).contentType(MediaType.APPLICATION_JSON).content(requestBody))
+                .andExpect(status().isOk());
+
+        mockMvc.perform(get(API_PATH))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.totalElements").value(3));
+    }
+
+    @Test
+    public void rateLimit_KO() throws Exception {
+
+        MockHttpServletResponse response = null;
+        for (int i = 0; i < 2000 && (response == null || response.getStatus() == 200); i++) {
+            response = mockMvc.perform(get(API_PATH + "/" + docId1).header("X-Client-Id", "greedy-client"))
+                    .andReturn().getResponse();
+        }
+
+        assertEquals(429, response.getStatus());
+        assertNotNull(response.getHeader("Retry-After"));
+        assertEquals("RATE_LIMITED", JsonPath.read(response.getContentAsString(), "$.error_code"));
+        mockMvc.perform(get(API_PATH + "/" + docId1).header("X-Client-Id", "other-client"))
+                .andExpect(status().isOk());
+        mockMvc.perform(post(API_PATH + "/" + docId1 + "/impressions").header("X-Client-Id", "greedy-client"))
+                .andExpect(status().isAccepted());
+    }
+
+    @Test
+    public void selectAdvertisement_OK() throws Exception {
+
+        String requestBody = """
+        {
+          "title": "Weighted ad",
+          "content": "Come and visit us by clicking the link!",
+          "media_url": "http://example.com/video.mp4",
+          "media_type": "VIDEO",
+          "start_date": "%s",
+          "end_date": "%s",
+          "weight": 5
+        }
+        """.formatted(startDate.minus(1, ChronoUnit.HOURS), endDate);
+        String response = mockMvc.perform(post(API_PATH)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(requestBody))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.weight").value(5))
+                .andReturn().getResponse().getContentAsString();
+        String id = JsonPath.read(response, "$._id");
+
+        // the selection tables are rebuilt in the background
+        await().atMost(Duration.ofSeconds(5)).untilAsserted(() ->
+                mockMvc.perform(get(API_PATH + "/select").param("media_type", "VIDEO"))
+                        .andExpect(status().isOk())
+                        .andExpect(jsonPath("$._id").value(id))
+                        .andExpect(jsonPath("$.weight").value(5)));
+
+        mockMvc.perform(patch(API_PATH + "/" + id)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"weight\": 0}"))
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$.error_message").value("weight must be between 1 and 10000"));
+
+        mockMvc.perform(delete(API_PATH + "/" + id))
+                .andExpect(status().isOk());
+        await().atMost(Duration.ofSeconds(5)).untilAsserted(() ->
+                mockMvc.perform(get(API_PATH + "/select").param("media_type", "VIDEO"))
+                        .andExpect(status().isNotFound()));
+    }
+
+    @Test
+    public void binaryFormats_OK() throws Exception {
+
+        String jsonEtag = mockMvc.perform(get(API_PATH + "/" + docId1))
+                .andReturn().getResponse().getHeader("ETag");
+        MockHttpServletResponse cborResponse = mockMvc.perform(get(API_PATH + "/" + docId1).accept("application/cbor")
+                        .header("If-None-Match", jsonEtag))
+                .andExpect(status().isOk())
+                .andExpect(content().contentType("application/cbor"))
+                .andExpect(header().string("Vary", containsString("Accept")))
+                .andExpect(header().string("ETag", jsonEtag.replaceFirst("\"$", "-cbor\"")))
+                .andReturn().getResponse();
+        byte[] cbor = cborResponse.getContentAsByteArray();
+        mockMvc.perform(get(API_PATH + "/" + docId1).accept("application/cbor").header("If-None-Match", cborResponse.getHeader("ETag")))
+                .andExpect(status().isNotModified());
+        JsonNode advertisement = new ObjectMapper(new CBORFactory()).readTree(cbor);
+        assertEquals("first add title", advertisement.get("title").asText());
+        assertEquals("IMAGE", advertisement.get("media_type").asText());
+
+        byte[] smile = mockMvc.perform(get(API_PATH).param("sort", "id").accept("application/x-jackson-smile"))
+                .andExpect(status().isOk())
+                .andExpect(content().contentType("application/x-jackson-smile"))
+                .andExpect(header().exists("ETag"))
+                .andReturn().getResponse().getContentAsByteArray();
+        JsonNode page = new ObjectMapper(new SmileFactory()).readTree(smile);
+        assertEquals(2, page.get("total_elements").asInt());
+        assertEquals(docId2, page.get("content").get(1).get("_id").asText());
+        assertNull(page.get("pageable"));
+
+        byte[] protobuf = mockMvc.perform(get(API_PATH).param("sort", "id").accept("application/x-protobuf"))
+                .andExpect(status().isOk())
+                .andExpect(content().contentType("application/x-protobuf"))
+                .andReturn().getResponse().getContentAsByteArray();
+        UnknownFieldSet protobufPage = UnknownFieldSet.parseFrom(protobuf);
+        assertEquals(2, protobufPage.getField(1).getLengthDelimitedList().size());
+        assertEquals(2, protobufPage.getField(4).getVarintList().get(0));
+        UnknownFieldSet first = UnknownFieldSet.parseFrom(protobufPage.getField(1).getLengthDelimitedList().get(0));
+        assertEquals(docId1, first.getField(1).getLengthDelimitedList().get(0).toStringUtf8());
+        assertEquals(1, first.getField(5).getVarintList().get(0));
+        assertEquals(endDate.toEpochMilli(), first.getField(7).getVarintList().get(0));
+
+        mockMvc.perform(get(API_PATH))
+                .andExpect(status().isOk())
+                .andExpect(content().contentType(MediaType.APPLICATION_JSON))
+                .andExpect(jsonPath("$.totalElements").value(2));
+    }
+
+    @Test
+    public void deliveryTracking_OK() throws Exception {
+
+        mockMvc.perform(post(API_PATH + "/" + docId1 + "/impressions"))
+                .andExpect(status().isAccepted());
+        mockMvc.perform(post(API_PATH + "/" + docId1 + "/impressions").param("count", "2"))
+                .andExpect(status().isAccepted());
+        mockMvc.perform(post(API_PATH + "/" + docId1 + "/clicks"))
+                .andExpect(status().isAccepted());
+
+        String events = """
+        [
+          {"ad_id": "doc1", "type": "IMPRESSION", "count": 5},
+          {"ad_id": "doc2", "type": "CLICK"},
+          {"ad_id": "unknown", "type": "CLICK"}
+        ]
+        """;
+        mockMvc.perform(post(API_PATH + "/events")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(events))
+                .andExpect(status().isAccepted())
+                .andExpect(jsonPath("$.accepted").value(2))
+                .andExpect(jsonPath("$.rejected").value(1));
+
+        deliveryTracker.flush();
+
+        mockMvc.perform(get(API_PATH + "/" + docId1 + "/delivery"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.[*].impressions").value(hasItem(8)))
+                .andExpect(jsonPath("$.[0].ad_id").value(docId1));
+        mockMvc.perform(get(API_PATH + "/" + docId2 + "/delivery"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.[0].clicks").value(1));
+    }
+
+    @Test
+    public void deliveryTracking_unknownAdvertisement_KO() throws Exception {
+
+        mockMvc.perform(post(API_PATH + "/anyId/impressions"))
+                .andExpect(status().isNotFound());
+        mockMvc.perform(post(API_PATH + "/" + docId1 + "/clicks").param("count", "0"))
+                .andExpect(status().isBadRequest());
+    }
+
+    @Test
+    public void metrics_OK() throws Exception {
+
+        mockMvc.perform(get(API_PATH + "/anyId"))
+                .andExpect(status().isNotFound());
+
+        mockMvc.perform(get("/actuator/metrics/advertisement.errors").param("tag", "error_code:ADVERTISEMENT_NOT_FOUND"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.availableTags[?(@.tag == 'exception')].values[0]").value("AdvertisementNotFoundException"));
+        mockMvc.perform(get("/actuator/metrics/advertisement.service").param("tag", "method:getVersionedAdvertisement"))
+                .andExpect(status().isOk());
+        mockMvc.perform(get("/actuator/metrics/spring.data.repository.invocations").param("tag", "method:findById"))
+                .andExpect(status().isOk());
+        mockMvc.perform(get("/actuator/metrics/http.server.requests").param("tag", "uri:/api/v1/advertisements/{ad_id}"))
+                .andExpect(status().isOk());
+    }
+
     @Test
     public void deleteAdvertisement_byId_OK() throws Exception {
 
@@ -288,6 +966,35 @@ public class AdvertisementControllerIntegrationTest {
                 .andExpect(jsonPath("$.content").value("update content: Come and visit us by clicking the link!"));
     }
 
+    @Test
+    public void updateAdvertisement_withoutWeight_resetsWeight() throws Exception {
+
+        mockMvc.perform(patch(API_PATH + "/" + docId1)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"weight\": 5}"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.weight").value(5));
+
+        String requestBody = """
+        {
+          "title": "updated Ad title",
+          "content": "Come and visit us by clicking the link!",
+          "media_url": "http://example.com/image.jpg",
+          "media_type": "IMAGE",
+          "start_date": "2029-04-21T00:00:00Z",
+          "end_date": "2029-04-30T00:00:00Z"
+        }
+        """;
+        mockMvc.perform(put(API_PATH + "/" + docId1)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(requestBody))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.weight").doesNotExist());
+        mockMvc.perform(get(API_PATH + "/" + docId1))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.weight").doesNotExist());
+    }
+
     @Test
     public void updateAdvertisement_NotFound_KO() throws Exception {
 
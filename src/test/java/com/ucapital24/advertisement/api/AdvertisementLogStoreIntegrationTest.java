@@ -0,0 +1,93 @@
+package com.ucapital24.advertisement.api;
+
+import com.jayway.jsonpath.JsonPath;
+import com.ucapital24.advertisement.dao.AdvertisementDeliveryRepository;
+import com.ucapital24.advertisement.dao.AdvertisementIndexManager;
+import com.ucapital24.advertisement.dao.AdvertisementRepository;
+import com.ucapital24.advertisement.tracking.DeliveryTracker;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.ApplicationContext;
+import org.springframework.data.mongodb.core.ReactiveMongoTemplate;
+import org.springframework.http.MediaType;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.springframework.test.web.servlet.MockMvc;
+import java.nio.file.Path;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+/**
+ * Boots the service on the log store, with a MongoDB URI nothing listens on.
+ */
+@SpringBootTest(properties = {"advertisement.store.type=log", "advertisement.lifecycle.sweep-interval=PT1H",
+        "spring.data.mongodb.uri=mongodb://localhost:1/adsdb?serverSelectionTimeoutMS=100&connectTimeoutMS=100"})
+@AutoConfigureMockMvc
+public class AdvertisementLogStoreIntegrationTest {
+
+    private final String API_PATH = "/api/v1/advertisements";
+
+    @TempDir
+    static Path directory;
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private ApplicationContext applicationContext;
+
+    @DynamicPropertySource
+    static void logStoreProperties(DynamicPropertyRegistry registry) {
+        registry.add("advertisement.store.log.directory", () -> directory.toString());
+    }
+
+    @Test
+    public void context_noMongoBeans() {
+        for (Class<?> mongoOnly : new Class<?>[]{AdvertisementRepository.class, AdvertisementDeliveryRepository.class,
+                AdvertisementIndexManager.class, DeliveryTracker.class, ReactiveMongoTemplate.class}) {
+            assertEquals(0, applicationContext.getBeanNamesForType(mongoOnly).length, mongoOnly.getSimpleName());
+        }
+    }
+
+    @Test
+    public void createAndGetAdvertisement_OK() throws Exception {
+
+        String requestBody = """
+        {
+          "title": "My Ad title",
+          "content": "Come and visit us by clicking the link!",
+          "media_url": "http://example.com/image.jpg",
+          "media_type": "IMAGE",
+          "start_date": "2029-04-21T00:00:00Z",
+          "end_date": "2029-04-30T00:00:00Z"
+        }
+        """;
+
+        String created = mockMvc.perform(post(API_PATH)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(requestBody))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getContentAsString();
+        String adId = JsonPath.read(created, "$._id");
+
+        mockMvc.perform(get(API_PATH + "/" + adId))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.title").value("My Ad title"));
+    }
+
+    @Test
+    public void mongoOnlyEndpoints_notFound() throws Exception {
+
+        mockMvc.perform(get("/api/v1/admin/cache"))
+                .andExpect(status().isOk());
+        mockMvc.perform(get("/api/v1/admin/indexes"))
+                .andExpect(status().isNotFound());
+        mockMvc.perform(post(API_PATH + "/anyId/impressions"))
+                .andExpect(status().isNotFound());
+    }
+}
@@ -0,0 +1,142 @@
+package com.ucapital24.advertisement.api;
+
+import com.jayway.jsonpath.JsonPath;
+import com.ucapital24.advertisement.cache.AdvertisementCache;
+import com.ucapital24.advertisement.cache.HotPageCache;
+import com.ucapital24.advertisement.dao.AdvertisementRepository;
+import com.ucapital24.advertisement.index.ActiveAdvertisementIndex;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.ApplicationContext;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.test.web.servlet.RequestBuilder;
+import org.springframework.test.web.servlet.ResultActions;
+import static org.hamcrest.Matchers.startsWith;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.delete;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.patch;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.put;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
+
+/**
+ * Boots the service in the reactive execution mode and checks that the single-advertisement endpoints keep the
+ * contract of the blocking mode.
+ */
+@SpringBootTest(properties = {"advertisement.execution-mode=reactive", "advertisement.lifecycle.sweep-interval=PT1H"})
+@AutoConfigureMockMvc
+public class ReactiveExecutionModeIntegrationTest {
+
+    private final String API_PATH = "/api/v1/advertisements";
+    private final String requestBody = """
+            {
+              "title": "My Ad title",
+              "content": "Come and visit us by clicking the link!",
+              "media_url": "http://example.com/image.jpg",
+              "media_type": "IMAGE",
+              "start_date": "2029-04-21T00:00:00Z",
+              "end_date": "2029-04-30T00:00:00Z"
+            }
+            """;
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private ApplicationContext applicationContext;
+
+    @Autowired
+    private AdvertisementRepository advertisementRepository;
+
+    @Autowired
+    private AdvertisementCache advertisementCache;
+
+    @Autowired
+    private HotPageCache hotPageCache;
+
+    @Autowired
+    private ActiveAdvertisementIndex activeAdvertisementIndex;
+
+    @AfterEach
+    public void cleanUp() {
+        advertisementRepository.deleteAll();
+        advertisementCache.invalidateAll();
+        hotPageCache.invalidateAll();
+    }
+
+    @Test
+    public void context_reactiveController() {
+        assertEquals(1, applicationContext.getBeanNamesForType(ReactiveAdvertisementController.class).length);
+        assertEquals(0, applicationContext.getBeanNamesForType(BlockingAdvertisementController.class).length);
+    }
+
+    @Test
+    public void createUpdateAndDelete_OK() throws Exception {
+        String created = perform(post(API_PATH).contentType(MediaType.APPLICATION_JSON).content(requestBody))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.title").value("My Ad title"))
+                .andReturn().getResponse().getContentAsString();
+        String adId = JsonPath.read(created, "$._id");
+        assertTrue(advertisementRepository.existsById(adId));
+        assertTrue(activeAdvertisementIndex.contains(adId));
+
+        String etag = perform(get(API_PATH + "/" + adId))
+                .andExpect(status().isOk())
+                .andExpect(header().string(HttpHeaders.ETAG, startsWith("\"1-")))
+                .andExpect(jsonPath("$.title").value("My Ad title"))
+                .andReturn().getResponse().getHeader(HttpHeaders.ETAG);
+        perform(get(API_PATH + "/" + adId).header(HttpHeaders.IF_NONE_MATCH, etag))
+                .andExpect(status().isNotModified());
+
+        perform(put(API_PATH + "/" + adId).header(HttpHeaders.IF_MATCH, etag)
+                .contentType(MediaType.APPLICATION_JSON).content(requestBody.replace("My Ad title", "Updated title")))
+                .andExpect(status().isOk())
+                .andExpect(header().string(HttpHeaders.ETAG, startsWith("\"2-")))
+                .andExpect(jsonPath("$.title").value("Updated title"));
+        perform(patch(API_PATH + "/" + adId).header(HttpHeaders.IF_MATCH, etag)
+                .contentType(MediaType.APPLICATION_JSON).content("{\"title\": \"Stale title\"}"))
+                .andExpect(status().isPreconditionFailed())
+                .andExpect(jsonPath("$.error_code").value("PRECONDITION_FAILED"));
+        perform(patch(API_PATH + "/" + adId)
+                .contentType(MediaType.APPLICATION_JSON).content("{\"start_date\": \"2029-05-01T00:00:00Z\"}"))
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$.error_message").value("start_date should be before end_date"));
+        perform(get(API_PATH + "/" + adId))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.title").value("Updated title"));
+
+        perform(delete(API_PATH + "/" + adId))
+                .andExpect(status().isOk())
+                .andExpect(content().string("deleted!"));
+        assertFalse(advertisementRepository.existsById(adId));
+        assertFalse(activeAdvertisementIndex.contains(adId));
+        perform(get(API_PATH + "/" + adId))
+                .andExpect(status().isNotFound())
+                .andExpect(jsonPath("$.error_code").value("ADVERTISEMENT_NOT_FOUND"));
+    }
+
+    @Test
+    public void createAdvertisement_invalid_KO() throws Exception {
+        perform(post(API_PATH).contentType(MediaType.APPLICATION_JSON).content(requestBody.replace("My Ad title", "T")))
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$.error_code").value("VALIDATION_ERROR"));
+    }
+
+    /**
+     * Performs the request, and the asynchronous dispatch that writes the response of the Mono.
+     */
+    private ResultActions perform(RequestBuilder requestBuilder) throws Exception {
+        MvcResult result = mockMvc.perform(requestBuilder).andExpect(request().asyncStarted()).andReturn();
+        return mockMvc.perform(asyncDispatch(result));
+    }
+}
@@ -0,0 +1,91 @@
+package com.ucapital24.advertisement.cache;
+
+import com.ucapital24.advertisement.lifecycle.AdvertisementLifecycleEvent;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.zip.GZIPInputStream;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class HotPageCacheUnitTest {
+
+    private HotPageCache hotPageCache;
+    private AtomicInteger loads;
+
+    @BeforeEach
+    public void setUp() {
+        hotPageCache = new HotPageCache(true, 2, 16, Duration.ofMinutes(1), 64);
+        loads = new AtomicInteger();
+    }
+
+    @Test
+    void isCacheable_OK() {
+        assertTrue(hotPageCache.isCacheable(PageRequest.of(1, 10)));
+        assertFalse(hotPageCache.isCacheable(PageRequest.of(2, 10)));
+        assertFalse(hotPageCache.isCacheable(Pageable.unpaged()));
+        assertFalse(new HotPageCache(false, 2, 16, Duration.ofMinutes(1), 64).isCacheable(PageRequest.of(0, 10)));
+    }
+
+    @Test
+    void get_cachedUntilInvalidated_OK() {
+        Pageable pageable = PageRequest.of(0, 10);
+
+        assertEquals("{\"n\":1}", text(hotPageCache.get(pageable, this::load).body(false)));
+        assertEquals("{\"n\":1}", text(hotPageCache.get(pageable, this::load).body(false)));
+        assertEquals("{\"n\":2}", text(hotPageCache.get(PageRequest.of(0, 10, Sort.by("title")), this::load).body(false)));
+        assertEquals(2, loads.get());
+
+        hotPageCache.remove("ad1");
+        assertEquals("{\"n\":3}", text(hotPageCache.get(pageable, this::load).body(false)));
+
+        hotPageCache.onLifecycleEvent(new AdvertisementLifecycleEvent(AdvertisementLifecycleEvent.Type.EXPIRED, "ad1", Instant.now()));
+        assertEquals("{\"n\":3}", text(hotPageCache.get(pageable, this::load).body(false)));
+        hotPageCache.onLifecycleEvent(new AdvertisementLifecycleEvent(AdvertisementLifecycleEvent.Type.ARCHIVED, "ad1", Instant.now()));
+        assertEquals("{\"n\":4}", text(hotPageCache.get(pageable, this::load).body(false)));
+    }
+
+    @Test
+    void get_writeDuringLoad_notServedAfterwards() {
+        Pageable pageable = PageRequest.of(0, 10);
+
+        hotPageCache.get(pageable, page -> {
+            hotPageCache.invalidateAll();
+            return load(page);
+        });
+
+        assertEquals("{\"n\":2}", text(hotPageCache.get(pageable, this::load).body(false)));
+    }
+
+    @Test
+    void body_gzip_OK() throws IOException {
+        String json = "{\"content\":[" + "{\"title\":\"a title\"},".repeat(50) + "{}]}";
+        HotPageCache.HotPage large = hotPageCache.get(PageRequest.of(0, 10), page -> new HotPageCache.SerializedPage("\"etag\"", json.getBytes(StandardCharsets.UTF_8)));
+        HotPageCache.HotPage small = hotPageCache.get(PageRequest.of(1, 10), this::load);
+
+        assertTrue(large.gzipped(true));
+        assertFalse(large.gzipped(false));
+        assertFalse(small.gzipped(true));
+        try (GZIPInputStream input = new GZIPInputStream(new ByteArrayInputStream(large.body(true)))) {
+            assertEquals(json, new String(input.readAllBytes(), StandardCharsets.UTF_8));
+        }
+        assertEquals(json, text(large.body(false)));
+    }
+
+    private HotPageCache.SerializedPage load(Pageable pageable) {
+        return new HotPageCache.SerializedPage("\"etag\"", ("{\"n\":" + loads.incrementAndGet() + "}").getBytes(StandardCharsets.UTF_8));
+    }
+
+    private static String text(byte[] bytes) {
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+}
@@ -0,0 +1,125 @@
+package com.ucapital24.advertisement.cache;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertInstanceOf;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class SingleFlightUnitTest {
+
+    private static final int CALLERS = 8;
+
+    private SingleFlight<String, String> singleFlight;
+    private ExecutorService executor;
+
+    @BeforeEach
+    public void setUp() {
+        singleFlight = new SingleFlight<>("test");
+        executor = Executors.newFixedThreadPool(CALLERS);
+    }
+
+    @AfterEach
+    public void tearDown() {
+        executor.shutdownNow();
+    }
+
+    @Test
+    void execute_concurrentIdenticalCalls_shareOneCall() throws Exception {
+        AtomicInteger calls = new AtomicInteger();
+        CountDownLatch release = new CountDownLatch(1);
+
+        List<Future<String>> results = submitAll(() -> singleFlight.execute("ad1", () -> {
+            calls.incrementAndGet();
+            await(release);
+            return "result";
+        }));
+        awaitDeduplicated(CALLERS - 1);
+        release.countDown();
+
+        for (Future<String> result : results) {
+            assertEquals("result", result.get(5, TimeUnit.SECONDS));
+        }
+        assertEquals(1, calls.get());
+        assertEquals(1, singleFlight.executedCount());
+        assertEquals(CALLERS - 1, singleFlight.deduplicatedCount());
+
+        assertEquals("again", singleFlight.execute("ad1", () -> "again"));
+        assertEquals(2, singleFlight.executedCount());
+    }
+
+    @Test
+    void execute_failedCall_sharedWithWaitingCallersOnly() throws Exception {
+        CountDownLatch release = new CountDownLatch(1);
+
+        List<Future<String>> results = submitAll(() -> singleFlight.execute("ad1", () -> {
+            await(release);
+            throw new IllegalStateException("mongo down");
+        }));
+        awaitDeduplicated(CALLERS - 1);
+        release.countDown();
+
+        for (Future<String> result : results) {
+            ExecutionException e = assertThrows(ExecutionException.class, () -> result.get(5, TimeUnit.SECONDS));
+            assertInstanceOf(IllegalStateException.class, e.getCause());
+        }
+        assertEquals("recovered", singleFlight.execute("ad1", () -> "recovered"));
+    }
+
+    @Test
+    void execute_differentKeys_notShared() {
+        assertEquals("a", singleFlight.execute("ad1", () -> singleFlight.execute("ad2", () -> "a")));
+        assertEquals(2, singleFlight.executedCount());
+        assertEquals(0, singleFlight.deduplicatedCount());
+    }
+
+    @Test
+    void bindTo_OK() {
+        SimpleMeterRegistry registry = new SimpleMeterRegistry();
+        singleFlight.bindTo(registry);
+        singleFlight.execute("ad1", () -> "a");
+
+        assertEquals(1, registry.get("advertisement.single-flight.calls").tag("name", "test").tag("result", "executed")
+                .functionCounter().count());
+        assertEquals(0, registry.get("advertisement.single-flight.calls").tag("result", "deduplicated")
+                .functionCounter().count());
+    }
+
+    private List<Future<String>> submitAll(Callable<String> call) {
+        List<Future<String>> results = new ArrayList<>();
+        for (int i = 0; i < CALLERS; i++) {
+            results.add(executor.submit(call));
+        }
+        return results;
+    }
+
+    private void awaitDeduplicated(long expected) throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (singleFlight.deduplicatedCount() < expected && System.nanoTime() < deadline) {
+            Thread.sleep(1);
+        }
+        assertTrue(singleFlight.deduplicatedCount() >= expected);
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            latch.await();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException(e);
+        }
+    }
+}
@@ -0,0 +1,122 @@
+package com.ucapital24.advertisement.catalog;
+
+import com.ucapital24.advertisement.dao.AdvertisementDocument;
+import com.ucapital24.advertisement.model.AdvertisementMediaType;
+import com.ucapital24.advertisement.model.VersionedAdvertisement;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import static com.ucapital24.advertisement.AdvertisementFixtures.document;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class OffHeapAdvertisementCatalogUnitTest {
+
+    private static final Instant START = Instant.parse("2029-04-01T00:00:00Z");
+    private static final Instant END = START.plusSeconds(60);
+    private static final int CHUNK_SIZE = 1024;
+
+    private OffHeapAdvertisementCatalog catalog;
+
+    @BeforeEach
+    public void setUp() {
+        catalog = new OffHeapAdvertisementCatalog(CHUNK_SIZE);
+    }
+
+    @Test
+    void putAndGet_OK() {
+        AdvertisementDocument document = document("ad1", AdvertisementMediaType.VIDEO, START, END);
+        document.setTitle("Été — soldes");
+        document.setWeight(7);
+        document.setVersion(3L);
+        document.setLastModified(START.minusMillis(1));
+        catalog.put(document);
+
+        OffHeapAdvertisement advertisement = catalog.get("ad1");
+        assertEquals(document.toAdvertisement(), advertisement.toAdvertisement());
+        assertEquals(new VersionedAdvertisement(document.toAdvertisement(), 3, START.minusMillis(1)), advertisement.toVersionedAdvertisement());
+        assertEquals(START.toEpochMilli(), advertisement.startMillis());
+        assertNull(catalog.get("ad2"));
+        assertTrue(catalog.contains("ad1"));
+    }
+
+    @Test
+    void putAndGet_nullFields_OK() {
+        catalog.put(new AdvertisementDocument("ad1", null, null, null, null, null, null));
+
+        OffHeapAdvertisement advertisement = catalog.get("ad1");
+        assertEquals(new AdvertisementDocument("ad1", null, null, null, null, null, null).toAdvertisement(), advertisement.toAdvertisement());
+        assertEquals(0, advertisement.toVersionedAdvertisement().version());
+    }
+
+    @Test
+    void put_internsMediaUrls() {
+        String mediaUrl = "https://example.com/" + "a".repeat(600) + ".png";
+        catalog.put(document("ad1", mediaUrl, AdvertisementMediaType.VIDEO, START, END));
+        catalog.put(document("ad2", mediaUrl, AdvertisementMediaType.VIDEO, START, END));
+
+        assertEquals(CHUNK_SIZE, catalog.allocatedBytes());
+        assertEquals(mediaUrl, catalog.get("ad2").mediaUrl());
+    }
+
+    @Test
+    void updateAndRemove_OK() {
+        catalog.put(document("ad1", AdvertisementMediaType.VIDEO, START, END));
+        catalog.put(document("ad2", AdvertisementMediaType.VIDEO, START, END));
+        AdvertisementDocument updated = document("ad1", "https://example.com/new.png", AdvertisementMediaType.VIDEO, START, END);
+        updated.setContent("new content");
+        catalog.put(updated);
+
+        assertTrue(catalog.remove("ad2"));
+        assertFalse(catalog.remove("ad2"));
+        assertEquals(1, catalog.size());
+        assertEquals(updated.toAdvertisement(), catalog.get("ad1").toAdvertisement());
+        assertNull(catalog.get("ad2"));
+    }
+
+    @Test
+    void put_manyAdvertisements_growsTable() {
+        List<AdvertisementDocument> documents = new ArrayList<>();
+        for (int i = 0; i < 1000; i++) {
+            documents.add(document("ad" + i, "https://example.com/" + (i % 10) + ".png", AdvertisementMediaType.VIDEO, START, END));
+        }
+        catalog.reload(documents);
+        for (int i = 0; i < 1000; i += 2) {
+            catalog.remove("ad" + i);
+        }
+
+        assertEquals(500, catalog.size());
+        for (int i = 0; i < 1000; i++) {
+            assertEquals(i % 2 == 1, catalog.contains("ad" + i));
+        }
+        Set<String> visited = new HashSet<>();
+        catalog.forEach(advertisement -> visited.add(advertisement.id()));
+        assertEquals(500, visited.size());
+    }
+
+    @Test
+    void put_rewrites_compactsArena() {
+        catalog.put(document("ad0", AdvertisementMediaType.VIDEO, START, END));
+        List<Long> addresses = new ArrayList<>();
+        OffHeapArena previousArena = catalog.forEach(advertisement -> addresses.add(advertisement.address()));
+
+        for (int i = 0; i < 1000; i++) {
+            AdvertisementDocument document = document("ad" + (i % 3), "https://example.com/" + i + ".png", AdvertisementMediaType.VIDEO, START, END);
+            document.setWeight(i);
+            catalog.put(document);
+        }
+
+        assertTrue(catalog.allocatedBytes() <= 2 * CHUNK_SIZE);
+        assertEquals(3, catalog.size());
+        assertEquals(999, catalog.get("ad0").weight());
+        assertEquals("https://example.com/999.png", catalog.get("ad0").mediaUrl());
+        // a reader that started before the compaction still reads the previous arena
+        assertEquals("https://example.com/ad0.png", previousArena.advertisement(addresses.get(0)).mediaUrl());
+    }
+}
@@ -0,0 +1,30 @@
+package com.ucapital24.advertisement.dao;
+
+import org.bson.Document;
+import org.junit.jupiter.api.Test;
+import java.util.Date;
+import java.util.List;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+public class AdvertisementIndexManagerUnitTest {
+
+    private static final Date NOW = new Date(1_900_000_000_000L);
+
+    @Test
+    void annotatedFilter_bindsPlaceholders() {
+        assertEquals(new Document("media_type", "IMAGE")
+                        .append("end_date", new Document("$gt", NOW))
+                        .append("start_date", new Document("$lte", NOW)),
+                AdvertisementIndexManager.annotatedFilter("findActiveAtByMediaType", "IMAGE", NOW));
+        assertEquals(new Document("$or", List.of(
+                        new Document("start_date", new Document("$gt", NOW)),
+                        new Document("start_date", NOW).append("_id", new Document("$gt", "ad1")))),
+                AdvertisementIndexManager.annotatedFilter("findAfterStartDate", NOW, "ad1"));
+    }
+
+    @Test
+    void annotatedFilter_derivedQuery_KO() {
+        assertThrows(IllegalArgumentException.class, () -> AdvertisementIndexManager.annotatedFilter("findByMediaType", "IMAGE"));
+    }
+}
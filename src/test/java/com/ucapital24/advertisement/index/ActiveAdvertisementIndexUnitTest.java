@@ -0,0 +1,77 @@
+package com.ucapital24.advertisement.index;
+
+import com.ucapital24.advertisement.dao.AdvertisementDocument;
+import com.ucapital24.advertisement.model.Advertisement;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import static com.ucapital24.advertisement.AdvertisementFixtures.document;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class ActiveAdvertisementIndexUnitTest {
+
+    private static final Instant BASE = Instant.parse("2029-04-01T00:00:00Z");
+
+    private ActiveAdvertisementIndex index;
+
+    @BeforeEach
+    public void setUp() {
+        index = new ActiveAdvertisementIndex();
+        index.put(document("ad1", BASE.plusSeconds(0), BASE.plusSeconds(10)));
+        index.put(document("ad2", BASE.plusSeconds(5), BASE.plusSeconds(15)));
+        index.put(document("ad3", BASE.plusSeconds(20), BASE.plusSeconds(30)));
+    }
+
+    @Test
+    void findActiveAt_OK() {
+        assertEquals(List.of("ad1"), ids(index.findActiveAt(BASE.plusSeconds(0))));
+        assertEquals(List.of("ad1", "ad2"), ids(index.findActiveAt(BASE.plusSeconds(7))));
+        assertEquals(List.of("ad2"), ids(index.findActiveAt(BASE.plusSeconds(10))));
+        assertTrue(index.findActiveAt(BASE.plusSeconds(15)).isEmpty());
+        assertTrue(index.findActiveAt(BASE.minusSeconds(1)).isEmpty());
+    }
+
+    @Test
+    void findActiveBetween_OK() {
+        assertEquals(List.of("ad2", "ad3"), ids(index.findActiveBetween(BASE.plusSeconds(12), BASE.plusSeconds(25))));
+        assertTrue(index.findActiveBetween(BASE.plusSeconds(15), BASE.plusSeconds(20)).isEmpty());
+    }
+
+    @Test
+    void updateAndRemove_OK() {
+        index.put(document("ad1", BASE.plusSeconds(12), BASE.plusSeconds(14)));
+        index.remove("ad2");
+
+        assertTrue(index.findActiveAt(BASE.plusSeconds(7)).isEmpty());
+        assertEquals(List.of("ad1"), ids(index.findActiveAt(BASE.plusSeconds(13))));
+        assertEquals(2, index.size());
+    }
+
+    @Test
+    void findActiveBetween_matchesLinearScan() {
+        Random random = new Random(42);
+        List<AdvertisementDocument> documents = new ArrayList<>();
+        for (int i = 0; i < 500; i++) {
+            int start = random.nextInt(1000);
+            documents.add(document("ad" + i, BASE.plusSeconds(start), BASE.plusSeconds(start + 1 + random.nextInt(100))));
+        }
+        index.reload(documents);
+
+        for (int i = 0; i < 200; i++) {
+            int from = random.nextInt(1100);
+            int to = from + 1 + random.nextInt(50);
+            long expected = documents.stream()
+                    .filter(d -> d.getStartDate().isBefore(BASE.plusSeconds(to)) && d.getEndDate().isAfter(BASE.plusSeconds(from)))
+                    .count();
+            assertEquals(expected, index.findActiveBetween(BASE.plusSeconds(from), BASE.plusSeconds(to)).size());
+        }
+    }
+
+    private static List<String> ids(List<Advertisement> advertisements) {
+        return advertisements.stream().map(Advertisement::id).toList();
+    }
+}
@@ -0,0 +1,145 @@
+package com.ucapital24.advertisement.lifecycle;
+
+import com.ucapital24.advertisement.cache.AdvertisementCache;
+import com.ucapital24.advertisement.dao.AdvertisementDocument;
+import com.ucapital24.advertisement.index.ActiveAdvertisementIndex;
+import com.ucapital24.advertisement.selection.AdvertisementSelector;
+import com.ucapital24.advertisement.store.AdvertisementStore;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.List;
+import static com.ucapital24.advertisement.AdvertisementFixtures.document;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+public class AdvertisementLifecycleSchedulerUnitTest {
+
+    private static final Instant NOW = Instant.parse("2029-04-01T10:00:00Z");
+
+    @Mock
+    private AdvertisementStore advertisementStore;
+
+    @Mock
+    private ActiveAdvertisementIndex activeAdvertisementIndex;
+
+    @Mock
+    private AdvertisementCache advertisementCache;
+
+    private final List<AdvertisementLifecycleEvent> events = new ArrayList<>();
+    private MutableClock clock;
+    private AdvertisementSelector selector;
+    private AdvertisementLifecycleScheduler scheduler;
+
+    @BeforeEach
+    public void setUp() {
+        clock = new MutableClock(NOW);
+        selector = new AdvertisementSelector(clock);
+        scheduler = new AdvertisementLifecycleScheduler(advertisementStore, List.of(activeAdvertisementIndex, selector),
+                advertisementCache, event -> events.add((AdvertisementLifecycleEvent) event), clock, true,
+                Duration.ofHours(1), 2, new SimpleMeterRegistry());
+    }
+
+    @Test
+    void fireDue_activationThenExpiry_OK() {
+        scheduler.reload(List.of(document("ad1", NOW.plusSeconds(60), NOW.plusSeconds(120)),
+                document("ad2", NOW.minusSeconds(60), NOW.plusSeconds(30)),
+                document("ad3", NOW.minusSeconds(120), NOW.minusSeconds(60))));
+        assertEquals(3, scheduler.pendingTransitions());
+
+        assertEquals(0, scheduler.fireDue());
+        clock.instant = NOW.plusSeconds(60);
+        assertEquals(2, scheduler.fireDue());
+        clock.instant = NOW.plusSeconds(120);
+        assertEquals(1, scheduler.fireDue());
+
+        assertEquals(List.of(
+                new AdvertisementLifecycleEvent(AdvertisementLifecycleEvent.Type.EXPIRED, "ad2", NOW.plusSeconds(30)),
+                new AdvertisementLifecycleEvent(AdvertisementLifecycleEvent.Type.ACTIVATED, "ad1", NOW.plusSeconds(60)),
+                new AdvertisementLifecycleEvent(AdvertisementLifecycleEvent.Type.EXPIRED, "ad1", NOW.plusSeconds(120))), events);
+        assertEquals(0, scheduler.pendingTransitions());
+    }
+
+    @Test
+    void fireDue_updatedOrRemoved_skipsSupersededTransitions() {
+        scheduler.put(document("ad1", NOW.plusSeconds(10), NOW.plusSeconds(20)));
+        scheduler.put(document("ad1", NOW.plusSeconds(30), NOW.plusSeconds(40)));
+        scheduler.put(document("ad2", NOW.plusSeconds(10), NOW.plusSeconds(20)));
+        scheduler.remove("ad2");
+
+        clock.instant = NOW.plusSeconds(25);
+        assertEquals(0, scheduler.fireDue());
+        clock.instant = NOW.plusSeconds(40);
+        assertEquals(2, scheduler.fireDue());
+
+        assertEquals(List.of(AdvertisementLifecycleEvent.Type.ACTIVATED, AdvertisementLifecycleEvent.Type.EXPIRED),
+                events.stream().map(AdvertisementLifecycleEvent::type).toList());
+    }
+
+    @Test
+    void archiveExpired_inBatches_OK() {
+        AdvertisementDocument ad1 = document("ad1", NOW.minusSeconds(7200), NOW.minusSeconds(7200));
+        AdvertisementDocument ad2 = document("ad2", NOW.minusSeconds(7200), NOW.minusSeconds(7000));
+        AdvertisementDocument ad3 = document("ad3", NOW.minusSeconds(7200), NOW.minusSeconds(6000));
+        selector.reload(List.of(ad1, ad2, ad3));
+        when(advertisementStore.archiveEndedBefore(eq(NOW.minusSeconds(3600)), eq(2), eq(NOW)))
+                .thenReturn(List.of(ad1, ad2), List.of(ad3));
+
+        assertEquals(3, scheduler.archiveExpired());
+
+        verify(advertisementStore, times(2)).archiveEndedBefore(any(), eq(2), any());
+        for (String adId : List.of("ad1", "ad2", "ad3")) {
+            verify(activeAdvertisementIndex).remove(adId);
+            verify(advertisementCache).invalidate(adId);
+            assertFalse(selector.contains(adId));
+        }
+        assertEquals(3, events.stream().filter(event -> event.type() == AdvertisementLifecycleEvent.Type.ARCHIVED).count());
+    }
+
+    @Test
+    void archiveExpired_writeError_retriedOnNextSweep() {
+        when(advertisementStore.archiveEndedBefore(any(), eq(2), any())).thenThrow(new RuntimeException("write failed"));
+
+        assertEquals(0, scheduler.archiveExpired());
+        assertEquals(List.of(), events);
+    }
+
+    private static final class MutableClock extends Clock {
+
+        private volatile Instant instant;
+
+        private MutableClock(Instant instant) {
+            this.instant = instant;
+        }
+
+        @Override
+        public ZoneId getZone() {
+            return ZoneOffset.UTC;
+        }
+
+        @Override
+        public Clock withZone(ZoneId zone) {
+            return this;
+        }
+
+        @Override
+        public Instant instant() {
+            return instant;
+        }
+    }
+}
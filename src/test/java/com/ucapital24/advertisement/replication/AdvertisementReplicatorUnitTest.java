@@ -0,0 +1,114 @@
+package com.ucapital24.advertisement.replication;
+
+import com.ucapital24.advertisement.cache.AdvertisementCache;
+import com.ucapital24.advertisement.index.ActiveAdvertisementIndex;
+import com.ucapital24.advertisement.model.VersionedAdvertisement;
+import com.ucapital24.advertisement.store.AdvertisementStore;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+import java.util.Optional;
+import static com.ucapital24.advertisement.AdvertisementFixtures.versioned;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+public class AdvertisementReplicatorUnitTest {
+
+    private static final Instant NOW = Instant.now();
+
+    @Mock
+    private AdvertisementStore advertisementStore;
+
+    private ReplayAdvertisementChangeSource changeSource;
+    private ActiveAdvertisementIndex index;
+    private AdvertisementCache cache;
+    private SimpleMeterRegistry meterRegistry;
+    private AdvertisementReplicator replicator;
+
+    @BeforeEach
+    public void setUp() {
+        changeSource = new ReplayAdvertisementChangeSource(3);
+        index = new ActiveAdvertisementIndex();
+        cache = new AdvertisementCache(100, Duration.ofMinutes(1), Duration.ofMinutes(1));
+        meterRegistry = new SimpleMeterRegistry();
+        replicator = new AdvertisementReplicator(changeSource, advertisementStore, List.of(index, cache),
+                Duration.ofMillis(10), meterRegistry);
+    }
+
+    @Test
+    void step_appliesChanges_OK() throws InterruptedException {
+        when(advertisementStore.findAll()).thenReturn(List.of(versioned("ad1", 1, NOW)));
+
+        replicator.step();
+        assertEquals(1, index.size());
+        cache.get("ad1", id -> Optional.of(versioned("ad1", 1, NOW).toVersionedAdvertisement()));
+
+        changeSource.publishUpsert(versioned("ad2", 1, NOW));
+        changeSource.publishUpsert(versioned("ad1", 2, NOW));
+        changeSource.publishDelete("ad2");
+        replicator.step();
+        replicator.step();
+        replicator.step();
+
+        assertEquals(1, index.size());
+        assertEquals(2, cache.get("ad1", id -> Optional.empty()).map(VersionedAdvertisement::version).orElse(0L));
+        assertEquals("3", replicator.resumeToken());
+        assertEquals(2, meterRegistry.counter("advertisement.replication.changes", "type", "UPSERT").count());
+        verify(advertisementStore, times(1)).findAll();
+    }
+
+    @Test
+    void step_resumesAfterToken_OK() throws InterruptedException {
+        when(advertisementStore.findAll()).thenReturn(List.of());
+        replicator.step();
+        changeSource.publishUpsert(versioned("ad1", 1, NOW));
+        replicator.step();
+
+        // a new replicator on the same token, as after the stream broke
+        String token = replicator.resumeToken();
+        changeSource.publishUpsert(versioned("ad2", 1, NOW));
+        AdvertisementChangeStream stream = changeSource.open(token);
+
+        assertEquals("ad2", stream.poll(Duration.ZERO).id());
+        verify(advertisementStore, times(1)).findAll();
+    }
+
+    @Test
+    void step_tokenLost_reloads() throws InterruptedException {
+        when(advertisementStore.findAll()).thenReturn(List.of());
+        replicator.step();
+
+        for (int i = 0; i < 5; i++) {
+            changeSource.publishUpsert(versioned("ad" + i, 1, NOW));
+        }
+        when(advertisementStore.findAll()).thenReturn(List.of(versioned("ad0", 1, NOW), versioned("ad4", 1, NOW)));
+        replicator.step();
+        replicator.step();
+
+        assertEquals(2, index.size());
+        assertEquals(2, meterRegistry.counter("advertisement.replication.reloads").count());
+        assertEquals("5", replicator.resumeToken());
+    }
+
+    @Test
+    void open_expiredToken_KO() {
+        for (int i = 0; i < 5; i++) {
+            changeSource.publishDelete("ad" + i);
+        }
+
+        changeSource.open("2");
+        assertTrue(assertThrows(ResumeTokenLostException.class,
+                () -> changeSource.open("1")).getMessage().contains("no longer in the history"));
+    }
+}
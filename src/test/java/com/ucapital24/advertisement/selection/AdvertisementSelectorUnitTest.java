@@ -0,0 +1,165 @@
+package com.ucapital24.advertisement.selection;
+
+import com.ucapital24.advertisement.dao.AdvertisementDocument;
+import com.ucapital24.advertisement.lifecycle.AdvertisementLifecycleEvent;
+import com.ucapital24.advertisement.model.Advertisement;
+import com.ucapital24.advertisement.model.AdvertisementMediaType;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import java.time.Clock;
+import java.time.Instant;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ThreadLocalRandom;
+import static com.ucapital24.advertisement.AdvertisementFixtures.document;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.lenient;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+public class AdvertisementSelectorUnitTest {
+
+    private static final Instant NOW = Instant.parse("2029-04-01T10:00:00Z");
+
+    @Mock
+    private Clock clock;
+
+    private AdvertisementSelector selector;
+
+    @BeforeEach
+    public void setUp() {
+        lenient().when(clock.millis()).thenReturn(NOW.toEpochMilli());
+        selector = new AdvertisementSelector(clock);
+    }
+
+    @Test
+    void select_proportionalToWeight_OK() {
+        selector.reload(List.of(
+                document("light", AdvertisementMediaType.IMAGE, 1, NOW.minusSeconds(60), NOW.plusSeconds(60)),
+                document("heavy", AdvertisementMediaType.IMAGE, 3, NOW.minusSeconds(60), NOW.plusSeconds(60)),
+                document("unweighted", AdvertisementMediaType.VIDEO, null, NOW.minusSeconds(60), NOW.plusSeconds(60))));
+
+        Map<String, Integer> counts = new HashMap<>();
+        for (int i = 0; i < 40_000; i++) {
+            counts.merge(selector.select(null).id(), 1, Integer::sum);
+        }
+
+        assertEquals(0.2, counts.get("light") / 40_000.0, 0.02);
+        assertEquals(0.6, counts.get("heavy") / 40_000.0, 0.02);
+        assertEquals(0.2, counts.get("unweighted") / 40_000.0, 0.02);
+        assertEquals("unweighted", selector.select(AdvertisementMediaType.VIDEO).id());
+    }
+
+    @Test
+    void select_afterWrites_OK() {
+        selector.put(document("ad1", AdvertisementMediaType.IMAGE, 1, NOW.minusSeconds(60), NOW.plusSeconds(60)));
+        assertEquals("ad1", selector.select(AdvertisementMediaType.IMAGE).id());
+
+        selector.put(document("ad1", AdvertisementMediaType.VIDEO, 1, NOW.minusSeconds(60), NOW.plusSeconds(60)));
+        assertNull(selector.select(AdvertisementMediaType.IMAGE));
+        assertEquals("ad1", selector.select(AdvertisementMediaType.VIDEO).id());
+
+        selector.remove("ad1");
+        assertNull(selector.select(AdvertisementMediaType.VIDEO));
+        assertNull(selector.select(null));
+    }
+
+    @Test
+    void select_readsOffHeapRecord_OK() {
+        AdvertisementDocument document = document("ad1", AdvertisementMediaType.IMAGE, 7, NOW.minusSeconds(60), NOW.plusSeconds(60));
+        selector.put(document);
+        document.setTitle("changed after the write");
+
+        Advertisement selected = selector.select(AdvertisementMediaType.IMAGE);
+
+        assertEquals("title ad1", selected.title());
+        assertEquals(7, selected.weight());
+        assertEquals(NOW.plusSeconds(60), selected.endDate());
+        assertNotSame(selected, selector.select(AdvertisementMediaType.IMAGE));
+    }
+
+    @Test
+    void select_endedBeforeExpiredEvent_dropsAdvertisement() {
+        selector.put(document("ending", AdvertisementMediaType.IMAGE, 1, NOW.minusSeconds(60), NOW.plusSeconds(60)));
+        selector.put(document("lasting", AdvertisementMediaType.IMAGE, 1, NOW.minusSeconds(60), NOW.plusSeconds(120)));
+
+        when(clock.millis()).thenReturn(NOW.plusSeconds(60).toEpochMilli());
+        for (int i = 0; i < 100; i++) {
+            assertEquals("lasting", selector.select(AdvertisementMediaType.IMAGE).id());
+        }
+        assertFalse(selector.contains("ending"));
+
+        when(clock.millis()).thenReturn(NOW.plusSeconds(120).toEpochMilli());
+        assertNull(selector.select(null));
+        assertFalse(selector.contains("lasting"));
+    }
+
+    @Test
+    void select_followsStartAndEndDates_OK() {
+        selector.reload(List.of(
+                document("current", AdvertisementMediaType.IMAGE, 1, NOW.minusSeconds(60), NOW.plusSeconds(60)),
+                document("next", AdvertisementMediaType.IMAGE, 1, NOW.plusSeconds(60), NOW.plusSeconds(120))));
+        for (int i = 0; i < 100; i++) {
+            assertEquals("current", selector.select(null).id());
+        }
+
+        when(clock.millis()).thenReturn(NOW.plusSeconds(60).toEpochMilli());
+        selector.onLifecycleEvent(new AdvertisementLifecycleEvent(AdvertisementLifecycleEvent.Type.EXPIRED, "current", NOW.plusSeconds(60)));
+        selector.onLifecycleEvent(new AdvertisementLifecycleEvent(AdvertisementLifecycleEvent.Type.ACTIVATED, "next", NOW.plusSeconds(60)));
+        for (int i = 0; i < 100; i++) {
+            assertEquals("next", selector.select(null).id());
+        }
+        assertFalse(selector.contains("current"));
+
+        when(clock.millis()).thenReturn(NOW.plusSeconds(120).toEpochMilli());
+        selector.onLifecycleEvent(new AdvertisementLifecycleEvent(AdvertisementLifecycleEvent.Type.EXPIRED, "next", NOW.plusSeconds(120)));
+        assertNull(selector.select(null));
+    }
+
+    @Test
+    void onLifecycleEvent_expiredThenExtended_keepsAdvertisement() {
+        selector.put(document("ad1", AdvertisementMediaType.IMAGE, 1, NOW.minusSeconds(60), NOW.plusSeconds(60)));
+
+        selector.onLifecycleEvent(new AdvertisementLifecycleEvent(AdvertisementLifecycleEvent.Type.EXPIRED, "ad1", NOW.minusSeconds(1)));
+
+        assertTrue(selector.contains("ad1"));
+        assertEquals("ad1", selector.select(AdvertisementMediaType.IMAGE).id());
+    }
+
+    @Test
+    void weightedSampler_proportionalAcrossWeightClasses_OK() {
+        AdvertisementSelector.WeightedSampler sampler = new AdvertisementSelector.WeightedSampler();
+        sampler.put("a", 1);
+        sampler.put("b", 3);
+        sampler.put("c", 4);
+        sampler.put("d", 10_000);
+        sampler.put("e", 2);
+        sampler.remove("d");
+        sampler.put("a", 2);
+
+        Map<String, Integer> counts = new HashMap<>();
+        for (int i = 0; i < 110_000; i++) {
+            counts.merge(sampler.sample(ThreadLocalRandom.current()), 1, Integer::sum);
+        }
+        assertEquals(4, sampler.size());
+        assertFalse(counts.containsKey("d"));
+        assertTrue(Math.abs(counts.get("a") - 20_000) < 1_500);
+        assertTrue(Math.abs(counts.get("b") - 30_000) < 1_500);
+        assertTrue(Math.abs(counts.get("c") - 40_000) < 2_000);
+        assertTrue(Math.abs(counts.get("e") - 20_000) < 1_500);
+
+        sampler.remove("a");
+        sampler.remove("b");
+        sampler.remove("c");
+        sampler.remove("e");
+        assertNull(sampler.sample(ThreadLocalRandom.current()));
+    }
+}
@@ -1,28 +1,79 @@
 package com.ucapital24.advertisement.service;
 
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ObjectNode;
 import com.ucapital24.advertisement.Exception.AdvertisementNotFoundException;
+import com.ucapital24.advertisement.Exception.ConflictException;
 import com.ucapital24.advertisement.Exception.GenericException;
+import com.ucapital24.advertisement.Exception.PreconditionFailedException;
+import com.ucapital24.advertisement.Exception.ValidationException;
+import com.ucapital24.advertisement.cache.AdvertisementCache;
+import com.ucapital24.advertisement.cache.HotPageCache;
+import com.ucapital24.advertisement.cache.SingleFlight;
 import com.ucapital24.advertisement.dao.AdvertisementDocument;
-import com.ucapital24.advertisement.dao.AdvertisementRepository;
+import com.ucapital24.advertisement.dao.AdvertisementPageQuery;
+import com.ucapital24.advertisement.dao.AdvertisementSearchCriteria;
+import com.ucapital24.advertisement.dao.AdvertisementWriteResult;
+import com.ucapital24.advertisement.index.ActiveAdvertisementIndex;
+import com.ucapital24.advertisement.lifecycle.AdvertisementLifecycleScheduler;
 import com.ucapital24.advertisement.model.Advertisement;
+import com.ucapital24.advertisement.model.AdvertisementBatch;
 import com.ucapital24.advertisement.model.AdvertisementMediaType;
+import com.ucapital24.advertisement.model.AdvertisementPatch;
+import com.ucapital24.advertisement.model.AdvertisementPersistence;
+import com.ucapital24.advertisement.model.AdvertisementSearchPage;
+import com.ucapital24.advertisement.model.AdvertisementSlice;
+import com.ucapital24.advertisement.model.BulkItemResult;
+import com.ucapital24.advertisement.model.BulkItemStatus;
+import com.ucapital24.advertisement.model.BulkOperation;
+import com.ucapital24.advertisement.model.BulkOperationType;
+import com.ucapital24.advertisement.model.PersistenceStatus;
+import com.ucapital24.advertisement.model.ScrollOrder;
+import com.ucapital24.advertisement.model.VersionedAdvertisement;
+import com.ucapital24.advertisement.selection.AdvertisementSelector;
+import com.ucapital24.advertisement.store.AdvertisementStore;
+import com.ucapital24.advertisement.writebehind.AdvertisementWriteBehindQueue;
+import org.bson.Document;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
+import org.mockito.Spy;
 import org.mockito.junit.jupiter.MockitoExtension;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageImpl;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.SliceImpl;
+import org.springframework.data.domain.Sort;
+import org.springframework.test.util.ReflectionTestUtils;
+import java.time.Clock;
+import java.time.Duration;
 import java.time.Instant;
 import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Date;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
 import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.argThat;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
@@ -31,10 +82,37 @@ public class AdvertisementServiceUnitTest {
 
     private Advertisement advertisement;
     private AdvertisementDocument document;
-    private String docId;
+    private String docId = "doc-id";
 
     @Mock
-    private AdvertisementRepository advertisementRepository;
+    private AdvertisementStore advertisementStore;
+
+    @Mock
+    private ActiveAdvertisementIndex activeAdvertisementIndex;
+
+    @Mock
+    private AdvertisementLifecycleScheduler advertisementLifecycleScheduler;
+
+    @Mock
+    private HotPageCache hotPageCache;
+
+    @Mock
+    private AdvertisementSelector advertisementSelector;
+
+    @Mock
+    private AdvertisementWriteBehindQueue advertisementWriteBehindQueue;
+
+    @Spy
+    private AdvertisementValidator advertisementValidator = new AdvertisementValidator(Clock.systemUTC());
+
+    @Spy
+    private ObjectMapper objectMapper = new ObjectMapper().findAndRegisterModules();
+
+    @Spy
+    private SingleFlight<AdvertisementPageQuery, Page<VersionedAdvertisement>> advertisementPageQueries = new SingleFlight<>("advertisement.page");
+
+    @Spy
+    private AdvertisementCache advertisementCache = new AdvertisementCache(100, Duration.ofMinutes(1), Duration.ofMinutes(1));
 
     @InjectMocks
     private AdvertisementService advertisementService;
@@ -65,17 +143,120 @@ public class AdvertisementServiceUnitTest {
     @Test
     void getAdvertisements_OK() {
         Pageable pageable = PageRequest.of(0, 10);
-        when(advertisementRepository.findAll(pageable)).thenReturn(new PageImpl<>(List.of(document)));
+        when(advertisementStore.findAll(pageable)).thenReturn(new PageImpl<>(List.of(document)));
 
         Page<Advertisement> result = advertisementService.getAdvertisements(pageable);
 
         assertEquals(1, result.getTotalElements());
         assertEquals(advertisement.title(), result.getContent().get(0).title());
+        assertEquals(1, advertisementPageQueries.executedCount());
+    }
+
+    @Test
+    void getVersionedAdvertisements_afterWrite_doesNotJoinEarlierQuery() throws Exception {
+        Pageable pageable = PageRequest.of(0, 10);
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        when(hotPageCache.generation()).thenReturn(0L, 1L);
+        when(advertisementStore.findAll(pageable)).thenAnswer(invocation -> {
+            if (started.getCount() > 0) {
+                started.countDown();
+                release.await();
+            }
+            return new PageImpl<>(List.of(document));
+        });
+        ExecutorService executor = Executors.newFixedThreadPool(2);
+        try {
+            Future<Page<VersionedAdvertisement>> beforeWrite = executor.submit(() ->
+                    advertisementService.getVersionedAdvertisements(pageable, null, null));
+            assertTrue(started.await(5, TimeUnit.SECONDS));
+            Future<Page<VersionedAdvertisement>> afterWrite = executor.submit(() ->
+                    advertisementService.getVersionedAdvertisements(pageable, null, null));
+
+            assertEquals(1, afterWrite.get(5, TimeUnit.SECONDS).getTotalElements());
+            release.countDown();
+            assertEquals(1, beforeWrite.get(5, TimeUnit.SECONDS).getTotalElements());
+        } finally {
+            executor.shutdownNow();
+        }
+
+        assertEquals(2, advertisementPageQueries.executedCount());
+    }
+
+    @Test
+    void exportAdvertisements_OK() {
+        when(advertisementStore.streamAllBy()).thenReturn(Stream.of(document, document));
+        List<Advertisement> exported = new ArrayList<>();
+
+        long count = advertisementService.exportAdvertisements(exported::add);
+
+        assertEquals(2, count);
+        assertEquals(advertisement.title(), exported.get(1).title());
+    }
+
+    @Test
+    void scrollAdvertisements_OK() {
+        Pageable pageable = PageRequest.of(0, 1, Sort.by("startDate", "id"));
+        when(advertisementStore.findAllBy(pageable)).thenReturn(new SliceImpl<>(List.of(document), pageable, true));
+        when(advertisementStore.findAfterStartDate(eq(document.getStartDate().truncatedTo(ChronoUnit.MILLIS)), eq(docId), eq(pageable)))
+                .thenReturn(new SliceImpl<>(List.of(document), pageable, false));
+
+        AdvertisementSlice first = advertisementService.scrollAdvertisements(null, ScrollOrder.START_DATE, 1);
+        AdvertisementSlice second = advertisementService.scrollAdvertisements(first.nextCursor(), ScrollOrder.ID, 1);
+
+        assertTrue(first.hasNext());
+        assertEquals(advertisement.title(), first.content().get(0).title());
+        assertFalse(second.hasNext());
+        assertNull(second.nextCursor());
+    }
+
+    @Test
+    void scrollAdvertisements_invalidCursor_KO() {
+        assertThrows(ValidationException.class, () ->
+                advertisementService.scrollAdvertisements("not-a-cursor", ScrollOrder.ID, 10));
+    }
+
+    @Test
+    void searchAdvertisements_OK() {
+        var criteria = new AdvertisementSearchCriteria(AdvertisementMediaType.IMAGE, null, null, "Title", null);
+        Instant endDate = Instant.parse("2030-01-01T00:00:00Z");
+        List<Document> documents = List.of(
+                new Document("title", "Title 1").append("end_date", Date.from(endDate)),
+                new Document("title", "Title 2").append("end_date", Date.from(endDate)),
+                new Document("title", "Title 3").append("end_date", Date.from(endDate)));
+        when(advertisementStore.search(criteria, List.of("title", "end_date"), 2, 3)).thenReturn(new ArrayList<>(documents));
+
+        AdvertisementSearchPage result = advertisementService.searchAdvertisements(criteria, List.of("title", "end_date"), 1, 2);
+
+        assertEquals(2, result.content().size());
+        assertEquals("Title 1", result.content().get(0).get("title"));
+        assertEquals(endDate, result.content().get(0).get("end_date"));
+        assertTrue(result.hasNext());
+    }
+
+    @Test
+    void searchAdvertisements_allFields_OK() {
+        var criteria = new AdvertisementSearchCriteria(null, null, null, null, null);
+        when(advertisementStore.search(criteria, AdvertisementDocument.FIELDS, 0, 11)).thenReturn(List.of());
+
+        AdvertisementSearchPage result = advertisementService.searchAdvertisements(criteria, null, 0, 10);
+
+        assertTrue(result.content().isEmpty());
+        assertFalse(result.hasNext());
+    }
+
+    @Test
+    void searchAdvertisements_unknownField_KO() {
+        var criteria = new AdvertisementSearchCriteria(null, null, null, null, null);
+
+        var ex = assertThrows(ValidationException.class,
+                () -> advertisementService.searchAdvertisements(criteria, List.of("title", "password"), 0, 10));
+        assertEquals("unknown field: password", ex.getMessage());
     }
 
     @Test
     void getAdvertisement_OK() {
-        when(advertisementRepository.findById(docId)).thenReturn(Optional.of(document));
+        when(advertisementStore.findById(docId)).thenReturn(Optional.of(document));
 
         Advertisement result = advertisementService.getAdvertisement(docId);
 
@@ -84,62 +265,447 @@ public class AdvertisementServiceUnitTest {
 
     @Test
     void getAdvertisement_notFound_KO() {
-        when(advertisementRepository.findById("id-404")).thenReturn(Optional.empty());
+        when(advertisementStore.findById("id-404")).thenReturn(Optional.empty());
+
+        assertThrows(AdvertisementNotFoundException.class, () ->
+                advertisementService.getAdvertisement("id-404"));
+    }
+
+    @Test
+    void getAdvertisement_cached_OK() {
+        when(advertisementStore.findById(docId)).thenReturn(Optional.of(document));
+
+        advertisementService.getAdvertisement(docId);
+        Advertisement result = advertisementService.getAdvertisement(docId);
+
+        assertEquals(advertisement.title(), result.title());
+        verify(advertisementStore, times(1)).findById(docId);
+        assertEquals(1, advertisementCache.statistics().hitCount());
+        assertEquals(1, advertisementCache.statistics().missCount());
+    }
+
+    @Test
+    void getAdvertisement_concurrent_singleFindById() throws Exception {
+        CountDownLatch release = new CountDownLatch(1);
+        when(advertisementStore.findById(docId)).thenAnswer(invocation -> {
+            release.await();
+            return Optional.of(document);
+        });
+        ExecutorService executor = Executors.newFixedThreadPool(4);
+        try {
+            List<Future<Advertisement>> results = new ArrayList<>();
+            for (int i = 0; i < 4; i++) {
+                results.add(executor.submit(() -> advertisementService.getAdvertisement(docId)));
+            }
+            Thread.sleep(50);
+            release.countDown();
+            for (Future<Advertisement> result : results) {
+                assertEquals(advertisement.title(), result.get(5, TimeUnit.SECONDS).title());
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+
+        verify(advertisementStore, times(1)).findById(docId);
+    }
+
+    @Test
+    void getVersionedAdvertisement_OK() {
+        document.markModified(Instant.parse("2025-01-01T00:00:00Z"));
+        when(advertisementStore.findById(docId)).thenReturn(Optional.of(document));
+
+        VersionedAdvertisement first = advertisementService.getVersionedAdvertisement(docId);
+        VersionedAdvertisement second = advertisementService.getVersionedAdvertisement(docId);
+
+        assertEquals(1, first.version());
+        assertEquals("\"1-1735689600000\"", first.etag());
+        assertEquals(first.etag(), second.etag());
+        verify(advertisementStore, times(1)).findById(docId);
+    }
+
+    @Test
+    void getAdvertisement_notFoundCached_KO() {
+        when(advertisementStore.findById("id-404")).thenReturn(Optional.empty());
 
         assertThrows(AdvertisementNotFoundException.class, () ->
                 advertisementService.getAdvertisement("id-404"));
+        assertThrows(AdvertisementNotFoundException.class, () ->
+                advertisementService.getAdvertisement("id-404"));
+
+        verify(advertisementStore, times(1)).findById("id-404");
+    }
+
+    @Test
+    void getAdvertisementsByIds_OK() {
+        AdvertisementDocument other = new AdvertisementDocument("other-id", "Other title", "Other content",
+                "https://image.com/other.jpg", AdvertisementMediaType.VIDEO, document.getStartDate(), document.getEndDate());
+        when(advertisementStore.findById(docId)).thenReturn(Optional.of(document));
+        when(advertisementStore.findAllById(argThat(ids -> Set.of("id-404", "other-id").equals(Set.copyOf((Collection<String>) ids)))))
+                .thenReturn(List.of(other));
+
+        advertisementService.getAdvertisement(docId);
+        AdvertisementBatch first = advertisementService.getAdvertisements(List.of("id-404", docId, "other-id", docId));
+        AdvertisementBatch second = advertisementService.getAdvertisements(List.of("other-id", "id-404"));
+
+        assertEquals(List.of(docId, "other-id"), first.content().stream().map(Advertisement::id).toList());
+        assertEquals(List.of("id-404"), first.missingIds());
+        assertEquals(List.of("other-id"), second.content().stream().map(Advertisement::id).toList());
+        assertEquals(List.of("id-404"), second.missingIds());
+        verify(advertisementStore, times(1)).findAllById(any());
+    }
+
+    @Test
+    void updateAdvertisement_invalidatesCache_OK() {
+        when(advertisementStore.findById(docId)).thenReturn(Optional.of(document));
+        when(advertisementStore.replace(eq(docId), eq(null), any(), any())).thenReturn(document);
+
+        advertisementService.getAdvertisement(docId);
+        advertisementService.updateAdvertisement(docId, advertisement);
+        advertisementService.getAdvertisement(docId);
+
+        verify(advertisementCache).invalidate(docId);
+        verify(advertisementStore, times(2)).findById(docId);
+    }
+
+    @Test
+    void getActiveAdvertisements_OK() {
+        Instant now = Instant.now();
+        when(activeAdvertisementIndex.findActiveAt(now)).thenReturn(List.of(document.toAdvertisement()));
+
+        List<Advertisement> result = advertisementService.getActiveAdvertisements(now);
+
+        assertEquals(1, result.size());
+        assertEquals(advertisement.title(), result.get(0).title());
+    }
+
+    @Test
+    void getActiveAdvertisements_emptyWindow_KO() {
+        Instant now = Instant.now();
+
+        assertThrows(ValidationException.class, () ->
+                advertisementService.getActiveAdvertisements(now, now));
     }
 
     @Test
     void createAdvertisement_OK() {
-        when(advertisementRepository.save(any())).thenReturn(document);
+        when(advertisementStore.save(any())).thenReturn(document);
 
         Advertisement result = advertisementService.createAdvertisement(advertisement);
 
         assertEquals(advertisement.title(), result.title());
-        verify(advertisementRepository).save(any());
+        verify(advertisementStore).save(argThat(saved -> saved.getVersion() == 1L && saved.getLastModified() != null));
+        verify(activeAdvertisementIndex).put(document);
+    }
+
+    @Test
+    void createAdvertisement_invalid_KO() {
+        Advertisement invalid = new Advertisement(null, "T", advertisement.content(), advertisement.mediaUrl(),
+                advertisement.mediaType(), advertisement.startDate(), advertisement.endDate());
+
+        assertThrows(ValidationException.class, () ->
+                advertisementService.createAdvertisement(invalid));
+        verify(advertisementStore, times(0)).save(any());
     }
 
     @Test
     void createAdvertisement_genericException_KO() {
-        when(advertisementRepository.save(any())).thenThrow(new RuntimeException("MongoDb generic error"));
+        when(advertisementStore.save(any())).thenThrow(new RuntimeException("MongoDb generic error"));
 
         assertThrows(GenericException.class, () ->
                 advertisementService.createAdvertisement(advertisement));
     }
 
+    @Test
+    void bulkWrite_OK() {
+        ObjectNode valid = objectMapper.valueToTree(advertisement);
+        ObjectNode invalid = valid.deepCopy().put("title", "");
+        document.setVersion(4L);
+        when(advertisementStore.findAllById(Set.of(docId, "anyId"))).thenReturn(List.of(document));
+        when(advertisementStore.bulkWrite(any())).thenReturn(List.of(AdvertisementWriteResult.applied(), AdvertisementWriteResult.applied()));
+
+        List<BulkItemResult> results = advertisementService.bulkWrite(List.of(
+                new BulkOperation(BulkOperationType.CREATE, null, valid),
+                new BulkOperation(BulkOperationType.CREATE, null, invalid),
+                new BulkOperation(BulkOperationType.UPDATE, docId, valid),
+                new BulkOperation(BulkOperationType.DELETE, "anyId", null)));
+
+        assertEquals(BulkItemStatus.CREATED, results.get(0).status());
+        assertEquals(BulkItemStatus.INVALID, results.get(1).status());
+        assertEquals("Title length too short", results.get(1).errorMessage());
+        assertEquals(BulkItemStatus.UPDATED, results.get(2).status());
+        assertEquals(BulkItemStatus.NOT_FOUND, results.get(3).status());
+        verify(advertisementStore).bulkWrite(argThat(writes -> writes.size() == 2
+                && writes.get(1).expectedVersion() == 4L && writes.get(1).document().getVersion() == 5L));
+        verify(advertisementCache).invalidate(docId);
+    }
+
+    @Test
+    void bulkWrite_writeError_KO() {
+        ObjectNode valid = objectMapper.valueToTree(advertisement);
+        when(advertisementStore.bulkWrite(any())).thenReturn(List.of(AdvertisementWriteResult.applied(),
+                AdvertisementWriteResult.duplicateKey("E11000 duplicate key error")));
+
+        List<BulkItemResult> results = advertisementService.bulkWrite(List.of(
+                new BulkOperation(BulkOperationType.CREATE, null, valid),
+                new BulkOperation(BulkOperationType.CREATE, null, valid)));
+
+        assertEquals(BulkItemStatus.CREATED, results.get(0).status());
+        assertEquals(BulkItemStatus.FAILED, results.get(1).status());
+        assertEquals("E11000 duplicate key error", results.get(1).errorMessage());
+    }
+
+    @Test
+    void bulkWrite_concurrentWrites_KO() {
+        ObjectNode valid = objectMapper.valueToTree(advertisement);
+        AdvertisementDocument other = new AdvertisementDocument("other", document.getTitle(), document.getContent(),
+                document.getMediaUrl(), document.getMediaType(), document.getStartDate(), document.getEndDate());
+        when(advertisementStore.bulkWrite(any())).thenReturn(List.of(AdvertisementWriteResult.notMatched(), AdvertisementWriteResult.notMatched()));
+        // docId was deleted and other was modified between the read and the write
+        when(advertisementStore.findAllById(Set.of(docId, "other"))).thenReturn(List.of(document, other), List.of(other));
+
+        List<BulkItemResult> results = advertisementService.bulkWrite(List.of(
+                new BulkOperation(BulkOperationType.UPDATE, docId, valid),
+                new BulkOperation(BulkOperationType.DELETE, "other", null)));
+
+        assertEquals(BulkItemStatus.NOT_FOUND, results.get(0).status());
+        assertEquals(BulkItemStatus.CONFLICT, results.get(1).status());
+        verify(advertisementStore).bulkWrite(argThat(writes -> writes.get(1).expectedVersion() == 0L));
+        verify(activeAdvertisementIndex, times(0)).put(any());
+        verify(activeAdvertisementIndex, times(0)).remove(any());
+    }
+
+    @Test
+    void bulkWrite_duplicateTargets_KO() {
+        ObjectNode valid = objectMapper.valueToTree(advertisement);
+
+        List<BulkItemResult> results = advertisementService.bulkWrite(List.of(
+                new BulkOperation(BulkOperationType.UPDATE, docId, valid),
+                new BulkOperation(BulkOperationType.DELETE, docId, null)));
+
+        assertEquals(BulkItemStatus.INVALID, results.get(0).status());
+        assertEquals(BulkItemStatus.INVALID, results.get(1).status());
+        assertEquals("_id is the target of several operations", results.get(1).errorMessage());
+        verify(advertisementStore, times(0)).findAllById(any());
+    }
+
+    @Test
+    void bulkWrite_tooManyOperations_KO() {
+        ReflectionTestUtils.setField(advertisementService, "bulkMaxOperations", 1);
+
+        ValidationException exception = assertThrows(ValidationException.class, () ->
+                advertisementService.bulkWrite(List.of(
+                        new BulkOperation(BulkOperationType.DELETE, "ad1", null),
+                        new BulkOperation(BulkOperationType.DELETE, "ad2", null))));
+
+        assertEquals("A bulk request holds at most 1 operations", exception.getMessage());
+        verify(advertisementStore, times(0)).bulkWrite(any());
+    }
+
+    @Test
+    void acceptAdvertisement_OK() {
+        AdvertisementPersistence accepted = advertisementService.acceptAdvertisement(advertisement);
+
+        assertEquals(PersistenceStatus.PENDING, accepted.status());
+        verify(advertisementWriteBehindQueue).enqueue(argThat(queued -> queued.getId().equals(accepted.id())
+                && !queued.getId().equals(docId) && queued.getVersion() == 1L));
+        verify(advertisementStore, times(0)).save(any());
+        verify(activeAdvertisementIndex, times(0)).put(any());
+    }
+
+    @Test
+    void acceptAdvertisement_invalid_KO() {
+        Advertisement invalid = new Advertisement(null, "T", advertisement.content(), advertisement.mediaUrl(),
+                advertisement.mediaType(), advertisement.startDate(), advertisement.endDate());
+
+        assertThrows(ValidationException.class, () ->
+                advertisementService.acceptAdvertisement(invalid));
+        verify(advertisementWriteBehindQueue, times(0)).enqueue(any());
+    }
+
+    @Test
+    void flushWriteBehindQueue_OK() {
+        AdvertisementDocument replayed = new AdvertisementDocument("replayed", "Replayed title", document.getContent(),
+                document.getMediaUrl(), document.getMediaType(), document.getStartDate(), document.getEndDate());
+        AdvertisementDocument rejected = new AdvertisementDocument("rejected", "Rejected title", document.getContent(),
+                document.getMediaUrl(), document.getMediaType(), document.getStartDate(), document.getEndDate());
+        when(advertisementWriteBehindQueue.peek(500)).thenReturn(List.of(document, replayed, rejected), List.of());
+        when(advertisementStore.bulkWrite(any())).thenReturn(List.of(AdvertisementWriteResult.applied(),
+                AdvertisementWriteResult.duplicateKey("E11000 duplicate key error"), AdvertisementWriteResult.failed("document too large")));
+        AdvertisementDocument stored = new AdvertisementDocument("replayed", "Updated title", document.getContent(),
+                document.getMediaUrl(), document.getMediaType(), document.getStartDate(), document.getEndDate());
+        stored.setVersion(2L);
+        when(advertisementStore.findAllById(List.of("replayed"))).thenReturn(List.of(stored));
+
+        assertEquals(2, advertisementService.flushWriteBehindQueue());
+
+        verify(advertisementStore).bulkWrite(argThat(writes -> writes.size() == 3
+                && writes.get(0).type() == BulkOperationType.CREATE && writes.get(0).document() == document));
+        verify(advertisementWriteBehindQueue).complete(List.of(docId, "replayed"), Map.of("rejected", "document too large"));
+        verify(activeAdvertisementIndex).put(document);
+        verify(activeAdvertisementIndex).put(stored);
+        verify(activeAdvertisementIndex, times(0)).put(replayed);
+        verify(activeAdvertisementIndex, times(0)).put(rejected);
+        verify(advertisementCache).invalidate(docId);
+    }
+
+    @Test
+    void flushWriteBehindQueue_storeDown_KO() {
+        when(advertisementWriteBehindQueue.peek(500)).thenReturn(List.of(document));
+        when(advertisementStore.bulkWrite(any())).thenThrow(new RuntimeException("MongoDb generic error"));
+
+        assertEquals(0, advertisementService.flushWriteBehindQueue());
+
+        verify(advertisementWriteBehindQueue).recordFlushFailure();
+        verify(advertisementWriteBehindQueue, times(0)).complete(any(), any());
+        verify(activeAdvertisementIndex, times(0)).put(any());
+    }
+
+    @Test
+    void flushWriteBehindQueue_duplicatesUnreadable_KO() {
+        AdvertisementDocument replayed = new AdvertisementDocument("replayed", "Replayed title", document.getContent(),
+                document.getMediaUrl(), document.getMediaType(), document.getStartDate(), document.getEndDate());
+        when(advertisementWriteBehindQueue.peek(500)).thenReturn(List.of(document, replayed), List.of(replayed));
+        when(advertisementStore.bulkWrite(any())).thenReturn(List.of(AdvertisementWriteResult.applied(),
+                AdvertisementWriteResult.duplicateKey("E11000 duplicate key error")));
+        when(advertisementStore.findAllById(List.of("replayed"))).thenThrow(new RuntimeException("MongoDb generic error"));
+
+        assertEquals(1, advertisementService.flushWriteBehindQueue());
+
+        verify(advertisementWriteBehindQueue, times(1)).peek(500);
+        verify(advertisementWriteBehindQueue).recordFlushFailure();
+        verify(advertisementWriteBehindQueue).complete(List.of(docId), Map.of());
+        verify(activeAdvertisementIndex).put(document);
+        verify(activeAdvertisementIndex, times(0)).put(replayed);
+    }
+
+    @Test
+    void getAdvertisementPersistence_OK() {
+        AdvertisementPersistence pending = new AdvertisementPersistence("queued", PersistenceStatus.PENDING, null);
+        when(advertisementWriteBehindQueue.status("queued")).thenReturn(pending);
+        when(advertisementStore.findById(docId)).thenReturn(Optional.of(document));
+        when(advertisementStore.findById("anyId")).thenReturn(Optional.empty());
+
+        assertEquals(pending, advertisementService.getAdvertisementPersistence("queued"));
+        assertEquals(new AdvertisementPersistence(docId, PersistenceStatus.PERSISTED, null),
+                advertisementService.getAdvertisementPersistence(docId));
+        assertThrows(AdvertisementNotFoundException.class, () ->
+                advertisementService.getAdvertisementPersistence("anyId"));
+    }
+
     @Test
     void deleteAdvertisement_OK() {
-        when(advertisementRepository.findById(docId)).thenReturn(Optional.of(document));
+        when(advertisementStore.deleteIfMatch(docId, null)).thenReturn(document);
 
         advertisementService.deleteAdvertisement(docId);
 
-        verify(advertisementRepository).delete(document);
+        verify(advertisementStore, times(0)).findById(any());
+        verify(advertisementCache).invalidate(docId);
+        verify(activeAdvertisementIndex).remove(docId);
     }
 
     @Test
     void deleteAdvertisement_notFound_KO() {
-        when(advertisementRepository.findById("anyId")).thenReturn(Optional.empty());
+        when(advertisementStore.findById("anyId")).thenReturn(Optional.empty());
 
         assertThrows(AdvertisementNotFoundException.class, () ->
                 advertisementService.deleteAdvertisement("anyId"));
     }
+
+    @Test
+    void deleteAdvertisement_versionMismatch_KO() {
+        document.setVersion(3L);
+        when(advertisementStore.findById(docId)).thenReturn(Optional.of(document));
+
+        assertThrows(PreconditionFailedException.class, () ->
+                advertisementService.deleteAdvertisement(docId, 2L));
+        verify(activeAdvertisementIndex, times(0)).remove(docId);
+    }
+
+    @Test
+    void deleteAdvertisement_concurrentlyRecreated_KO() {
+        when(advertisementStore.findById(docId)).thenReturn(Optional.of(document));
+
+        assertThrows(ConflictException.class, () ->
+                advertisementService.deleteAdvertisement(docId));
+        verify(activeAdvertisementIndex, times(0)).remove(docId);
+    }
+
     @Test
     void updateAdvertisement_OK() {
-        when(advertisementRepository.findById(docId)).thenReturn(Optional.of(document));
-        when(advertisementRepository.save(any())).thenReturn(document);
+        document.setVersion(5L);
+        when(advertisementStore.replace(eq(docId), eq(4L), eq(advertisement), any())).thenReturn(document);
 
-        Advertisement updated = advertisementService.updateAdvertisement(docId, advertisement);
+        VersionedAdvertisement updated = advertisementService.updateAdvertisement(docId, advertisement, 4L);
 
-        assertEquals(advertisement.title(), updated.title());
-        verify(advertisementRepository).save(any());
+        assertEquals(advertisement.title(), updated.advertisement().title());
+        assertEquals(5L, updated.version());
+        verify(advertisementStore, times(0)).findById(any());
+        verify(activeAdvertisementIndex).put(document);
     }
 
     @Test
     void updateAdvertisement_notFound_KO() {
-        when(advertisementRepository.findById("anyId")).thenReturn(Optional.empty());
+        when(advertisementStore.findById("anyId")).thenReturn(Optional.empty());
 
         assertThrows(AdvertisementNotFoundException.class, () ->
                 advertisementService.updateAdvertisement("anyId", advertisement));
     }
+
+    @Test
+    void updateAdvertisement_concurrentlyModified_KO() {
+        document.setVersion(4L);
+        when(advertisementStore.findById(docId)).thenReturn(Optional.of(document));
+
+        assertThrows(ConflictException.class, () ->
+                advertisementService.updateAdvertisement(docId, advertisement, 4L));
+        verify(activeAdvertisementIndex, times(0)).put(any());
+    }
+
+    @Test
+    void patchAdvertisement_OK() {
+        var patch = new AdvertisementPatch("New title", null, null, null, null, null, null);
+        when(advertisementStore.patch(eq(docId), eq(null), eq(patch), any())).thenReturn(document);
+
+        advertisementService.patchAdvertisement(docId, patch, null);
+
+        verify(advertisementCache).invalidate(docId);
+        verify(activeAdvertisementIndex).put(document);
+    }
+
+    @Test
+    void patchAdvertisement_empty_KO() {
+        var patch = new AdvertisementPatch(null, null, null, null, null, null, null);
+
+        var ex = assertThrows(ValidationException.class, () ->
+                advertisementService.patchAdvertisement(docId, patch, null));
+        assertEquals("patch has no field to update", ex.getMessage());
+    }
+
+    @Test
+    void patchAdvertisement_startAfterStoredEnd_KO() {
+        var patch = new AdvertisementPatch(null, null, null, null, document.getEndDate().plusSeconds(1), null, null);
+        when(advertisementStore.findById(docId)).thenReturn(Optional.of(document));
+
+        var ex = assertThrows(ValidationException.class, () ->
+                advertisementService.patchAdvertisement(docId, patch, null));
+        assertEquals("start_date should be before end_date", ex.getMessage());
+    }
+
+    @Test
+    void patchAdvertisement_versionMismatch_KO() {
+        var patch = new AdvertisementPatch("New title", null, null, null, null, null, null);
+        when(advertisementStore.findById(docId)).thenReturn(Optional.of(document));
+
+        assertThrows(PreconditionFailedException.class, () ->
+                advertisementService.patchAdvertisement(docId, patch, 7L));
+    }
+
+    @Test
+    void patchAdvertisement_validDatesConcurrentlyModified_KO() {
+        var patch = new AdvertisementPatch(null, null, null, null, document.getEndDate().minusSeconds(1), null, null);
+        when(advertisementStore.findById(docId)).thenReturn(Optional.of(document));
+
+        assertThrows(ConflictException.class, () ->
+                advertisementService.patchAdvertisement(docId, patch, null));
+    }
 }
@@ -0,0 +1,278 @@
+package com.ucapital24.advertisement.store;
+
+import com.ucapital24.advertisement.dao.AdvertisementDocument;
+import com.ucapital24.advertisement.dao.AdvertisementSearchCriteria;
+import com.ucapital24.advertisement.dao.AdvertisementWrite;
+import com.ucapital24.advertisement.dao.AdvertisementWriteResult;
+import com.ucapital24.advertisement.dao.AdvertisementWriteStatus;
+import com.ucapital24.advertisement.model.Advertisement;
+import com.ucapital24.advertisement.model.AdvertisementMediaType;
+import com.ucapital24.advertisement.model.AdvertisementPatch;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.bson.Document;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.Sort;
+import org.springframework.util.unit.DataSize;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.Instant;
+import java.util.Date;
+import java.util.List;
+import java.util.stream.Stream;
+
+import static com.ucapital24.advertisement.AdvertisementFixtures.document;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class LogAdvertisementStoreUnitTest {
+
+    private static final Instant NOW = Instant.parse("2030-01-01T00:00:00Z");
+    private static final DataSize SEGMENT_SIZE = DataSize.ofKilobytes(4);
+
+    @TempDir
+    Path directory;
+
+    private LogAdvertisementStore store;
+
+    @BeforeEach
+    public void setUp() throws IOException {
+        store = new LogAdvertisementStore(directory, SEGMENT_SIZE, false);
+    }
+
+    @AfterEach
+    public void tearDown() throws IOException {
+        store.close();
+    }
+
+    @Test
+    void saveAndFindById_OK() {
+        AdvertisementDocument document = document("ad1", AdvertisementMediaType.IMAGE, NOW, NOW.plusSeconds(60));
+        document.setWeight(3);
+        document.setVersion(2L);
+        document.setLastModified(NOW);
+        store.save(document);
+
+        assertEquals(document, store.findById("ad1").orElseThrow());
+        assertTrue(store.findById("ad2").isEmpty());
+        assertEquals(List.of(document), store.findAllById(List.of("ad2", "ad1")));
+    }
+
+    @Test
+    void reopen_replaysLog() throws IOException {
+        store.save(document("ad1", AdvertisementMediaType.IMAGE, NOW, NOW.plusSeconds(60)));
+        store.save(document("ad2", AdvertisementMediaType.VIDEO, NOW, NOW.plusSeconds(60)));
+        AdvertisementDocument updated = document("ad1", AdvertisementMediaType.VIDEO, NOW, NOW.plusSeconds(120));
+        store.save(updated);
+        store.deleteIfMatch("ad2", null);
+
+        reopen();
+
+        assertEquals(List.of(updated), store.findAll());
+    }
+
+    @Test
+    void reopen_discardsTornRecord() throws IOException {
+        store.save(document("ad1", AdvertisementMediaType.IMAGE, NOW, NOW.plusSeconds(60)));
+        store.save(document("ad2", AdvertisementMediaType.IMAGE, NOW, NOW.plusSeconds(60)));
+        store.close();
+        Path segment = segments().get(0);
+        long secondRecord = recordSize(segment, 0);
+        try (FileChannel channel = FileChannel.open(segment, StandardOpenOption.WRITE)) {
+            // corrupt the payload of the second record, as if the process died before it was fully written
+            channel.write(ByteBuffer.wrap(new byte[]{42}), secondRecord + 20);
+        }
+
+        store = new LogAdvertisementStore(directory, SEGMENT_SIZE, false);
+        assertEquals(List.of("ad1"), store.findAll().stream().map(AdvertisementDocument::getId).toList());
+
+        store.save(document("ad3", AdvertisementMediaType.IMAGE, NOW, NOW.plusSeconds(60)));
+        reopen();
+        assertEquals(List.of("ad1", "ad3"), store.findAll().stream().map(AdvertisementDocument::getId).toList());
+    }
+
+    @Test
+    void save_rollsSegments_andCompactsOnOpen() throws IOException {
+        for (int i = 0; i < 100; i++) {
+            store.save(document("ad1", AdvertisementMediaType.IMAGE, NOW, NOW.plusSeconds(i)));
+        }
+        assertTrue(segments().size() > 2);
+
+        reopen();
+
+        assertEquals(1, segments().size());
+        assertEquals(NOW.plusSeconds(99), store.findById("ad1").orElseThrow().getEndDate());
+        store.save(document("ad2", AdvertisementMediaType.IMAGE, NOW, NOW.plusSeconds(60)));
+        reopen();
+        assertEquals(2, store.findAll().size());
+    }
+
+    @Test
+    void findAll_pagedAndSorted_OK() {
+        store.save(document("ad3", AdvertisementMediaType.IMAGE, NOW.plusSeconds(1), NOW.plusSeconds(60)));
+        store.save(document("ad1", AdvertisementMediaType.VIDEO, NOW.plusSeconds(2), NOW.plusSeconds(60)));
+        store.save(document("ad2", AdvertisementMediaType.IMAGE, NOW.plusSeconds(3), NOW.plusSeconds(60)));
+
+        Page<AdvertisementDocument> page = store.findAll(PageRequest.of(0, 2));
+        assertEquals(List.of("ad1", "ad2"), ids(page.getContent()));
+        assertEquals(3, page.getTotalElements());
+        assertEquals(List.of("ad2", "ad1"), ids(store.findAll(PageRequest.of(0, 2, Sort.by(Sort.Direction.DESC, "startDate"))).getContent()));
+        assertEquals(List.of("ad2", "ad3"), ids(store.findByMediaType(AdvertisementMediaType.IMAGE, Pageable.unpaged()).getContent()));
+        assertEquals(List.of("ad3"), ids(store.findActiveAt(NOW.plusSeconds(1), PageRequest.of(0, 10)).getContent()));
+    }
+
+    @Test
+    void scroll_OK() {
+        store.save(document("ad1", AdvertisementMediaType.IMAGE, NOW.plusSeconds(2), NOW.plusSeconds(60)));
+        store.save(document("ad2", AdvertisementMediaType.IMAGE, NOW.plusSeconds(1), NOW.plusSeconds(60)));
+        store.save(document("ad3", AdvertisementMediaType.IMAGE, NOW.plusSeconds(1), NOW.plusSeconds(60)));
+        Pageable byStartDate = PageRequest.of(0, 2, Sort.by("startDate", "id"));
+
+        Slice<AdvertisementDocument> first = store.findAllBy(byStartDate);
+        assertEquals(List.of("ad2", "ad3"), ids(first.getContent()));
+        assertTrue(first.hasNext());
+        Slice<AdvertisementDocument> second = store.findAfterStartDate(NOW.plusSeconds(1), "ad3", byStartDate);
+        assertEquals(List.of("ad1"), ids(second.getContent()));
+        assertFalse(second.hasNext());
+        assertEquals(List.of("ad2", "ad3"), ids(store.findByIdGreaterThan("ad1", PageRequest.of(0, 2, Sort.by("id"))).getContent()));
+    }
+
+    @Test
+    void search_OK() {
+        store.save(document("ad1", AdvertisementMediaType.IMAGE, NOW, NOW.plusSeconds(60)));
+        AdvertisementDocument summer = document("ad2", AdvertisementMediaType.IMAGE, NOW, NOW.plusSeconds(60));
+        summer.setTitle("Summer Sale");
+        store.save(summer);
+
+        List<Document> documents = store.search(new AdvertisementSearchCriteria(AdvertisementMediaType.IMAGE, NOW, NOW.plusSeconds(1), null, "SALE"),
+                List.of("end_date", "title", "media_type"), 0, 10);
+
+        assertEquals(List.of(new Document("title", "Summer Sale").append("media_type", "IMAGE").append("end_date", Date.from(NOW.plusSeconds(60)))),
+                documents);
+        assertEquals(List.of("title", "media_type", "end_date"), List.copyOf(documents.get(0).keySet()));
+        assertEquals(List.of(new Document("_id", "ad1")),
+                store.search(new AdvertisementSearchCriteria(null, null, null, "title", null), List.of("_id"), 0, 10));
+    }
+
+    @Test
+    void bulkWrite_OK() {
+        store.save(document("ad1", AdvertisementMediaType.IMAGE, NOW, NOW.plusSeconds(60)));
+        AdvertisementDocument ad4 = document("ad4", AdvertisementMediaType.IMAGE, NOW, NOW.plusSeconds(60));
+        ad4.setVersion(2L);
+        store.save(ad4);
+
+        List<AdvertisementWriteResult> results = store.bulkWrite(List.of(
+                AdvertisementWrite.insert(document("ad1", AdvertisementMediaType.IMAGE, NOW, NOW.plusSeconds(60))),
+                AdvertisementWrite.insert(document("ad2", AdvertisementMediaType.IMAGE, NOW, NOW.plusSeconds(60))),
+                AdvertisementWrite.replace(document("ad3", AdvertisementMediaType.IMAGE, NOW, NOW.plusSeconds(60)), null),
+                AdvertisementWrite.delete("ad1", 0L),
+                AdvertisementWrite.delete("ad4", 1L)));
+
+        assertEquals(List.of(AdvertisementWriteStatus.DUPLICATE_KEY, AdvertisementWriteStatus.APPLIED, AdvertisementWriteStatus.NOT_MATCHED,
+                AdvertisementWriteStatus.APPLIED, AdvertisementWriteStatus.NOT_MATCHED), results.stream().map(AdvertisementWriteResult::status).toList());
+        assertEquals(List.of("ad2", "ad4"), ids(store.findAll()));
+    }
+
+    @Test
+    void patch_OK() {
+        store.save(document("ad1", AdvertisementMediaType.IMAGE, NOW, NOW.plusSeconds(60)));
+
+        AdvertisementDocument patched = store.patch("ad1", 0L, new AdvertisementPatch("new title", null, null, null, null, null, 5),
+                NOW.plusNanos(1_500_000));
+
+        assertEquals("new title", patched.getTitle());
+        assertEquals(5, patched.getWeight());
+        assertEquals(1L, patched.getVersion());
+        assertEquals(NOW.plusMillis(1), patched.getLastModified());
+        assertEquals(patched, store.findById("ad1").orElseThrow());
+    }
+
+    @Test
+    void replace_OK() {
+        AdvertisementDocument stored = document("ad1", AdvertisementMediaType.IMAGE, NOW, NOW.plusSeconds(60));
+        stored.setWeight(5);
+        store.save(stored);
+
+        AdvertisementDocument replaced = store.replace("ad1", 0L, new Advertisement(null, "new title", "new content",
+                "https://example.com/new.mp4", AdvertisementMediaType.VIDEO, NOW, NOW.plusSeconds(120)), NOW);
+
+        assertEquals("new title", replaced.getTitle());
+        assertEquals(AdvertisementMediaType.VIDEO, replaced.getMediaType());
+        assertNull(replaced.getWeight());
+        assertEquals(1L, replaced.getVersion());
+        assertEquals(replaced, store.findById("ad1").orElseThrow());
+        assertNull(store.replace("ad1", 0L, replaced.toAdvertisement(), NOW));
+    }
+
+    @Test
+    void patch_conflict_KO() {
+        store.save(document("ad1", AdvertisementMediaType.IMAGE, NOW, NOW.plusSeconds(60)));
+
+        assertNull(store.patch("ad1", 3L, new AdvertisementPatch("new title", null, null, null, null, null, null), NOW));
+        assertNull(store.patch("ad1", null, new AdvertisementPatch(null, null, null, null, NOW.plusSeconds(61), null, null), NOW));
+        assertNull(store.patch("ad2", null, new AdvertisementPatch("new title", null, null, null, null, null, null), NOW));
+        assertNull(store.deleteIfMatch("ad1", 3L));
+        assertEquals("title ad1", store.findById("ad1").orElseThrow().getTitle());
+    }
+
+    @Test
+    void archiveEndedBefore_OK() throws IOException {
+        store.save(document("ad1", AdvertisementMediaType.IMAGE, NOW, NOW.plusSeconds(20)));
+        store.save(document("ad2", AdvertisementMediaType.IMAGE, NOW, NOW.plusSeconds(10)));
+        store.save(document("ad3", AdvertisementMediaType.IMAGE, NOW, NOW.plusSeconds(60)));
+
+        List<AdvertisementDocument> archived = store.archiveEndedBefore(NOW.plusSeconds(30), 10, NOW.plusSeconds(30));
+
+        assertEquals(List.of("ad2", "ad1"), ids(archived));
+        reopen();
+        assertEquals(List.of("ad3"), ids(store.findAll()));
+        assertTrue(Files.size(directory.resolve("archive").resolve(String.format("%020d.log", 1))) > 0);
+    }
+
+    @Test
+    void bindTo_OK() {
+        SimpleMeterRegistry registry = new SimpleMeterRegistry();
+        store.bindTo(registry);
+        store.save(document("ad1", AdvertisementMediaType.IMAGE, NOW, NOW.plusSeconds(60)));
+
+        assertEquals(1, registry.get("advertisement.store.log.advertisements").gauge().value());
+        assertEquals(1, registry.get("advertisement.store.log.segments").gauge().value());
+        assertTrue(registry.get("advertisement.store.log.bytes").gauge().value() > 0);
+    }
+
+    private void reopen() throws IOException {
+        store.close();
+        store = new LogAdvertisementStore(directory, SEGMENT_SIZE, false);
+    }
+
+    private List<Path> segments() throws IOException {
+        try (Stream<Path> files = Files.list(directory)) {
+            return files.filter(path -> path.toString().endsWith(".log")).sorted().toList();
+        }
+    }
+
+    private static int recordSize(Path segment, int offset) throws IOException {
+        try (FileChannel channel = FileChannel.open(segment, StandardOpenOption.READ)) {
+            ByteBuffer length = ByteBuffer.allocate(4);
+            channel.read(length, offset);
+            return AppendLog.HEADER_SIZE + length.getInt(0);
+        }
+    }
+
+    private static List<String> ids(List<AdvertisementDocument> documents) {
+        return documents.stream().map(AdvertisementDocument::getId).toList();
+    }
+}
@@ -0,0 +1,174 @@
+package com.ucapital24.advertisement.tracking;
+
+import com.mongodb.MongoBulkWriteException;
+import com.mongodb.ServerAddress;
+import com.mongodb.bulk.BulkWriteError;
+import com.mongodb.bulk.BulkWriteResult;
+import com.ucapital24.advertisement.dao.AdvertisementDeliveryRepository;
+import com.ucapital24.advertisement.dao.DeliveryIncrement;
+import com.ucapital24.advertisement.model.DeliveryEventType;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.bson.BsonDocument;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.mongodb.BulkOperationException;
+import java.time.Clock;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.atLeastOnce;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+
+@ExtendWith(MockitoExtension.class)
+public class DeliveryTrackerUnitTest {
+
+    private static final Instant MINUTE = Instant.parse("2029-04-01T10:15:00Z");
+
+    @Mock
+    private AdvertisementDeliveryRepository deliveryRepository;
+
+    private MutableClock clock;
+    private SimpleMeterRegistry meterRegistry;
+    private DeliveryTracker tracker;
+
+    @BeforeEach
+    public void setUp() {
+        clock = new MutableClock(MINUTE.plusSeconds(5));
+        meterRegistry = new SimpleMeterRegistry();
+        tracker = new DeliveryTracker(deliveryRepository, clock, 2, meterRegistry);
+    }
+
+    @Test
+    void flush_aggregatesPerAdAndMinute_OK() {
+        tracker.record("ad1", DeliveryEventType.IMPRESSION, 1);
+        tracker.record("ad1", DeliveryEventType.IMPRESSION, 2);
+        tracker.record("ad1", DeliveryEventType.CLICK, 1);
+        clock.instant = MINUTE.plusSeconds(65);
+        tracker.record("ad1", DeliveryEventType.IMPRESSION, 1);
+
+        assertEquals(2, tracker.flush());
+
+        List<DeliveryIncrement> written = captureWrites(1);
+        assertTrue(written.contains(new DeliveryIncrement("ad1", MINUTE, 3, 1)));
+        assertTrue(written.contains(new DeliveryIncrement("ad1", MINUTE.plusSeconds(60), 1, 0)));
+        assertEquals(0, tracker.flush());
+    }
+
+    @Test
+    void flush_dropsClosedMinutes_OK() {
+        tracker.record("ad1", DeliveryEventType.IMPRESSION, 1);
+        tracker.flush();
+        assertEquals(1, meterRegistry.get("advertisement.delivery.buckets").gauge().value());
+
+        clock.instant = MINUTE.plusSeconds(125);
+        tracker.flush();
+
+        assertEquals(0, meterRegistry.get("advertisement.delivery.buckets").gauge().value());
+    }
+
+    @Test
+    void flush_writeError_retriedOnNextFlush() {
+        doThrow(new RuntimeException("write failed")).when(deliveryRepository).increment(any());
+        tracker.record("ad1", DeliveryEventType.CLICK, 4);
+
+        assertEquals(0, tracker.flush());
+        assertEquals(1, meterRegistry.counter("advertisement.delivery.flush.failures").count());
+
+        List<DeliveryIncrement> retried = new ArrayList<>();
+        doAnswer(invocation -> retried.addAll(invocation.getArgument(0))).when(deliveryRepository).increment(any());
+        assertEquals(1, tracker.flush());
+        assertEquals(List.of(new DeliveryIncrement("ad1", MINUTE, 0, 4)), retried);
+    }
+
+    @Test
+    void flush_partialWriteError_retriesRejectedCountsOnly() {
+        List<List<DeliveryIncrement>> batches = new ArrayList<>();
+        doAnswer(invocation -> {
+            List<DeliveryIncrement> batch = List.copyOf(invocation.getArgument(0));
+            batches.add(batch);
+            if (batches.size() == 1) {
+                BulkWriteError error = new BulkWriteError(11000, "write rejected", new BsonDocument(), 1);
+                throw new BulkOperationException("write rejected", new MongoBulkWriteException(
+                        BulkWriteResult.unacknowledged(), List.of(error), null, new ServerAddress(), Set.of()));
+            }
+            return null;
+        }).when(deliveryRepository).increment(any());
+        tracker.record("ad1", DeliveryEventType.IMPRESSION, 2);
+        tracker.record("ad2", DeliveryEventType.CLICK, 3);
+
+        assertEquals(1, tracker.flush());
+        assertEquals(1, meterRegistry.counter("advertisement.delivery.flush.failures").count());
+
+        assertEquals(1, tracker.flush());
+        assertEquals(List.of(batches.get(0).get(1)), batches.get(1));
+    }
+
+    @Test
+    void record_concurrently_noEventLost() throws InterruptedException {
+        ExecutorService executor = Executors.newFixedThreadPool(8);
+        for (int thread = 0; thread < 8; thread++) {
+            executor.execute(() -> {
+                for (int i = 0; i < 10_000; i++) {
+                    tracker.record("ad" + (i % 4), DeliveryEventType.IMPRESSION, 1);
+                    if (i % 1000 == 0) {
+                        tracker.flush();
+                    }
+                }
+            });
+        }
+        executor.shutdown();
+        assertTrue(executor.awaitTermination(30, TimeUnit.SECONDS));
+        tracker.flush();
+
+        ArgumentCaptor<List<DeliveryIncrement>> captor = ArgumentCaptor.captor();
+        verify(deliveryRepository, atLeastOnce()).increment(captor.capture());
+        long impressions = captor.getAllValues().stream().flatMap(List::stream).mapToLong(DeliveryIncrement::impressions).sum();
+        assertEquals(80_000, impressions);
+    }
+
+    private List<DeliveryIncrement> captureWrites(int times) {
+        ArgumentCaptor<List<DeliveryIncrement>> captor = ArgumentCaptor.captor();
+        verify(deliveryRepository, times(times)).increment(captor.capture());
+        return captor.getAllValues().stream().flatMap(List::stream).toList();
+    }
+
+    private static final class MutableClock extends Clock {
+
+        private volatile Instant instant;
+
+        private MutableClock(Instant instant) {
+            this.instant = instant;
+        }
+
+        @Override
+        public ZoneId getZone() {
+            return ZoneOffset.UTC;
+        }
+
+        @Override
+        public Clock withZone(ZoneId zone) {
+            return this;
+        }
+
+        @Override
+        public Instant instant() {
+            return instant;
+        }
+    }
+}
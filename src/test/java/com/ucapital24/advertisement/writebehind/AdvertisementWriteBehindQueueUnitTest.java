@@ -0,0 +1,134 @@
+package com.ucapital24.advertisement.writebehind;
+
+import com.ucapital24.advertisement.Exception.ServiceOverloadedException;
+import com.ucapital24.advertisement.dao.AdvertisementDocument;
+import com.ucapital24.advertisement.model.AdvertisementPersistence;
+import com.ucapital24.advertisement.model.PersistenceStatus;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.util.unit.DataSize;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Stream;
+
+import static com.ucapital24.advertisement.AdvertisementFixtures.document;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+public class AdvertisementWriteBehindQueueUnitTest {
+
+    private static final Instant NOW = Instant.parse("2030-01-01T00:00:00Z");
+    private static final DataSize SEGMENT_SIZE = DataSize.ofKilobytes(4);
+    private static final int CAPACITY = 3;
+
+    @TempDir
+    Path directory;
+
+    private SimpleMeterRegistry meterRegistry;
+    private AdvertisementWriteBehindQueue queue;
+
+    @BeforeEach
+    public void setUp() throws IOException {
+        queue = open();
+    }
+
+    @AfterEach
+    public void tearDown() throws IOException {
+        queue.close();
+    }
+
+    @Test
+    void enqueueAndPeek_OK() {
+        AdvertisementDocument ad1 = document("ad1", NOW, NOW.plusSeconds(60));
+        ad1.setWeight(4);
+        ad1.markModified(NOW);
+        queue.enqueue(ad1);
+        queue.enqueue(document("ad2", NOW, NOW.plusSeconds(60)));
+
+        assertEquals(List.of(ad1), queue.peek(1));
+        assertEquals(List.of(ad1, document("ad2", NOW, NOW.plusSeconds(60))), queue.peek(10));
+        assertEquals(new AdvertisementPersistence("ad1", PersistenceStatus.PENDING, null), queue.status("ad1"));
+        assertNull(queue.status("ad3"));
+        assertEquals(2, meterRegistry.get("advertisement.write-behind.pending").gauge().value());
+    }
+
+    @Test
+    void enqueue_full_KO() {
+        for (int i = 0; i < CAPACITY; i++) {
+            queue.enqueue(document("ad" + i, NOW, NOW.plusSeconds(60)));
+        }
+
+        assertThrows(ServiceOverloadedException.class, () -> queue.enqueue(document("ad" + CAPACITY, NOW, NOW.plusSeconds(60))));
+        queue.complete(List.of("ad0"), Map.of());
+        queue.enqueue(document("ad" + CAPACITY, NOW, NOW.plusSeconds(60)));
+        assertEquals(CAPACITY, queue.size());
+    }
+
+    @Test
+    void complete_OK() {
+        queue.enqueue(document("ad1", NOW, NOW.plusSeconds(60)));
+        queue.enqueue(document("ad2", NOW, NOW.plusSeconds(60)));
+        queue.enqueue(document("ad3", NOW, NOW.plusSeconds(60)));
+
+        queue.complete(List.of("ad1"), Map.of("ad2", "document too large"));
+
+        assertEquals(List.of(document("ad3", NOW, NOW.plusSeconds(60))), queue.peek(10));
+        assertEquals(new AdvertisementPersistence("ad1", PersistenceStatus.PERSISTED, null), queue.status("ad1"));
+        assertEquals(new AdvertisementPersistence("ad2", PersistenceStatus.FAILED, "document too large"), queue.status("ad2"));
+        assertEquals(1, meterRegistry.get("advertisement.write-behind.written").tag("result", "persisted").counter().count());
+        assertEquals(1, meterRegistry.get("advertisement.write-behind.written").tag("result", "failed").counter().count());
+    }
+
+    @Test
+    void reopen_replaysPendingOnly() throws IOException {
+        queue.enqueue(document("ad1", NOW, NOW.plusSeconds(60)));
+        queue.enqueue(document("ad2", NOW, NOW.plusSeconds(60)));
+        queue.enqueue(document("ad3", NOW, NOW.plusSeconds(60)));
+        queue.complete(List.of("ad2"), Map.of());
+        queue.close();
+
+        queue = open();
+
+        assertEquals(List.of(document("ad1", NOW, NOW.plusSeconds(60)), document("ad3", NOW, NOW.plusSeconds(60))), queue.peek(10));
+        assertEquals(PersistenceStatus.PENDING, queue.status("ad3").status());
+    }
+
+    @Test
+    void complete_manyAdvertisements_compactsJournal() throws IOException {
+        for (int i = 0; i < 100; i++) {
+            queue.enqueue(document("ad" + i, NOW, NOW.plusSeconds(60)));
+            queue.enqueue(document("other" + i, NOW, NOW.plusSeconds(60)));
+            queue.complete(List.of("ad" + i, "other" + i), Map.of());
+        }
+        queue.enqueue(document("last", NOW, NOW.plusSeconds(60)));
+        queue.close();
+
+        queue = open();
+
+        assertEquals(List.of(document("last", NOW, NOW.plusSeconds(60))), queue.peek(10));
+        assertTrue(segmentFiles() <= 2);
+    }
+
+    private AdvertisementWriteBehindQueue open() throws IOException {
+        meterRegistry = new SimpleMeterRegistry();
+        return new AdvertisementWriteBehindQueue(directory, CAPACITY, SEGMENT_SIZE, false, Duration.ofMinutes(1), meterRegistry);
+    }
+
+    private long segmentFiles() throws IOException {
+        try (Stream<Path> files = Files.list(directory)) {
+            return files.count();
+        }
+    }
+}